@@ -0,0 +1,738 @@
+package io.github.seerainer.csvedit.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import io.github.seerainer.csvedit.model.CSVTableModel;
+
+/**
+ * Utility class for reading and writing Apache Arrow IPC files (Feather v2).
+ * The format is implemented directly on its FlatBuffers metadata, so no Arrow
+ * runtime is needed. Columns are written as 64-bit integer, double or boolean
+ * vectors when every value converts back to the same text, and as Utf8
+ * otherwise, with one record batch per block of rows.
+ */
+public class ArrowOperations {
+
+    private static final byte[] MAGIC = "ARROW1".getBytes(StandardCharsets.US_ASCII);
+    private static final int CONTINUATION = 0xFFFFFFFF;
+    private static final int METADATA_V5 = 4;
+
+    // Message header and type union members, as numbered by the Arrow schema
+    private static final int HEADER_SCHEMA = 1;
+    private static final int HEADER_DICTIONARY_BATCH = 2;
+    private static final int HEADER_RECORD_BATCH = 3;
+    private static final int TYPE_NULL = 1;
+    private static final int TYPE_INT = 2;
+    private static final int TYPE_FLOATING_POINT = 3;
+    private static final int TYPE_BINARY = 4;
+    private static final int TYPE_UTF8 = 5;
+    private static final int TYPE_BOOL = 6;
+    private static final int TYPE_DATE = 8;
+    private static final int TYPE_TIMESTAMP = 10;
+    private static final int TYPE_LARGE_BINARY = 19;
+    private static final int TYPE_LARGE_UTF8 = 20;
+    private static final int PRECISION_HALF = 0;
+    private static final int PRECISION_SINGLE = 1;
+    private static final int PRECISION_DOUBLE = 2;
+    private static final int DATE_UNIT_DAY = 0;
+    private static final int DATE_UNIT_MILLISECOND = 1;
+    private static final int CODEC_LZ4_FRAME = 0;
+
+    private ArrowOperations() {
+	throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Checks if a file name has an Arrow IPC extension (.arrow, .feather or
+     * .arrows for the stream format)
+     */
+    public static boolean isArrowFile(final String fileName) {
+	final var lowerCase = fileName.toLowerCase();
+	return lowerCase.endsWith(".arrow") || lowerCase.endsWith(".feather") || lowerCase.endsWith(".arrows");
+    }
+
+    /**
+     * Loads an Arrow IPC file or stream into the model
+     */
+    public static void loadArrow(final String filePath, final CSVTableModel model) throws IOException {
+	loadArrow(filePath, model, _ -> {
+	}, () -> false);
+    }
+
+    /**
+     * Loads an Arrow IPC file or stream into the model one record batch at a
+     * time, decoding the columns of a batch in parallel. Typed values are
+     * converted to text and nulls become empty strings. Stops early when
+     * cancelled, keeping the rows read so far.
+     *
+     * @param progress  notified with the number of rows loaded after each batch
+     * @param cancelled checked before each batch
+     * @return the number of rows loaded
+     */
+    public static int loadArrow(final String filePath, final CSVTableModel model, final IntConsumer progress,
+	    final BooleanSupplier cancelled) throws IOException {
+	model.clear();
+	var rowCount = 0;
+	try (var channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+	    if (hasMagic(channel)) {
+		final var footer = readFooter(channel);
+		final var columns = readSchema(footer.getTable(1));
+		model.setHeaders(columnNames(columns));
+		if (footer.getVectorLength(2) > 0) {
+		    throw new IOException("Failed to read Arrow file: dictionary-encoded columns are not supported");
+		}
+		final var batchCount = footer.getVectorLength(3);
+		for (var i = 0; i < batchCount && !cancelled.getAsBoolean(); i++) {
+		    final var message = readMessage(channel, footer.getVectorStructLong(3, i, 24, 0));
+		    if (message == null || message.headerType != HEADER_RECORD_BATCH) {
+			throw new IOException("Failed to read Arrow file: record batch expected");
+		    }
+		    rowCount += readRecordBatch(channel, message, columns, model);
+		    progress.accept(rowCount);
+		}
+	    } else {
+		rowCount = readStream(channel, model, progress, cancelled);
+	    }
+	}
+	model.normalize();
+	return rowCount;
+    }
+
+    /**
+     * Saves the model to an Arrow IPC file, reporting the rows written. Record
+     * batches are encoded in parallel and written to a temporary file that
+     * replaces the target once complete.
+     */
+    public static void saveArrow(final String filePath, final CSVTableModel model,
+	    final FileOperations.SaveProgressCallback callback) throws IOException {
+	final var rowCount = model.getRowCount();
+	final var headers = model.getHeaders();
+	final var columns = IntStream.range(0, model.getColumnCount()).parallel()
+		.mapToObj(j -> inferColumn(model, j, j < headers.size() ? headers.get(j) : "Column " + (j + 1)))
+		.toList();
+	final var blockCount = ParallelBlockWriter.blockCount(rowCount);
+	final var metadataLengths = new int[blockCount];
+	final var bodyLengths = new long[blockCount];
+
+	final var target = Paths.get(filePath).toAbsolutePath();
+	final var temp = FileOperations.createTempFile(target);
+	try {
+	    try (var channel = FileChannel.open(temp, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+		final var header = ByteBuffer.allocate(8).put(MAGIC).array();
+		writeFully(channel, header);
+		writeFully(channel, encapsulate(encodeSchemaMessage(columns), 0));
+		final var firstBatch = channel.position();
+		ParallelBlockWriter.write(channel, blockCount,
+			block -> encodeRecordBatch(model, columns, block, metadataLengths, bodyLengths),
+			block -> callback.onProgress(ParallelBlockWriter.blockEnd(block, rowCount), rowCount));
+		writeFully(channel, encodeFooter(columns, firstBatch, metadataLengths, bodyLengths));
+	    }
+	    FileOperations.replaceAtomically(temp, target);
+	} catch (final IOException e) {
+	    Files.deleteIfExists(temp);
+	    throw new IOException("Failed to write Arrow file: " + e.getMessage(), e);
+	}
+    }
+
+    private static Column inferColumn(final CSVTableModel model, final int col, final String name) {
+	return new Column(name, switch (ColumnType.infer(model, col)) {
+	case INTEGER -> TYPE_INT;
+	case DOUBLE -> TYPE_FLOATING_POINT;
+	case BOOLEAN -> TYPE_BOOL;
+	case TEXT -> TYPE_UTF8;
+	});
+    }
+
+    private static byte[] encodeSchemaMessage(final List<Column> columns) {
+	final var builder = new FlatBufferBuilder();
+	final var schema = addSchema(builder, columns);
+	return finishMessage(builder, HEADER_SCHEMA, schema, 0);
+    }
+
+    private static int addSchema(final FlatBufferBuilder builder, final List<Column> columns) {
+	final var fields = new int[columns.size()];
+	for (var i = 0; i < fields.length; i++) {
+	    final var column = columns.get(i);
+	    final var name = builder.createString(column.name);
+	    final var type = addType(builder, column.type);
+	    final var children = builder.createOffsetVector(new int[0]);
+	    builder.startTable(7);
+	    builder.addFieldOffset(0, name);
+	    builder.addFieldByte(1, 1); // nullable
+	    builder.addFieldByte(2, column.type);
+	    builder.addFieldOffset(3, type);
+	    builder.addFieldOffset(5, children);
+	    fields[i] = builder.endTable();
+	}
+	final var fieldVector = builder.createOffsetVector(fields);
+	builder.startTable(4);
+	builder.addFieldShort(0, 0); // little-endian
+	builder.addFieldOffset(1, fieldVector);
+	return builder.endTable();
+    }
+
+    private static int addType(final FlatBufferBuilder builder, final int type) {
+	switch (type) {
+	case TYPE_INT -> {
+	    builder.startTable(2);
+	    builder.addFieldInt(0, 64);
+	    builder.addFieldByte(1, 1); // signed
+	}
+	case TYPE_FLOATING_POINT -> {
+	    builder.startTable(1);
+	    builder.addFieldShort(0, PRECISION_DOUBLE);
+	}
+	default -> builder.startTable(0);
+	}
+	return builder.endTable();
+    }
+
+    private static byte[] finishMessage(final FlatBufferBuilder builder, final int headerType, final int header,
+	    final long bodyLength) {
+	builder.startTable(5);
+	builder.addFieldLong(3, bodyLength);
+	builder.addFieldOffset(2, header);
+	builder.addFieldShort(0, METADATA_V5);
+	builder.addFieldByte(1, headerType);
+	return builder.finish(builder.endTable());
+    }
+
+    /**
+     * Prefixes message metadata with the continuation marker and its length,
+     * padded so that the body starts 8-byte aligned
+     */
+    private static byte[] encapsulate(final byte[] metadata, final int bodyLength) {
+	final var paddedLength = metadata.length + 7 & ~7;
+	final var message = ByteBuffer.allocate(8 + paddedLength + bodyLength).order(ByteOrder.LITTLE_ENDIAN);
+	message.putInt(CONTINUATION).putInt(paddedLength).put(metadata);
+	return message.array();
+    }
+
+    private static byte[] encodeRecordBatch(final CSVTableModel model, final List<Column> columns, final int block,
+	    final int[] metadataLengths, final long[] bodyLengths) {
+	final var start = ParallelBlockWriter.blockStart(block);
+	final var length = ParallelBlockWriter.blockEnd(block, model.getRowCount()) - start;
+	final var body = new BodyWriter();
+	final var nullCounts = new long[columns.size()];
+	for (var j = 0; j < columns.size(); j++) {
+	    nullCounts[j] = encodeColumn(model, columns.get(j), j, start, length, body);
+	}
+
+	final var builder = new FlatBufferBuilder();
+	final var bufferCount = body.buffers.size() / 2;
+	builder.startVector(16, bufferCount, 8);
+	for (var i = bufferCount - 1; i >= 0; i--) {
+	    builder.prep(8, 16);
+	    builder.putLong(body.buffers.get(2 * i + 1).longValue());
+	    builder.putLong(body.buffers.get(2 * i).longValue());
+	}
+	final var buffers = builder.endVector(bufferCount);
+	builder.startVector(16, columns.size(), 8);
+	for (var j = columns.size() - 1; j >= 0; j--) {
+	    builder.prep(8, 16);
+	    builder.putLong(nullCounts[j]);
+	    builder.putLong(length);
+	}
+	final var nodes = builder.endVector(columns.size());
+	builder.startTable(4);
+	builder.addFieldLong(0, length);
+	builder.addFieldOffset(1, nodes);
+	builder.addFieldOffset(2, buffers);
+	final var recordBatch = builder.endTable();
+
+	final var metadata = finishMessage(builder, HEADER_RECORD_BATCH, recordBatch, body.size());
+	final var message = encapsulate(metadata, body.size());
+	final var metadataLength = message.length - body.size();
+	System.arraycopy(body.bytes, 0, message, metadataLength, body.size());
+	metadataLengths[block] = metadataLength;
+	bodyLengths[block] = body.size();
+	return message;
+    }
+
+    /**
+     * Appends the buffers of one column of a record batch to the body
+     *
+     * @return the number of nulls
+     */
+    private static long encodeColumn(final CSVTableModel model, final Column column, final int col, final int start,
+	    final int length, final BodyWriter body) {
+	final var validity = new byte[length + 7 >> 3];
+	final var values = new String[length];
+	var nullCount = 0;
+	for (var i = 0; i < length; i++) {
+	    final var value = model.getValue(start + i, col);
+	    if (value == null || (value.isEmpty() && column.type != TYPE_UTF8)) {
+		nullCount++;
+	    } else {
+		validity[i >> 3] |= (byte) (1 << (i & 7));
+		values[i] = value;
+	    }
+	}
+	// A batch without nulls may omit its validity bitmap
+	body.addBuffer(nullCount > 0 ? validity : new byte[0]);
+
+	switch (column.type) {
+	case TYPE_INT -> {
+	    final var data = ByteBuffer.allocate(length * 8).order(ByteOrder.LITTLE_ENDIAN);
+	    for (final var value : values) {
+		data.putLong(value != null ? Long.parseLong(value) : 0);
+	    }
+	    body.addBuffer(data.array());
+	}
+	case TYPE_FLOATING_POINT -> {
+	    final var data = ByteBuffer.allocate(length * 8).order(ByteOrder.LITTLE_ENDIAN);
+	    for (final var value : values) {
+		data.putDouble(value != null ? Double.parseDouble(value) : 0);
+	    }
+	    body.addBuffer(data.array());
+	}
+	case TYPE_BOOL -> {
+	    final var data = new byte[length + 7 >> 3];
+	    for (var i = 0; i < length; i++) {
+		if ("true".equals(values[i])) {
+		    data[i >> 3] |= (byte) (1 << (i & 7));
+		}
+	    }
+	    body.addBuffer(data);
+	}
+	default -> {
+	    final var offsets = ByteBuffer.allocate((length + 1) * 4).order(ByteOrder.LITTLE_ENDIAN);
+	    final var text = new BodyWriter();
+	    offsets.putInt(0);
+	    for (final var value : values) {
+		if (value != null) {
+		    text.write(value.getBytes(StandardCharsets.UTF_8));
+		}
+		offsets.putInt(text.size());
+	    }
+	    body.addBuffer(offsets.array());
+	    body.addBuffer(Arrays.copyOf(text.bytes, text.size()));
+	}
+	}
+	return nullCount;
+    }
+
+    private static byte[] encodeFooter(final List<Column> columns, final long firstBatch, final int[] metadataLengths,
+	    final long[] bodyLengths) {
+	final var offsets = new long[metadataLengths.length];
+	var offset = firstBatch;
+	for (var i = 0; i < offsets.length; i++) {
+	    offsets[i] = offset;
+	    offset += metadataLengths[i] + bodyLengths[i];
+	}
+
+	final var builder = new FlatBufferBuilder();
+	final var schema = addSchema(builder, columns);
+	builder.startVector(24, 0, 8);
+	final var dictionaries = builder.endVector(0);
+	builder.startVector(24, offsets.length, 8);
+	for (var i = offsets.length - 1; i >= 0; i--) {
+	    builder.prep(8, 24);
+	    builder.putLong(bodyLengths[i]);
+	    builder.putInt(0); // padding
+	    builder.putInt(metadataLengths[i]);
+	    builder.putLong(offsets[i]);
+	}
+	final var recordBatches = builder.endVector(offsets.length);
+	builder.startTable(5);
+	builder.addFieldOffset(1, schema);
+	builder.addFieldOffset(2, dictionaries);
+	builder.addFieldOffset(3, recordBatches);
+	builder.addFieldShort(0, METADATA_V5);
+	final var footer = builder.finish(builder.endTable());
+
+	// End-of-stream marker, footer, footer length and closing magic
+	final var trailer = ByteBuffer.allocate(8 + footer.length + 4 + MAGIC.length).order(ByteOrder.LITTLE_ENDIAN);
+	trailer.putInt(CONTINUATION).putInt(0).put(footer).putInt(footer.length).put(MAGIC);
+	return trailer.array();
+    }
+
+    private static boolean hasMagic(final FileChannel channel) throws IOException {
+	final var header = ByteBuffer.allocate(MAGIC.length);
+	channel.read(header, 0);
+	return Arrays.equals(header.array(), MAGIC);
+    }
+
+    private static FlatBufferTable readFooter(final FileChannel channel) throws IOException {
+	final var size = channel.size();
+	if (size < 2L * MAGIC.length + 4) {
+	    throw new IOException("Failed to read Arrow file: missing footer");
+	}
+	final var trailer = readBytes(channel, size - 4 - MAGIC.length, 4 + MAGIC.length);
+	if (!Arrays.equals(trailer, 4, trailer.length, MAGIC, 0, MAGIC.length)) {
+	    throw new IOException("Failed to read Arrow file: missing footer");
+	}
+	final var footerLength = ByteBuffer.wrap(trailer).order(ByteOrder.LITTLE_ENDIAN).getInt(0);
+	if (footerLength <= 0 || footerLength > size - 2L * MAGIC.length - 4) {
+	    throw new IOException("Failed to read Arrow file: invalid footer length");
+	}
+	return FlatBufferTable.root(readBytes(channel, size - 4 - MAGIC.length - footerLength, footerLength));
+    }
+
+    private static int readStream(final FileChannel channel, final CSVTableModel model, final IntConsumer progress,
+	    final BooleanSupplier cancelled) throws IOException {
+	List<Column> columns = null;
+	var rowCount = 0;
+	var position = 0L;
+	Message message;
+	while (!cancelled.getAsBoolean() && (message = readMessage(channel, position)) != null) {
+	    switch (message.headerType) {
+	    case HEADER_SCHEMA -> {
+		columns = readSchema(message.table.getTable(2));
+		model.setHeaders(columnNames(columns));
+	    }
+	    case HEADER_RECORD_BATCH -> {
+		if (columns == null) {
+		    throw new IOException("Failed to read Arrow stream: record batch before schema");
+		}
+		rowCount += readRecordBatch(channel, message, columns, model);
+		progress.accept(rowCount);
+	    }
+	    case HEADER_DICTIONARY_BATCH ->
+		throw new IOException("Failed to read Arrow stream: dictionary-encoded columns are not supported");
+	    default -> { /* Skip other messages */
+	    }
+	    }
+	    position = message.bodyOffset + message.bodyLength;
+	}
+	return rowCount;
+    }
+
+    /**
+     * Reads the message at a position, or null at the end of the stream
+     */
+    private static Message readMessage(final FileChannel channel, final long position) throws IOException {
+	if (position + 8 > channel.size()) {
+	    return null;
+	}
+	final var prefix = ByteBuffer.wrap(readBytes(channel, position, 8)).order(ByteOrder.LITTLE_ENDIAN);
+	var metadataStart = position + 8;
+	var metadataLength = prefix.getInt(4);
+	if (prefix.getInt(0) != CONTINUATION) {
+	    // Streams written before Arrow 0.15 have no continuation marker
+	    metadataStart = position + 4;
+	    metadataLength = prefix.getInt(0);
+	}
+	if (metadataLength == 0) {
+	    return null;
+	}
+	if (metadataLength < 0 || metadataStart + metadataLength > channel.size()) {
+	    throw new IOException("Failed to read Arrow file: invalid message length");
+	}
+	final var table = FlatBufferTable.root(readBytes(channel, metadataStart, metadataLength));
+	return new Message(table, metadataStart + metadataLength);
+    }
+
+    private static List<Column> readSchema(final FlatBufferTable schema) throws IOException {
+	if (schema == null) {
+	    throw new IOException("Failed to read Arrow file: missing schema");
+	}
+	final var fieldCount = schema.getVectorLength(1);
+	final List<Column> columns = new ArrayList<>(fieldCount);
+	for (var i = 0; i < fieldCount; i++) {
+	    final var field = schema.getVectorTable(1, i);
+	    final var name = field.getString(0);
+	    final var column = new Column(name != null ? name : "Column " + (i + 1), field.getByte(2, 0));
+	    final var type = field.getTable(3);
+	    if (field.has(4)) {
+		throw new IOException("Failed to read Arrow file: column '" + column.name + "' is dictionary-encoded");
+	    }
+	    if (field.getVectorLength(5) > 0 || !isSupported(column.type)) {
+		throw new IOException("Failed to read Arrow file: column '" + column.name + "' has an unsupported type");
+	    }
+	    if (type != null) {
+		switch (column.type) {
+		case TYPE_INT -> {
+		    column.bitWidth = type.getInt(0, 0);
+		    column.signed = type.getBool(1);
+		}
+		case TYPE_FLOATING_POINT -> column.precision = type.getShort(0, PRECISION_HALF);
+		case TYPE_DATE -> column.unit = type.getShort(0, DATE_UNIT_MILLISECOND);
+		case TYPE_TIMESTAMP -> {
+		    column.unit = type.getShort(0, 0);
+		    column.timezone = type.getString(1);
+		}
+		default -> { /* No parameters */
+		}
+		}
+	    }
+	    columns.add(column);
+	}
+	return columns;
+    }
+
+    private static boolean isSupported(final int type) {
+	return switch (type) {
+	case TYPE_NULL, TYPE_INT, TYPE_FLOATING_POINT, TYPE_BINARY, TYPE_UTF8, TYPE_BOOL, TYPE_DATE, TYPE_TIMESTAMP,
+		TYPE_LARGE_BINARY, TYPE_LARGE_UTF8 ->
+	    true;
+	default -> false;
+	};
+    }
+
+    private static List<String> columnNames(final List<Column> columns) {
+	final List<String> names = new ArrayList<>(columns.size());
+	columns.forEach(column -> names.add(column.name));
+	return names;
+    }
+
+    /**
+     * Decodes a record batch and appends its rows to the model
+     *
+     * @return the number of rows appended
+     */
+    private static int readRecordBatch(final FileChannel channel, final Message message, final List<Column> columns,
+	    final CSVTableModel model) throws IOException {
+	final var recordBatch = message.table.getTable(2);
+	if (message.bodyLength > Integer.MAX_VALUE) {
+	    throw new IOException("Failed to read Arrow file: record batch too large");
+	}
+	final var length = (int) recordBatch.getLong(0, 0);
+	final var body = channel.map(FileChannel.MapMode.READ_ONLY, message.bodyOffset, message.bodyLength)
+		.order(ByteOrder.LITTLE_ENDIAN);
+	final var compression = recordBatch.getTable(3);
+	final var codec = compression == null ? CompressionCodec.NONE
+		: compression.getByte(0, CODEC_LZ4_FRAME) == CODEC_LZ4_FRAME ? CompressionCodec.LZ4
+			: CompressionCodec.ZSTD;
+
+	// Each column starts at the buffer after those of the columns before it
+	final var firstBuffers = new int[columns.size()];
+	for (var j = 1; j < firstBuffers.length; j++) {
+	    firstBuffers[j] = firstBuffers[j - 1] + bufferCount(columns.get(j - 1).type);
+	}
+	final String[][] values;
+	try {
+	    values = IntStream.range(0, columns.size()).parallel().mapToObj(j -> {
+		try {
+		    return decodeColumn(columns.get(j), recordBatch, j, firstBuffers[j], body, codec, length);
+		} catch (final IOException e) {
+		    throw new UncheckedIOException(e);
+		}
+	    }).toArray(String[][]::new);
+	} catch (final UncheckedIOException e) {
+	    throw e.getCause();
+	}
+
+	final List<List<String>> rows = new ArrayList<>(length);
+	for (var i = 0; i < length; i++) {
+	    final List<String> row = new ArrayList<>(values.length);
+	    for (final var column : values) {
+		row.add(column[i] != null ? column[i] : "");
+	    }
+	    rows.add(row);
+	}
+	model.appendRows(rows);
+	return length;
+    }
+
+    private static int bufferCount(final int type) {
+	return switch (type) {
+	case TYPE_NULL -> 0;
+	case TYPE_BINARY, TYPE_UTF8, TYPE_LARGE_BINARY, TYPE_LARGE_UTF8 -> 3;
+	default -> 2;
+	};
+    }
+
+    private static String[] decodeColumn(final Column column, final FlatBufferTable recordBatch, final int node,
+	    final int firstBuffer, final ByteBuffer body, final CompressionCodec codec, final int length)
+	    throws IOException {
+	final var values = new String[length];
+	if (column.type == TYPE_NULL) {
+	    return values;
+	}
+	final var nullCount = recordBatch.getVectorStructLong(1, node, 16, 8);
+	final var validity = nullCount > 0 ? readBuffer(recordBatch, firstBuffer, body, codec) : null;
+	final var data = readBuffer(recordBatch, firstBuffer + 1, body, codec);
+	final var variable = bufferCount(column.type) == 3;
+	final var text = variable ? toArray(readBuffer(recordBatch, firstBuffer + 2, body, codec)) : null;
+	for (var i = 0; i < length; i++) {
+	    if (validity == null || (validity.get(i >> 3) >> (i & 7) & 1) != 0) {
+		values[i] = variable ? decodeVariable(column.type, data, text, i) : decodeFixed(column, data, i);
+	    }
+	}
+	return values;
+    }
+
+    private static String decodeVariable(final int type, final ByteBuffer offsets, final byte[] text, final int i) {
+	final var large = type == TYPE_LARGE_UTF8 || type == TYPE_LARGE_BINARY;
+	final var start = (int) (large ? offsets.getLong(i * 8) : offsets.getInt(i * 4));
+	final var end = (int) (large ? offsets.getLong(i * 8 + 8) : offsets.getInt(i * 4 + 4));
+	if (type == TYPE_BINARY || type == TYPE_LARGE_BINARY) {
+	    return HexFormat.of().formatHex(text, start, end);
+	}
+	return new String(text, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    private static String decodeFixed(final Column column, final ByteBuffer data, final int i) {
+	return switch (column.type) {
+	case TYPE_INT -> switch (column.bitWidth) {
+	case 8 -> Integer.toString(column.signed ? data.get(i) : data.get(i) & 0xFF);
+	case 16 -> Integer.toString(column.signed ? data.getShort(i * 2) : data.getShort(i * 2) & 0xFFFF);
+	case 32 -> column.signed ? Integer.toString(data.getInt(i * 4)) : Integer.toUnsignedString(data.getInt(i * 4));
+	default -> column.signed ? Long.toString(data.getLong(i * 8)) : Long.toUnsignedString(data.getLong(i * 8));
+	};
+	case TYPE_FLOATING_POINT -> switch (column.precision) {
+	case PRECISION_HALF -> Float.toString(Float.float16ToFloat(data.getShort(i * 2)));
+	case PRECISION_SINGLE -> Float.toString(data.getFloat(i * 4));
+	default -> Double.toString(data.getDouble(i * 8));
+	};
+	case TYPE_BOOL -> Boolean.toString((data.get(i >> 3) >> (i & 7) & 1) != 0);
+	case TYPE_DATE -> column.unit == DATE_UNIT_DAY ? LocalDate.ofEpochDay(data.getInt(i * 4)).toString()
+		: LocalDate.ofEpochDay(Math.floorDiv(data.getLong(i * 8), 86_400_000L)).toString();
+	case TYPE_TIMESTAMP -> decodeTimestamp(column, data.getLong(i * 8));
+	default -> "";
+	};
+    }
+
+    private static String decodeTimestamp(final Column column, final long value) {
+	// Units are seconds, milliseconds, microseconds and nanoseconds
+	final var perSecond = switch (column.unit) {
+	case 0 -> 1L;
+	case 1 -> 1_000L;
+	case 2 -> 1_000_000L;
+	default -> 1_000_000_000L;
+	};
+	final var seconds = Math.floorDiv(value, perSecond);
+	final var nanos = (int) (Math.floorMod(value, perSecond) * (1_000_000_000L / perSecond));
+	if (column.timezone != null) {
+	    return Instant.ofEpochSecond(seconds, nanos).toString();
+	}
+	return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC).toString();
+    }
+
+    /**
+     * Gets a buffer of the body, decompressing it if the batch is compressed.
+     * Compressed buffers start with their uncompressed length, or -1 if they were
+     * stored uncompressed.
+     */
+    private static ByteBuffer readBuffer(final FlatBufferTable recordBatch, final int index, final ByteBuffer body,
+	    final CompressionCodec codec) throws IOException {
+	final var offset = (int) recordBatch.getVectorStructLong(2, index, 16, 0);
+	final var length = (int) recordBatch.getVectorStructLong(2, index, 16, 8);
+	if (codec == CompressionCodec.NONE || length == 0) {
+	    return body.slice(offset, length).order(ByteOrder.LITTLE_ENDIAN);
+	}
+	final var uncompressedLength = body.getLong(offset);
+	if (uncompressedLength == -1) {
+	    return body.slice(offset + 8, length - 8).order(ByteOrder.LITTLE_ENDIAN);
+	}
+	final var compressed = new byte[length - 8];
+	body.get(offset + 8, compressed);
+	try (var in = codec.wrap(new ByteArrayInputStream(compressed))) {
+	    return ByteBuffer.wrap(in.readNBytes((int) uncompressedLength)).order(ByteOrder.LITTLE_ENDIAN);
+	}
+    }
+
+    private static byte[] toArray(final ByteBuffer buffer) {
+	final var bytes = new byte[buffer.remaining()];
+	buffer.get(0, bytes);
+	return bytes;
+    }
+
+    private static byte[] readBytes(final FileChannel channel, final long position, final int length)
+	    throws IOException {
+	final var buffer = ByteBuffer.allocate(length);
+	while (buffer.hasRemaining()) {
+	    if (channel.read(buffer, position + buffer.position()) < 0) {
+		throw new IOException("Failed to read Arrow file: unexpected end of file");
+	    }
+	}
+	return buffer.array();
+    }
+
+    private static void writeFully(final FileChannel channel, final byte[] bytes) throws IOException {
+	final var buffer = ByteBuffer.wrap(bytes);
+	while (buffer.hasRemaining()) {
+	    channel.write(buffer);
+	}
+    }
+
+    /**
+     * A column of the schema with the parameters of its type
+     */
+    private static class Column {
+	private final String name;
+	private final int type;
+	private int bitWidth = 64;
+	private boolean signed = true;
+	private int precision = PRECISION_DOUBLE;
+	private int unit;
+	private String timezone;
+
+	private Column(final String name, final int type) {
+	    this.name = name;
+	    this.type = type;
+	}
+    }
+
+    /**
+     * Metadata of a message and the position of its body
+     */
+    private static class Message {
+	private final FlatBufferTable table;
+	private final int headerType;
+	private final long bodyOffset;
+	private final long bodyLength;
+
+	private Message(final FlatBufferTable table, final long bodyOffset) {
+	    this.table = table;
+	    this.headerType = table.getByte(1, 0);
+	    this.bodyOffset = bodyOffset;
+	    this.bodyLength = table.getLong(3, 0);
+	}
+    }
+
+    /**
+     * Growable little-endian body of a record batch that records the offset and
+     * length of each buffer, padding buffers to 8 bytes
+     */
+    private static class BodyWriter {
+	private final List<Long> buffers = new ArrayList<>();
+	private byte[] bytes = new byte[1024];
+	private int size;
+
+	private void addBuffer(final byte[] data) {
+	    buffers.add(Long.valueOf(size));
+	    buffers.add(Long.valueOf(data.length));
+	    write(data);
+	    size = size + 7 & ~7;
+	    ensureCapacity(size);
+	}
+
+	private void write(final byte[] data) {
+	    ensureCapacity(size + data.length);
+	    System.arraycopy(data, 0, bytes, size, data.length);
+	    size += data.length;
+	}
+
+	private void ensureCapacity(final int capacity) {
+	    if (capacity > bytes.length) {
+		bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length * 2));
+	    }
+	}
+
+	private int size() {
+	    return size;
+	}
+    }
+}
@@ -0,0 +1,135 @@
+package io.github.seerainer.csvedit.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import io.github.seerainer.csvedit.model.CSVTableModel;
+
+/**
+ * Saves CSV files on a background thread. Saves and edit journal writes are
+ * queued and run one at a time, each save on its own snapshot of the model,
+ * and replace the target file atomically.
+ */
+public class AsyncSaveService {
+
+    private final ExecutorService executor;
+
+    public AsyncSaveService() {
+	this.executor = Executors.newSingleThreadExecutor(r -> {
+	    final var thread = new Thread(r, "CSV-Saver");
+	    thread.setDaemon(true);
+	    return thread;
+	});
+    }
+
+    /**
+     * Takes a snapshot of the model and saves it in the background. Must be
+     * called on the thread that modifies the model.
+     */
+    public CompletableFuture<CSVFileSource> save(final String filePath, final CSVTableModel model,
+	    final FileOperations.SaveProgressCallback callback) {
+	return save(filePath, model, null, callback);
+    }
+
+    /**
+     * Takes a snapshot of the model and saves it in the background, rewriting
+     * only the modified rows if the target is the given, unchanged source file.
+     * Must be called on the thread that modifies the model.
+     */
+    public CompletableFuture<CSVFileSource> save(final String filePath, final CSVTableModel model,
+	    final CSVFileSource source, final FileOperations.SaveProgressCallback callback) {
+	return save(filePath, model, source, null, callback);
+    }
+
+    /**
+     * Takes a snapshot of the model and saves it in the background, then folds
+     * the journal into the saved file. If the save fails, the journal's pending
+     * edits are written instead so they are not lost. Must be called on the
+     * thread that modifies the model.
+     */
+    public CompletableFuture<CSVFileSource> save(final String filePath, final CSVTableModel model,
+	    final CSVFileSource source, final EditJournal journal, final FileOperations.SaveProgressCallback callback) {
+	final var snapshot = model.copy();
+	final var batch = journal != null ? journal.drain() : null;
+	return CompletableFuture.supplyAsync(() -> {
+	    try {
+		final var saved = FileOperations.saveCSV(filePath, snapshot, source, callback);
+		if (journal != null) {
+		    journal.restart(saved);
+		}
+		return saved;
+	    } catch (final IOException e) {
+		if (journal != null) {
+		    try {
+			journal.write(batch);
+		    } catch (final IOException journalError) {
+			e.addSuppressed(journalError);
+		    }
+		}
+		throw new UncheckedIOException(e);
+	    }
+	}, executor);
+    }
+
+    /**
+     * Takes a snapshot of the model and exports it in the background, after any
+     * queued saves. Must be called on the thread that modifies the model.
+     */
+    public CompletableFuture<Void> export(final CSVTableModel model, final Exporter exporter) {
+	final var snapshot = model.copy();
+	return CompletableFuture.runAsync(() -> {
+	    try {
+		exporter.export(snapshot);
+	    } catch (final IOException e) {
+		throw new UncheckedIOException(e);
+	    }
+	}, executor);
+    }
+
+    /**
+     * Writes the journal's pending edits in the background, after any queued
+     * saves. Must be called on the thread that modifies the model.
+     */
+    public CompletableFuture<Void> flushJournal(final EditJournal journal) {
+	final var batch = journal.drain();
+	return CompletableFuture.runAsync(() -> {
+	    try {
+		journal.write(batch);
+	    } catch (final IOException e) {
+		throw new UncheckedIOException(e);
+	    }
+	}, executor);
+    }
+
+    /**
+     * Deletes the journal file in the background, after any queued saves and
+     * journal writes
+     */
+    public CompletableFuture<Void> deleteJournal(final EditJournal journal) {
+	return CompletableFuture.runAsync(() -> {
+	    try {
+		journal.delete();
+	    } catch (final IOException e) {
+		throw new UncheckedIOException(e);
+	    }
+	}, executor);
+    }
+
+    /**
+     * Stops accepting saves; queued saves still complete
+     */
+    public void shutdown() {
+	executor.shutdown();
+    }
+
+    /**
+     * Writes a snapshot of the model to a file in another format
+     */
+    @FunctionalInterface
+    public interface Exporter {
+	void export(CSVTableModel snapshot) throws IOException;
+    }
+}
@@ -34,6 +34,23 @@ public class CSVConfigurationFactory {
 		.build();
     }
 
+    /**
+     * Creates a CSV configuration from a detected dialect, taking the remaining
+     * options from current settings
+     */
+    public static CSVConfiguration createConfiguration(final CSVDialect dialect) {
+	return CSVConfiguration.builder()
+		.delimiter(dialect.getDelimiter())
+		.quote(dialect.getQuote())
+		.escape(dialect.getEscape())
+		.trimWhitespace(Settings.getTrimWhitespace())
+		.detectBOM(dialect.hasBOM() || Settings.getDetectBOM())
+		.initialBufferSize(Settings.getInitialBufferSize())
+		.maxFieldSize(Settings.getMaxFieldSize())
+		.encoding(dialect.getParserCharset())
+		.build();
+    }
+
     /**
      * Creates CSV parsing options from current settings
      */
@@ -79,6 +96,12 @@ public class CSVConfigurationFactory {
 	if (value == null || value.isEmpty()) {
 	    return false;
 	}
-	return value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r");
+	for (var i = 0; i < value.length(); i++) {
+	    final var c = value.charAt(i);
+	    if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+		return true;
+	    }
+	}
+	return false;
     }
 }
\ No newline at end of file
@@ -0,0 +1,134 @@
+package io.github.seerainer.csvedit.io;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import io.github.seerainer.csvedit.util.Settings;
+
+/**
+ * The dialect of a CSV file: delimiter, quoting, header presence, line endings
+ * and charset. A dialect detected by {@link CSVDialectSniffer} replaces the
+ * configured settings for a single load only.
+ */
+public class CSVDialect {
+
+    private final char delimiter;
+    private final char quote;
+    private final char escape;
+    private final boolean header;
+    private final boolean bom;
+    private final String lineEnding;
+    private final Charset charset;
+    private final double delimiterConfidence;
+    private final double quoteConfidence;
+    private final double headerConfidence;
+    private final double charsetConfidence;
+
+    CSVDialect(final char delimiter, final double delimiterConfidence, final char quote, final double quoteConfidence,
+	    final char escape, final boolean header, final double headerConfidence, final boolean bom,
+	    final String lineEnding, final Charset charset, final double charsetConfidence) {
+	this.delimiter = delimiter;
+	this.delimiterConfidence = delimiterConfidence;
+	this.quote = quote;
+	this.quoteConfidence = quoteConfidence;
+	this.escape = escape;
+	this.header = header;
+	this.headerConfidence = headerConfidence;
+	this.bom = bom;
+	this.lineEnding = lineEnding;
+	this.charset = charset;
+	this.charsetConfidence = charsetConfidence;
+    }
+
+    /**
+     * Creates a dialect from the current settings
+     */
+    public static CSVDialect fromSettings() {
+	return fromSettings(true);
+    }
+
+    /**
+     * Creates a dialect from the current settings for a file with or without a
+     * header row
+     */
+    public static CSVDialect fromSettings(final boolean header) {
+	return new CSVDialect(Settings.getDelimiter(), 1.0, Settings.getQuote(), 1.0, Settings.getEscape(), header,
+		1.0, false, Settings.getLineEnding(), Charset.forName(Settings.getEncoding()), 1.0);
+    }
+
+    public char getDelimiter() {
+	return delimiter;
+    }
+
+    public char getQuote() {
+	return quote;
+    }
+
+    public char getEscape() {
+	return escape;
+    }
+
+    public boolean hasHeader() {
+	return header;
+    }
+
+    public boolean hasBOM() {
+	return bom;
+    }
+
+    /**
+     * Gets the line ending as a settings label, e.g. "Unix (LF)"
+     */
+    public String getLineEnding() {
+	return lineEnding;
+    }
+
+    public Charset getCharset() {
+	return charset;
+    }
+
+    public double getDelimiterConfidence() {
+	return delimiterConfidence;
+    }
+
+    public double getQuoteConfidence() {
+	return quoteConfidence;
+    }
+
+    public double getHeaderConfidence() {
+	return headerConfidence;
+    }
+
+    public double getCharsetConfidence() {
+	return charsetConfidence;
+    }
+
+    /**
+     * Checks if the charset is not ASCII compatible, so the bytes must be
+     * transcoded to UTF-8 before they reach the byte-oriented parser
+     */
+    public boolean requiresTranscoding() {
+	return StandardCharsets.UTF_16.equals(charset) || StandardCharsets.UTF_16LE.equals(charset)
+		|| StandardCharsets.UTF_16BE.equals(charset);
+    }
+
+    /**
+     * Gets the charset the parser sees after optional transcoding
+     */
+    public Charset getParserCharset() {
+	return requiresTranscoding() ? StandardCharsets.UTF_8 : charset;
+    }
+
+    /**
+     * Gets a short human readable summary, e.g. for status messages
+     */
+    public String getDescription() {
+	final var delimiterName = switch (delimiter) {
+	case '\t' -> "Tab";
+	case ' ' -> "Space";
+	default -> String.valueOf(delimiter);
+	};
+	return "Delimiter '%s', quote %s, %s%s, %s".formatted(delimiterName, String.valueOf(quote), charset.name(),
+		bom ? " (BOM)" : "", header ? "header row" : "no header row");
+    }
+}
@@ -0,0 +1,396 @@
+package io.github.seerainer.csvedit.io;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+import io.github.seerainer.csvedit.ui.UIConstants;
+import io.github.seerainer.csvedit.util.Settings;
+
+/**
+ * Infers the dialect of a CSV file from a small sample at its start, so a file
+ * opens correctly on the first parse even if the settings do not match it.
+ * Values without evidence in the sample fall back to the settings.
+ */
+public class CSVDialectSniffer {
+
+    private static final char[] DELIMITER_CANDIDATES = { ',', ';', '\t', '|', ':' };
+    private static final char[] QUOTE_CANDIDATES = { '"', '\'' };
+    private static final int MAX_SAMPLE_RECORDS = 500;
+    private static final int UTF16_PROBE_BYTES = 4096;
+
+    private CSVDialectSniffer() {
+	throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Sniffs the dialect from the first bytes of a file, decompressing it first if
+     * needed
+     */
+    public static CSVDialect sniff(final Path filePath) throws IOException {
+	final var codec = CompressionCodec.detect(filePath);
+	try (var in = codec.wrap(new BufferedInputStream(Files.newInputStream(filePath)))) {
+	    return sniff(in.readNBytes(UIConstants.DIALECT_SNIFF_BYTES));
+	}
+    }
+
+    /**
+     * Sniffs the dialect from a sample of raw file bytes
+     */
+    public static CSVDialect sniff(final byte[] sample) {
+	final var encoding = detectCharset(sample);
+	final var text = completeLines(
+		new String(sample, encoding.bomLength, sample.length - encoding.bomLength, encoding.charset));
+
+	final var lineEnding = detectLineEnding(text);
+
+	final var quoteScores = new int[QUOTE_CANDIDATES.length];
+	var quoteTotal = 0;
+	var bestQuote = -1;
+	for (var i = 0; i < QUOTE_CANDIDATES.length; i++) {
+	    quoteScores[i] = countBoundaryQuotes(text, QUOTE_CANDIDATES[i]);
+	    quoteTotal += quoteScores[i];
+	    if (quoteScores[i] > 0 && (bestQuote < 0 || quoteScores[i] > quoteScores[bestQuote])) {
+		bestQuote = i;
+	    }
+	}
+	final var quote = bestQuote < 0 ? Settings.getQuote() : QUOTE_CANDIDATES[bestQuote];
+	final var quoteConfidence = bestQuote < 0 ? 0.0 : (double) quoteScores[bestQuote] / quoteTotal;
+	final var escape = detectEscape(text, quote);
+
+	var delimiter = Settings.getDelimiter();
+	var delimiterConfidence = 0.0;
+	var bestScore = 0.0;
+	var tied = false;
+	for (final var candidate : DELIMITER_CANDIDATES) {
+	    final var score = consistency(splitRecords(text, candidate, quote, escape, MAX_SAMPLE_RECORDS));
+	    if (score > bestScore) {
+		bestScore = score;
+		delimiter = candidate;
+		tied = false;
+	    } else if (score > 0 && score == bestScore) {
+		tied = true;
+	    }
+	}
+	if (bestScore >= 0.5) {
+	    delimiterConfidence = tied ? bestScore / 2 : bestScore;
+	} else {
+	    delimiter = Settings.getDelimiter();
+	}
+
+	final var records = splitRecords(text, delimiter, quote, escape, MAX_SAMPLE_RECORDS);
+	final var headerVotes = headerVotes(records);
+	final var columns = records.isEmpty() ? 1 : Math.max(1, records.get(0).size());
+	final var headerConfidence = headerVotes == 0 ? 0.5
+		: Math.min(1.0, 0.5 + Math.abs(headerVotes) / (2.0 * columns));
+
+	return new CSVDialect(delimiter, delimiterConfidence, quote, quoteConfidence, escape, headerVotes >= 0,
+		headerConfidence, encoding.bomLength > 0, lineEnding, encoding.charset, encoding.confidence);
+    }
+
+    private static CharsetGuess detectCharset(final byte[] sample) {
+	final var length = sample.length;
+	if (length >= 3 && (sample[0] & 0xFF) == 0xEF && (sample[1] & 0xFF) == 0xBB && (sample[2] & 0xFF) == 0xBF) {
+	    return new CharsetGuess(StandardCharsets.UTF_8, 1.0, 3);
+	}
+	if (length >= 2 && (sample[0] & 0xFF) == 0xFF && (sample[1] & 0xFF) == 0xFE) {
+	    return new CharsetGuess(StandardCharsets.UTF_16LE, 1.0, 2);
+	}
+	if (length >= 2 && (sample[0] & 0xFF) == 0xFE && (sample[1] & 0xFF) == 0xFF) {
+	    return new CharsetGuess(StandardCharsets.UTF_16BE, 1.0, 2);
+	}
+
+	// UTF-16 text without BOM has a zero byte in most ASCII code units
+	final var probe = Math.min(length, UTF16_PROBE_BYTES) & ~1;
+	if (probe >= 4) {
+	    var evenZeros = 0;
+	    var oddZeros = 0;
+	    for (var i = 0; i < probe; i += 2) {
+		if (sample[i] == 0) {
+		    evenZeros++;
+		}
+		if (sample[i + 1] == 0) {
+		    oddZeros++;
+		}
+	    }
+	    final var pairs = probe / 2.0;
+	    if (oddZeros > 0.3 * pairs && evenZeros < 0.05 * pairs) {
+		return new CharsetGuess(StandardCharsets.UTF_16LE, Math.min(1.0, 0.5 + oddZeros / pairs), 0);
+	    }
+	    if (evenZeros > 0.3 * pairs && oddZeros < 0.05 * pairs) {
+		return new CharsetGuess(StandardCharsets.UTF_16BE, Math.min(1.0, 0.5 + evenZeros / pairs), 0);
+	    }
+	}
+
+	var ascii = true;
+	for (final var b : sample) {
+	    if (b < 0) {
+		ascii = false;
+		break;
+	    }
+	}
+	final var configured = Charset.forName(Settings.getEncoding());
+	if (ascii) {
+	    // Pure ASCII decodes the same in every supported charset
+	    return new CharsetGuess(configured, 1.0, 0);
+	}
+	if (isValidUtf8(sample)) {
+	    return new CharsetGuess(StandardCharsets.UTF_8, 0.99, 0);
+	}
+	return StandardCharsets.UTF_8.equals(configured) ? new CharsetGuess(StandardCharsets.ISO_8859_1, 0.8, 0)
+		: new CharsetGuess(configured, 0.8, 0);
+    }
+
+    private static boolean isValidUtf8(final byte[] sample) {
+	final var decoder = StandardCharsets.UTF_8.newDecoder().onMalformedInput(CodingErrorAction.REPORT)
+		.onUnmappableCharacter(CodingErrorAction.REPORT);
+	final var out = CharBuffer.allocate(8192);
+	final var in = ByteBuffer.wrap(sample);
+	while (true) {
+	    // Not end of input: a sequence cut off at the end of the sample is fine
+	    final var result = decoder.decode(in, out, false);
+	    if (result.isError()) {
+		return false;
+	    }
+	    if (result.isUnderflow()) {
+		return true;
+	    }
+	    out.clear();
+	}
+    }
+
+    /**
+     * Drops the trailing partial line of a sample cut off mid-record
+     */
+    private static String completeLines(final String text) {
+	final var lastBreak = Math.max(text.lastIndexOf('\n'), text.lastIndexOf('\r'));
+	return lastBreak < 0 ? text : text.substring(0, lastBreak + 1);
+    }
+
+    private static String detectLineEnding(final String text) {
+	var crlf = 0;
+	var lf = 0;
+	var cr = 0;
+	for (var i = 0; i < text.length(); i++) {
+	    final var c = text.charAt(i);
+	    if (c == '\r') {
+		if (i + 1 < text.length() && text.charAt(i + 1) == '\n') {
+		    crlf++;
+		    i++;
+		} else {
+		    cr++;
+		}
+	    } else if (c == '\n') {
+		lf++;
+	    }
+	}
+	if (crlf == 0 && lf == 0 && cr == 0) {
+	    return Settings.getLineEnding();
+	}
+	if (crlf >= lf && crlf >= cr) {
+	    return "Windows (CRLF)";
+	}
+	return lf >= cr ? "Unix (LF)" : "Mac (CR)";
+    }
+
+    /**
+     * Counts quote characters that open or close a field, i.e. sit next to a
+     * line break or a candidate delimiter
+     */
+    private static int countBoundaryQuotes(final String text, final char quote) {
+	var count = 0;
+	for (var i = 0; i < text.length(); i++) {
+	    if (text.charAt(i) != quote) {
+		continue;
+	    }
+	    final var before = i == 0 ? '\n' : text.charAt(i - 1);
+	    final var after = i + 1 == text.length() ? '\n' : text.charAt(i + 1);
+	    if (isBoundary(before) || isBoundary(after)) {
+		count++;
+	    }
+	}
+	return count;
+    }
+
+    private static boolean isBoundary(final char c) {
+	if (c == '\n' || c == '\r') {
+	    return true;
+	}
+	for (final var candidate : DELIMITER_CANDIDATES) {
+	    if (c == candidate) {
+		return true;
+	    }
+	}
+	return false;
+    }
+
+    private static char detectEscape(final String text, final char quote) {
+	var backslashed = 0;
+	var doubled = 0;
+	for (var i = 0; i + 1 < text.length(); i++) {
+	    final var c = text.charAt(i);
+	    if (c == '\\' && text.charAt(i + 1) == quote) {
+		backslashed++;
+		i++;
+	    } else if (c == quote && text.charAt(i + 1) == quote) {
+		doubled++;
+		i++;
+	    }
+	}
+	return backslashed > doubled ? '\\' : quote;
+    }
+
+    /**
+     * Splits the sample into records of unquoted field values
+     */
+    private static List<List<String>> splitRecords(final String text, final char delimiter, final char quote,
+	    final char escape, final int maxRecords) {
+	final List<List<String>> records = new ArrayList<>();
+	List<String> row = new ArrayList<>();
+	final var field = new StringBuilder();
+	var inQuotes = false;
+	final var length = text.length();
+
+	for (var i = 0; i < length && records.size() < maxRecords; i++) {
+	    final var c = text.charAt(i);
+	    if (inQuotes) {
+		if (c == escape && escape != quote && i + 1 < length && text.charAt(i + 1) == quote) {
+		    field.append(quote);
+		    i++;
+		} else if (c == quote) {
+		    if (i + 1 < length && text.charAt(i + 1) == quote) {
+			field.append(quote);
+			i++;
+		    } else {
+			inQuotes = false;
+		    }
+		} else {
+		    field.append(c);
+		}
+	    } else if (c == quote && field.isEmpty()) {
+		inQuotes = true;
+	    } else if (c == delimiter) {
+		row.add(field.toString());
+		field.setLength(0);
+	    } else if (c == '\n' || c == '\r') {
+		if (c == '\r' && i + 1 < length && text.charAt(i + 1) == '\n') {
+		    i++;
+		}
+		row.add(field.toString());
+		field.setLength(0);
+		if (row.size() > 1 || !row.get(0).isEmpty()) {
+		    records.add(row);
+		}
+		row = new ArrayList<>();
+	    } else {
+		field.append(c);
+	    }
+	}
+	if (!inQuotes && records.size() < maxRecords && (!row.isEmpty() || !field.isEmpty())) {
+	    row.add(field.toString());
+	    records.add(row);
+	}
+	return records;
+    }
+
+    /**
+     * Fraction of records that have the most common field count, or 0 if that
+     * count is 1 (the candidate does not split anything)
+     */
+    private static double consistency(final List<List<String>> records) {
+	if (records.isEmpty()) {
+	    return 0.0;
+	}
+	final var counts = new HashMap<Integer, Integer>();
+	var modeCount = 0;
+	var modeFields = 0;
+	for (final var record : records) {
+	    final var fields = record.size();
+	    final var count = counts.merge(Integer.valueOf(fields), Integer.valueOf(1), Integer::sum).intValue();
+	    if (count > modeCount || (count == modeCount && fields > modeFields)) {
+		modeCount = count;
+		modeFields = fields;
+	    }
+	}
+	return modeFields <= 1 ? 0.0 : (double) modeCount / records.size();
+    }
+
+    /**
+     * Votes per column on whether the first record is a header: a numeric column
+     * votes for a header if its first value is not numeric and against it
+     * otherwise, a fixed-length column only votes for a header if its first value
+     * has a different length
+     */
+    private static int headerVotes(final List<List<String>> records) {
+	if (records.size() < 2) {
+	    return 0;
+	}
+	final var first = records.get(0);
+	var votes = 0;
+	final var seen = new HashSet<String>();
+	for (final var value : first) {
+	    if (value.isBlank() || !seen.add(value)) {
+		votes--;
+	    }
+	}
+	for (var column = 0; column < first.size(); column++) {
+	    var numeric = true;
+	    var length = -1;
+	    var values = 0;
+	    for (var r = 1; r < records.size(); r++) {
+		final var record = records.get(r);
+		if (column >= record.size() || record.get(column).isEmpty()) {
+		    continue;
+		}
+		final var value = record.get(column);
+		numeric &= isNumeric(value);
+		length = values == 0 || length == value.length() ? value.length() : -2;
+		values++;
+	    }
+	    if (values == 0) {
+		continue;
+	    }
+	    final var candidate = first.get(column);
+	    if (numeric) {
+		votes += isNumeric(candidate) ? -1 : 1;
+	    } else if (length >= 0 && candidate.length() != length) {
+		votes++;
+	    }
+	}
+	return votes;
+    }
+
+    private static boolean isNumeric(final String value) {
+	try {
+	    Double.parseDouble(value.trim());
+	    return true;
+	} catch (final NumberFormatException e) {
+	    return false;
+	}
+    }
+
+    /**
+     * Detected charset with its byte order mark length
+     */
+    private static class CharsetGuess {
+	private final Charset charset;
+	private final double confidence;
+	private final int bomLength;
+
+	CharsetGuess(final Charset charset, final double confidence, final int bomLength) {
+	    this.charset = charset;
+	    this.confidence = confidence;
+	    this.bomLength = bomLength;
+	}
+    }
+}
@@ -0,0 +1,76 @@
+package io.github.seerainer.csvedit.io;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A CSV file as it was last loaded or saved: its location, size, modification
+ * time, compression and dialect. Lets a save reuse the unchanged parts of the
+ * file as long as nothing else has written to it since, and keep its format.
+ */
+public class CSVFileSource {
+
+    private final Path path;
+    private final long size;
+    private final long lastModified;
+    private final CompressionCodec codec;
+    private final CSVDialect dialect;
+
+    private CSVFileSource(final Path path, final long size, final long lastModified, final CompressionCodec codec,
+	    final CSVDialect dialect) {
+	this.path = path;
+	this.size = size;
+	this.lastModified = lastModified;
+	this.codec = codec;
+	this.dialect = dialect;
+    }
+
+    /**
+     * Records the current state of a file that was read or written with the given
+     * dialect, detecting its compression from its magic bytes
+     */
+    public static CSVFileSource capture(final Path path, final CSVDialect dialect) throws IOException {
+	final var realPath = path.toRealPath();
+	return new CSVFileSource(realPath, Files.size(realPath), Files.getLastModifiedTime(realPath).toMillis(),
+		CompressionCodec.detect(realPath), dialect);
+    }
+
+    /**
+     * Gets the real path of the file
+     */
+    public Path getPath() {
+	return path;
+    }
+
+    public long getSize() {
+	return size;
+    }
+
+    public long getLastModified() {
+	return lastModified;
+    }
+
+    /**
+     * Gets the compression codec the file was found to use, regardless of its
+     * extension
+     */
+    public CompressionCodec getCodec() {
+	return codec;
+    }
+
+    public CSVDialect getDialect() {
+	return dialect;
+    }
+
+    /**
+     * Checks if the file still has the recorded size and modification time
+     */
+    public boolean isUnchanged() {
+	try {
+	    return Files.size(path) == size && Files.getLastModifiedTime(path).toMillis() == lastModified;
+	} catch (final IOException e) {
+	    return false;
+	}
+    }
+}
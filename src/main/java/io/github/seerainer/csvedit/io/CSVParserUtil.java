@@ -3,6 +3,7 @@ package io.github.seerainer.csvedit.io;
 import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.RandomAccessFile;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -10,7 +11,7 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Consumer;
-import java.util.zip.GZIPInputStream;
+import java.util.function.Predicate;
 
 import io.github.seerainer.csv.CSVParseException;
 import io.github.seerainer.csv.CSVParser;
@@ -37,6 +38,44 @@ public class CSVParserUtil {
 	return row;
     }
 
+    /**
+     * Extract the given columns of a CSV record, leaving out all other fields.
+     * Columns the record does not reach are empty.
+     *
+     * @param record  the record
+     * @param columns the indices of the columns to keep, or null to keep all
+     */
+    public static List<String> extractRow(final CSVRecord record, final int[] columns) {
+	if (columns == null) {
+	    return extractRow(record);
+	}
+	final List<String> row = new ArrayList<>(columns.length);
+	for (final var column : columns) {
+	    row.add(getField(record, column));
+	}
+	return row;
+    }
+
+    /**
+     * Get a field of a CSV record, empty if the record does not reach it
+     */
+    public static String getField(final CSVRecord record, final int index) {
+	final var value = index < record.getFieldCount() ? record.getField(index) : null;
+	return value != null ? value : "";
+    }
+
+    /**
+     * Get the names the given columns have in a file without a header row, so
+     * they keep their numbers when only some of them are loaded
+     */
+    public static List<String> columnNames(final int[] columns) {
+	final List<String> names = new ArrayList<>(columns.length);
+	for (final var column : columns) {
+	    names.add("Column " + (column + 1));
+	}
+	return names;
+    }
+
     /**
      * Check if a row contains only empty fields
      */
@@ -69,6 +108,14 @@ public class CSVParserUtil {
 	}
     }
 
+    /**
+     * Read a byte range of a file's content and ensure proper newline termination
+     */
+    static byte[] readRange(final SeekableContent content, final long position, final int length)
+	    throws IOException {
+	return ensureNewlineTermination(content.readFully(position, length));
+    }
+
     /**
      * Ensure byte array ends with newline for proper CSV parsing
      */
@@ -103,6 +150,24 @@ public class CSVParserUtil {
 	}
     }
 
+    /**
+     * Parse CSV bytes using a detected dialect instead of the configured one
+     */
+    public static Iterable<CSVRecord> parseCSV(final byte[] bytes, final CSVDialect dialect) throws IOException {
+	final var config = CSVConfigurationFactory.createConfiguration(dialect);
+	final var options = CSVConfigurationFactory.createParsingOptions();
+	final var parser = new CSVParser(config, options);
+	final var source = dialect.requiresTranscoding()
+		? ensureNewlineTermination(TranscodingInputStream.transcode(bytes, dialect.getCharset()))
+		: bytes;
+
+	try {
+	    return parser.parseByteArray(source);
+	} catch (final CSVParseException e) {
+	    throw new IOException("Failed to parse CSV content: " + e.getMessage(), e);
+	}
+    }
+
     /**
      * Parse CSV file and extract headers and data rows
      */
@@ -115,7 +180,15 @@ public class CSVParserUtil {
      * Parse gzip compressed CSV file and extract headers and data rows
      */
     public static ParsedCSV parseGzipCSVFile(final String filePath) throws IOException {
-	final var bytes = readGzipFileBytes(filePath);
+	return parseCompressedCSVFile(filePath, CompressionCodec.GZIP);
+    }
+
+    /**
+     * Parse compressed CSV file and extract headers and data rows
+     */
+    public static ParsedCSV parseCompressedCSVFile(final String filePath, final CompressionCodec codec)
+	    throws IOException {
+	final var bytes = readCompressedFileBytes(filePath, codec);
 	return parseCSVBytes(bytes);
     }
 
@@ -123,35 +196,39 @@ public class CSVParserUtil {
      * Read gzip compressed file bytes and ensure proper newline termination
      */
     public static byte[] readGzipFileBytes(final String filePath) throws IOException {
-	try (var fis = Files.newInputStream(Paths.get(filePath));
-		var bis = new BufferedInputStream(fis);
-		var gzis = new GZIPInputStream(bis);
-		var baos = new ByteArrayOutputStream()) {
-
-	    final var buffer = new byte[8192];
-	    int bytesRead;
-	    while ((bytesRead = gzis.read(buffer)) != -1) {
-		baos.write(buffer, 0, bytesRead);
-	    }
-
-	    return ensureNewlineTermination(baos.toByteArray());
-	}
+	return readCompressedFileBytes(filePath, CompressionCodec.GZIP);
     }
 
     /**
      * Read gzip compressed file bytes with a maximum limit
      */
     public static byte[] readGzipFileBytes(final String filePath, final int maxBytes) throws IOException {
+	return readCompressedFileBytes(filePath, CompressionCodec.GZIP, maxBytes);
+    }
+
+    /**
+     * Read compressed file bytes and ensure proper newline termination
+     */
+    public static byte[] readCompressedFileBytes(final String filePath, final CompressionCodec codec)
+	    throws IOException {
+	return readCompressedFileBytes(filePath, codec, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Read compressed file bytes with a maximum limit
+     */
+    public static byte[] readCompressedFileBytes(final String filePath, final CompressionCodec codec,
+	    final int maxBytes) throws IOException {
 	try (var fis = Files.newInputStream(Paths.get(filePath));
 		var bis = new BufferedInputStream(fis);
-		var gzis = new GZIPInputStream(bis);
+		var cis = codec.wrap(bis);
 		var baos = new ByteArrayOutputStream()) {
 
 	    final var buffer = new byte[8192];
 	    int bytesRead;
 	    var totalBytesRead = 0;
 
-	    while ((bytesRead = gzis.read(buffer)) != -1 && totalBytesRead < maxBytes) {
+	    while (totalBytesRead < maxBytes && (bytesRead = cis.read(buffer)) != -1) {
 		final var bytesToWrite = Math.min(bytesRead, maxBytes - totalBytesRead);
 		baos.write(buffer, 0, bytesToWrite);
 		totalBytesRead += bytesToWrite;
@@ -169,24 +246,63 @@ public class CSVParserUtil {
 	return extractHeadersAndData(records);
     }
 
+    /**
+     * Parse CSV bytes using a detected dialect and extract headers and data rows
+     */
+    public static ParsedCSV parseCSVBytes(final byte[] bytes, final CSVDialect dialect) throws IOException {
+	return parseCSVBytes(bytes, dialect, null, null);
+    }
+
+    /**
+     * Parse CSV bytes using a detected dialect and extract the headers and the
+     * data of the given columns in the rows the filter accepts only
+     */
+    public static ParsedCSV parseCSVBytes(final byte[] bytes, final CSVDialect dialect, final int[] columns,
+	    final RowFilter filter) throws IOException {
+	final var records = parseCSV(bytes, dialect);
+	return extractHeadersAndData(records, dialect.hasHeader(), columns, filter);
+    }
+
     /**
      * Extract headers and data from CSV records
      */
     public static ParsedCSV extractHeadersAndData(final Iterable<CSVRecord> records) {
+	return extractHeadersAndData(records, true);
+    }
+
+    /**
+     * Extract headers and data from CSV records. Without a header row all records
+     * become data and the headers are left empty for the model to name.
+     */
+    public static ParsedCSV extractHeadersAndData(final Iterable<CSVRecord> records, final boolean hasHeader) {
+	return extractHeadersAndData(records, hasHeader, null, null);
+    }
+
+    /**
+     * Extract headers and data of the given columns from CSV records, leaving out
+     * all other fields and the records the filter rejects
+     *
+     * @param records   the records
+     * @param hasHeader whether the first record is the header row
+     * @param columns   the indices of the columns to keep, or null to keep all
+     * @param filter    the filter data records must pass, or null to keep all
+     */
+    public static ParsedCSV extractHeadersAndData(final Iterable<CSVRecord> records, final boolean hasHeader,
+	    final int[] columns, final RowFilter filter) {
 	final List<String> headers = new ArrayList<>();
 	final List<List<String>> data = new ArrayList<>();
+	if (!hasHeader && columns != null) {
+	    headers.addAll(columnNames(columns));
+	}
 
-	var isFirstRow = true;
+	var isFirstRow = hasHeader;
 	for (final var record : records) {
-	    final var row = extractRow(record);
-	    final var allEmpty = isRowEmpty(row);
-
-	    if (!allEmpty || !row.isEmpty()) {
+	    if (record.getFieldCount() > 0) {
 		if (isFirstRow) {
-		    headers.addAll(row);
+		    headers.addAll(extractRow(record, columns));
 		    isFirstRow = false;
-		} else {
-		    data.add(row);
+		} else if (filter == null || filter.test(column -> getField(record, column))) {
+		    data.add(extractRow(record, columns));
 		}
 	    }
 	}
@@ -210,6 +326,20 @@ public class CSVParserUtil {
 	parseFileWithCallbackChunked(filePath, 8 * 1024 * 1024, callback);
     }
 
+    /**
+     * Parse CSV file using callback-based approach with a detected dialect instead
+     * of the configured one
+     *
+     * @param filePath the path to the CSV file
+     * @param dialect  the dialect to parse with
+     * @param callback the consumer to invoke for each parsed CSV record
+     * @throws IOException if an I/O error occurs or CSV parsing fails
+     */
+    public static void parseFileWithCallback(final Path filePath, final CSVDialect dialect,
+	    final Consumer<CSVRecord> callback) throws IOException {
+	parseFileWithCallbackChunked(filePath, 8 * 1024 * 1024, dialect, callback);
+    }
+
     /**
      * Parse CSV file using callback-based approach with chunked reading for
      * extremely large files. This method reads the file in chunks to minimize
@@ -222,6 +352,44 @@ public class CSVParserUtil {
      */
     public static void parseFileWithCallbackChunked(final Path filePath, final int chunkSize,
 	    final Consumer<CSVRecord> callback) throws IOException {
+	parseFileWithCallbackChunked(filePath, chunkSize, CSVDialect.fromSettings(), callback);
+    }
+
+    /**
+     * Parse CSV file in chunks with a detected dialect instead of the configured
+     * one. Charsets that are not ASCII compatible are transcoded to UTF-8 while
+     * streaming.
+     *
+     * @param filePath  the path to the CSV file
+     * @param chunkSize the size in bytes to read per chunk (default: 8MB)
+     * @param dialect   the dialect to parse with
+     * @param callback  the consumer to invoke for each parsed CSV record
+     * @throws IOException if an I/O error occurs or CSV parsing fails
+     */
+    public static void parseFileWithCallbackChunked(final Path filePath, final int chunkSize,
+	    final CSVDialect dialect, final Consumer<CSVRecord> callback) throws IOException {
+	if (callback == null) {
+	    throw new IllegalArgumentException("Callback cannot be null");
+	}
+	parseFileWhile(filePath, chunkSize, dialect, record -> {
+	    callback.accept(record);
+	    return true;
+	});
+    }
+
+    /**
+     * Parse CSV file in chunks until the callback returns false, so only the
+     * chunks up to that record are read and decompressed
+     *
+     * @param filePath  the path to the CSV file
+     * @param chunkSize the size in bytes to read per chunk
+     * @param dialect   the dialect to parse with
+     * @param callback  the predicate to invoke for each parsed CSV record, returning
+     *                  false to stop
+     * @throws IOException if an I/O error occurs or CSV parsing fails
+     */
+    public static void parseFileWhile(final Path filePath, final int chunkSize, final CSVDialect dialect,
+	    final Predicate<CSVRecord> callback) throws IOException {
 	if (callback == null) {
 	    throw new IllegalArgumentException("Callback cannot be null");
 	}
@@ -229,16 +397,11 @@ public class CSVParserUtil {
 	    throw new IllegalArgumentException("Chunk size must be positive");
 	}
 
-	final var config = CSVConfigurationFactory.createConfiguration();
+	final var config = CSVConfigurationFactory.createConfiguration(dialect);
 	final var options = CSVConfigurationFactory.createParsingOptions();
 	final var parser = new CSVParser(config, options);
 
-	// Determine if file is gzip compressed based on extension
-	final var fileName = filePath.getFileName().toString().toLowerCase();
-	final var isGzipped = fileName.endsWith(".gz");
-
-	try (var inputStream = isGzipped ? new GZIPInputStream(new BufferedInputStream(Files.newInputStream(filePath)))
-		: new BufferedInputStream(Files.newInputStream(filePath))) {
+	try (var inputStream = openDecoded(filePath, dialect)) {
 
 	    final var buffer = new byte[chunkSize];
 	    final var overflow = new ByteArrayOutputStream();
@@ -253,15 +416,9 @@ public class CSVParserUtil {
 		}
 		chunkData.write(buffer, 0, bytesRead);
 
-		// Find the last newline to determine where to split
+		// Find the last newline outside quotes to determine where to split
 		final var chunkBytes = chunkData.toByteArray();
-		var lastNewline = -1;
-		for (var i = chunkBytes.length - 1; i >= 0; i--) {
-		    if (chunkBytes[i] == '\n' || chunkBytes[i] == '\r') {
-			lastNewline = i;
-			break;
-		    }
-		}
+		final var lastNewline = findLastRecordEnd(chunkBytes, dialect);
 
 		// If we found a newline, parse up to that point
 		if (lastNewline >= 0) {
@@ -274,8 +431,9 @@ public class CSVParserUtil {
 		    }
 
 		    // Parse this chunk and invoke callback
-		    final var records = parser.parseByteArray(parseBytes);
-		    records.forEach(callback::accept);
+		    if (!parseRecords(parser, parseBytes, callback)) {
+			return;
+		    }
 		} else {
 		    // No newline found, save entire chunk for next iteration
 		    overflow.write(chunkBytes, 0, chunkBytes.length);
@@ -285,14 +443,59 @@ public class CSVParserUtil {
 	    // Process any remaining data
 	    if (overflow.size() > 0) {
 		final var remainingBytes = ensureNewlineTermination(overflow.toByteArray());
-		final var records = parser.parseByteArray(remainingBytes);
-		records.forEach(callback::accept);
+		parseRecords(parser, remainingBytes, callback);
 	    }
 	} catch (final CSVParseException e) {
 	    throw new IOException("Failed to parse CSV content: " + e.getMessage(), e);
 	}
     }
 
+    /**
+     * Finds the last line break that ends a record, skipping line breaks inside
+     * quoted fields as found by a {@link RecordBoundaryScanner}. The bytes must
+     * start at the beginning of a record.
+     *
+     * @return the index of the line break, or -1 if there is none
+     */
+    private static int findLastRecordEnd(final byte[] bytes, final CSVDialect dialect) {
+	final var boundaries = new RecordBoundaryScanner(dialect);
+	var lastNewline = -1;
+	for (var i = 0; i < bytes.length; i++) {
+	    final var b = bytes[i];
+	    if (boundaries.isBoundary(b) && (b == '\n' || b == '\r')) {
+		lastNewline = i;
+	    }
+	}
+	return lastNewline;
+    }
+
+    /**
+     * Parses bytes and passes the records to the callback until it returns false
+     *
+     * @return false if the callback stopped the parse
+     */
+    private static boolean parseRecords(final CSVParser parser, final byte[] bytes,
+	    final Predicate<CSVRecord> callback) {
+	for (final var record : parser.parseByteArray(bytes)) {
+	    if (!callback.test(record)) {
+		return false;
+	    }
+	}
+	return true;
+    }
+
+    /**
+     * Opens a file decompressed and, if needed, transcoded to UTF-8
+     */
+    private static InputStream openDecoded(final Path filePath, final CSVDialect dialect) throws IOException {
+	// Determine the compression codec from the file's magic bytes
+	final var codec = CompressionCodec.detect(filePath);
+
+	final var inputStream = codec.wrap(new BufferedInputStream(Files.newInputStream(filePath)));
+	return dialect.requiresTranscoding() ? new TranscodingInputStream(inputStream, dialect.getCharset())
+		: inputStream;
+    }
+
     /**
      * Result of parsing CSV data
      */
@@ -0,0 +1,321 @@
+package io.github.seerainer.csvedit.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import io.github.seerainer.csvedit.ui.UIConstants;
+import io.github.seerainer.csvedit.util.Settings;
+
+/**
+ * Byte-level CSV writer. Fields are encoded straight into a large reusable
+ * buffer that is drained to a channel, with a single scan per field to decide
+ * on quoting and an ASCII fast path that skips the charset encoder.
+ */
+public class CSVStreamWriter implements Closeable {
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final byte[] bytes;
+    private final char delimiter;
+    private final char quote;
+    private final char escape;
+    private final String lineEnding;
+    private final CharsetEncoder encoder;
+    private final boolean asciiCompatible;
+    private final boolean utf8;
+    private int position;
+
+    /**
+     * Creates a writer using the delimiter, quote, escape, line ending and
+     * encoding from current settings
+     */
+    public CSVStreamWriter(final WritableByteChannel channel) {
+	this(channel, Settings.getDelimiter(), Settings.getQuote(), Settings.getEscape(),
+		resolveLineEnding(Settings.getLineEnding()), Charset.forName(Settings.getEncoding()));
+    }
+
+    public CSVStreamWriter(final WritableByteChannel channel, final char delimiter, final char quote,
+	    final char escape, final String lineEnding, final Charset charset) {
+	this(channel, delimiter, quote, escape, lineEnding, charset, UIConstants.CSV_WRITE_BUFFER_BYTES);
+    }
+
+    CSVStreamWriter(final WritableByteChannel channel, final char delimiter, final char quote, final char escape,
+	    final String lineEnding, final Charset charset, final int bufferSize) {
+	this.channel = channel;
+	this.bytes = new byte[bufferSize];
+	this.buffer = ByteBuffer.wrap(bytes);
+	this.delimiter = delimiter;
+	this.quote = quote;
+	this.escape = escape;
+	this.lineEnding = lineEnding;
+	this.encoder = charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+		.onUnmappableCharacter(CodingErrorAction.REPLACE);
+	this.asciiCompatible = isAsciiCompatible(charset);
+	this.utf8 = StandardCharsets.UTF_8.equals(charset);
+    }
+
+    /**
+     * Maps a line ending setting label to the characters to write
+     */
+    public static String resolveLineEnding(final String setting) {
+	return switch (setting) {
+	case "Windows (CRLF)" -> "\r\n";
+	case "Unix (LF)" -> "\n";
+	case "Mac (CR)" -> "\r";
+	default -> System.lineSeparator();
+	};
+    }
+
+    /**
+     * Checks if a charset encodes ASCII as single identical bytes. Such charsets
+     * are stateless, so independently encoded blocks can be concatenated.
+     */
+    static boolean isAsciiCompatible(final Charset charset) {
+	if (!charset.canEncode()) {
+	    return false;
+	}
+	final var ascii = new char[128];
+	for (var i = 0; i < ascii.length; i++) {
+	    ascii[i] = (char) i;
+	}
+	final var encoded = new String(ascii).getBytes(charset);
+	if (encoded.length != ascii.length) {
+	    return false;
+	}
+	for (var i = 0; i < encoded.length; i++) {
+	    if (encoded[i] != i) {
+		return false;
+	    }
+	}
+	return true;
+    }
+
+    /**
+     * Writes a record padded with empty fields to the given column count
+     */
+    public void writeRecord(final List<String> values, final int columnCount) throws IOException {
+	final var size = values.size();
+	for (var j = 0; j < columnCount; j++) {
+	    if (j > 0) {
+		writeChar(delimiter);
+	    }
+	    if (j < size) {
+		writeField(values.get(j));
+	    }
+	}
+    }
+
+    /**
+     * Writes the configured delimiter
+     */
+    public void writeDelimiter() throws IOException {
+	writeChar(delimiter);
+    }
+
+    /**
+     * Writes the configured line ending
+     */
+    public void writeLineEnding() throws IOException {
+	for (var i = 0; i < lineEnding.length(); i++) {
+	    writeChar(lineEnding.charAt(i));
+	}
+    }
+
+    /**
+     * Writes a single field, quoting it if it contains the delimiter, the quote,
+     * a separate escape character or a line break. Inside the quotes, the quote
+     * and a separate escape character are preceded by the escape character.
+     */
+    public void writeField(final String value) throws IOException {
+	if (value == null || value.isEmpty()) {
+	    return;
+	}
+	final var length = value.length();
+	final var separateEscape = escape != quote;
+	var quoting = false;
+	var ascii = asciiCompatible;
+	for (var i = 0; i < length; i++) {
+	    final var c = value.charAt(i);
+	    if (c == delimiter || c == quote || (separateEscape && c == escape) || c == '\n' || c == '\r') {
+		quoting = true;
+	    } else if (c >= 0x80) {
+		ascii = false;
+	    }
+	}
+
+	if (!quoting) {
+	    if (ascii) {
+		writeAscii(value);
+	    } else {
+		writeText(value);
+	    }
+	    return;
+	}
+
+	writeChar(quote);
+	var start = 0;
+	for (var i = 0; i < length; i++) {
+	    final var c = value.charAt(i);
+	    if (c == quote || (separateEscape && c == escape)) {
+		// Escape the character; with escape == quote this doubles the quote
+		writeSegment(value, start, i, ascii);
+		writeChar(escape);
+		start = i;
+	    }
+	}
+	writeSegment(value, start, length, ascii);
+	writeChar(quote);
+    }
+
+    /**
+     * Drains the buffer to the channel
+     */
+    public void flush() throws IOException {
+	drain();
+    }
+
+    /**
+     * Completes the output and drains the buffer without closing the channel
+     */
+    public void finish() throws IOException {
+	if (!utf8) {
+	    finishEncoder();
+	}
+	drain();
+    }
+
+    @Override
+    public void close() throws IOException {
+	try {
+	    finish();
+	} finally {
+	    channel.close();
+	}
+    }
+
+    private void writeSegment(final String value, final int start, final int end, final boolean ascii)
+	    throws IOException {
+	if (start >= end) {
+	    return;
+	}
+	if (ascii) {
+	    writeAscii(value, start, end);
+	} else {
+	    writeText(value.substring(start, end));
+	}
+    }
+
+    private void writeChar(final char c) throws IOException {
+	if (asciiCompatible && c < 0x80) {
+	    if (position == bytes.length) {
+		drain();
+	    }
+	    bytes[position++] = (byte) c;
+	} else {
+	    writeText(String.valueOf(c));
+	}
+    }
+
+    private void writeAscii(final String value) throws IOException {
+	writeAscii(value, 0, value.length());
+    }
+
+    private void writeAscii(final String value, final int start, final int end) throws IOException {
+	var i = start;
+	while (i < end) {
+	    if (position == bytes.length) {
+		drain();
+	    }
+	    final var n = Math.min(end - i, bytes.length - position);
+	    for (var k = 0; k < n; k++) {
+		bytes[position + k] = (byte) value.charAt(i + k);
+	    }
+	    position += n;
+	    i += n;
+	}
+    }
+
+    private void writeText(final String value) throws IOException {
+	if (utf8) {
+	    writeUtf8(value);
+	    return;
+	}
+	final var in = CharBuffer.wrap(value);
+	while (true) {
+	    buffer.limit(bytes.length).position(position);
+	    final var result = encoder.encode(in, buffer, false);
+	    position = buffer.position();
+	    if (!result.isOverflow()) {
+		return;
+	    }
+	    drain();
+	}
+    }
+
+    private void writeUtf8(final String value) throws IOException {
+	final var length = value.length();
+	for (var i = 0; i < length; i++) {
+	    if (bytes.length - position < 4) {
+		drain();
+	    }
+	    var c = (int) value.charAt(i);
+	    if (c < 0x80) {
+		bytes[position++] = (byte) c;
+	    } else if (c < 0x800) {
+		bytes[position++] = (byte) (0xC0 | c >> 6);
+		bytes[position++] = (byte) (0x80 | c & 0x3F);
+	    } else if (Character.isHighSurrogate((char) c) && i + 1 < length
+		    && Character.isLowSurrogate(value.charAt(i + 1))) {
+		c = Character.toCodePoint((char) c, value.charAt(++i));
+		bytes[position++] = (byte) (0xF0 | c >> 18);
+		bytes[position++] = (byte) (0x80 | c >> 12 & 0x3F);
+		bytes[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+		bytes[position++] = (byte) (0x80 | c & 0x3F);
+	    } else if (Character.isSurrogate((char) c)) {
+		bytes[position++] = '?';
+	    } else {
+		bytes[position++] = (byte) (0xE0 | c >> 12);
+		bytes[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+		bytes[position++] = (byte) (0x80 | c & 0x3F);
+	    }
+	}
+    }
+
+    private void finishEncoder() throws IOException {
+	final var empty = CharBuffer.allocate(0);
+	while (true) {
+	    buffer.limit(bytes.length).position(position);
+	    final var result = encoder.encode(empty, buffer, true);
+	    position = buffer.position();
+	    if (!result.isOverflow()) {
+		break;
+	    }
+	    drain();
+	}
+	while (true) {
+	    buffer.limit(bytes.length).position(position);
+	    final var result = encoder.flush(buffer);
+	    position = buffer.position();
+	    if (!result.isOverflow()) {
+		break;
+	    }
+	    drain();
+	}
+    }
+
+    private void drain() throws IOException {
+	buffer.limit(position).position(0);
+	while (buffer.hasRemaining()) {
+	    channel.write(buffer);
+	}
+	position = 0;
+    }
+}
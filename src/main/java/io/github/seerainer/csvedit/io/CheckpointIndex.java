@@ -0,0 +1,280 @@
+package io.github.seerainer.csvedit.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+import io.github.seerainer.csvedit.ui.UIConstants;
+import io.github.seerainer.csvedit.util.Settings;
+
+/**
+ * Sparse index of record positions in a CSV file whose content can be read at
+ * any position, i.e. an uncompressed file or an indexed gzip file (see
+ * {@link SeekableContent}): the content offset of every
+ * {@link UIConstants#CHECKPOINT_INTERVAL_ROWS}-th record, found with a
+ * {@link RecordBoundaryScanner}. The scan keeps its quote state between steps,
+ * so it is built in the background and extended on demand when a record past
+ * its end is needed. Seeking to a record then only scans from the nearest
+ * checkpoint.
+ * Record 0 is the first record of the file, i.e. the header row.
+ */
+public class CheckpointIndex {
+
+    private static final int SCAN_BUFFER_BYTES = 1024 * 1024;
+    private static final Map<Path, CheckpointIndex> INDEXES = new ConcurrentHashMap<>();
+
+    private final Path path;
+    private final long size;
+    private final long lastModified;
+    private final CSVDialect dialect;
+    private final boolean skipEmptyLines;
+    private final boolean skipBlankLines;
+    private final Scan frontier;
+    private long[] checkpoints = new long[64];
+    private int checkpointCount;
+    private boolean complete;
+    private boolean building;
+
+    private CheckpointIndex(final Path path, final CSVDialect dialect) throws IOException {
+	this.path = path;
+	this.size = Files.size(path);
+	this.lastModified = Files.getLastModifiedTime(path).toMillis();
+	this.dialect = dialect;
+	this.skipEmptyLines = Settings.getSkipEmptyLines();
+	this.skipBlankLines = Settings.getSkipBlankLines();
+	this.frontier = new Scan(dialect, 0);
+    }
+
+    /**
+     * Gets the index of a file, reusing the one built before as long as the file,
+     * its delimiter and its quoting are unchanged
+     */
+    public static CheckpointIndex forFile(final Path filePath, final CSVDialect dialect) throws IOException {
+	final var realPath = filePath.toRealPath();
+	final var cached = INDEXES.get(realPath);
+	if (cached != null && cached.matches(dialect)) {
+	    return cached;
+	}
+	final var index = new CheckpointIndex(realPath, dialect);
+	INDEXES.put(realPath, index);
+	return index;
+    }
+
+    /**
+     * Checks if a file can be indexed, i.e. is read without transcoding and is
+     * uncompressed or a gzip file with a valid {@link GzipIndex}
+     */
+    public static boolean isIndexable(final Path filePath, final CSVDialect dialect) {
+	return SeekableContent.isSeekable(filePath, dialect);
+    }
+
+    private boolean matches(final CSVDialect other) {
+	try {
+	    return Files.size(path) == size && Files.getLastModifiedTime(path).toMillis() == lastModified
+		    && other.getDelimiter() == dialect.getDelimiter() && other.getQuote() == dialect.getQuote()
+		    && other.getEscape() == dialect.getEscape()
+		    && Settings.getSkipEmptyLines() == skipEmptyLines && Settings.getSkipBlankLines() == skipBlankLines;
+	} catch (final IOException e) {
+	    return false;
+	}
+    }
+
+    /**
+     * Scans the rest of the file on a low priority background thread, unless that
+     * is already happening or done. Seeks in the meantime extend the index
+     * themselves where it does not reach yet.
+     */
+    public synchronized void buildInBackground() {
+	if (complete || building) {
+	    return;
+	}
+	building = true;
+	final var thread = new Thread(() -> {
+	    try (var content = SeekableContent.open(path)) {
+		final var buffer = ByteBuffer.allocate(SCAN_BUFFER_BYTES);
+		while (step(content, buffer)) {
+		    Thread.yield();
+		}
+	    } catch (final IOException e) {
+		// The index is only an optimization, seeks scan on their own
+	    } finally {
+		synchronized (this) {
+		    building = false;
+		}
+	    }
+	}, "Checkpoint-Index");
+	thread.setDaemon(true);
+	thread.setPriority(Thread.MIN_PRIORITY);
+	thread.start();
+    }
+
+    /**
+     * Finds the content offset where a record starts, scanning from the nearest
+     * checkpoint. The index is extended first if it does not reach that far.
+     *
+     * @param record    the record number, 0 being the header row if there is one
+     * @param cancelled checked while extending the index
+     * @return the offset of the record, the content size if the file has exactly
+     *         that many records, or -1 if it has fewer or the seek was cancelled
+     */
+    public long seek(final long record, final BooleanSupplier cancelled) throws IOException {
+	final var interval = UIConstants.CHECKPOINT_INTERVAL_ROWS;
+	final var checkpoint = (int) Math.min(record / interval, Integer.MAX_VALUE);
+	final var buffer = ByteBuffer.allocate(SCAN_BUFFER_BYTES);
+	final long start;
+	try (var content = SeekableContent.open(path)) {
+	    while (!reaches(checkpoint) && !cancelled.getAsBoolean() && step(content, buffer)) {
+		// Extend the index up to the checkpoint
+	    }
+	    synchronized (this) {
+		if (checkpoint >= checkpointCount) {
+		    return complete && record == frontier.records ? frontier.position : -1;
+		}
+		start = checkpoints[checkpoint];
+	    }
+
+	    final var target = record - (long) checkpoint * interval;
+	    if (target == 0) {
+		return start;
+	    }
+	    // Quotes are closed at every record start, so a fresh scan can begin here
+	    final var scan = new Scan(dialect, start);
+	    final var found = new long[] { -1 };
+	    while (found[0] < 0 && !cancelled.getAsBoolean()
+		    && scan.step(content, buffer, (number, offset) -> {
+			if (number == target) {
+			    found[0] = offset;
+			}
+		    })) {
+		// Scan until the record starts
+	    }
+	    if (found[0] < 0 && scan.records == target) {
+		return scan.position; // The file ends right before the record
+	    }
+	    return found[0];
+	}
+    }
+
+    private synchronized boolean reaches(final int checkpoint) {
+	return checkpoint < checkpointCount || complete;
+    }
+
+    /**
+     * Scans the next buffer of the file at the frontier of the index
+     *
+     * @return false once the whole file is indexed
+     */
+    private synchronized boolean step(final SeekableContent content, final ByteBuffer buffer) throws IOException {
+	if (complete) {
+	    return false;
+	}
+	complete = !frontier.step(content, buffer, (number, offset) -> {
+	    if (number % UIConstants.CHECKPOINT_INTERVAL_ROWS == 0) {
+		if (checkpointCount == checkpoints.length) {
+		    checkpoints = Arrays.copyOf(checkpoints, checkpointCount * 2);
+		}
+		checkpoints[checkpointCount++] = offset;
+	    }
+	});
+	return !complete;
+    }
+
+    /**
+     * Checks if the whole file has been indexed
+     */
+    public synchronized boolean isComplete() {
+	return complete;
+    }
+
+    /**
+     * Gets the number of records indexed so far, which is the number of records
+     * in the file once the index is complete
+     */
+    public synchronized long getRecordCount() {
+	return frontier.records;
+    }
+
+    /**
+     * Receives the number and start offset of each record a scan finds
+     */
+    @FunctionalInterface
+    private interface RecordListener {
+	void onRecord(long number, long offset);
+    }
+
+    /**
+     * A scan for record boundaries that can be continued buffer by buffer. Empty
+     * and blank lines are skipped like the parser does with the same options.
+     */
+    private final class Scan {
+	private final RecordBoundaryScanner boundaries;
+	private final byte delimiter;
+	private long position;
+	private long recordStart;
+	private long records;
+	private boolean afterCR;
+	private boolean blank = true;
+
+	private Scan(final CSVDialect dialect, final long start) {
+	    this.boundaries = new RecordBoundaryScanner(dialect);
+	    this.delimiter = (byte) dialect.getDelimiter();
+	    this.position = start;
+	    this.recordStart = start;
+	}
+
+	/**
+	 * Scans the next buffer, reporting each record that ends in it
+	 *
+	 * @return false at the end of the file
+	 */
+	private boolean step(final SeekableContent content, final ByteBuffer buffer, final RecordListener listener)
+		throws IOException {
+	    final var read = content.read(buffer.clear(), position);
+	    if (read <= 0) {
+		if (recordStart < position) {
+		    endRecord(position, listener);
+		    recordStart = position;
+		}
+		return false;
+	    }
+	    final var bytes = buffer.array();
+	    for (var i = 0; i < read; i++) {
+		final var b = bytes[i];
+		final var offset = position + i;
+		if (afterCR) {
+		    afterCR = false;
+		    if (b == '\n') {
+			recordStart = offset + 1;
+			continue;
+		    }
+		}
+		if (!boundaries.isBoundary(b)) {
+		    if (b != ' ' && b != '\t') {
+			blank = false;
+		    }
+		} else if (b == delimiter) {
+		    blank = false;
+		} else {
+		    endRecord(offset, listener);
+		    afterCR = b == '\r';
+		    recordStart = offset + 1;
+		    blank = true;
+		}
+	    }
+	    position += read;
+	    return true;
+	}
+
+	private void endRecord(final long end, final RecordListener listener) {
+	    if ((skipEmptyLines && recordStart == end) || (skipBlankLines && blank)) {
+		return;
+	    }
+	    listener.onRecord(records++, recordStart);
+	}
+    }
+}
@@ -0,0 +1,82 @@
+package io.github.seerainer.csvedit.io;
+
+import io.github.seerainer.csvedit.model.CSVTableModel;
+
+/**
+ * Value type of a column written to a typed binary format. A column is only
+ * typed if every non-empty value converts back to exactly the same text, so
+ * writing typed values never changes a cell; empty values become nulls.
+ */
+enum ColumnType {
+
+    TEXT, INTEGER, DOUBLE, BOOLEAN;
+
+    /**
+     * Picks the narrowest type that reproduces every non-empty value of a column
+     */
+    static ColumnType infer(final CSVTableModel model, final int col) {
+	var integers = true;
+	var doubles = true;
+	var booleans = true;
+	var present = false;
+	final var rowCount = model.getRowCount();
+	for (var i = 0; i < rowCount && (integers || doubles || booleans); i++) {
+	    final var value = model.getValue(i, col);
+	    if (value == null || value.isEmpty()) {
+		continue;
+	    }
+	    present = true;
+	    integers = integers && isCanonicalLong(value);
+	    doubles = doubles && isCanonicalDouble(value);
+	    booleans = booleans && ("true".equals(value) || "false".equals(value));
+	}
+	if (!present) {
+	    return TEXT;
+	}
+	if (integers) {
+	    return INTEGER;
+	}
+	if (doubles) {
+	    return DOUBLE;
+	}
+	return booleans ? BOOLEAN : TEXT;
+    }
+
+    /**
+     * Checks if a value of this type is null; only text columns keep empty
+     * values
+     */
+    boolean isNull(final String value) {
+	return value == null || (value.isEmpty() && this != TEXT);
+    }
+
+    private static boolean isCanonicalLong(final String value) {
+	final var length = value.length();
+	if (length > 20) {
+	    return false;
+	}
+	for (var i = 0; i < length; i++) {
+	    final var c = value.charAt(i);
+	    if ((c < '0' || c > '9') && (c != '-' || i > 0)) {
+		return false;
+	    }
+	}
+	try {
+	    return Long.toString(Long.parseLong(value)).equals(value);
+	} catch (final NumberFormatException e) {
+	    return false;
+	}
+    }
+
+    private static boolean isCanonicalDouble(final String value) {
+	final var first = value.charAt(0);
+	if ((first < '0' || first > '9') && first != '-') {
+	    return false;
+	}
+	try {
+	    return Double.toString(Double.parseDouble(value)).equals(value);
+	} catch (final NumberFormatException e) {
+	    return false;
+	}
+    }
+}
@@ -0,0 +1,81 @@
+package io.github.seerainer.csvedit.io;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntConsumer;
+
+import io.github.seerainer.csvedit.model.CSVTableModel;
+
+/**
+ * Loads a binary columnar file (Arrow IPC or Parquet) in the background,
+ * appending its record batches or row groups to the model as they are decoded
+ */
+public class ColumnarLoader {
+
+    private final String filePath;
+    private final CSVTableModel model;
+    private final ExecutorService executor;
+    private List<String> columns;
+    private volatile boolean cancelled = false;
+
+    public ColumnarLoader(final String filePath, final CSVTableModel model) {
+	this.filePath = filePath;
+	this.model = model;
+	this.executor = Executors.newSingleThreadExecutor(r -> {
+	    final var thread = new Thread(r, "Columnar-Loader");
+	    thread.setDaemon(true);
+	    return thread;
+	});
+    }
+
+    /**
+     * Checks if a file is in a columnar format this loader reads
+     */
+    public static boolean isColumnarFile(final String fileName) {
+	return ArrowOperations.isArrowFile(fileName) || ParquetOperations.isParquetFile(fileName);
+    }
+
+    /**
+     * Restrict loading a Parquet file to the given columns, so the chunks of all
+     * other columns are never read. Arrow files are always loaded completely.
+     *
+     * @param columns the names of the columns to load, or null to load all
+     */
+    public void setColumns(final List<String> columns) {
+	this.columns = columns != null ? List.copyOf(columns) : null;
+    }
+
+    /**
+     * Cancel the loading operation. The batches read so far stay in the model
+     * and are reported as complete.
+     */
+    public void cancel() {
+	cancelled = true;
+    }
+
+    /**
+     * Load the file asynchronously in the background
+     */
+    public CompletableFuture<Void> loadAsync(final LazyCSVLoader.ProgressCallback callback) {
+	return CompletableFuture.runAsync(() -> {
+	    try {
+		final IntConsumer progress = rowsLoaded -> callback.onProgress(rowsLoaded, -1, false);
+		final var rowCount = ParquetOperations.isParquetFile(filePath)
+			? ParquetOperations.loadParquet(filePath, model, columns, progress, () -> cancelled)
+			: ArrowOperations.loadArrow(filePath, model, progress, () -> cancelled);
+		callback.onProgress(rowCount, rowCount, true);
+	    } catch (final Exception e) {
+		callback.onError(e);
+	    }
+	}, executor);
+    }
+
+    /**
+     * Shutdown the executor
+     */
+    public void shutdown() {
+	executor.shutdown();
+    }
+}
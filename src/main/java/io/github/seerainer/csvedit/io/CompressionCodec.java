@@ -0,0 +1,127 @@
+package io.github.seerainer.csvedit.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import io.airlift.compress.zstd.ZstdInputStream;
+import io.airlift.compress.zstd.ZstdOutputStream;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+import net.jpountz.xxhash.XXHashFactory;
+
+/**
+ * Compression codecs supported for reading and writing CSV files. Codecs are
+ * recognised by their magic bytes when reading and by the file extension when
+ * writing. Zstandard and LZ4 use pure-Java implementations so no native
+ * libraries are required.
+ */
+public enum CompressionCodec {
+
+    NONE(""), GZIP(".gz"), ZSTD(".zst"), LZ4(".lz4");
+
+    private static final byte[] GZIP_MAGIC = { 0x1F, (byte) 0x8B };
+    private static final byte[] ZSTD_MAGIC = { 0x28, (byte) 0xB5, 0x2F, (byte) 0xFD };
+    private static final byte[] LZ4_MAGIC = { 0x04, 0x22, 0x4D, 0x18 };
+
+    private final String extension;
+
+    CompressionCodec(final String extension) {
+	this.extension = extension;
+    }
+
+    /**
+     * Detects the codec of an existing file from its magic bytes, falling back to
+     * the file extension if the file cannot be read
+     */
+    public static CompressionCodec detect(final Path filePath) {
+	try (var in = Files.newInputStream(filePath)) {
+	    return fromMagic(in.readNBytes(4));
+	} catch (final IOException e) {
+	    return fromFileName(filePath.getFileName().toString());
+	}
+    }
+
+    /**
+     * Detects the codec from the leading bytes of a file
+     */
+    public static CompressionCodec fromMagic(final byte[] header) {
+	if (startsWith(header, GZIP_MAGIC)) {
+	    return GZIP;
+	}
+	if (startsWith(header, ZSTD_MAGIC)) {
+	    return ZSTD;
+	}
+	if (startsWith(header, LZ4_MAGIC)) {
+	    return LZ4;
+	}
+	return NONE;
+    }
+
+    /**
+     * Determines the codec from a file name extension
+     */
+    public static CompressionCodec fromFileName(final String fileName) {
+	if (fileName == null) {
+	    return NONE;
+	}
+	final var lowerCase = fileName.toLowerCase();
+	for (final var codec : values()) {
+	    if (codec != NONE && lowerCase.endsWith(codec.extension)) {
+		return codec;
+	    }
+	}
+	return NONE;
+    }
+
+    private static boolean startsWith(final byte[] header, final byte[] magic) {
+	if (header.length < magic.length) {
+	    return false;
+	}
+	for (var i = 0; i < magic.length; i++) {
+	    if (header[i] != magic[i]) {
+		return false;
+	    }
+	}
+	return true;
+    }
+
+    /**
+     * Gets the file extension including the leading dot, empty for NONE
+     */
+    public String getExtension() {
+	return extension;
+    }
+
+    /**
+     * Wraps a raw input stream with a decompressing stream
+     */
+    public InputStream wrap(final InputStream in) throws IOException {
+	return switch (this) {
+	case NONE -> in;
+	case GZIP -> new GZIPInputStream(in, 64 * 1024);
+	case ZSTD -> new ZstdInputStream(in);
+	case LZ4 -> new LZ4FrameInputStream(in, LZ4Factory.safeInstance().safeDecompressor(),
+		XXHashFactory.safeInstance().hash32());
+	};
+    }
+
+    /**
+     * Wraps a raw output stream with a compressing stream
+     */
+    public OutputStream wrap(final OutputStream out) throws IOException {
+	return switch (this) {
+	case NONE -> out;
+	case GZIP -> new GZIPOutputStream(out, 64 * 1024);
+	case ZSTD -> new ZstdOutputStream(out);
+	case LZ4 -> new LZ4FrameOutputStream(out, LZ4FrameOutputStream.BLOCKSIZE.SIZE_4MB, -1L,
+		LZ4Factory.safeInstance().fastCompressor(), XXHashFactory.safeInstance().hash32(),
+		LZ4FrameOutputStream.FLG.Bits.BLOCK_INDEPENDENCE);
+	};
+    }
+}
@@ -0,0 +1,398 @@
+package io.github.seerainer.csvedit.io;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.grack.nanojson.JsonArray;
+import com.grack.nanojson.JsonObject;
+import com.grack.nanojson.JsonParser;
+import com.grack.nanojson.JsonParserException;
+import com.grack.nanojson.JsonWriter;
+
+import io.github.seerainer.csvedit.model.CSVTableModel;
+import io.github.seerainer.csvedit.model.UndoRedoManager;
+
+/**
+ * Append-only journal of the edits made to a CSV file since it was last saved,
+ * kept next to the file. Edits are collected on the UI thread and written in
+ * batches, each synced to disk, so writing a batch costs as much as the edits
+ * in it rather than the whole file. After a crash the journal is replayed over
+ * the original file; a save folds it into the file and removes it.
+ * <p>
+ * The first line describes the file the edits apply to, every further line is
+ * one edit action as JSON. Sorting and reordering columns are written as the
+ * new order; changes that replace all data (e.g. editing the text) are written
+ * as a snapshot of the model, streamed to disk one row per line.
+ */
+public class EditJournal implements CSVTableModel.ChangeListener {
+
+    private static final String JOURNAL_SUFFIX = ".journal";
+    private static final String TYPE_SNAPSHOT = "SNAPSHOT";
+    private static final String TYPE_ROW_ORDER = "ROW_ORDER";
+    private static final String TYPE_COLUMN_ORDER = "COLUMN_ORDER";
+
+    private final CSVTableModel model;
+    private final List<Entry> pending = new ArrayList<>();
+    private boolean snapshotNeeded = false;
+    private volatile CSVFileSource source;
+
+    /**
+     * Creates a journal for the model loaded from the given file. The source may
+     * be null until the model is first saved.
+     */
+    public EditJournal(final CSVFileSource source, final CSVTableModel model) {
+	this.source = source;
+	this.model = model;
+    }
+
+    /**
+     * Gets the hidden journal file next to a CSV file
+     */
+    public static Path getJournalPath(final Path file) {
+	return file.resolveSibling("." + file.getFileName() + JOURNAL_SUFFIX);
+    }
+
+    /**
+     * Checks if a journal with edits exists for the given, unchanged file
+     */
+    public static boolean hasRecoverableEdits(final CSVFileSource source) {
+	final var journalPath = getJournalPath(source.getPath());
+	if (!Files.isRegularFile(journalPath)) {
+	    return false;
+	}
+	try (var reader = Files.newBufferedReader(journalPath, StandardCharsets.UTF_8)) {
+	    return matchesSource(reader.readLine(), source) && reader.readLine() != null;
+	} catch (final IOException e) {
+	    return false;
+	}
+    }
+
+    /**
+     * Replays the journal of a file over the model loaded from it. A torn last
+     * entry, left by a crash during a write, is ignored.
+     *
+     * @return the number of edits applied
+     */
+    public static int replay(final CSVFileSource source, final CSVTableModel model) throws IOException {
+	try (var reader = Files.newBufferedReader(getJournalPath(source.getPath()), StandardCharsets.UTF_8)) {
+	    if (!matchesSource(reader.readLine(), source)) {
+		return 0;
+	    }
+	    var applied = 0;
+	    String line;
+	    while ((line = reader.readLine()) != null) {
+		final JsonObject entry;
+		try {
+		    entry = JsonParser.object().from(line);
+		} catch (final JsonParserException e) {
+		    break;
+		}
+		if (TYPE_SNAPSHOT.equals(entry.getString("type"))) {
+		    if (!applySnapshot(entry, reader, model)) {
+			break;
+		    }
+		} else {
+		    apply(entry, model);
+		}
+		applied++;
+	    }
+	    return applied;
+	}
+    }
+
+    /**
+     * Deletes the journal of a file, e.g. when its edits are discarded
+     */
+    public static void delete(final Path file) throws IOException {
+	Files.deleteIfExists(getJournalPath(file));
+    }
+
+    @Override
+    public void onEdit(final UndoRedoManager.EditAction action) {
+	final var json = encode(action);
+	pending.add(out -> out.append(json));
+    }
+
+    @Override
+    public void onRowsReordered(final int[] order) {
+	final var copy = order.clone();
+	pending.add(out -> writeOrder(out, TYPE_ROW_ORDER, copy));
+    }
+
+    @Override
+    public void onColumnsReordered(final int[] order) {
+	final var copy = order.clone();
+	pending.add(out -> writeOrder(out, TYPE_COLUMN_ORDER, copy));
+    }
+
+    @Override
+    public void onReset() {
+	pending.clear();
+	snapshotNeeded = true;
+    }
+
+    /**
+     * Checks if there are edits that have not been written yet
+     */
+    public boolean hasPendingEdits() {
+	return snapshotNeeded || !pending.isEmpty();
+    }
+
+    /**
+     * Takes the edits that have not been written yet. Must be called on the
+     * thread that modifies the model.
+     */
+    public Batch drain() {
+	final var batch = new Batch(snapshotNeeded ? model.copy() : null, new ArrayList<>(pending));
+	pending.clear();
+	snapshotNeeded = false;
+	return batch;
+    }
+
+    /**
+     * Appends a batch to the journal and syncs it to disk. A journal that starts
+     * over, i.e. a new one or one with a snapshot, is written to a temporary file
+     * that then replaces the old journal, so a crash never loses the edits
+     * already journaled. Batches must be written in the order they were drained.
+     */
+    public void write(final Batch batch) throws IOException {
+	final var current = source;
+	if (current == null || batch.isEmpty()) {
+	    return;
+	}
+	final var journalPath = getJournalPath(current.getPath());
+	if (batch.snapshot == null && Files.exists(journalPath)) {
+	    append(journalPath, null, batch);
+	    return;
+	}
+	final var temp = FileOperations.createTempFile(journalPath);
+	try {
+	    append(temp, current, batch);
+	    FileOperations.replaceAtomically(temp, journalPath);
+	} catch (final IOException e) {
+	    Files.deleteIfExists(temp);
+	    throw e;
+	}
+    }
+
+    /**
+     * Appends a batch to a file, preceded by the journal header if a source is
+     * given, and syncs it to disk
+     */
+    private static void append(final Path file, final CSVFileSource header, final Batch batch) throws IOException {
+	try (var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+		StandardOpenOption.APPEND)) {
+	    final var writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8));
+	    if (header != null) {
+		writer.append(encodeHeader(header)).append('\n');
+	    }
+	    if (batch.snapshot != null) {
+		writeSnapshot(writer, batch.snapshot);
+	    }
+	    for (final var entry : batch.entries) {
+		entry.writeTo(writer);
+		writer.append('\n');
+	    }
+	    writer.flush();
+	    channel.force(false);
+	}
+    }
+
+    /**
+     * Starts over after the model was saved: the saved file contains every edit
+     * so far, so the journal is removed and later edits apply to the saved file
+     */
+    public void restart(final CSVFileSource saved) throws IOException {
+	final var previous = source;
+	if (previous != null) {
+	    delete(previous.getPath());
+	}
+	source = saved;
+	delete(saved.getPath());
+    }
+
+    /**
+     * Removes the journal file
+     */
+    public void delete() throws IOException {
+	final var current = source;
+	if (current != null) {
+	    delete(current.getPath());
+	}
+    }
+
+    private static boolean matchesSource(final String headerLine, final CSVFileSource source) {
+	if (headerLine == null) {
+	    return false;
+	}
+	try {
+	    final var header = JsonParser.object().from(headerLine);
+	    return source.getPath().toString().equals(header.getString("path"))
+		    && header.getLong("size") == source.getSize()
+		    && header.getLong("lastModified") == source.getLastModified();
+	} catch (final JsonParserException e) {
+	    return false;
+	}
+    }
+
+    private static String encodeHeader(final CSVFileSource source) {
+	final var header = new JsonObject();
+	header.put("path", source.getPath().toString());
+	header.put("size", Long.valueOf(source.getSize()));
+	header.put("lastModified", Long.valueOf(source.getLastModified()));
+	return JsonWriter.string(header);
+    }
+
+    /**
+     * Writes a snapshot entry with the headers and the number of rows, followed
+     * by one line per row
+     */
+    private static void writeSnapshot(final Appendable out, final CSVTableModel snapshot) throws IOException {
+	final var entry = new JsonObject();
+	entry.put("type", TYPE_SNAPSHOT);
+	entry.put("headers", new JsonArray(snapshot.getHeaders()));
+	entry.put("rows", Integer.valueOf(snapshot.getRowCount()));
+	out.append(JsonWriter.string(entry)).append('\n');
+	for (var i = 0; i < snapshot.getRowCount(); i++) {
+	    out.append(JsonWriter.string(new JsonArray(snapshot.getRowView(i)))).append('\n');
+	}
+    }
+
+    private static void writeOrder(final Appendable out, final String type, final int[] order) throws IOException {
+	out.append("{\"type\":\"").append(type).append("\",\"order\":[");
+	for (var i = 0; i < order.length; i++) {
+	    if (i > 0) {
+		out.append(',');
+	    }
+	    out.append(Integer.toString(order[i]));
+	}
+	out.append("]}");
+    }
+
+    private static String encode(final UndoRedoManager.EditAction action) {
+	final var entry = new JsonObject();
+	entry.put("type", action.getType().name());
+	switch (action.getType()) {
+	case CELL_EDIT -> {
+	    entry.put("row", Integer.valueOf(action.getRow()));
+	    entry.put("col", Integer.valueOf(action.getCol()));
+	    entry.put("value", action.getNewValue());
+	}
+	case ROW_ADD -> entry.put("values", new JsonArray(action.getRowData()));
+	case ROW_DELETE -> entry.put("row", Integer.valueOf(action.getRow()));
+	case ROW_MOVE -> {
+	    entry.put("from", Integer.valueOf(action.getFromIndex()));
+	    entry.put("to", Integer.valueOf(action.getToIndex()));
+	}
+	case COLUMN_ADD -> {
+	    final var columnData = action.getColumnData();
+	    entry.put("value", columnData == null || columnData.isEmpty() ? "" : columnData.getFirst());
+	}
+	case COLUMN_DELETE -> entry.put("col", Integer.valueOf(action.getCol()));
+	case HEADER_EDIT -> {
+	    entry.put("col", Integer.valueOf(action.getCol()));
+	    entry.put("value", action.getNewValue());
+	}
+	default -> throw new IllegalArgumentException("Unsupported action: " + action.getType());
+	}
+	return JsonWriter.string(entry);
+    }
+
+    /**
+     * Reads the rows of a snapshot entry and replaces the model's data with them
+     *
+     * @return false if the snapshot is incomplete, in which case the model is
+     *         unchanged
+     */
+    private static boolean applySnapshot(final JsonObject entry, final BufferedReader reader,
+	    final CSVTableModel model) throws IOException {
+	final var rowCount = entry.getInt("rows");
+	final List<List<String>> data = new ArrayList<>(rowCount);
+	for (var i = 0; i < rowCount; i++) {
+	    final var line = reader.readLine();
+	    if (line == null) {
+		return false;
+	    }
+	    try {
+		data.add(toStrings(JsonParser.array().from(line)));
+	    } catch (final JsonParserException e) {
+		return false;
+	    }
+	}
+	model.setHeaders(toStrings(entry.getArray("headers")));
+	model.setData(data);
+	return true;
+    }
+
+    private static void apply(final JsonObject entry, final CSVTableModel model) {
+	final var type = entry.getString("type");
+	if (TYPE_ROW_ORDER.equals(type)) {
+	    model.reorderRows(toInts(entry.getArray("order")));
+	    return;
+	}
+	if (TYPE_COLUMN_ORDER.equals(type)) {
+	    model.reorderColumns(toInts(entry.getArray("order")));
+	    return;
+	}
+	switch (UndoRedoManager.ActionType.valueOf(type)) {
+	case CELL_EDIT -> model.setValue(entry.getInt("row"), entry.getInt("col"), entry.getString("value"));
+	case ROW_ADD -> model.addRow(toStrings(entry.getArray("values")));
+	case ROW_DELETE -> model.removeRow(entry.getInt("row"));
+	case ROW_MOVE -> model.moveRow(entry.getInt("from"), entry.getInt("to"));
+	case COLUMN_ADD -> model.addColumn(entry.getString("value"));
+	case COLUMN_DELETE -> model.removeColumn(entry.getInt("col"));
+	case HEADER_EDIT -> model.setHeader(entry.getInt("col"), entry.getString("value"));
+	default -> throw new IllegalArgumentException("Unsupported action: " + type);
+	}
+    }
+
+    private static List<String> toStrings(final JsonArray array) {
+	final List<String> values = new ArrayList<>(array.size());
+	for (var i = 0; i < array.size(); i++) {
+	    values.add(array.isNull(i) ? null : array.getString(i));
+	}
+	return values;
+    }
+
+    private static int[] toInts(final JsonArray array) {
+	final var values = new int[array.size()];
+	for (var i = 0; i < values.length; i++) {
+	    values[i] = array.getInt(i);
+	}
+	return values;
+    }
+
+    /**
+     * A pending journal line, encoded when it is written
+     */
+    @FunctionalInterface
+    private interface Entry {
+	void writeTo(Appendable out) throws IOException;
+    }
+
+    /**
+     * Edits taken from the journal to be written in the background
+     */
+    public static class Batch {
+	private final CSVTableModel snapshot;
+	private final List<Entry> entries;
+
+	private Batch(final CSVTableModel snapshot, final List<Entry> entries) {
+	    this.snapshot = snapshot;
+	    this.entries = entries;
+	}
+
+	public boolean isEmpty() {
+	    return snapshot == null && entries.isEmpty();
+	}
+    }
+}
@@ -1,15 +1,22 @@
 package io.github.seerainer.csvedit.io;
 
-import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.nio.charset.Charset;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.zip.GZIPOutputStream;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
 
 import io.github.seerainer.csvedit.model.CSVTableModel;
-import io.github.seerainer.csvedit.util.Settings;
+import io.github.seerainer.csvedit.ui.UIConstants;
 
 /**
  * Utility class for loading and saving CSV files
@@ -21,11 +28,13 @@ public class FileOperations {
     }
 
     /**
-     * Loads a CSV file into the model (supports both regular and gzipped files)
+     * Loads a CSV file into the model (supports regular, gzip, zstd and lz4
+     * compressed files, detected by their magic bytes)
      */
     public static void loadCSV(final String filePath, final CSVTableModel model) throws IOException {
-	final var parsed = isGzipFile(filePath) ? CSVParserUtil.parseGzipCSVFile(filePath)
-		: CSVParserUtil.parseCSVFile(filePath);
+	final var codec = CompressionCodec.detect(Paths.get(filePath));
+	final var parsed = codec == CompressionCodec.NONE ? CSVParserUtil.parseCSVFile(filePath)
+		: CSVParserUtil.parseCompressedCSVFile(filePath, codec);
 
 	model.clear();
 	model.setHeaders(parsed.getHeaders());
@@ -33,6 +42,66 @@ public class FileOperations {
 	model.normalize(); // Ensure all rows have the same number of columns
     }
 
+    /**
+     * Loads a CSV file into the model using a detected dialect instead of the
+     * configured one
+     */
+    public static void loadCSV(final String filePath, final CSVTableModel model, final CSVDialect dialect)
+	    throws IOException {
+	final var codec = CompressionCodec.detect(Paths.get(filePath));
+	final var bytes = codec == CompressionCodec.NONE ? CSVParserUtil.readFileBytes(filePath)
+		: CSVParserUtil.readCompressedFileBytes(filePath, codec);
+	final var parsed = CSVParserUtil.parseCSVBytes(bytes, dialect);
+
+	model.clear();
+	model.setHeaders(parsed.getHeaders());
+	model.setData(parsed.getData());
+	model.normalize(); // Ensure all rows have the same number of columns
+    }
+
+    /**
+     * Loads the given columns of the rows a filter accepts into the model,
+     * leaving out all other fields and rows. Files that need no decompression or
+     * transcoding are split into fields without decoding the ones left out.
+     *
+     * @param columns the indices of the columns to load, in file order, or null
+     *                to load all
+     * @param filter  the filter rows must pass, or null to load all
+     */
+    public static void loadCSV(final String filePath, final CSVTableModel model, final CSVDialect dialect,
+	    final int[] columns, final RowFilter filter) throws IOException {
+	final var path = Paths.get(filePath);
+	final List<String> headers = new ArrayList<>();
+	final List<List<String>> data;
+	if (LazyFieldReader.isSupported(path, dialect)) {
+	    data = LazyFieldReader.read(path, dialect, columns, filter, headers, _ -> {
+	    }, () -> false);
+	} else {
+	    final var codec = CompressionCodec.detect(path);
+	    final var bytes = codec == CompressionCodec.NONE ? CSVParserUtil.readFileBytes(filePath)
+		    : CSVParserUtil.readCompressedFileBytes(filePath, codec);
+	    final var parsed = CSVParserUtil.parseCSVBytes(bytes, dialect, columns, filter);
+	    headers.addAll(parsed.getHeaders());
+	    data = parsed.getData();
+	}
+
+	model.clear();
+	model.setHeaders(headers);
+	model.appendRows(data);
+	model.normalize(); // Ensure all rows have the same number of columns
+    }
+
+    /**
+     * Reads the column names of a CSV file from its header row, or numbers the
+     * columns of its first row if it has none
+     */
+    public static List<String> readColumnNames(final String filePath, final CSVDialect dialect) throws IOException {
+	final var sample = new CSVTableModel();
+	SampleOperations.loadSample(Paths.get(filePath), dialect, sample, SampleOperations.Mode.HEAD, 1, _ -> {
+	}, () -> false);
+	return IntStream.range(0, sample.getColumnCount()).mapToObj(sample::getHeader).toList();
+    }
+
     /**
      * Check if a file is gzip compressed based on its extension
      */
@@ -41,77 +110,215 @@ public class FileOperations {
     }
 
     /**
-     * Saves the model data to a CSV file (supports both regular and gzipped files)
+     * Saves the model data to a CSV file (supports regular, gzip, zstd and lz4
+     * compressed files, chosen by extension)
      */
     public static void saveCSV(final String filePath, final CSVTableModel model) throws IOException {
-	if (isGzipFile(filePath)) {
-	    saveGzipCSV(filePath, model);
-	} else {
-	    saveRegularCSV(filePath, model);
+	saveCSV(filePath, model, (_, _) -> {
+	});
+    }
+
+    /**
+     * Saves the model data to a CSV file, reporting the rows written. The data is
+     * written to a temporary file in the same directory, synced to disk and then
+     * renamed over the target, so a failed save never leaves a truncated file.
+     */
+    public static void saveCSV(final String filePath, final CSVTableModel model,
+	    final SaveProgressCallback callback) throws IOException {
+	saveCSV(resolveTarget(filePath), model, CompressionCodec.fromFileName(filePath), CSVDialect.fromSettings(),
+		callback);
+    }
+
+    private static void saveCSV(final Path target, final CSVTableModel model, final CompressionCodec codec,
+	    final CSVDialect dialect, final SaveProgressCallback callback) throws IOException {
+	final var temp = createTempFile(target);
+	try {
+	    if (codec == CompressionCodec.NONE) {
+		saveRegularCSV(temp, model, dialect, callback);
+	    } else {
+		saveCompressedCSV(temp, model, codec, dialect, callback);
+	    }
+	    replaceAtomically(temp, target);
+	} catch (final IOException e) {
+	    Files.deleteIfExists(temp);
+	    throw e;
 	}
     }
 
+    /**
+     * Saves the model data to a CSV file. If the target is the unchanged source
+     * file the model was loaded from, only the modified rows are rewritten;
+     * otherwise the whole file is saved. A save over the source file keeps the
+     * dialect and compression it was loaded with, even if the settings or its
+     * extension say otherwise. If the source has no header row, the generated
+     * column names are not written either.
+     *
+     * @return the saved file, as source for the next save
+     */
+    public static CSVFileSource saveCSV(final String filePath, final CSVTableModel model, final CSVFileSource source,
+	    final SaveProgressCallback callback) throws IOException {
+	final var target = resolveTarget(filePath);
+	final var overSource = source != null && source.getPath().equals(target);
+	if (overSource && IncrementalCSVSaver.canSave(source, model)
+		&& IncrementalCSVSaver.save(source, model, callback)) {
+	    return CSVFileSource.capture(source.getPath(), source.getDialect());
+	}
+	final var header = source == null || source.getDialect().hasHeader();
+	final var dialect = overSource ? source.getDialect() : CSVDialect.fromSettings(header);
+	saveCSV(target, model, overSource ? source.getCodec() : CompressionCodec.fromFileName(filePath), dialect,
+		callback);
+	return CSVFileSource.capture(target, dialect);
+    }
+
     /**
      * Saves the model data to a regular CSV file
      */
-    private static void saveRegularCSV(final String filePath, final CSVTableModel model) throws IOException {
-	final var charset = Charset.forName(Settings.getEncoding());
-	try (var writer = Files.newBufferedWriter(Paths.get(filePath), charset)) {
-	    writeCSVContent(writer, model);
+    private static void saveRegularCSV(final Path path, final CSVTableModel model, final CSVDialect dialect,
+	    final SaveProgressCallback callback) throws IOException {
+	try (var channel = FileChannel.open(path, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+	    writeCSVContent(channel, model, dialect, callback);
+	    channel.force(true);
 	}
     }
 
     /**
-     * Saves the model data to a gzip compressed CSV file
+     * Saves the model data to a compressed CSV file
      */
-    private static void saveGzipCSV(final String filePath, final CSVTableModel model) throws IOException {
-	final var charset = Charset.forName(Settings.getEncoding());
-	try (var fos = Files.newOutputStream(Paths.get(filePath));
-		var gzos = new GZIPOutputStream(fos);
-		var osw = new OutputStreamWriter(gzos, charset);
-		var writer = new BufferedWriter(osw)) {
-	    writeCSVContent(writer, model);
+    private static void saveCompressedCSV(final Path path, final CSVTableModel model, final CompressionCodec codec,
+	    final CSVDialect dialect, final SaveProgressCallback callback) throws IOException {
+	try (var fos = Files.newOutputStream(path);
+		var cos = codec.wrap(fos);
+		var channel = Channels.newChannel(cos)) {
+	    writeCSVContent(channel, model, dialect, callback);
+	}
+	// The compressor closes the file, so sync it through a new handle
+	try (var channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+	    channel.force(true);
 	}
     }
 
     /**
-     * Writes CSV content to a writer
+     * Resolves the file a save writes to, following symbolic links so that they
+     * are not replaced by the new file
      */
-    private static void writeCSVContent(final BufferedWriter writer, final CSVTableModel model) throws IOException {
+    private static Path resolveTarget(final String filePath) throws IOException {
+	final var path = Paths.get(filePath).toAbsolutePath();
+	return Files.exists(path) ? path.toRealPath() : path;
+    }
+
+    /**
+     * Creates a temporary file next to the target, with the permissions of the
+     * target where the file system supports POSIX permissions
+     */
+    static Path createTempFile(final Path target) throws IOException {
+	final var temp = Files.createTempFile(target.getParent(), "." + target.getFileName() + ".", ".tmp");
+	if (!Files.exists(target)) {
+	    return temp;
+	}
+	try {
+	    Files.setPosixFilePermissions(temp, Files.getPosixFilePermissions(target));
+	} catch (final UnsupportedOperationException e) {
+	    // Not a POSIX file system; the default permissions apply
+	} catch (final IOException e) {
+	    Files.deleteIfExists(temp);
+	    throw e;
+	}
+	return temp;
+    }
+
+    /**
+     * Renames the temporary file over the target and syncs the directory entry
+     */
+    static void replaceAtomically(final Path temp, final Path target) throws IOException {
+	try {
+	    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+	} catch (final AtomicMoveNotSupportedException e) {
+	    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+	}
+	try (var directory = FileChannel.open(target.getParent(), StandardOpenOption.READ)) {
+	    directory.force(true);
+	} catch (final IOException e) {
+	    // Directories cannot be opened for syncing on every platform (e.g. Windows)
+	}
+    }
+
+    /**
+     * Writes CSV content in a dialect to a channel, starting with the byte order
+     * mark and the header row if the dialect has them. Blocks of rows are encoded
+     * in parallel unless the charset is stateful (e.g. UTF-16).
+     */
+    private static void writeCSVContent(final WritableByteChannel channel, final CSVTableModel model,
+	    final CSVDialect dialect, final SaveProgressCallback callback) throws IOException {
 	final var rowCount = model.getRowCount();
 	final var colCount = model.getColumnCount();
+	final var header = dialect.hasHeader();
+	final var delimiter = dialect.getDelimiter();
+	final var quote = dialect.getQuote();
+	final var escape = dialect.getEscape();
+	final var lineEnding = CSVStreamWriter.resolveLineEnding(dialect.getLineEnding());
+	final var charset = dialect.getCharset();
+	final var blockCount = ParallelBlockWriter.blockCount(rowCount);
 
-	// Write headers as the first row
-	final var headers = model.getHeaders();
-	for (var j = 0; j < colCount; j++) {
-	    final var value = j < headers.size() ? headers.get(j) : "Column " + (j + 1);
-	    writer.write(CSVConfigurationFactory.escapeValue(value));
-	    if (j < colCount - 1) {
-		writer.write(",");
-	    }
+	if (dialect.hasBOM()) {
+	    ParallelBlockWriter.writeFully(channel, "\uFEFF".getBytes(charset));
 	}
-	writer.newLine();
 
-	// Write data rows
-	for (var i = 0; i < rowCount; i++) {
-	    final var row = model.getRow(i);
+	if (!CSVStreamWriter.isAsciiCompatible(charset)) {
+	    final var writer = new CSVStreamWriter(channel, delimiter, quote, escape, lineEnding, charset);
+	    for (var block = 0; block < blockCount; block++) {
+		final var end = ParallelBlockWriter.blockEnd(block, rowCount);
+		writeCSVRows(writer, model, ParallelBlockWriter.blockStart(block), end, colCount,
+			header && block == 0);
+		callback.onProgress(end, rowCount);
+	    }
+	    writer.finish();
+	    return;
+	}
 
-	    // Ensure row has enough columns
-	    while (row.size() < colCount) {
-		row.add("");
+	ParallelBlockWriter.write(channel, blockCount, block -> {
+	    final var out = new ByteArrayOutputStream();
+	    try (var writer = new CSVStreamWriter(Channels.newChannel(out), delimiter, quote, escape, lineEnding,
+		    charset, UIConstants.CSV_BLOCK_BUFFER_BYTES)) {
+		writeCSVRows(writer, model, ParallelBlockWriter.blockStart(block),
+			ParallelBlockWriter.blockEnd(block, rowCount), colCount, header && block == 0);
 	    }
+	    return out.toByteArray();
+	}, block -> callback.onProgress(ParallelBlockWriter.blockEnd(block, rowCount), rowCount));
+    }
+
+    /**
+     * Writes a range of rows, preceded by the header row for the first range
+     */
+    private static void writeCSVRows(final CSVStreamWriter writer, final CSVTableModel model, final int from,
+	    final int to, final int colCount, final boolean withHeaders) throws IOException {
+	final var rowCount = model.getRowCount();
 
+	// Write headers as the first row
+	if (withHeaders) {
+	    final var headers = model.getHeaders();
 	    for (var j = 0; j < colCount; j++) {
-		final var value = row.get(j);
-		writer.write(CSVConfigurationFactory.escapeValue(value));
-		if (j < colCount - 1) {
-		    writer.write(",");
+		if (j > 0) {
+		    writer.writeDelimiter();
 		}
+		writer.writeField(j < headers.size() ? headers.get(j) : "Column " + (j + 1));
 	    }
+	    writer.writeLineEnding();
+	}
 
+	// Write data rows, padded to the column count without copying them
+	for (var i = from; i < to; i++) {
+	    writer.writeRecord(model.getRowView(i), colCount);
 	    if (i < rowCount - 1) {
-		writer.newLine();
+		writer.writeLineEnding();
 	    }
 	}
     }
+
+    /**
+     * Receives save progress; called on the saving thread
+     */
+    @FunctionalInterface
+    public interface SaveProgressCallback {
+	void onProgress(int rowsWritten, int totalRows);
+    }
 }
\ No newline at end of file
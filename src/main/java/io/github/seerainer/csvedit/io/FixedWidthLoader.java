@@ -0,0 +1,60 @@
+package io.github.seerainer.csvedit.io;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import io.github.seerainer.csvedit.model.CSVTableModel;
+
+/**
+ * Loads a fixed-width file in the background with a given column layout.
+ */
+public class FixedWidthLoader {
+
+    private final String filePath;
+    private final CSVTableModel model;
+    private final FixedWidthSpec spec;
+    private final ExecutorService executor;
+    private volatile boolean cancelled = false;
+
+    public FixedWidthLoader(final String filePath, final CSVTableModel model, final FixedWidthSpec spec) {
+	this.filePath = filePath;
+	this.model = model;
+	this.spec = spec;
+	this.executor = Executors.newSingleThreadExecutor(r -> {
+	    final var thread = new Thread(r, "FixedWidth-Loader");
+	    thread.setDaemon(true);
+	    return thread;
+	});
+    }
+
+    /**
+     * Cancel the loading operation. The ranges parsed so far stay in the model
+     * and are reported as complete.
+     */
+    public void cancel() {
+	cancelled = true;
+    }
+
+    /**
+     * Load the file asynchronously in the background
+     */
+    public CompletableFuture<Void> loadAsync(final LazyCSVLoader.ProgressCallback callback) {
+	return CompletableFuture.runAsync(() -> {
+	    try {
+		final var rowCount = FixedWidthOperations.loadFixedWidth(filePath, model, spec,
+			rowsParsed -> callback.onProgress(rowsParsed, -1, false), () -> cancelled);
+		callback.onProgress(rowCount, rowCount, true);
+	    } catch (final Exception e) {
+		callback.onError(e);
+	    }
+	}, executor);
+    }
+
+    /**
+     * Shutdown the executor
+     */
+    public void shutdown() {
+	executor.shutdown();
+    }
+}
@@ -0,0 +1,365 @@
+package io.github.seerainer.csvedit.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import io.github.seerainer.csvedit.model.CSVTableModel;
+import io.github.seerainer.csvedit.ui.UIConstants;
+import io.github.seerainer.csvedit.util.Settings;
+
+/**
+ * Reads and writes fixed-width text files in the configured encoding. Files are
+ * memory-mapped and parsed in parallel ranges. When every line has the same
+ * length in bytes, row boundaries are computed from the record length and
+ * values are sliced straight out of the mapped records; otherwise the file is
+ * split at line breaks.
+ */
+public class FixedWidthOperations {
+
+    private FixedWidthOperations() {
+	throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Checks if a file is a fixed-width file based on its extension
+     */
+    public static boolean isFixedWidthFile(final String filePath) {
+	return filePath.toLowerCase().endsWith(".fwf");
+    }
+
+    /**
+     * Detects the column layout from sample lines taken at evenly spaced
+     * positions of a file, starting with its first lines, so values that only
+     * grow wider further down the file are seen
+     *
+     * @see FixedWidthSpec#detect(List)
+     */
+    public static FixedWidthSpec detectSpec(final String filePath) throws IOException {
+	final var charset = Charset.forName(Settings.getEncoding());
+	final List<String> lines = new ArrayList<>();
+	try (var channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+	    final var size = channel.size();
+	    final var blocks = size > UIConstants.FIXED_WIDTH_SAMPLE_BYTES ? UIConstants.FIXED_WIDTH_SAMPLE_BLOCKS : 1;
+	    final var blockSize = UIConstants.FIXED_WIDTH_SAMPLE_BYTES / blocks;
+	    for (var block = 0; block < blocks; block++) {
+		final var position = (size - blockSize) * block / Math.max(1, blocks - 1);
+		final var sample = ByteBuffer.allocate(blockSize);
+		while (sample.hasRemaining() && channel.read(sample, position + sample.position()) >= 0) {
+		    // Fill the sample or read up to the end of the file
+		}
+		sample.flip();
+		final var skip = block == 0 ? bomLength(sample, charset) : 0;
+		final var blockLines = new ArrayList<>(
+			new String(sample.array(), skip, sample.limit() - skip, charset).lines().toList());
+		// Samples taken mid-file start and may end with a partial line
+		if (block > 0 && !blockLines.isEmpty()) {
+		    blockLines.removeFirst();
+		}
+		if (position + sample.limit() < size && !blockLines.isEmpty()) {
+		    blockLines.removeLast();
+		}
+		blockLines.stream().filter(line -> !line.isBlank()).forEach(lines::add);
+	    }
+	}
+	return FixedWidthSpec.detect(lines);
+    }
+
+    /**
+     * Loads a fixed-width file with the given column layout. Blank lines are
+     * skipped. Ranges parsed before the load is cancelled are kept.
+     *
+     * @return the number of rows loaded
+     */
+    public static int loadFixedWidth(final String filePath, final CSVTableModel model, final FixedWidthSpec spec,
+	    final IntConsumer progress, final BooleanSupplier cancelled) throws IOException {
+	final var charset = Charset.forName(Settings.getEncoding());
+	final List<Chunk> chunks;
+	try (var channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+	    final var head = ByteBuffer.allocate(UIConstants.FIXED_WIDTH_SAMPLE_BYTES);
+	    channel.read(head, 0);
+	    head.flip();
+	    final var start = bomLength(head, charset);
+	    final var size = channel.size();
+	    final var parsed = new AtomicInteger();
+	    final var records = isSingleByte(charset) || charset.equals(StandardCharsets.UTF_8)
+		    ? new RecordLayout(head, start, size)
+		    : null;
+	    List<Chunk> fixed = null;
+	    if (records != null && records.length > 0) {
+		final var count = JSONOperations.chunkCount(size - start);
+		final var perChunk = (records.count + count - 1) / count;
+		final var bounds = LongStream.rangeClosed(0, count)
+			.map(i -> Math.min(size, start + i * perChunk * records.length)).toArray();
+		fixed = parse(channel, bounds, parsed, progress, cancelled,
+			buffer -> parseRecords(buffer, records, spec, charset));
+	    }
+	    if (fixed == null || fixed.stream().anyMatch(chunk -> chunk.misaligned)) {
+		final var bounds = JSONOperations.splitAtLineBreaks(channel);
+		bounds[0] = Math.min(start, bounds[1]);
+		parsed.set(0);
+		chunks = parse(channel, bounds, parsed, progress, cancelled,
+			buffer -> parseLines(buffer, spec, charset));
+	    } else {
+		chunks = fixed;
+	    }
+	} catch (final UncheckedIOException e) {
+	    throw e.getCause();
+	}
+
+	model.clear();
+	final List<String> headers = new ArrayList<>();
+	var rowCount = 0;
+	var first = spec.hasHeader();
+	for (final var chunk : chunks) {
+	    if (chunk.skipped) {
+		break;
+	    }
+	    var rows = chunk.rows;
+	    if (first && !rows.isEmpty()) {
+		headers.addAll(rows.getFirst());
+		rows = rows.subList(1, rows.size());
+		first = false;
+	    }
+	    model.appendRows(rows);
+	    rowCount += rows.size();
+	}
+	model.setHeaders(headers);
+	model.normalize();
+	return rowCount;
+    }
+
+    private static List<Chunk> parse(final FileChannel channel, final long[] bounds, final AtomicInteger parsed,
+	    final IntConsumer progress, final BooleanSupplier cancelled, final ChunkParser parser) {
+	return IntStream.range(0, bounds.length - 1).parallel().mapToObj(i -> {
+	    if (cancelled.getAsBoolean()) {
+		final var chunk = new Chunk();
+		chunk.skipped = true;
+		return chunk;
+	    }
+	    try {
+		final var chunk = parser
+			.parse(channel.map(FileChannel.MapMode.READ_ONLY, bounds[i], bounds[i + 1] - bounds[i]));
+		progress.accept(parsed.addAndGet(chunk.rows.size()));
+		return chunk;
+	    } catch (final IOException e) {
+		throw new UncheckedIOException(e);
+	    }
+	}).toList();
+    }
+
+    /**
+     * Slices the values of whole records out of a mapped range, checking that
+     * each record ends with the line terminator of the first. Values are sliced
+     * at byte offsets unless a record of a multi-byte encoding holds non-ASCII
+     * characters.
+     */
+    private static Chunk parseRecords(final ByteBuffer buffer, final RecordLayout records, final FixedWidthSpec spec,
+	    final Charset charset) {
+	final var chunk = new Chunk();
+	final var contentLength = records.length - records.terminator;
+	final var bytes = new byte[contentLength];
+	final var singleByte = isSingleByte(charset);
+	final var offsets = new int[spec.getColumnCount() + 1];
+	for (var col = 0; col < offsets.length; col++) {
+	    offsets[col] = col < spec.getColumnCount() ? spec.getOffset(col) : Integer.MAX_VALUE;
+	}
+	for (var position = 0; position < buffer.limit(); position += records.length) {
+	    final var remaining = buffer.limit() - position;
+	    if (remaining < records.length ? remaining != contentLength : !endsRecord(buffer, position, records)) {
+		chunk.misaligned = true;
+		return chunk;
+	    }
+	    buffer.get(position, bytes);
+	    var blank = true;
+	    var ascii = true;
+	    for (var i = 0; i < contentLength; i++) {
+		blank &= bytes[i] == ' ' || bytes[i] == '\t';
+		ascii &= bytes[i] >= 0;
+	    }
+	    if (blank) {
+		continue;
+	    }
+	    if (!singleByte && !ascii) {
+		chunk.rows.add(spec.split(new String(bytes, charset)));
+		continue;
+	    }
+	    final List<String> row = new ArrayList<>(spec.getColumnCount());
+	    for (var col = 0; col < spec.getColumnCount(); col++) {
+		final var from = Math.min(offsets[col], contentLength);
+		final var to = Math.min(offsets[col + 1], contentLength);
+		row.add(new String(bytes, from, to - from, charset).strip());
+	    }
+	    chunk.rows.add(row);
+	}
+	return chunk;
+    }
+
+    private static boolean endsRecord(final ByteBuffer buffer, final int position, final RecordLayout records) {
+	final var end = position + records.length;
+	return buffer.get(end - 1) == '\n' && (records.terminator == 1 || buffer.get(end - 2) == '\r');
+    }
+
+    private static Chunk parseLines(final ByteBuffer buffer, final FixedWidthSpec spec, final Charset charset) {
+	final var chunk = new Chunk();
+	var bytes = new byte[256];
+	var lineStart = 0;
+	while (lineStart < buffer.limit()) {
+	    var lineEnd = lineStart;
+	    while (lineEnd < buffer.limit() && buffer.get(lineEnd) != '\n') {
+		lineEnd++;
+	    }
+	    var length = lineEnd - lineStart;
+	    if (length > 0 && buffer.get(lineStart + length - 1) == '\r') {
+		length--;
+	    }
+	    if (bytes.length < length) {
+		bytes = new byte[Math.max(length, bytes.length * 2)];
+	    }
+	    buffer.get(lineStart, bytes, 0, length);
+	    final var line = new String(bytes, 0, length, charset);
+	    if (!line.isBlank()) {
+		chunk.rows.add(spec.split(line));
+	    }
+	    lineStart = lineEnd + 1;
+	}
+	return chunk;
+    }
+
+    private static int bomLength(final ByteBuffer head, final Charset charset) {
+	final var utf8Bom = charset.equals(StandardCharsets.UTF_8) && head.limit() >= 3 && head.get(0) == (byte) 0xEF
+		&& head.get(1) == (byte) 0xBB && head.get(2) == (byte) 0xBF;
+	return utf8Bom ? 3 : 0;
+    }
+
+    private static boolean isSingleByte(final Charset charset) {
+	return charset.canEncode() && charset.newEncoder().maxBytesPerChar() == 1;
+    }
+
+    /**
+     * Saves the model data to a fixed-width file with the headers on the first
+     * line. Each column is as wide as its longest value and separated from the
+     * next by a space; numeric columns and their headers are right-aligned. Every line is padded to
+     * the same length, so the file reloads with computed row boundaries.
+     */
+    public static void saveFixedWidth(final String filePath, final CSVTableModel model,
+	    final FileOperations.SaveProgressCallback callback) throws IOException {
+	final var rowCount = model.getRowCount();
+	final var headers = model.getHeaders();
+	final var columnCount = Math.max(model.getColumnCount(), headers.size());
+	final var widths = new int[columnCount];
+	final var rightAligned = new boolean[columnCount];
+	IntStream.range(0, columnCount).parallel().forEach(col -> {
+	    final var header = col < headers.size() ? headers.get(col).length() : 0;
+	    widths[col] = Math.max(1, Math.max(header, IntStream.range(0, rowCount)
+		    .map(row -> valueOf(model, row, col).length()).max().orElse(0)));
+	    final var type = ColumnType.infer(model, col);
+	    rightAligned[col] = type == ColumnType.INTEGER || type == ColumnType.DOUBLE;
+	});
+
+	final var charset = Charset.forName(Settings.getEncoding());
+	final var lineEnding = CSVStreamWriter.resolveLineEnding(Settings.getLineEnding());
+	final var target = Paths.get(filePath).toAbsolutePath();
+	final var temp = FileOperations.createTempFile(target);
+	try {
+	    try (var channel = FileChannel.open(temp, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+		ParallelBlockWriter.write(channel, ParallelBlockWriter.blockCount(rowCount), block -> {
+		    final var text = new StringBuilder();
+		    if (block == 0) {
+			appendLine(text, col -> col < headers.size() ? headers.get(col) : "", widths, rightAligned,
+				lineEnding);
+		    }
+		    final var end = ParallelBlockWriter.blockEnd(block, rowCount);
+		    for (var i = ParallelBlockWriter.blockStart(block); i < end; i++) {
+			final var row = i;
+			appendLine(text, col -> valueOf(model, row, col), widths, rightAligned, lineEnding);
+		    }
+		    return text.toString().getBytes(charset);
+		}, block -> callback.onProgress(ParallelBlockWriter.blockEnd(block, rowCount), rowCount));
+	    }
+	    FileOperations.replaceAtomically(temp, target);
+	} catch (final IOException e) {
+	    Files.deleteIfExists(temp);
+	    throw new IOException("Failed to write fixed-width file: " + e.getMessage(), e);
+	}
+    }
+
+    private static String valueOf(final CSVTableModel model, final int row, final int col) {
+	final var value = model.getValue(row, col);
+	return value != null ? value.replace('\r', ' ').replace('\n', ' ') : "";
+    }
+
+    private static void appendLine(final StringBuilder text, final IntFunction<String> values,
+	    final int[] widths, final boolean[] rightAligned, final String lineEnding) {
+	for (var col = 0; col < widths.length; col++) {
+	    if (col > 0) {
+		text.append(' ');
+	    }
+	    final var value = values.apply(col);
+	    final var padding = " ".repeat(widths[col] - value.length());
+	    if (rightAligned[col]) {
+		text.append(padding).append(value);
+	    } else {
+		text.append(value).append(padding);
+	    }
+	}
+	text.append(lineEnding);
+    }
+
+    @FunctionalInterface
+    private interface ChunkParser {
+	Chunk parse(ByteBuffer buffer) throws IOException;
+    }
+
+    /**
+     * Rows parsed from one range of the file
+     */
+    private static final class Chunk {
+	final List<List<String>> rows = new ArrayList<>();
+	boolean skipped;
+	boolean misaligned;
+    }
+
+    /**
+     * Length of the records of a file whose lines all have the same length in
+     * bytes, taken from its first line; the length is 0 if the file size is not a
+     * whole number of records
+     */
+    private static final class RecordLayout {
+	final int length;
+	final int terminator;
+	final long count;
+
+	RecordLayout(final ByteBuffer head, final int start, final long size) {
+	    var newline = -1;
+	    for (var i = start; i < head.limit() && newline < 0; i++) {
+		if (head.get(i) == '\n') {
+		    newline = i;
+		}
+	    }
+	    final var crlf = newline > start && head.get(newline - 1) == '\r';
+	    final var recordLength = newline - start + 1;
+	    final var data = size - start;
+	    final var terminatorLength = crlf ? 2 : 1;
+	    final var whole = newline >= 0 && recordLength > terminatorLength
+		    && (data % recordLength == 0 || (data + terminatorLength) % recordLength == 0);
+	    this.length = whole ? recordLength : 0;
+	    this.terminator = terminatorLength;
+	    this.count = whole ? (data + recordLength - 1) / recordLength : 0;
+	}
+    }
+}
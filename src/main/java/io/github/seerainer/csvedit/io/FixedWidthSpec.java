@@ -0,0 +1,173 @@
+package io.github.seerainer.csvedit.io;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Column layout of a fixed-width file: the width of each column in characters
+ * and whether the first line holds the headers. The last column always extends
+ * to the end of the line, so values longer than its width are kept.
+ */
+public final class FixedWidthSpec {
+
+    private final int[] widths;
+    private final boolean header;
+
+    public FixedWidthSpec(final int[] widths, final boolean header) {
+	if (widths.length == 0) {
+	    throw new IllegalArgumentException("At least one column width is required");
+	}
+	for (final var width : widths) {
+	    if (width <= 0) {
+		throw new IllegalArgumentException("Column widths must be positive: " + width);
+	    }
+	}
+	this.widths = widths.clone();
+	this.header = header;
+    }
+
+    /**
+     * Parses a comma- or space-separated list of column widths, such as "8,12,5"
+     */
+    public static FixedWidthSpec parse(final String widths, final boolean header) {
+	final var parts = widths.trim().split("[,;\\s]+");
+	final var values = new int[parts.length];
+	for (var i = 0; i < parts.length; i++) {
+	    try {
+		values[i] = Integer.parseInt(parts[i]);
+	    } catch (final NumberFormatException e) {
+		throw new IllegalArgumentException("Invalid column width: " + parts[i], e);
+	    }
+	}
+	return new FixedWidthSpec(values, header);
+    }
+
+    /**
+     * Detects the columns of sample lines from the character positions that are
+     * blank on every line: each run of positions holding text on some line
+     * starts a column, which extends to the start of the next one; leading blanks
+     * belong to the first column. The first line
+     * is taken as headers if it has a non-numeric value in every column and a
+     * column's other values are numeric or never repeat a header.
+     */
+    public static FixedWidthSpec detect(final List<String> lines) {
+	final var length = lines.stream().mapToInt(String::length).max().orElse(0);
+	final var used = new boolean[length];
+	for (final var line : lines) {
+	    for (var i = 0; i < line.length(); i++) {
+		used[i] |= !Character.isWhitespace(line.charAt(i));
+	    }
+	}
+
+	final List<Integer> starts = new ArrayList<>();
+	starts.add(Integer.valueOf(0));
+	var text = false;
+	for (var i = 0; i < length; i++) {
+	    if (used[i] && text && !used[i - 1]) {
+		starts.add(Integer.valueOf(i));
+	    }
+	    text |= used[i];
+	}
+	final var widths = new int[starts.size()];
+	for (var i = 0; i < widths.length; i++) {
+	    final var end = i + 1 < widths.length ? starts.get(i + 1).intValue() : length;
+	    widths[i] = Math.max(1, end - starts.get(i).intValue());
+	}
+
+	final var spec = new FixedWidthSpec(widths, false);
+	return new FixedWidthSpec(widths, !lines.isEmpty() && looksLikeHeader(spec, lines));
+    }
+
+    private static boolean looksLikeHeader(final FixedWidthSpec spec, final List<String> lines) {
+	final var first = spec.split(lines.getFirst());
+	if (first.stream().anyMatch(value -> value.isEmpty() || isNumeric(value))) {
+	    return false;
+	}
+	if (lines.size() == 1) {
+	    return true;
+	}
+	final var rows = lines.subList(1, lines.size()).stream().map(spec::split).toList();
+	for (var col = 0; col < first.size(); col++) {
+	    final var column = col;
+	    final var values = rows.stream().map(row -> row.get(column)).filter(value -> !value.isEmpty()).toList();
+	    if (!values.isEmpty() && values.stream().allMatch(FixedWidthSpec::isNumeric)) {
+		return true;
+	    }
+	}
+	for (var col = 0; col < first.size(); col++) {
+	    final var column = col;
+	    if (rows.stream().anyMatch(row -> row.get(column).equals(first.get(column)))) {
+		return false;
+	    }
+	}
+	return true;
+    }
+
+    private static boolean isNumeric(final String value) {
+	try {
+	    Double.parseDouble(value.replace(",", ""));
+	    return true;
+	} catch (final NumberFormatException e) {
+	    return false;
+	}
+    }
+
+    /**
+     * Gets the number of columns
+     */
+    public int getColumnCount() {
+	return widths.length;
+    }
+
+    /**
+     * Gets the offset of a column in characters
+     */
+    public int getOffset(final int col) {
+	var offset = 0;
+	for (var i = 0; i < col; i++) {
+	    offset += widths[i];
+	}
+	return offset;
+    }
+
+    /**
+     * Gets the column widths in characters
+     */
+    public int[] getWidths() {
+	return widths.clone();
+    }
+
+    /**
+     * Checks if the first line holds the headers
+     */
+    public boolean hasHeader() {
+	return header;
+    }
+
+    /**
+     * Slices a line into its trimmed column values; columns past the end of the
+     * line are empty
+     */
+    public List<String> split(final String line) {
+	final List<String> values = new ArrayList<>(widths.length);
+	var offset = 0;
+	for (var i = 0; i < widths.length; i++) {
+	    final var start = Math.min(offset, line.length());
+	    final var end = i + 1 < widths.length ? Math.min(offset + widths[i], line.length()) : line.length();
+	    values.add(line.substring(start, end).strip());
+	    offset += widths[i];
+	}
+	return values;
+    }
+
+    /**
+     * Gets the widths as a comma-separated list, as accepted by
+     * {@link #parse(String, boolean)}
+     */
+    @Override
+    public String toString() {
+	return Arrays.stream(widths).mapToObj(Integer::toString).collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,189 @@
+package io.github.seerainer.csvedit.io;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Minimal FlatBuffers encoder for the metadata of binary columnar formats. Like
+ * the reference builder it fills a buffer from the back, so children are
+ * written before the tables that refer to them. Default values are written
+ * explicitly and vtables are not shared.
+ */
+final class FlatBufferBuilder {
+
+    private byte[] buffer = new byte[1024];
+    private int space = buffer.length;
+    private int minAlign = 1;
+    private int[] vtable;
+    private int objectStart;
+
+    /**
+     * Gets the offset of the last written object, counted from the end
+     */
+    int offset() {
+	return buffer.length - space;
+    }
+
+    /**
+     * Pads so that the next value of the given size is aligned after writing
+     * additional bytes
+     */
+    void prep(final int size, final int additional) {
+	minAlign = Math.max(minAlign, size);
+	final var alignSize = -(buffer.length - space + additional) & size - 1;
+	while (space < alignSize + size + additional) {
+	    final var old = buffer.length;
+	    buffer = grow(buffer);
+	    space += buffer.length - old;
+	}
+	for (var i = 0; i < alignSize; i++) {
+	    buffer[--space] = 0;
+	}
+    }
+
+    void putByte(final int value) {
+	buffer[--space] = (byte) value;
+    }
+
+    void putShort(final int value) {
+	putByte(value >> 8);
+	putByte(value);
+    }
+
+    void putInt(final int value) {
+	putShort(value >> 16);
+	putShort(value);
+    }
+
+    void putLong(final long value) {
+	putInt((int) (value >> 32));
+	putInt((int) value);
+    }
+
+    void addByte(final int value) {
+	prep(1, 0);
+	putByte(value);
+    }
+
+    void addShort(final int value) {
+	prep(2, 0);
+	putShort(value);
+    }
+
+    void addInt(final int value) {
+	prep(4, 0);
+	putInt(value);
+    }
+
+    void addLong(final long value) {
+	prep(8, 0);
+	putLong(value);
+    }
+
+    /**
+     * Adds a reference to an object written before
+     */
+    void addOffset(final int target) {
+	prep(4, 0);
+	putInt(offset() - target + 4);
+    }
+
+    int createString(final String value) {
+	final var bytes = value.getBytes(StandardCharsets.UTF_8);
+	prep(4, bytes.length + 1);
+	putByte(0);
+	space -= bytes.length;
+	System.arraycopy(bytes, 0, buffer, space, bytes.length);
+	putInt(bytes.length);
+	return offset();
+    }
+
+    /**
+     * Starts a vector; its elements must then be added in reverse order
+     */
+    void startVector(final int elementSize, final int count, final int alignment) {
+	prep(4, elementSize * count);
+	prep(alignment, elementSize * count);
+    }
+
+    int endVector(final int count) {
+	putInt(count);
+	return offset();
+    }
+
+    int createOffsetVector(final int[] offsets) {
+	startVector(4, offsets.length, 4);
+	for (var i = offsets.length - 1; i >= 0; i--) {
+	    addOffset(offsets[i]);
+	}
+	return endVector(offsets.length);
+    }
+
+    void startTable(final int fieldCount) {
+	vtable = new int[fieldCount];
+	objectStart = offset();
+    }
+
+    void addFieldByte(final int field, final int value) {
+	addByte(value);
+	vtable[field] = offset();
+    }
+
+    void addFieldShort(final int field, final int value) {
+	addShort(value);
+	vtable[field] = offset();
+    }
+
+    void addFieldInt(final int field, final int value) {
+	addInt(value);
+	vtable[field] = offset();
+    }
+
+    void addFieldLong(final int field, final long value) {
+	addLong(value);
+	vtable[field] = offset();
+    }
+
+    void addFieldOffset(final int field, final int target) {
+	addOffset(target);
+	vtable[field] = offset();
+    }
+
+    int endTable() {
+	addInt(0);
+	final var objectOffset = offset();
+	var fieldCount = vtable.length;
+	while (fieldCount > 0 && vtable[fieldCount - 1] == 0) {
+	    fieldCount--;
+	}
+	for (var i = fieldCount - 1; i >= 0; i--) {
+	    addShort(vtable[i] != 0 ? objectOffset - vtable[i] : 0);
+	}
+	addShort(objectOffset - objectStart);
+	addShort((fieldCount + 2) * 2);
+	// The table starts with the signed distance back to its vtable
+	final var tablePosition = buffer.length - objectOffset;
+	final var distance = offset() - objectOffset;
+	for (var i = 0; i < 4; i++) {
+	    buffer[tablePosition + i] = (byte) (distance >> 8 * i);
+	}
+	vtable = null;
+	return objectOffset;
+    }
+
+    /**
+     * Writes the reference to the root table and returns the encoded buffer
+     */
+    byte[] finish(final int root) {
+	prep(minAlign, 4);
+	addOffset(root);
+	return Arrays.copyOfRange(buffer, space, buffer.length);
+    }
+
+    private static byte[] grow(final byte[] buffer) {
+	// The content sits at the end, so it moves to the end of the larger buffer
+	final var grown = new byte[buffer.length * 2];
+	System.arraycopy(buffer, 0, grown, buffer.length, buffer.length);
+	return grown;
+    }
+}
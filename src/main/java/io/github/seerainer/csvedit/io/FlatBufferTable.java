@@ -0,0 +1,120 @@
+package io.github.seerainer.csvedit.io;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read access to a table in a FlatBuffers encoded buffer, e.g. the metadata of
+ * binary columnar formats. Fields are addressed by their index in the schema.
+ */
+final class FlatBufferTable {
+
+    private final ByteBuffer buffer;
+    private final int position;
+
+    private FlatBufferTable(final ByteBuffer buffer, final int position) {
+	this.buffer = buffer;
+	this.position = position;
+    }
+
+    /**
+     * Gets the root table of an encoded buffer
+     */
+    static FlatBufferTable root(final byte[] bytes) {
+	final var buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+	return new FlatBufferTable(buffer, buffer.getInt(0));
+    }
+
+    boolean has(final int field) {
+	return fieldOffset(field) != 0;
+    }
+
+    int getByte(final int field, final int defaultValue) {
+	final var offset = fieldOffset(field);
+	return offset != 0 ? buffer.get(position + offset) & 0xFF : defaultValue;
+    }
+
+    boolean getBool(final int field) {
+	return getByte(field, 0) != 0;
+    }
+
+    int getShort(final int field, final int defaultValue) {
+	final var offset = fieldOffset(field);
+	return offset != 0 ? buffer.getShort(position + offset) : defaultValue;
+    }
+
+    int getInt(final int field, final int defaultValue) {
+	final var offset = fieldOffset(field);
+	return offset != 0 ? buffer.getInt(position + offset) : defaultValue;
+    }
+
+    long getLong(final int field, final long defaultValue) {
+	final var offset = fieldOffset(field);
+	return offset != 0 ? buffer.getLong(position + offset) : defaultValue;
+    }
+
+    /**
+     * Gets a child table, or null if the field is absent
+     */
+    FlatBufferTable getTable(final int field) {
+	final var offset = fieldOffset(field);
+	return offset != 0 ? new FlatBufferTable(buffer, indirect(position + offset)) : null;
+    }
+
+    /**
+     * Gets a string, or null if the field is absent
+     */
+    String getString(final int field) {
+	final var offset = fieldOffset(field);
+	if (offset == 0) {
+	    return null;
+	}
+	final var start = indirect(position + offset);
+	return new String(buffer.array(), start + 4, buffer.getInt(start), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets the length of a vector, 0 if the field is absent
+     */
+    int getVectorLength(final int field) {
+	final var offset = fieldOffset(field);
+	return offset != 0 ? buffer.getInt(indirect(position + offset)) : 0;
+    }
+
+    /**
+     * Gets a table element of a vector of tables
+     */
+    FlatBufferTable getVectorTable(final int field, final int index) {
+	final var element = vectorStart(field) + index * 4;
+	return new FlatBufferTable(buffer, indirect(element));
+    }
+
+    /**
+     * Gets a long member of a struct element of a vector of structs
+     */
+    long getVectorStructLong(final int field, final int index, final int structSize, final int memberOffset) {
+	return buffer.getLong(vectorStart(field) + index * structSize + memberOffset);
+    }
+
+    /**
+     * Gets an int member of a struct element of a vector of structs
+     */
+    int getVectorStructInt(final int field, final int index, final int structSize, final int memberOffset) {
+	return buffer.getInt(vectorStart(field) + index * structSize + memberOffset);
+    }
+
+    private int vectorStart(final int field) {
+	return indirect(position + fieldOffset(field)) + 4;
+    }
+
+    private int indirect(final int at) {
+	return at + buffer.getInt(at);
+    }
+
+    private int fieldOffset(final int field) {
+	final var vtable = position - buffer.getInt(position);
+	final var entry = 4 + field * 2;
+	return entry < (buffer.getShort(vtable) & 0xFFFF) ? buffer.getShort(vtable + entry) & 0xFFFF : 0;
+    }
+}
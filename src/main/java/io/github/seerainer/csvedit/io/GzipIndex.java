@@ -0,0 +1,416 @@
+package io.github.seerainer.csvedit.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+
+import io.github.seerainer.csvedit.ui.UIConstants;
+
+/**
+ * Random-access index for gzip compressed files (zran-style). Every few MB of
+ * uncompressed output the index records the bit offset of the next deflate
+ * block together with the 32KB window preceding it, so decompression can start
+ * at the nearest checkpoint instead of byte 0. The index is persisted next to
+ * the compressed file with a {@code .gzi} suffix and lets samples and windows
+ * of rows be read without decompressing the file from the start (see
+ * {@link SeekableContent}). It is only built for such reads; full loads use the
+ * JDK's {@link GZIPInputStream}.
+ */
+public class GzipIndex {
+
+    private static final int MAGIC = 0x475A4958; // "GZIX"
+    private static final int VERSION = 1;
+    private static final String INDEX_SUFFIX = ".gzi";
+    private static final Map<Path, GzipIndex> INDEXES = new ConcurrentHashMap<>();
+    private static final Set<Path> BUILDING = ConcurrentHashMap.newKeySet();
+
+    private final long sourceSize;
+    private final long sourceModified;
+    private final long uncompressedSize;
+    private final List<Checkpoint> checkpoints;
+
+    private GzipIndex(final long sourceSize, final long sourceModified, final long uncompressedSize,
+	    final List<Checkpoint> checkpoints) {
+	this.sourceSize = sourceSize;
+	this.sourceModified = sourceModified;
+	this.uncompressedSize = uncompressedSize;
+	this.checkpoints = checkpoints;
+    }
+
+    /**
+     * Builds an index by decompressing the whole file once, using the default
+     * checkpoint span
+     */
+    public static GzipIndex build(final Path gzipFile) throws IOException {
+	return build(gzipFile, UIConstants.GZIP_INDEX_SPAN_BYTES);
+    }
+
+    /**
+     * Builds an index by decompressing the whole file once, recording a
+     * checkpoint at the first block boundary after every {@code span} bytes of
+     * uncompressed output
+     */
+    public static GzipIndex build(final Path gzipFile, final long span) throws IOException {
+	try (var stream = new IndexingInputStream(gzipFile, span)) {
+	    final var buffer = new byte[64 * 1024];
+	    while (stream.read(buffer) != -1) {
+		// Decompress everything to record checkpoints
+	    }
+	    return stream.getIndex();
+	}
+    }
+
+    /**
+     * Returns the sidecar path where the index of a gzip file is stored
+     */
+    public static Path indexPath(final Path gzipFile) {
+	return gzipFile.resolveSibling(gzipFile.getFileName().toString() + INDEX_SUFFIX);
+    }
+
+    /**
+     * Loads the persisted index of a gzip file. The index is validated by its
+     * header and the size and modification time of the gzip file it was built
+     * for; the windows stay compressed until a read starts at their checkpoint.
+     *
+     * @return the index, or null if it is missing, truncated or out of date
+     */
+    public static GzipIndex load(final Path gzipFile) {
+	final var indexFile = indexPath(gzipFile);
+	if (!Files.isRegularFile(indexFile)) {
+	    return null;
+	}
+	try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+	    if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+		return null;
+	    }
+	    final var size = in.readLong();
+	    final var modified = in.readLong();
+	    if (size != Files.size(gzipFile) || modified != Files.getLastModifiedTime(gzipFile).toMillis()) {
+		return null;
+	    }
+	    final var uncompressed = in.readLong();
+	    final var count = in.readInt();
+	    final List<Checkpoint> points = new ArrayList<>(count);
+	    for (var i = 0; i < count; i++) {
+		final var out = in.readLong();
+		final var bits = in.readLong();
+		final var windowLength = in.readInt();
+		final var packed = new byte[in.readInt()];
+		in.readFully(packed);
+		points.add(new Checkpoint(out, bits, null, packed, windowLength));
+	    }
+	    return new GzipIndex(size, modified, uncompressed, Collections.unmodifiableList(points));
+	} catch (final IOException e) {
+	    return null;
+	}
+    }
+
+    /**
+     * Gets the persisted index of a gzip file, reusing the one loaded before as
+     * long as the file is unchanged
+     *
+     * @return the index, or null if there is no valid one
+     */
+    public static GzipIndex forFile(final Path gzipFile) {
+	try {
+	    final var realPath = gzipFile.toRealPath();
+	    final var cached = INDEXES.get(realPath);
+	    if (cached != null && cached.matches(realPath)) {
+		return cached;
+	    }
+	    final var index = load(realPath);
+	    if (index != null) {
+		INDEXES.put(realPath, index);
+	    } else {
+		INDEXES.remove(realPath);
+	    }
+	    return index;
+	} catch (final IOException e) {
+	    return null;
+	}
+    }
+
+    /**
+     * Builds and saves the index of a gzip file on a low priority background
+     * thread, unless it has a valid one or is already being indexed
+     */
+    public static void buildInBackground(final Path gzipFile) {
+	final Path realPath;
+	try {
+	    realPath = gzipFile.toRealPath();
+	} catch (final IOException e) {
+	    return;
+	}
+	if (forFile(realPath) != null || !BUILDING.add(realPath)) {
+	    return;
+	}
+	final var thread = new Thread(() -> {
+	    try {
+		build(realPath).save(realPath);
+	    } catch (final IOException e) {
+		// The index is only an optimization, e.g. the directory may be read-only
+	    } finally {
+		BUILDING.remove(realPath);
+	    }
+	}, "Gzip-Index");
+	thread.setDaemon(true);
+	thread.setPriority(Thread.MIN_PRIORITY);
+	thread.start();
+    }
+
+    private boolean matches(final Path gzipFile) {
+	try {
+	    return Files.size(gzipFile) == sourceSize
+		    && Files.getLastModifiedTime(gzipFile).toMillis() == sourceModified;
+	} catch (final IOException e) {
+	    return false;
+	}
+    }
+
+    private static byte[] deflateWindow(final byte[] window) {
+	final var deflater = new Deflater(Deflater.BEST_SPEED);
+	try {
+	    deflater.setInput(window);
+	    deflater.finish();
+	    final var buffer = new byte[window.length + 64];
+	    var length = 0;
+	    while (!deflater.finished()) {
+		if (length == buffer.length) {
+		    return window; // Incompressible, cannot happen with the margin above
+		}
+		length += deflater.deflate(buffer, length, buffer.length - length);
+	    }
+	    final var packed = new byte[length];
+	    System.arraycopy(buffer, 0, packed, 0, length);
+	    return packed;
+	} finally {
+	    deflater.end();
+	}
+    }
+
+    private static byte[] inflateWindow(final byte[] packed, final int windowLength) throws IOException {
+	final var inflater = new Inflater();
+	try {
+	    inflater.setInput(packed);
+	    final var window = new byte[windowLength];
+	    var length = 0;
+	    while (length < windowLength && !inflater.finished()) {
+		final var n = inflater.inflate(window, length, windowLength - length);
+		if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+		    throw new IOException("Truncated gzip index window");
+		}
+		length += n;
+	    }
+	    return window;
+	} catch (final DataFormatException e) {
+	    throw new IOException("Corrupt gzip index window", e);
+	} finally {
+	    inflater.end();
+	}
+    }
+
+    /**
+     * Gets the recorded checkpoints in ascending order
+     */
+    public List<Checkpoint> getCheckpoints() {
+	return checkpoints;
+    }
+
+    /**
+     * Gets the total uncompressed size of the file
+     */
+    public long getUncompressedSize() {
+	return uncompressedSize;
+    }
+
+    /**
+     * Opens the gzip file positioned at the given uncompressed offset. Decoding
+     * starts at the nearest checkpoint at or before the offset.
+     */
+    public InputStream openAt(final Path gzipFile, final long uncompressedOffset) throws IOException {
+	final var checkpoint = findCheckpoint(uncompressedOffset);
+	final InputStream stream;
+	final long start;
+	if (checkpoint == null) {
+	    stream = new GZIPInputStream(new BufferedInputStream(Files.newInputStream(gzipFile)));
+	    start = 0;
+	} else {
+	    final var window = checkpoint.getWindow();
+	    final var channel = FileChannel.open(gzipFile, StandardOpenOption.READ);
+	    channel.position(checkpoint.getBitOffset() >>> 3);
+	    stream = new GzipInflater(Channels.newInputStream(channel), checkpoint.getBitOffset(),
+		    checkpoint.getUncompressedOffset(), window);
+	    start = checkpoint.getUncompressedOffset();
+	}
+	try {
+	    stream.skipNBytes(uncompressedOffset - start);
+	} catch (final IOException e) {
+	    stream.close();
+	    throw e;
+	}
+	return stream;
+    }
+
+    /**
+     * Finds the last checkpoint at or before an uncompressed offset
+     *
+     * @return the checkpoint, or null if decoding must start at the beginning
+     */
+    public Checkpoint findCheckpoint(final long uncompressedOffset) {
+	var low = 0;
+	var high = checkpoints.size() - 1;
+	Checkpoint found = null;
+	while (low <= high) {
+	    final var mid = (low + high) >>> 1;
+	    final var candidate = checkpoints.get(mid);
+	    if (candidate.getUncompressedOffset() <= uncompressedOffset) {
+		found = candidate;
+		low = mid + 1;
+	    } else {
+		high = mid - 1;
+	    }
+	}
+	return found;
+    }
+
+    /**
+     * Writes the index next to the gzip file
+     */
+    public void save(final Path gzipFile) throws IOException {
+	final var indexFile = indexPath(gzipFile);
+	final var tempFile = indexFile.resolveSibling(indexFile.getFileName().toString() + ".tmp");
+	try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+	    out.writeInt(MAGIC);
+	    out.writeInt(VERSION);
+	    out.writeLong(sourceSize);
+	    out.writeLong(sourceModified);
+	    out.writeLong(uncompressedSize);
+	    out.writeInt(checkpoints.size());
+	    for (final var checkpoint : checkpoints) {
+		final var packed = checkpoint.packed != null ? checkpoint.packed : deflateWindow(checkpoint.window);
+		out.writeLong(checkpoint.uncompressedOffset);
+		out.writeLong(checkpoint.bitOffset);
+		out.writeInt(checkpoint.windowLength);
+		out.writeInt(packed.length);
+		out.write(packed);
+	    }
+	}
+	Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * A resumable position in the compressed stream. A loaded checkpoint keeps
+     * its window compressed until it is first needed.
+     */
+    public static class Checkpoint {
+	private final long uncompressedOffset;
+	private final long bitOffset;
+	private final byte[] packed;
+	private final int windowLength;
+	private volatile byte[] window;
+
+	Checkpoint(final long uncompressedOffset, final long bitOffset, final byte[] window) {
+	    this(uncompressedOffset, bitOffset, window, null, window.length);
+	}
+
+	private Checkpoint(final long uncompressedOffset, final long bitOffset, final byte[] window,
+		final byte[] packed, final int windowLength) {
+	    this.uncompressedOffset = uncompressedOffset;
+	    this.bitOffset = bitOffset;
+	    this.window = window;
+	    this.packed = packed;
+	    this.windowLength = windowLength;
+	}
+
+	public long getBitOffset() {
+	    return bitOffset;
+	}
+
+	public long getUncompressedOffset() {
+	    return uncompressedOffset;
+	}
+
+	/**
+	 * Gets the 32KB of output preceding the checkpoint
+	 *
+	 * @throws IOException if the persisted window is corrupt
+	 */
+	byte[] getWindow() throws IOException {
+	    if (window == null) {
+		window = inflateWindow(packed, windowLength);
+	    }
+	    return window;
+	}
+    }
+
+    /**
+     * Decompressing stream that records checkpoints while it is read
+     */
+    private static final class IndexingInputStream extends FilterInputStream {
+	private final long sourceSize;
+	private final long sourceModified;
+	private final List<Checkpoint> points = new ArrayList<>();
+	private GzipIndex index;
+
+	private IndexingInputStream(final Path gzipFile, final long span) throws IOException {
+	    super(new GzipInflater(Files.newInputStream(gzipFile)));
+	    this.sourceSize = Files.size(gzipFile);
+	    this.sourceModified = Files.getLastModifiedTime(gzipFile).toMillis();
+	    ((GzipInflater) in).setBlockListener(inflater -> {
+		final var last = points.isEmpty() ? 0 : points.getLast().uncompressedOffset;
+		if (inflater.position() - last >= span) {
+		    points.add(new Checkpoint(inflater.position(), inflater.bitPosition(), inflater.history()));
+		}
+	    });
+	}
+
+	@Override
+	public int read() throws IOException {
+	    final var value = super.read();
+	    if (value < 0) {
+		finish();
+	    }
+	    return value;
+	}
+
+	@Override
+	public int read(final byte[] b, final int off, final int len) throws IOException {
+	    final var n = super.read(b, off, len);
+	    if (n < 0) {
+		finish();
+	    }
+	    return n;
+	}
+
+	private GzipIndex getIndex() {
+	    return index;
+	}
+
+	private void finish() {
+	    if (index == null) {
+		index = new GzipIndex(sourceSize, sourceModified, ((GzipInflater) in).position(),
+			Collections.unmodifiableList(points));
+	    }
+	}
+    }
+}
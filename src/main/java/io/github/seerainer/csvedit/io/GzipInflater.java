@@ -0,0 +1,503 @@
+package io.github.seerainer.csvedit.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipException;
+
+/**
+ * Pure-Java gzip decoder that exposes deflate block boundaries. Unlike
+ * {@link java.util.zip.GZIPInputStream} it knows the exact bit position of
+ * every block header and keeps the 32KB sliding window, so decoding can later
+ * be resumed from any recorded block boundary (see {@link GzipIndex}).
+ */
+class GzipInflater extends InputStream {
+
+    static final int WINDOW_SIZE = 32 * 1024;
+    private static final int WINDOW_MASK = WINDOW_SIZE - 1;
+
+    private static final int STATE_HEADER = 0;
+    private static final int STATE_BLOCK_HEADER = 1;
+    private static final int STATE_STORED = 2;
+    private static final int STATE_HUFFMAN = 3;
+    private static final int STATE_TRAILER = 4;
+    private static final int STATE_DONE = 5;
+
+    private static final int[] LENGTH_BASE = { 3, 4, 5, 6, 7, 8, 9, 10, 11, 13, 15, 17, 19, 23, 27, 31, 35, 43, 51,
+	    59, 67, 83, 99, 115, 131, 163, 195, 227, 258 };
+    private static final int[] LENGTH_EXTRA = { 0, 0, 0, 0, 0, 0, 0, 0, 1, 1, 1, 1, 2, 2, 2, 2, 3, 3, 3, 3, 4, 4, 4,
+	    4, 5, 5, 5, 5, 0 };
+    private static final int[] DIST_BASE = { 1, 2, 3, 4, 5, 7, 9, 13, 17, 25, 33, 49, 65, 97, 129, 193, 257, 385, 513,
+	    769, 1025, 1537, 2049, 3073, 4097, 6145, 8193, 12289, 16385, 24577 };
+    private static final int[] DIST_EXTRA = { 0, 0, 0, 0, 1, 1, 2, 2, 3, 3, 4, 4, 5, 5, 6, 6, 7, 7, 8, 8, 9, 9, 10,
+	    10, 11, 11, 12, 12, 13, 13 };
+    private static final int[] CODE_LENGTH_ORDER = { 16, 17, 18, 0, 8, 7, 9, 6, 10, 5, 11, 4, 12, 3, 13, 2, 14, 1,
+	    15 };
+
+    private static final int[] FIXED_LIT_TABLE;
+    private static final int[] FIXED_DIST_TABLE;
+
+    static {
+	final var lengths = new byte[288 + 32];
+	for (var i = 0; i < 288; i++) {
+	    lengths[i] = (byte) (i < 144 ? 8 : i < 256 ? 9 : i < 280 ? 7 : 8);
+	}
+	for (var i = 288; i < lengths.length; i++) {
+	    lengths[i] = 5;
+	}
+	FIXED_LIT_TABLE = buildTable(lengths, 0, 288);
+	FIXED_DIST_TABLE = buildTable(lengths, 288, 32);
+    }
+
+    private final InputStream in;
+    private final byte[] inBuf = new byte[64 * 1024];
+    private int inPos;
+    private int inLen;
+    private long inBase;
+
+    private long bitBuf;
+    private int bitCount;
+
+    private final byte[] window = new byte[WINDOW_SIZE];
+    private int windowPos;
+    private int windowFill;
+    private long totalOut;
+
+    private int state;
+    private boolean lastBlock;
+    private int storedRemaining;
+    private int[] litTable;
+    private int[] distTable;
+    private int copyLength;
+    private int copyDistance;
+
+    private final boolean verifyTrailer;
+    private final CRC32 crc = new CRC32();
+    private long memberOut;
+
+    private BlockListener blockListener;
+
+    /**
+     * Creates a decoder that starts at the beginning of a gzip file
+     */
+    GzipInflater(final InputStream in) {
+	this.in = in;
+	this.state = STATE_HEADER;
+	this.verifyTrailer = true;
+    }
+
+    /**
+     * Creates a decoder that resumes at a block boundary. The stream must be
+     * positioned at byte {@code bitOffset / 8} of the compressed file.
+     */
+    GzipInflater(final InputStream in, final long bitOffset, final long uncompressedOffset, final byte[] history)
+	    throws IOException {
+	this.in = in;
+	this.inBase = bitOffset >>> 3;
+	this.totalOut = uncompressedOffset;
+	this.state = STATE_BLOCK_HEADER;
+	this.verifyTrailer = false;
+	final var skipBits = (int) (bitOffset & 7);
+	if (skipBits > 0) {
+	    ensureBits(skipBits);
+	    dropBits(skipBits);
+	}
+	final var historyLength = Math.min(history.length, WINDOW_SIZE);
+	System.arraycopy(history, history.length - historyLength, window, 0, historyLength);
+	windowPos = historyLength & WINDOW_MASK;
+	windowFill = historyLength;
+    }
+
+    /**
+     * Builds a lookup table indexed by bit-reversed codes. Each entry holds the
+     * symbol in the upper bits and the code length in the lowest four bits; a
+     * length of zero marks an invalid code.
+     */
+    private static int[] buildTable(final byte[] lengths, final int offset, final int count) {
+	final var lengthCount = new int[16];
+	var maxLength = 1;
+	for (var i = 0; i < count; i++) {
+	    final var length = lengths[offset + i];
+	    lengthCount[length]++;
+	    maxLength = Math.max(maxLength, length);
+	}
+	lengthCount[0] = 0;
+	final var nextCode = new int[16];
+	var code = 0;
+	for (var bits = 1; bits < 16; bits++) {
+	    code = (code + lengthCount[bits - 1]) << 1;
+	    nextCode[bits] = code;
+	}
+	final var table = new int[(1 << maxLength) + 1];
+	table[table.length - 1] = maxLength;
+	for (var symbol = 0; symbol < count; symbol++) {
+	    final int length = lengths[offset + symbol];
+	    if (length == 0) {
+		continue;
+	    }
+	    final var reversed = Integer.reverse(nextCode[length]++) >>> (32 - length);
+	    final var entry = (symbol << 4) | length;
+	    for (var fill = reversed; fill < table.length - 1; fill += 1 << length) {
+		table[fill] = entry;
+	    }
+	}
+	return table;
+    }
+
+    /**
+     * Absolute bit position in the compressed input of the next unread bit
+     */
+    long bitPosition() {
+	return ((inBase + inPos) << 3) - bitCount;
+    }
+
+    /**
+     * Number of uncompressed bytes produced so far, including the resume offset
+     */
+    long position() {
+	return totalOut;
+    }
+
+    /**
+     * Copy of the most recent window contents (up to 32KB), oldest byte first
+     */
+    byte[] history() {
+	final var copy = new byte[windowFill];
+	final var start = (windowPos - windowFill) & WINDOW_MASK;
+	final var firstPart = Math.min(windowFill, WINDOW_SIZE - start);
+	System.arraycopy(window, start, copy, 0, firstPart);
+	System.arraycopy(window, 0, copy, firstPart, windowFill - firstPart);
+	return copy;
+    }
+
+    void setBlockListener(final BlockListener blockListener) {
+	this.blockListener = blockListener;
+    }
+
+    @Override
+    public int read() throws IOException {
+	final var single = new byte[1];
+	final var n = read(single, 0, 1);
+	return n < 0 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+	if (len == 0) {
+	    return 0;
+	}
+	var produced = 0;
+	while (produced < len && state != STATE_DONE) {
+	    final var start = off + produced;
+	    final var count = switch (state) {
+	    case STATE_HEADER -> readMemberHeader();
+	    case STATE_BLOCK_HEADER -> readBlockHeader();
+	    case STATE_STORED -> copyStored(b, start, len - produced);
+	    case STATE_HUFFMAN -> inflateHuffman(b, start, len - produced);
+	    case STATE_TRAILER -> readMemberTrailer();
+	    default -> throw new IllegalStateException("Unknown inflater state " + state);
+	    };
+	    if (verifyTrailer && count > 0) {
+		crc.update(b, start, count);
+	    }
+	    produced += count;
+	}
+	return produced == 0 ? -1 : produced;
+    }
+
+    @Override
+    public void close() throws IOException {
+	in.close();
+    }
+
+    private int readMemberHeader() throws IOException {
+	final var id1 = nextAlignedByte();
+	if (id1 < 0) {
+	    state = STATE_DONE;
+	    return 0;
+	}
+	final var id2 = nextAlignedByte();
+	if (id1 != 0x1F || id2 != 0x8B) {
+	    if (totalOut == 0) {
+		throw new ZipException("Not in GZIP format");
+	    }
+	    // Trailing garbage after the last member is ignored like GZIPInputStream
+	    state = STATE_DONE;
+	    return 0;
+	}
+	if (requireByte() != 8) {
+	    throw new ZipException("Unsupported compression method");
+	}
+	final var flags = requireByte();
+	for (var i = 0; i < 6; i++) {
+	    requireByte(); // MTIME, XFL, OS
+	}
+	if ((flags & 4) != 0) {
+	    final var extraLength = requireByte() | (requireByte() << 8);
+	    for (var i = 0; i < extraLength; i++) {
+		requireByte();
+	    }
+	}
+	if ((flags & 8) != 0) {
+	    while (requireByte() != 0) {
+		// Skip file name
+	    }
+	}
+	if ((flags & 16) != 0) {
+	    while (requireByte() != 0) {
+		// Skip comment
+	    }
+	}
+	if ((flags & 2) != 0) {
+	    requireByte();
+	    requireByte();
+	}
+	crc.reset();
+	memberOut = 0;
+	lastBlock = false;
+	state = STATE_BLOCK_HEADER;
+	return 0;
+    }
+
+    private int readBlockHeader() throws IOException {
+	if (lastBlock) {
+	    state = STATE_TRAILER;
+	    return 0;
+	}
+	if (blockListener != null) {
+	    blockListener.onBlockBoundary(this);
+	}
+	lastBlock = getBits(1) == 1;
+	final var type = getBits(2);
+	switch (type) {
+	case 0 -> {
+	    dropBits(bitCount & 7);
+	    final var length = getBits(16);
+	    final var complement = getBits(16);
+	    if ((length ^ 0xFFFF) != complement) {
+		throw new ZipException("Invalid stored block length");
+	    }
+	    storedRemaining = length;
+	    state = STATE_STORED;
+	}
+	case 1 -> {
+	    litTable = FIXED_LIT_TABLE;
+	    distTable = FIXED_DIST_TABLE;
+	    state = STATE_HUFFMAN;
+	}
+	case 2 -> {
+	    readDynamicTables();
+	    state = STATE_HUFFMAN;
+	}
+	default -> throw new ZipException("Invalid block type");
+	}
+	return 0;
+    }
+
+    private void readDynamicTables() throws IOException {
+	final var literalCount = getBits(5) + 257;
+	final var distanceCount = getBits(5) + 1;
+	final var codeLengthCount = getBits(4) + 4;
+
+	final var codeLengths = new byte[19];
+	for (var i = 0; i < codeLengthCount; i++) {
+	    codeLengths[CODE_LENGTH_ORDER[i]] = (byte) getBits(3);
+	}
+	final var codeLengthTable = buildTable(codeLengths, 0, 19);
+
+	final var lengths = new byte[literalCount + distanceCount];
+	var i = 0;
+	while (i < lengths.length) {
+	    final var symbol = decodeSymbol(codeLengthTable);
+	    if (symbol < 16) {
+		lengths[i++] = (byte) symbol;
+		continue;
+	    }
+	    final int repeat;
+	    byte value = 0;
+	    if (symbol == 16) {
+		if (i == 0) {
+		    throw new ZipException("Invalid bit length repeat");
+		}
+		value = lengths[i - 1];
+		repeat = 3 + getBits(2);
+	    } else if (symbol == 17) {
+		repeat = 3 + getBits(3);
+	    } else {
+		repeat = 11 + getBits(7);
+	    }
+	    if (i + repeat > lengths.length) {
+		throw new ZipException("Invalid bit length repeat");
+	    }
+	    for (var r = 0; r < repeat; r++) {
+		lengths[i++] = value;
+	    }
+	}
+	if (lengths[256] == 0) {
+	    throw new ZipException("Missing end-of-block code");
+	}
+	litTable = buildTable(lengths, 0, literalCount);
+	distTable = buildTable(lengths, literalCount, distanceCount);
+    }
+
+    private int copyStored(final byte[] b, final int off, final int len) throws IOException {
+	final var count = Math.min(len, storedRemaining);
+	for (var i = 0; i < count; i++) {
+	    emit(b, off + i, (byte) requireByte());
+	}
+	storedRemaining -= count;
+	if (storedRemaining == 0) {
+	    state = STATE_BLOCK_HEADER;
+	}
+	return count;
+    }
+
+    private int inflateHuffman(final byte[] b, final int off, final int len) throws IOException {
+	var produced = 0;
+	while (produced < len) {
+	    if (copyLength > 0) {
+		final var count = Math.min(copyLength, len - produced);
+		for (var i = 0; i < count; i++) {
+		    emit(b, off + produced++, window[(windowPos - copyDistance) & WINDOW_MASK]);
+		}
+		copyLength -= count;
+		continue;
+	    }
+	    final var symbol = decodeSymbol(litTable);
+	    if (symbol < 256) {
+		emit(b, off + produced++, (byte) symbol);
+	    } else if (symbol == 256) {
+		state = STATE_BLOCK_HEADER;
+		break;
+	    } else {
+		final var lengthIndex = symbol - 257;
+		if (lengthIndex >= LENGTH_BASE.length) {
+		    throw new ZipException("Invalid literal/length code");
+		}
+		copyLength = LENGTH_BASE[lengthIndex] + getBits(LENGTH_EXTRA[lengthIndex]);
+		final var distIndex = decodeSymbol(distTable);
+		if (distIndex >= DIST_BASE.length) {
+		    throw new ZipException("Invalid distance code");
+		}
+		copyDistance = DIST_BASE[distIndex] + getBits(DIST_EXTRA[distIndex]);
+		if (copyDistance > windowFill) {
+		    throw new ZipException("Invalid distance too far back");
+		}
+	    }
+	}
+	return produced;
+    }
+
+    private int readMemberTrailer() throws IOException {
+	dropBits(bitCount & 7);
+	final var expectedCrc = readIntLE();
+	final var expectedSize = readIntLE();
+	if (verifyTrailer && (expectedCrc != crc.getValue() || expectedSize != (memberOut & 0xFFFFFFFFL))) {
+	    throw new ZipException("Corrupt GZIP trailer");
+	}
+	state = STATE_HEADER;
+	return 0;
+    }
+
+    private long readIntLE() throws IOException {
+	long value = 0;
+	for (var i = 0; i < 4; i++) {
+	    value |= (long) requireByte() << (8 * i);
+	}
+	return value;
+    }
+
+    private void emit(final byte[] b, final int index, final byte value) {
+	b[index] = value;
+	window[windowPos] = value;
+	windowPos = (windowPos + 1) & WINDOW_MASK;
+	if (windowFill < WINDOW_SIZE) {
+	    windowFill++;
+	}
+	totalOut++;
+	memberOut++;
+    }
+
+    private int decodeSymbol(final int[] table) throws IOException {
+	final var tableBits = table[table.length - 1];
+	ensureBits(tableBits);
+	final var entry = table[(int) (bitBuf & ((1 << tableBits) - 1))];
+	final var length = entry & 15;
+	if (length == 0) {
+	    throw new ZipException("Invalid Huffman code");
+	}
+	if (length > bitCount) {
+	    throw new EOFException("Unexpected end of ZLIB input stream");
+	}
+	dropBits(length);
+	return entry >>> 4;
+    }
+
+    private int getBits(final int count) throws IOException {
+	if (count == 0) {
+	    return 0;
+	}
+	ensureBits(count);
+	if (bitCount < count) {
+	    throw new EOFException("Unexpected end of ZLIB input stream");
+	}
+	final var value = (int) (bitBuf & ((1L << count) - 1));
+	dropBits(count);
+	return value;
+    }
+
+    private void dropBits(final int count) {
+	bitBuf >>>= count;
+	bitCount -= count;
+    }
+
+    private void ensureBits(final int count) throws IOException {
+	while (bitCount < count) {
+	    final var next = nextByte();
+	    if (next < 0) {
+		return;
+	    }
+	    bitBuf |= (long) next << bitCount;
+	    bitCount += 8;
+	}
+    }
+
+    private int requireByte() throws IOException {
+	final var value = nextAlignedByte();
+	if (value < 0) {
+	    throw new EOFException("Unexpected end of ZLIB input stream");
+	}
+	return value;
+    }
+
+    /**
+     * Reads the next whole byte, draining byte-aligned bits from the bit buffer
+     * first
+     */
+    private int nextAlignedByte() throws IOException {
+	return bitCount >= 8 ? getBits(8) : nextByte();
+    }
+
+    private int nextByte() throws IOException {
+	if (inPos == inLen) {
+	    inBase += inLen;
+	    inPos = 0;
+	    inLen = 0;
+	    final var n = in.read(inBuf);
+	    if (n <= 0) {
+		return -1;
+	    }
+	    inLen = n;
+	}
+	return inBuf[inPos++] & 0xFF;
+    }
+
+    /**
+     * Receives a notification before each deflate block header is read
+     */
+    @FunctionalInterface
+    interface BlockListener {
+	void onBlockBoundary(GzipInflater inflater);
+    }
+}
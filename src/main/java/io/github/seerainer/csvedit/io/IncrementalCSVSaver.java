@@ -0,0 +1,125 @@
+package io.github.seerainer.csvedit.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import io.github.seerainer.csvedit.model.CSVTableModel;
+import io.github.seerainer.csvedit.util.Settings;
+
+/**
+ * Saves edits to a CSV file by re-encoding only the modified rows. Unchanged
+ * byte ranges are copied from the original file with
+ * {@link FileChannel#transferTo} into a temporary file that then replaces the
+ * original, so an interrupted save never leaves a partly written file.
+ */
+class IncrementalCSVSaver {
+
+    private IncrementalCSVSaver() {
+	throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Checks if the model can be saved incrementally over its source file: no
+     * structural changes, and an unchanged uncompressed file with a header row
+     * in a charset whose rows can be encoded on their own. The rows are written
+     * in the source's dialect, like a full save over the source would.
+     */
+    static boolean canSave(final CSVFileSource source, final CSVTableModel model) {
+	final var dialect = source.getDialect();
+	return !model.isStructureModified() && dialect.hasHeader() && !dialect.requiresTranscoding()
+		&& CSVStreamWriter.isAsciiCompatible(dialect.getCharset())
+		&& source.getCodec() == CompressionCodec.NONE
+		&& source.isUnchanged();
+    }
+
+    /**
+     * Saves the modified rows of the model into its source file
+     *
+     * @return false if the file does not match the model (e.g. a different
+     *         number of records), in which case nothing was written
+     */
+    static boolean save(final CSVFileSource source, final CSVTableModel model,
+	    final FileOperations.SaveProgressCallback callback) throws IOException {
+	final var rowCount = model.getRowCount();
+	final var rows = model.getModifiedRows().stream().filter(row -> row < rowCount).toArray();
+	final var records = Arrays.stream(rows).map(row -> row + 1).toArray(); // Record 0 is the header row
+	final var path = source.getPath();
+
+	RowOffsetIndex index;
+	try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+	    index = RowOffsetIndex.scan(channel, source.getDialect(), records, Settings.getSkipEmptyLines(),
+		    Settings.getSkipBlankLines(), callback, rowCount);
+	}
+	if (!index.isComplete() || index.getRecordCount() != rowCount + 1) {
+	    return false;
+	}
+
+	splice(source, index, encodeRows(model, rows, source.getDialect()));
+	callback.onProgress(rowCount, rowCount);
+	return true;
+    }
+
+    private static byte[][] encodeRows(final CSVTableModel model, final int[] rows, final CSVDialect dialect)
+	    throws IOException {
+	final var colCount = model.getColumnCount();
+	final var encoded = new byte[rows.length][];
+	final var out = new ByteArrayOutputStream();
+	for (var i = 0; i < rows.length; i++) {
+	    out.reset();
+	    try (var writer = new CSVStreamWriter(Channels.newChannel(out), dialect.getDelimiter(),
+		    dialect.getQuote(), dialect.getEscape(), "\n", dialect.getCharset(), 4096)) {
+		writer.writeRecord(model.getRowView(rows[i]), colCount);
+	    }
+	    encoded[i] = out.toByteArray();
+	}
+	return encoded;
+    }
+
+    /**
+     * Writes a new file from the unchanged ranges of the original and the
+     * re-encoded rows, then replaces the original with it
+     */
+    private static void splice(final CSVFileSource source, final RowOffsetIndex index, final byte[][] encoded)
+	    throws IOException {
+	final var path = source.getPath();
+	final var temp = FileOperations.createTempFile(path);
+	try {
+	    try (var in = FileChannel.open(path, StandardOpenOption.READ);
+		    var out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+		var position = 0L;
+		for (var i = 0; i < encoded.length; i++) {
+		    transferFully(in, position, index.getStart(i), out);
+		    final var buffer = ByteBuffer.wrap(encoded[i]);
+		    while (buffer.hasRemaining()) {
+			out.write(buffer);
+		    }
+		    position = index.getEnd(i);
+		}
+		transferFully(in, position, in.size(), out);
+		out.force(true);
+	    }
+	    FileOperations.replaceAtomically(temp, path);
+	} catch (final IOException e) {
+	    Files.deleteIfExists(temp);
+	    throw e;
+	}
+    }
+
+    private static void transferFully(final FileChannel in, final long from, final long to, final FileChannel out)
+	    throws IOException {
+	var position = from;
+	while (position < to) {
+	    final var transferred = in.transferTo(position, to - position, out);
+	    if (transferred <= 0) {
+		throw new IOException("Failed to copy unchanged data");
+	    }
+	    position += transferred;
+	}
+    }
+}
@@ -0,0 +1,62 @@
+package io.github.seerainer.csvedit.io;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import io.github.seerainer.csvedit.model.CSVTableModel;
+
+/**
+ * Loads a JSON file in the background, streaming its rows into the model in
+ * batches. JSON Lines files are parsed in parallel ranges instead.
+ */
+public class JSONLoader {
+
+    private final String filePath;
+    private final CSVTableModel model;
+    private final ExecutorService executor;
+    private volatile boolean cancelled = false;
+
+    public JSONLoader(final String filePath, final CSVTableModel model) {
+	this.filePath = filePath;
+	this.model = model;
+	this.executor = Executors.newSingleThreadExecutor(r -> {
+	    final var thread = new Thread(r, "JSON-Loader");
+	    thread.setDaemon(true);
+	    return thread;
+	});
+    }
+
+    /**
+     * Cancel the loading operation. The rows read so far stay in the model and
+     * are reported as complete.
+     */
+    public void cancel() {
+	cancelled = true;
+    }
+
+    /**
+     * Load the file asynchronously in the background
+     */
+    public CompletableFuture<Void> loadAsync(final LazyCSVLoader.ProgressCallback callback) {
+	return CompletableFuture.runAsync(() -> {
+	    try {
+		final var rowCount = JSONOperations.isJSONLinesFile(filePath)
+			? JSONOperations.loadJSONLines(filePath, model,
+				rowsParsed -> callback.onProgress(rowsParsed, -1, false), () -> cancelled)
+			: JSONOperations.loadJSON(filePath, model, rowsLoaded -> callback.onProgress(rowsLoaded, -1, false),
+				() -> cancelled);
+		callback.onProgress(rowCount, rowCount, true);
+	    } catch (final Exception e) {
+		callback.onError(e);
+	    }
+	}, executor);
+    }
+
+    /**
+     * Shutdown the executor
+     */
+    public void shutdown() {
+	executor.shutdown();
+    }
+}
@@ -1,17 +1,31 @@
 package io.github.seerainer.csvedit.io;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
-import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
-import com.grack.nanojson.JsonParser;
 import com.grack.nanojson.JsonParserException;
+import com.grack.nanojson.JsonReader;
 import com.grack.nanojson.JsonWriter;
 
 import io.github.seerainer.csvedit.model.CSVTableModel;
+import io.github.seerainer.csvedit.ui.UIConstants;
 
 /**
  * Utility class for loading and saving JSON files using NanoJSON library.
@@ -25,89 +39,463 @@ public class JSONOperations {
     /**
      * Loads a JSON file into the model using NanoJSON parser. Expected format: {
      * "headers": ["Col1", "Col2", ...], "rows": [ ["val1", "val2", ...], ["val3",
-     * "val4", ...], ... ] }
+     * "val4", ...], ... ] }, or an array of objects: [ {"Col1": "val1", ...},
+     * ... ]
      */
     public static void loadJSON(final String filePath, final CSVTableModel model) throws IOException {
-	final List<List<String>> data = new ArrayList<>();
-	final List<String> headers = new ArrayList<>();
+	loadJSON(filePath, model, _ -> {
+	}, () -> false);
+    }
 
-	try {
-	    // Read the entire file content
-	    final var jsonContent = Files.readString(Paths.get(filePath));
+    /**
+     * Streams a JSON file into the model with NanoJSON's pull parser, appending
+     * rows in batches without building a document first. For an array of objects,
+     * the columns are the keys of all objects in order of first appearance, with
+     * nested objects flattened to dotted names (e.g. "address.city"). Stops early
+     * when cancelled, keeping the rows read so far.
+     *
+     * @param progress  notified with the number of rows loaded after each batch
+     * @param cancelled checked before each row
+     * @return the number of rows loaded
+     */
+    public static int loadJSON(final String filePath, final CSVTableModel model, final IntConsumer progress,
+	    final BooleanSupplier cancelled) throws IOException {
+	model.clear();
+	var rowCount = 0;
+	try (var in = new BufferedInputStream(Files.newInputStream(Paths.get(filePath)))) {
+	    final var reader = JsonReader.from(in);
+	    if (reader.current() == JsonReader.Type.ARRAY) {
+		final Map<String, Integer> columns = new LinkedHashMap<>();
+		rowCount = readRows(reader, model, progress, cancelled,
+			r -> r.current() == JsonReader.Type.OBJECT ? readRecord(r, columns) : readRow(r));
+		model.setHeaders(new ArrayList<>(columns.keySet()));
+	    } else {
+		reader.object();
+		while (reader.next()) {
+		    switch (reader.key()) {
+		    case "headers" -> model.setHeaders(readRow(reader));
+		    case "rows" -> rowCount = readRows(reader, model, progress, cancelled, JSONOperations::readRow);
+		    default -> reader.value(); // Skip unknown members
+		    }
+		    if (cancelled.getAsBoolean()) {
+			break;
+		    }
+		}
+	    }
+	} catch (final JsonParserException e) {
+	    throw new IOException("Failed to parse JSON file: " + e.getMessage(), e);
+	}
+	model.normalize();
+	return rowCount;
+    }
+
+    private static int readRows(final JsonReader reader, final CSVTableModel model, final IntConsumer progress,
+	    final BooleanSupplier cancelled, final RowReader rowReader) throws IOException, JsonParserException {
+	List<List<String>> batch = new ArrayList<>(UIConstants.IMPORT_BATCH_ROWS);
+	var rowCount = 0;
+	reader.array();
+	while (!cancelled.getAsBoolean() && reader.next()) {
+	    batch.add(rowReader.read(reader));
+	    if (batch.size() == UIConstants.IMPORT_BATCH_ROWS) {
+		model.appendRows(batch);
+		rowCount += batch.size();
+		progress.accept(rowCount);
+		batch = new ArrayList<>(UIConstants.IMPORT_BATCH_ROWS);
+	    }
+	}
+	model.appendRows(batch);
+	rowCount += batch.size();
+	progress.accept(rowCount);
+	return rowCount;
+    }
+
+    /**
+     * Reads an array of values as text. Null becomes an empty string and nested
+     * arrays or objects are kept as JSON.
+     */
+    private static List<String> readRow(final JsonReader reader) throws IOException, JsonParserException {
+	if (reader.current() != JsonReader.Type.ARRAY) {
+	    throw new IOException("Failed to parse JSON file: headers and rows must be arrays of values");
+	}
+	final List<String> row = new ArrayList<>();
+	reader.array();
+	while (reader.next()) {
+	    row.add(readValue(reader));
+	}
+	return row;
+    }
+
+    /**
+     * Reads an object as a row, adding a column for every new key. Nested objects
+     * are flattened to dotted column names.
+     */
+    private static List<String> readRecord(final JsonReader reader, final Map<String, Integer> columns)
+	    throws JsonParserException {
+	final List<String> row = new ArrayList<>(columns.size());
+	readFields(reader, columns, row, "");
+	return row;
+    }
+
+    private static void readFields(final JsonReader reader, final Map<String, Integer> columns,
+	    final List<String> row, final String prefix) throws JsonParserException {
+	reader.object();
+	while (reader.next()) {
+	    final var name = prefix + reader.key();
+	    if (reader.current() == JsonReader.Type.OBJECT) {
+		readFields(reader, columns, row, name + ".");
+		continue;
+	    }
+	    final var column = columns.computeIfAbsent(name, _ -> Integer.valueOf(columns.size())).intValue();
+	    while (row.size() <= column) {
+		row.add("");
+	    }
+	    row.set(column, readValue(reader));
+	}
+    }
+
+    private static String readValue(final JsonReader reader) throws JsonParserException {
+	return switch (reader.current()) {
+	case STRING -> reader.string();
+	case NUMBER -> reader.number().toString();
+	case BOOLEAN -> String.valueOf(reader.bool());
+	case NULL -> {
+	    reader.nul();
+	    yield "";
+	}
+	default -> JsonWriter.string(reader.value());
+	};
+    }
+
+    /**
+     * Checks if a file is JSON Lines (NDJSON) based on its extension
+     */
+    public static boolean isJSONLinesFile(final String filePath) {
+	final var name = filePath.toLowerCase();
+	return name.endsWith(".jsonl") || name.endsWith(".ndjson");
+    }
 
-	    // Parse JSON using NanoJSON
-	    final var jsonObject = JsonParser.object().from(jsonContent);
+    /**
+     * Loads a JSON Lines file with one array or object per line. With arrays the
+     * first line holds the headers; with objects every key becomes a column, in
+     * order of first appearance and flattened like an array of objects in
+     * {@link #loadJSON(String, CSVTableModel)}. The file is split at line breaks into ranges
+     * that are parsed in parallel and merged in order.
+     *
+     * @return the number of rows loaded
+     */
+    public static int loadJSONLines(final String filePath, final CSVTableModel model) throws IOException {
+	return loadJSONLines(filePath, model, _ -> {
+	}, () -> false);
+    }
 
-	    // Parse headers array
-	    if (jsonObject.has("headers")) {
-		final var headersArray = jsonObject.getArray("headers");
-		for (var i = 0; i < headersArray.size(); i++) {
-		    headers.add(headersArray.getString(i));
+    /**
+     * Loads a JSON Lines file like {@link #loadJSONLines(String, CSVTableModel)}.
+     * Ranges parsed before the load is cancelled are kept.
+     *
+     * @param progress  notified with the number of lines parsed after each range
+     * @param cancelled checked before each range
+     * @return the number of rows loaded
+     */
+    public static int loadJSONLines(final String filePath, final CSVTableModel model, final IntConsumer progress,
+	    final BooleanSupplier cancelled) throws IOException {
+	final List<LineChunk> chunks;
+	try (var channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+	    final var bounds = splitAtLineBreaks(channel);
+	    final var parsed = new AtomicInteger();
+	    chunks = IntStream.range(0, bounds.length - 1).parallel().mapToObj(i -> {
+		if (cancelled.getAsBoolean()) {
+		    final var chunk = new LineChunk();
+		    chunk.skipped = true;
+		    return chunk;
 		}
+		try {
+		    final var chunk = parseChunk(channel, bounds[i], bounds[i + 1]);
+		    progress.accept(parsed.addAndGet(chunk.rows.size()));
+		    return chunk;
+		} catch (final IOException e) {
+		    throw new UncheckedIOException(e);
+		}
+	    }).takeWhile(chunk -> !chunk.skipped).toList();
+	} catch (final UncheckedIOException e) {
+	    throw e.getCause();
+	}
+
+	final var objects = chunks.stream().anyMatch(chunk -> chunk.keys != null);
+	if (objects && chunks.stream().anyMatch(chunk -> chunk.arrays)) {
+	    throw new IOException("Failed to parse JSON Lines file: lines mix arrays and objects");
+	}
+	final List<String> headers = objects ? mergeKeys(chunks) : new ArrayList<>();
+	model.clear();
+	var rowCount = 0;
+	for (final var chunk : chunks) {
+	    var rows = chunk.rows;
+	    if (!objects && headers.isEmpty() && !rows.isEmpty()) {
+		headers.addAll(rows.getFirst());
+		rows = rows.subList(1, rows.size());
 	    }
+	    model.appendRows(rows);
+	    rowCount += rows.size();
+	}
+	model.setHeaders(headers);
+	model.normalize();
+	return rowCount;
+    }
 
-	    // Parse rows array
-	    if (jsonObject.has("rows")) {
-		final var rowsArray = jsonObject.getArray("rows");
-		for (var i = 0; i < rowsArray.size(); i++) {
-		    final var rowArray = rowsArray.getArray(i);
-		    final List<String> row = new ArrayList<>();
-		    for (var j = 0; j < rowArray.size(); j++) {
-			final var value = rowArray.isNull(j) ? "" : rowArray.getString(j);
-			row.add(value);
+    /**
+     * Splits a file into ranges that start at the beginning of a line
+     *
+     * @return the range boundaries, from 0 to the file size
+     */
+    static long[] splitAtLineBreaks(final FileChannel channel) throws IOException {
+	final var size = channel.size();
+	final var count = chunkCount(size);
+
+	final List<Long> bounds = new ArrayList<>(count + 1);
+	bounds.add(Long.valueOf(0));
+	final var buffer = ByteBuffer.allocate(64 * 1024);
+	for (var i = 1; i < count; i++) {
+	    var position = Math.max(size * i / count, bounds.getLast().longValue());
+	    var boundary = size;
+	    search: while (position < size) {
+		buffer.clear();
+		final var read = channel.read(buffer, position);
+		if (read < 0) {
+		    break;
+		}
+		for (var j = 0; j < read; j++) {
+		    if (buffer.get(j) == '\n') {
+			boundary = position + j + 1;
+			break search;
 		    }
-		    data.add(row);
 		}
+		position += read;
+	    }
+	    if (boundary > bounds.getLast().longValue() && boundary < size) {
+		bounds.add(Long.valueOf(boundary));
 	    }
+	}
+	bounds.add(Long.valueOf(size));
+	return bounds.stream().mapToLong(Long::longValue).toArray();
+    }
 
-	} catch (final JsonParserException e) {
-	    throw new IOException("Failed to parse JSON file: " + e.getMessage(), e);
+    /**
+     * Gets the number of ranges a file of the given size is parsed in: enough to
+     * keep every processor busy, but none larger than the chunk size limit
+     */
+    static int chunkCount(final long size) {
+	final var byParallelism = Math.min(Runtime.getRuntime().availableProcessors() * 4L,
+		size / UIConstants.JSON_LINES_MIN_CHUNK_BYTES);
+	final var bySize = (size + UIConstants.JSON_LINES_MAX_CHUNK_BYTES - 1) / UIConstants.JSON_LINES_MAX_CHUNK_BYTES;
+	return (int) Math.max(1, Math.max(byParallelism, bySize));
+    }
+
+    private static LineChunk parseChunk(final FileChannel channel, final long start, final long end)
+	    throws IOException {
+	final var bytes = new byte[(int) (end - start)];
+	final var buffer = ByteBuffer.wrap(bytes);
+	while (buffer.hasRemaining()) {
+	    if (channel.read(buffer, start + buffer.position()) < 0) {
+		break;
+	    }
 	}
 
-	model.clear();
-	model.setHeaders(headers);
-	model.setData(data);
-	model.normalize();
+	final var chunk = new LineChunk();
+	var lineStart = start == 0 && hasUtf8Bom(bytes) ? 3 : 0;
+	while (lineStart < bytes.length) {
+	    var lineEnd = lineStart;
+	    while (lineEnd < bytes.length && bytes[lineEnd] != '\n') {
+		lineEnd++;
+	    }
+	    final var line = new String(bytes, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8);
+	    if (!line.isBlank()) {
+		try {
+		    chunk.add(JsonReader.from(line));
+		} catch (final JsonParserException e) {
+		    throw new IOException("Failed to parse JSON Lines file at byte %d: %s"
+			    .formatted(Long.valueOf(start + lineStart), e.getMessage()), e);
+		}
+	    }
+	    lineStart = lineEnd + 1;
+	}
+	return chunk;
+    }
+
+    private static boolean hasUtf8Bom(final byte[] bytes) {
+	return bytes.length >= 3 && bytes[0] == (byte) 0xEF && bytes[1] == (byte) 0xBB && bytes[2] == (byte) 0xBF;
     }
 
     /**
-     * Saves the model data to a JSON file using NanoJSON writer. Format: {
-     * "headers": ["Col1", "Col2", ...], "rows": [ ["val1", "val2", ...], ["val3",
-     * "val4", ...], ... ] }
+     * Merges the keys of all chunks in order of first appearance and moves the
+     * values of each chunk's rows to the merged columns
+     */
+    private static List<String> mergeKeys(final List<LineChunk> chunks) {
+	final Map<String, Integer> columns = new LinkedHashMap<>();
+	final List<int[]> mappings = new ArrayList<>(chunks.size());
+	for (final var chunk : chunks) {
+	    final var keys = chunk.keys != null ? chunk.keys.keySet() : Set.<String>of();
+	    final var mapping = new int[keys.size()];
+	    var identity = true;
+	    var i = 0;
+	    for (final var key : keys) {
+		mapping[i] = columns.computeIfAbsent(key, _ -> Integer.valueOf(columns.size())).intValue();
+		identity &= mapping[i] == i;
+		i++;
+	    }
+	    mappings.add(identity ? null : mapping);
+	}
+	IntStream.range(0, chunks.size()).parallel().forEach(c -> {
+	    final var mapping = mappings.get(c);
+	    if (mapping == null) {
+		return;
+	    }
+	    final var rows = chunks.get(c).rows;
+	    for (var r = 0; r < rows.size(); r++) {
+		final var row = rows.get(r);
+		final List<String> merged = new ArrayList<>(Collections.nCopies(columns.size(), ""));
+		for (var j = 0; j < row.size(); j++) {
+		    merged.set(mapping[j], row.get(j));
+		}
+		rows.set(r, merged);
+	    }
+	});
+	return new ArrayList<>(columns.keySet());
+    }
+
+    /**
+     * Saves the model data to a JSON Lines file: the headers as an array on the
+     * first line, then one array of values per row
+     */
+    public static void saveJSONLines(final String filePath, final CSVTableModel model,
+	    final FileOperations.SaveProgressCallback callback) throws IOException {
+	final var rowCount = model.getRowCount();
+	writeBlocks(filePath, rowCount, block -> {
+	    final var json = new StringBuilder();
+	    if (block == 0) {
+		appendArray(json, model.getHeaders(), ",");
+		json.append('\n');
+	    }
+	    final var end = ParallelBlockWriter.blockEnd(block, rowCount);
+	    for (var i = ParallelBlockWriter.blockStart(block); i < end; i++) {
+		appendArray(json, model.getRowView(i), ",");
+		json.append('\n');
+	    }
+	    return json.toString().getBytes(StandardCharsets.UTF_8);
+	}, callback);
+    }
+
+    /**
+     * Saves the model data to an indented JSON file using NanoJSON string
+     * encoding. Format: { "headers": ["Col1", "Col2", ...], "rows": [ ["val1",
+     * "val2", ...], ["val3", "val4", ...], ... ] }
      */
     public static void saveJSON(final String filePath, final CSVTableModel model) throws IOException {
-	try {
-	    final var writer = new StringWriter();
-	    final var jsonWriter = JsonWriter.indent("  ").on(writer);
+	saveJSON(filePath, model, false, (_, _) -> {
+	});
+    }
 
-	    // Start JSON object
-	    jsonWriter.object();
+    /**
+     * Saves the model data to a JSON file, either indented with one row per line
+     * or compact without any whitespace, reporting the rows written
+     */
+    public static void saveJSON(final String filePath, final CSVTableModel model, final boolean compact,
+	    final FileOperations.SaveProgressCallback callback) throws IOException {
+	final var rowCount = model.getRowCount();
+	final var blockCount = ParallelBlockWriter.blockCount(rowCount);
+	writeBlocks(filePath, rowCount, block -> encodeBlock(model, block, blockCount, compact), callback);
+    }
 
-	    // Write headers array
-	    jsonWriter.array("headers");
-	    final var headers = model.getHeaders();
-	    headers.forEach(jsonWriter::value);
-	    jsonWriter.end(); // end headers array
+    /**
+     * Encodes blocks of rows in parallel and streams them to a temporary file that
+     * replaces the target once complete, reporting the rows written
+     */
+    private static void writeBlocks(final String filePath, final int rowCount,
+	    final ParallelBlockWriter.BlockEncoder encoder, final FileOperations.SaveProgressCallback callback)
+	    throws IOException {
+	final var target = Paths.get(filePath).toAbsolutePath();
+	final var temp = FileOperations.createTempFile(target);
+	try {
+	    try (var channel = FileChannel.open(temp, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+		ParallelBlockWriter.write(channel, ParallelBlockWriter.blockCount(rowCount), encoder,
+			block -> callback.onProgress(ParallelBlockWriter.blockEnd(block, rowCount), rowCount));
+	    }
+	    FileOperations.replaceAtomically(temp, target);
+	} catch (final IOException e) {
+	    Files.deleteIfExists(temp);
+	    throw new IOException("Failed to write JSON file: " + e.getMessage(), e);
+	}
+    }
 
-	    // Write rows array
-	    jsonWriter.array("rows");
-	    final var rowCount = model.getRowCount();
-	    for (var i = 0; i < rowCount; i++) {
-		jsonWriter.array(); // start row array
-		final var row = model.getRow(i);
-		row.forEach(jsonWriter::value);
-		jsonWriter.end(); // end row array
+    private static byte[] encodeBlock(final CSVTableModel model, final int block, final int blockCount,
+	    final boolean compact) {
+	final var rowCount = model.getRowCount();
+	final var separator = compact ? "," : ", ";
+	final var json = new StringBuilder();
+	if (block == 0) {
+	    json.append(compact ? "{\"headers\":" : "{\n  \"headers\": ");
+	    appendArray(json, model.getHeaders(), separator);
+	    json.append(compact ? ",\"rows\":[" : ",\n  \"rows\": [");
+	}
+	final var end = ParallelBlockWriter.blockEnd(block, rowCount);
+	for (var i = ParallelBlockWriter.blockStart(block); i < end; i++) {
+	    if (compact) {
+		json.append(i == 0 ? "" : ",");
+	    } else {
+		json.append(i == 0 ? "\n    " : ",\n    ");
 	    }
-	    jsonWriter.end(); // end rows array
+	    appendArray(json, model.getRowView(i), separator);
+	}
+	if (block == blockCount - 1) {
+	    json.append(compact ? "]}" : "\n  ]\n}\n");
+	}
+	return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
 
-	    jsonWriter.end(); // end root object
-	    jsonWriter.done();
+    /**
+     * Appends a JSON array of strings
+     */
+    private static void appendArray(final StringBuilder json, final List<String> values, final String separator) {
+	json.append('[');
+	for (var j = 0; j < values.size(); j++) {
+	    if (j > 0) {
+		json.append(separator);
+	    }
+	    final var value = values.get(j);
+	    json.append(value == null ? "null" : JsonWriter.string(value));
+	}
+	json.append(']');
+    }
 
-	    // Write to file
-	    Files.writeString(Paths.get(filePath), writer.toString());
+    /**
+     * The rows parsed from one range of a JSON Lines file. For object lines, the
+     * row values are in the order of the chunk's own keys.
+     */
+    private static class LineChunk {
+	private final List<List<String>> rows = new ArrayList<>();
+	private Map<String, Integer> keys;
+	private boolean arrays;
+	private boolean skipped;
 
-	} catch (final Exception e) {
-	    throw new IOException("Failed to write JSON file: " + e.getMessage(), e);
+	private void add(final JsonReader reader) throws IOException, JsonParserException {
+	    if (reader.current() == JsonReader.Type.ARRAY) {
+		rows.add(readRow(reader));
+		arrays = true;
+		return;
+	    }
+	    if (reader.current() != JsonReader.Type.OBJECT) {
+		throw new IOException("Failed to parse JSON Lines file: lines must be arrays or objects");
+	    }
+	    if (keys == null) {
+		keys = new LinkedHashMap<>();
+	    }
+	    rows.add(readRecord(reader, keys));
 	}
     }
-}
\ No newline at end of file
+
+    /**
+     * Reads one row at the current position of a JSON reader
+     */
+    @FunctionalInterface
+    private interface RowReader {
+	List<String> read(JsonReader reader) throws IOException, JsonParserException;
+    }
+}
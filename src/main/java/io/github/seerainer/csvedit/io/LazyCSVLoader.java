@@ -11,6 +11,7 @@ import java.util.concurrent.Executors;
 
 import io.github.seerainer.csvedit.model.CSVTableModel;
 import io.github.seerainer.csvedit.ui.UIConstants;
+import io.github.seerainer.csvedit.util.Settings;
 
 /**
  * Lazy loader for CSV files that loads data in chunks to handle large files
@@ -22,6 +23,9 @@ public class LazyCSVLoader {
     private final CSVTableModel model;
     private final ExecutorService executor;
     private List<String> headers;
+    private CSVDialect dialect;
+    private int[] columns;
+    private RowFilter filter;
     private volatile boolean cancelled = false;
 
     public LazyCSVLoader(final String filePath, final CSVTableModel model) {
@@ -46,6 +50,42 @@ public class LazyCSVLoader {
 	}
     }
 
+    /**
+     * Detect the file's dialect from its first bytes. The result applies to this
+     * loader only; without it the configured settings are used.
+     */
+    public CSVDialect sniffDialect() throws IOException {
+	dialect = CSVDialectSniffer.sniff(Paths.get(filePath));
+	return dialect;
+    }
+
+    /**
+     * Get the dialect used for loading
+     */
+    public CSVDialect getDialect() {
+	return dialect != null ? dialect : CSVDialect.fromSettings();
+    }
+
+    /**
+     * Restrict loading to the given columns, leaving out all other fields of
+     * every record
+     *
+     * @param columns the indices of the columns to load, or null to load all
+     */
+    public void setColumns(final int[] columns) {
+	this.columns = columns != null ? columns.clone() : null;
+    }
+
+    /**
+     * Restrict loading to the rows a filter accepts. It is tested on each record
+     * while the file is read, so rejected rows are never stored.
+     *
+     * @param filter the filter, or null to load all rows
+     */
+    public void setFilter(final RowFilter filter) {
+	this.filter = filter;
+    }
+
     /**
      * Cancel the loading operation
      */
@@ -74,29 +114,38 @@ public class LazyCSVLoader {
 	headers = new ArrayList<>();
 
 	final var lastProgressUpdate = new int[] { 0 }; // Use array to allow modification in lambda
-	final var isFirstRowArray = new boolean[] { true }; // Use array to allow modification in lambda
+	final var recordsRead = new int[] { 0 }; // Use array to allow modification in lambda
+	final var dialect = getDialect();
+	if ((columns != null || filter != null || Settings.getLoadFieldsOnDemand())
+		&& LazyFieldReader.isSupported(Paths.get(filePath), dialect)) {
+	    loadFromFieldOffsets(dialect, callback);
+	    return;
+	}
+	final var isFirstRowArray = new boolean[] { dialect.hasHeader() }; // Use array to allow modification in lambda
+	if (!dialect.hasHeader() && columns != null) {
+	    headers.addAll(CSVParserUtil.columnNames(columns));
+	}
 
 	// Use callback-based streaming to avoid loading entire file into memory
-	CSVParserUtil.parseFileWithCallback(Paths.get(filePath), record -> {
+	CSVParserUtil.parseFileWithCallback(Paths.get(filePath), dialect, record -> {
 	    if (cancelled) {
 		return;
 	    }
 
-	    final var row = CSVParserUtil.extractRow(record);
-	    final var allEmpty = CSVParserUtil.isRowEmpty(row);
-
-	    if (!allEmpty || !row.isEmpty()) {
+	    if (record.getFieldCount() > 0) {
 		if (isFirstRowArray[0]) {
-		    headers.addAll(row);
+		    headers.addAll(CSVParserUtil.extractRow(record, columns));
 		    isFirstRowArray[0] = false;
 		} else {
-		    allData.add(row);
-		    final var currentRowCount = allData.size();
+		    if (filter == null || filter.test(column -> CSVParserUtil.getField(record, column))) {
+			allData.add(CSVParserUtil.extractRow(record, columns));
+		    }
+		    final var currentRecordCount = ++recordsRead[0];
 
-		    // Update progress periodically
-		    if (currentRowCount - lastProgressUpdate[0] >= UIConstants.PROGRESS_UPDATE_INTERVAL) {
-			callback.onProgress(currentRowCount, -1, false);
-			lastProgressUpdate[0] = currentRowCount;
+		    // Update progress periodically, by records read so a selective filter still shows it
+		    if (currentRecordCount - lastProgressUpdate[0] >= UIConstants.PROGRESS_UPDATE_INTERVAL) {
+			callback.onProgress(allData.size(), -1, false);
+			lastProgressUpdate[0] = currentRecordCount;
 		    }
 		}
 	    }
@@ -114,45 +163,33 @@ public class LazyCSVLoader {
     }
 
     /**
-     * Load just a preview of the file (first N rows)
+     * Load the file as field offsets, so cells are only decoded when they are
+     * read, or only the selected columns and the fields the filter tests are.
+     * The rows are handed over without copying, which would decode them.
      */
-    public void loadPreview(final ProgressCallback callback) throws IOException {
-	final List<List<String>> data = new ArrayList<>(UIConstants.CSV_PREVIEW_ROWS);
-	headers = new ArrayList<>();
-
-	// Read enough bytes for preview - estimate ~100 bytes per row
-	final var previewBytes = (UIConstants.CSV_PREVIEW_ROWS + 1) * 100;
-	final var bytes = FileOperations.isGzipFile(filePath) ? CSVParserUtil.readGzipFileBytes(filePath, previewBytes)
-		: CSVParserUtil.readFileBytes(filePath, previewBytes);
-	final var records = CSVParserUtil.parseCSV(bytes);
-
-	var isFirstRow = true;
-	var rowCount = 0;
-	for (final var record : records) {
-	    if (cancelled) {
-		break;
-	    }
-
-	    final var row = CSVParserUtil.extractRow(record);
-
-	    if (isFirstRow) {
-		headers.addAll(row);
-		isFirstRow = false;
-	    } else {
-		data.add(row);
-		rowCount++;
-		if (rowCount >= UIConstants.CSV_PREVIEW_ROWS) {
-		    break;
-		}
-	    }
+    private void loadFromFieldOffsets(final CSVDialect dialect, final ProgressCallback callback)
+	    throws IOException {
+	final var rows = LazyFieldReader.read(Paths.get(filePath), dialect, columns, filter, headers,
+		rowsLoaded -> callback.onProgress(rowsLoaded, -1, false), () -> cancelled);
+	if (cancelled) {
+	    return;
 	}
-
 	model.clear();
 	model.setHeaders(headers);
-	model.setData(data);
+	model.appendRows(rows);
 	model.normalize();
+	callback.onProgress(rows.size(), rows.size(), true);
+    }
 
-	callback.onProgress(data.size(), -1, false);
+    /**
+     * Load just a preview of the file (first N rows), reading only as far as
+     * those rows reach
+     */
+    public void loadPreview(final ProgressCallback callback) throws IOException {
+	final var rowCount = SampleOperations.loadSample(Paths.get(filePath), getDialect(), model,
+		SampleOperations.Mode.HEAD, UIConstants.CSV_PREVIEW_ROWS, _ -> {
+		}, () -> cancelled);
+	callback.onProgress(rowCount, -1, false);
     }
 
     /**
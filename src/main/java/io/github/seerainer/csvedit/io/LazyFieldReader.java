@@ -0,0 +1,251 @@
+package io.github.seerainer.csvedit.io;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+
+import io.github.seerainer.csvedit.model.LazyRow;
+import io.github.seerainer.csvedit.ui.UIConstants;
+import io.github.seerainer.csvedit.util.Settings;
+
+/**
+ * Reads CSV records as field offsets into the raw file bytes instead of
+ * strings. The file is kept in blocks that its {@link LazyRow}s share, so a
+ * wide file costs about its own size in memory and its fields are only decoded
+ * when a cell is read. If only some columns are read, their fields are decoded
+ * right away and the other fields never are, so the blocks are not kept. A
+ * filter is tested on the fields it refers to before a row is created.
+ */
+public class LazyFieldReader {
+
+    private static final int BLOCK_BYTES = 8 * 1024 * 1024;
+    private static final byte[] UTF8_BOM = { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF };
+
+    private LazyFieldReader() {
+	throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Checks if a file can be read as field offsets, i.e. is read without
+     * decompression or transcoding, has single byte quoting and no parsing
+     * option changes the field values
+     */
+    public static boolean isSupported(final Path filePath, final CSVDialect dialect) throws IOException {
+	return CompressionCodec.detect(filePath) == CompressionCodec.NONE && !dialect.requiresTranscoding()
+		&& dialect.getDelimiter() < 0x80
+		&& dialect.getQuote() < 0x80 && dialect.getEscape() < 0x80 && !Settings.getTrimWhitespace()
+		&& Settings.getNullValueRepresentation().isEmpty();
+    }
+
+    /**
+     * Reads the records of a file as rows that decode their fields on demand,
+     * or as rows of the decoded fields of the given columns
+     *
+     * @param filePath  the CSV file
+     * @param dialect   the dialect to read with
+     * @param columns   the indices of the columns to read, or null to read all
+     *                  columns on demand
+     * @param filter    the filter records must pass, or null to read all
+     * @param headers   receives the header row if the dialect has one
+     * @param progress  receives the number of rows kept so far
+     * @param cancelled checked between blocks
+     * @return the data rows, without the header row
+     */
+    public static List<List<String>> read(final Path filePath, final CSVDialect dialect, final int[] columns,
+	    final RowFilter filter, final List<String> headers, final IntConsumer progress,
+	    final BooleanSupplier cancelled) throws IOException {
+	return read(filePath, BLOCK_BYTES, dialect, columns, filter, headers, progress, cancelled);
+    }
+
+    /**
+     * Reads the records of a file in blocks of a given size as rows that decode
+     * their fields on demand, or as rows of the decoded fields of the given
+     * columns. A block grows if a single record does not fit.
+     *
+     * @param filePath   the CSV file
+     * @param blockBytes the size of the blocks the rows share
+     * @param dialect    the dialect to read with
+     * @param columns    the indices of the columns to read, or null to read all
+     *                   columns on demand
+     * @param filter     the filter records must pass, or null to read all
+     * @param headers    receives the header row if the dialect has one
+     * @param progress   receives the number of rows kept so far
+     * @param cancelled  checked between blocks
+     * @return the data rows, without the header row
+     */
+    public static List<List<String>> read(final Path filePath, final int blockBytes, final CSVDialect dialect,
+	    final int[] columns, final RowFilter filter, final List<String> headers, final IntConsumer progress,
+	    final BooleanSupplier cancelled) throws IOException {
+	if (blockBytes <= 0) {
+	    throw new IllegalArgumentException("Block size must be positive");
+	}
+	final var scanner = new Scanner(dialect, columns, filter, headers, progress);
+	try (var inputStream = Files.newInputStream(filePath)) {
+	    var block = new byte[Math.max(blockBytes, UTF8_BOM.length)];
+	    var filled = inputStream.readNBytes(block, 0, UTF8_BOM.length);
+	    var start = isBOM(block, filled, dialect) ? UTF8_BOM.length : 0;
+	    var eof = false;
+	    while (!eof && !cancelled.getAsBoolean()) {
+		final var read = inputStream.readNBytes(block, filled, block.length - filled);
+		filled += read;
+		eof = filled < block.length;
+		if (eof) {
+		    block = Arrays.copyOf(block, filled);
+		}
+		final var next = scanner.scan(block, start, filled, eof);
+		if (!eof) {
+		    // Carry the unfinished record over into the next block
+		    final var remaining = filled - next;
+		    final var nextBlock = new byte[Math.max(blockBytes, remaining * 2)];
+		    System.arraycopy(block, next, nextBlock, 0, remaining);
+		    block = nextBlock;
+		    filled = remaining;
+		    start = 0;
+		}
+	    }
+	}
+	return scanner.rows;
+    }
+
+    /**
+     * Checks if the bytes read so far are a UTF-8 byte order mark to skip
+     */
+    private static boolean isBOM(final byte[] block, final int read, final CSVDialect dialect) {
+	return (dialect.hasBOM() || Settings.getDetectBOM()) && read == UTF8_BOM.length
+		&& Arrays.equals(block, 0, read, UTF8_BOM, 0, UTF8_BOM.length);
+    }
+
+    /**
+     * Splits blocks into records and fields with a {@link RecordBoundaryScanner}.
+     * Empty lines hold no fields and are skipped, blank lines too if the parser
+     * is set to skip them.
+     */
+    private static final class Scanner {
+	private final List<List<String>> rows = new ArrayList<>(50000);
+	private final CSVDialect dialect;
+	private final int[] columns;
+	private final RowFilter filter;
+	private final List<String> headers;
+	private final IntConsumer progress;
+	private final byte delimiter;
+	private final boolean skipBlankLines;
+	private final boolean normalizeLineEndings;
+	private boolean headerPending;
+	private long records;
+	private int[] bounds = new int[64];
+
+	private Scanner(final CSVDialect dialect, final int[] columns, final RowFilter filter,
+		final List<String> headers, final IntConsumer progress) {
+	    this.dialect = dialect;
+	    this.columns = columns;
+	    this.filter = filter;
+	    this.headers = headers;
+	    this.progress = progress;
+	    this.delimiter = (byte) dialect.getDelimiter();
+	    this.skipBlankLines = Settings.getSkipBlankLines();
+	    this.normalizeLineEndings = Settings.getNormalizeLineEndings();
+	    this.headerPending = dialect.hasHeader();
+	    if (!headerPending && columns != null) {
+		headers.addAll(CSVParserUtil.columnNames(columns));
+	    }
+	}
+
+	/**
+	 * Scans the complete records of a block, and at the end of the file the
+	 * last one too
+	 *
+	 * @return the offset of the first byte of an unfinished record, or the end
+	 *         of the block if there is none
+	 */
+	private int scan(final byte[] block, final int start, final int end, final boolean eof) {
+	    final var source = new LazyRow.Source(block, dialect.getCharset(), dialect.getQuote(),
+		    dialect.getEscape(), normalizeLineEndings);
+	    final var boundaries = new RecordBoundaryScanner(dialect);
+	    var recordStart = start;
+	    var fieldCount = 0;
+	    var blank = true;
+	    bounds[0] = start;
+	    for (var i = start; i < end; i++) {
+		final var b = block[i];
+		if (!boundaries.isBoundary(b)) {
+		    if (b != ' ' && b != '\t') {
+			blank = false;
+		    }
+		    continue;
+		}
+		if (b == delimiter) {
+		    addBound(++fieldCount, i + 1);
+		    blank = false;
+		    continue;
+		}
+		addBound(++fieldCount, i + 1);
+		if (i > recordStart && !(skipBlankLines && blank)) {
+		    addRow(source, fieldCount);
+		}
+		if (b == '\r' && i + 1 < end && block[i + 1] == '\n') {
+		    i++;
+		}
+		recordStart = i + 1;
+		fieldCount = 0;
+		blank = true;
+		bounds[0] = recordStart;
+	    }
+	    if (eof && recordStart < end) {
+		addBound(++fieldCount, end + 1);
+		if (!(skipBlankLines && blank)) {
+		    addRow(source, fieldCount);
+		}
+		return end;
+	    }
+	    return recordStart;
+	}
+
+	/**
+	 * Decodes the fields of the selected columns, leaving the ones the record
+	 * does not reach empty
+	 */
+	private List<String> project(final LazyRow.Source source, final int fieldCount) {
+	    final List<String> row = new ArrayList<>(columns.length);
+	    for (final var column : columns) {
+		row.add(field(source, fieldCount, column));
+	    }
+	    return row;
+	}
+
+	private String field(final LazyRow.Source source, final int fieldCount, final int column) {
+	    return column < fieldCount ? source.decode(bounds[column], bounds[column + 1] - 1) : "";
+	}
+
+	private List<String> createRow(final LazyRow.Source source, final int fieldCount) {
+	    return columns != null ? project(source, fieldCount)
+		    : new LazyRow(source, Arrays.copyOf(bounds, fieldCount + 1));
+	}
+
+	private void addBound(final int index, final int offset) {
+	    if (index == bounds.length) {
+		bounds = Arrays.copyOf(bounds, bounds.length * 2);
+	    }
+	    bounds[index] = offset;
+	}
+
+	private void addRow(final LazyRow.Source source, final int fieldCount) {
+	    if (headerPending) {
+		headers.addAll(createRow(source, fieldCount));
+		headerPending = false;
+		return;
+	    }
+	    if (filter == null || filter.test(column -> field(source, fieldCount, column))) {
+		rows.add(createRow(source, fieldCount));
+	    }
+	    // Progress follows the records read, so a selective filter still shows it
+	    if (++records % UIConstants.PROGRESS_UPDATE_INTERVAL == 0) {
+		progress.accept(rows.size());
+	    }
+	}
+    }
+}
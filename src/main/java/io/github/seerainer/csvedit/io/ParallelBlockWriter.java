@@ -0,0 +1,151 @@
+package io.github.seerainer.csvedit.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import io.github.seerainer.csvedit.ui.UIConstants;
+
+/**
+ * Save and export pipeline that encodes consecutive blocks of rows to bytes on
+ * several threads and writes them to a single channel in their original order.
+ * Only a bounded number of encoded blocks is held in memory at any time. All
+ * writers share one pool of encoder threads, so concurrent saves do not
+ * multiply the number of threads.
+ */
+public class ParallelBlockWriter {
+
+    private static final int THREADS = Runtime.getRuntime().availableProcessors();
+    private static final ExecutorService ENCODERS = createEncoders();
+
+    private ParallelBlockWriter() {
+	throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Gets the number of blocks needed for the given number of rows (at least one,
+     * so headers and footers are always written)
+     */
+    public static int blockCount(final int rowCount) {
+	return Math.max(1, (rowCount + UIConstants.SAVE_BLOCK_ROWS - 1) / UIConstants.SAVE_BLOCK_ROWS);
+    }
+
+    /**
+     * Gets the first row of a block
+     */
+    public static int blockStart(final int block) {
+	return block * UIConstants.SAVE_BLOCK_ROWS;
+    }
+
+    /**
+     * Gets the row after the last row of a block
+     */
+    public static int blockEnd(final int block, final int rowCount) {
+	return Math.min(rowCount, blockStart(block) + UIConstants.SAVE_BLOCK_ROWS);
+    }
+
+    /**
+     * Encodes all blocks and writes them in order. Blocks are encoded on the
+     * calling thread if there is only one.
+     */
+    public static void write(final WritableByteChannel channel, final int blockCount, final BlockEncoder encoder)
+	    throws IOException {
+	write(channel, blockCount, encoder, _ -> {
+	});
+    }
+
+    /**
+     * Encodes all blocks and writes them in order, notifying the listener on the
+     * calling thread after each block has been written
+     */
+    public static void write(final WritableByteChannel channel, final int blockCount, final BlockEncoder encoder,
+	    final BlockListener listener) throws IOException {
+	final var threads = Math.min(blockCount, THREADS);
+	if (threads <= 1) {
+	    for (var i = 0; i < blockCount; i++) {
+		writeFully(channel, encoder.encode(i));
+		listener.onBlockWritten(i);
+	    }
+	    return;
+	}
+
+	final var pending = new ArrayDeque<Future<byte[]>>();
+	final var maxPending = threads * 2;
+	var written = 0;
+	try {
+	    for (var i = 0; i < blockCount; i++) {
+		final var block = i;
+		pending.add(ENCODERS.submit(() -> encoder.encode(block)));
+		if (pending.size() >= maxPending) {
+		    writeFully(channel, await(pending.poll()));
+		    listener.onBlockWritten(written++);
+		}
+	    }
+	    while (!pending.isEmpty()) {
+		writeFully(channel, await(pending.poll()));
+		listener.onBlockWritten(written++);
+	    }
+	} finally {
+	    pending.forEach(future -> future.cancel(true));
+	}
+    }
+
+    private static ExecutorService createEncoders() {
+	final var executor = new ThreadPoolExecutor(THREADS, THREADS, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+		r -> {
+		    final var thread = new Thread(r, "Block-Encoder");
+		    thread.setDaemon(true);
+		    return thread;
+		});
+	executor.allowCoreThreadTimeOut(true);
+	return executor;
+    }
+
+    private static byte[] await(final Future<byte[]> future) throws IOException {
+	try {
+	    return future.get();
+	} catch (final InterruptedException e) {
+	    Thread.currentThread().interrupt();
+	    throw new IOException("Interrupted while encoding data", e);
+	} catch (final ExecutionException e) {
+	    if (e.getCause() instanceof final IOException ioException) {
+		throw ioException;
+	    }
+	    throw new IOException("Failed to encode data: " + e.getCause().getMessage(), e.getCause());
+	}
+    }
+
+    /**
+     * Writes all bytes to a channel that may accept only some of them at a time
+     */
+    static void writeFully(final WritableByteChannel channel, final byte[] bytes) throws IOException {
+	final var buffer = ByteBuffer.wrap(bytes);
+	while (buffer.hasRemaining()) {
+	    channel.write(buffer);
+	}
+    }
+
+    /**
+     * Encodes one block of rows to bytes. Called concurrently for different
+     * blocks, so it must only read shared state.
+     */
+    @FunctionalInterface
+    public interface BlockEncoder {
+	byte[] encode(int block) throws IOException;
+    }
+
+    /**
+     * Notified after a block has been written to the channel
+     */
+    @FunctionalInterface
+    public interface BlockListener {
+	void onBlockWritten(int block);
+    }
+}
@@ -0,0 +1,174 @@
+package io.github.seerainer.csvedit.io;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * A top-level primitive column of a Parquet schema, converting its physical
+ * values to text according to its logical or converted type
+ */
+final class ParquetColumn {
+
+    // Physical types
+    static final int BOOLEAN = 0;
+    static final int INT32 = 1;
+    static final int INT64 = 2;
+    static final int INT96 = 3;
+    static final int FLOAT = 4;
+    static final int DOUBLE = 5;
+    static final int BYTE_ARRAY = 6;
+    static final int FIXED_LEN_BYTE_ARRAY = 7;
+
+    private static final long JULIAN_EPOCH_DAY = 2_440_588L;
+
+    private enum Kind {
+	PLAIN, DECIMAL, DATE, TIME, TIMESTAMP, UNSIGNED, UUID, FLOAT16
+    }
+
+    final String name;
+    final int type;
+    final int typeLength;
+    final boolean optional;
+    final int chunkIndex;
+    private Kind kind = Kind.PLAIN;
+    private int scale;
+    private long perSecond = 1_000L;
+    private boolean adjustedToUtc;
+
+    private ParquetColumn(final String name, final int type, final int typeLength, final boolean optional,
+	    final int chunkIndex) {
+	this.name = name;
+	this.type = type;
+	this.typeLength = typeLength;
+	this.optional = optional;
+	this.chunkIndex = chunkIndex;
+    }
+
+    /**
+     * Creates a column from its schema element
+     *
+     * @param chunkIndex the index of the column's chunks in each row group
+     */
+    static ParquetColumn fromSchema(final ThriftStruct element, final int chunkIndex) {
+	final var column = new ParquetColumn(element.getString(4), element.getInt(1, BYTE_ARRAY), element.getInt(2, 0),
+		element.getInt(3, 0) == 1, chunkIndex);
+	final var logicalType = element.getStruct(10);
+	if (logicalType != null) {
+	    column.applyLogicalType(logicalType);
+	} else {
+	    column.applyConvertedType(element.getInt(6, -1), element.getInt(7, 0));
+	}
+	return column;
+    }
+
+    private void applyLogicalType(final ThriftStruct logicalType) {
+	if (logicalType.has(5)) {
+	    kind = Kind.DECIMAL;
+	    scale = logicalType.getStruct(5).getInt(1, 0);
+	} else if (logicalType.has(6)) {
+	    kind = Kind.DATE;
+	} else if (logicalType.has(7) || logicalType.has(8)) {
+	    final var temporal = logicalType.has(7) ? logicalType.getStruct(7) : logicalType.getStruct(8);
+	    kind = logicalType.has(7) ? Kind.TIME : Kind.TIMESTAMP;
+	    adjustedToUtc = temporal.getBool(1, false);
+	    final var unit = temporal.getStruct(2);
+	    perSecond = unit == null || unit.has(1) ? 1_000L : unit.has(2) ? 1_000_000L : 1_000_000_000L;
+	} else if (logicalType.has(10)) {
+	    kind = logicalType.getStruct(10).getBool(2, true) ? Kind.PLAIN : Kind.UNSIGNED;
+	} else if (logicalType.has(14)) {
+	    kind = Kind.UUID;
+	} else if (logicalType.has(15)) {
+	    kind = Kind.FLOAT16;
+	}
+    }
+
+    private void applyConvertedType(final int convertedType, final int decimalScale) {
+	switch (convertedType) {
+	case 5 -> {
+	    kind = Kind.DECIMAL;
+	    scale = decimalScale;
+	}
+	case 6 -> kind = Kind.DATE;
+	case 7, 8 -> {
+	    kind = Kind.TIME;
+	    perSecond = convertedType == 7 ? 1_000L : 1_000_000L;
+	}
+	case 9, 10 -> {
+	    kind = Kind.TIMESTAMP;
+	    adjustedToUtc = true;
+	    perSecond = convertedType == 9 ? 1_000L : 1_000_000L;
+	}
+	case 11, 12, 13, 14 -> kind = Kind.UNSIGNED;
+	default -> { /* Plain values */
+	}
+	}
+    }
+
+    String formatInt(final int value) {
+	return switch (kind) {
+	case DECIMAL -> BigDecimal.valueOf(value, scale).toPlainString();
+	case DATE -> LocalDate.ofEpochDay(value).toString();
+	case TIME -> LocalTime.ofNanoOfDay(value * (1_000_000_000L / perSecond)).toString();
+	case UNSIGNED -> Integer.toUnsignedString(value);
+	default -> Integer.toString(value);
+	};
+    }
+
+    String formatLong(final long value) {
+	return switch (kind) {
+	case DECIMAL -> BigDecimal.valueOf(value, scale).toPlainString();
+	case TIME -> LocalTime.ofNanoOfDay(value * (1_000_000_000L / perSecond)).toString();
+	case TIMESTAMP -> formatTimestamp(Math.floorDiv(value, perSecond),
+		(int) (Math.floorMod(value, perSecond) * (1_000_000_000L / perSecond)));
+	case UNSIGNED -> Long.toUnsignedString(value);
+	default -> Long.toString(value);
+	};
+    }
+
+    /**
+     * Formats a legacy INT96 timestamp: nanoseconds of the day followed by the
+     * Julian day
+     */
+    String formatInt96(final long nanosOfDay, final int julianDay) {
+	final var seconds = (julianDay - JULIAN_EPOCH_DAY) * 86_400L + Math.floorDiv(nanosOfDay, 1_000_000_000L);
+	return LocalDateTime.ofEpochSecond(seconds, (int) Math.floorMod(nanosOfDay, 1_000_000_000L), ZoneOffset.UTC)
+		.toString();
+    }
+
+    String formatBytes(final byte[] bytes, final int offset, final int length) {
+	return switch (kind) {
+	case DECIMAL -> new BigDecimal(length > 0 ? new BigInteger(bytes, offset, length) : BigInteger.ZERO, scale)
+		.toPlainString();
+	case UUID -> length == 16 ? uuid(bytes, offset).toString()
+		: HexFormat.of().formatHex(bytes, offset, offset + length);
+	case FLOAT16 -> Float.toString(Float.float16ToFloat((short) (bytes[offset] & 0xFF | bytes[offset + 1] << 8)));
+	default -> type == BYTE_ARRAY ? new String(bytes, offset, length, StandardCharsets.UTF_8)
+		: HexFormat.of().formatHex(bytes, offset, offset + length);
+	};
+    }
+
+    private String formatTimestamp(final long seconds, final int nanos) {
+	if (adjustedToUtc) {
+	    return Instant.ofEpochSecond(seconds, nanos).toString();
+	}
+	return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC).toString();
+    }
+
+    private static UUID uuid(final byte[] bytes, final int offset) {
+	var high = 0L;
+	var low = 0L;
+	for (var i = 0; i < 8; i++) {
+	    high = high << 8 | bytes[offset + i] & 0xFF;
+	    low = low << 8 | bytes[offset + 8 + i] & 0xFF;
+	}
+	return new UUID(high, low);
+    }
+}
@@ -0,0 +1,381 @@
+package io.github.seerainer.csvedit.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import io.github.seerainer.csvedit.model.CSVTableModel;
+import io.github.seerainer.csvedit.ui.UIConstants;
+
+/**
+ * Utility class for reading and writing Apache Parquet files. The format is
+ * implemented directly on its Thrift metadata, so neither Hadoop nor the
+ * Parquet runtime is needed. Files are read one row group at a time and only
+ * the chunks of the requested columns are touched; nested and repeated columns
+ * are skipped. Columns are written as 64-bit integer, double, boolean or UTF-8
+ * string columns with the type inference used for Arrow.
+ */
+public class ParquetOperations {
+
+    private static final byte[] MAGIC = "PAR1".getBytes(StandardCharsets.US_ASCII);
+    private static final int REPETITION_OPTIONAL = 1;
+    private static final int REPETITION_REPEATED = 2;
+    private static final int CONVERTED_TYPE_UTF8 = 0;
+    private static final int LOGICAL_TYPE_STRING = 1;
+
+    private ParquetOperations() {
+	throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Checks if a file name has the Parquet extension
+     */
+    public static boolean isParquetFile(final String fileName) {
+	return fileName.toLowerCase().endsWith(".parquet");
+    }
+
+    /**
+     * Gets the names of the columns that can be loaded from a Parquet file, read
+     * from its footer only
+     */
+    public static List<String> getColumnNames(final String filePath) throws IOException {
+	try (var channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+	    return columnNames(readSchema(readFooter(channel)));
+	}
+    }
+
+    /**
+     * Loads all columns of a Parquet file into the model
+     */
+    public static void loadParquet(final String filePath, final CSVTableModel model) throws IOException {
+	loadParquet(filePath, model, null, _ -> {
+	}, () -> false);
+    }
+
+    /**
+     * Loads a Parquet file into the model one row group at a time, decoding the
+     * columns of a row group in parallel. Nulls become empty strings. Stops early
+     * when cancelled, keeping the rows read so far.
+     *
+     * @param columnNames the columns to load in file order, or null for all
+     * @param progress    notified with the number of rows loaded after each row
+     *                    group
+     * @param cancelled   checked before each row group
+     * @return the number of rows loaded
+     */
+    public static int loadParquet(final String filePath, final CSVTableModel model, final List<String> columnNames,
+	    final IntConsumer progress, final BooleanSupplier cancelled) throws IOException {
+	model.clear();
+	var rowCount = 0;
+	try (var channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+	    final var metadata = readFooter(channel);
+	    var columns = readSchema(metadata);
+	    if (columnNames != null) {
+		columns = columns.stream().filter(column -> columnNames.contains(column.name)).toList();
+		if (columns.isEmpty()) {
+		    throw new IOException("Failed to read Parquet file: none of the selected columns exist");
+		}
+	    }
+	    model.setHeaders(columnNames(columns));
+	    for (final var rowGroup : metadata.getStructList(4)) {
+		if (cancelled.getAsBoolean()) {
+		    break;
+		}
+		rowCount += readRowGroup(channel, rowGroup, columns, model);
+		progress.accept(rowCount);
+	    }
+	}
+	model.normalize();
+	return rowCount;
+    }
+
+    /**
+     * Saves the model to a Parquet file, reporting the rows written. Row groups
+     * are encoded in parallel and written to a temporary file that replaces the
+     * target once complete.
+     */
+    public static void saveParquet(final String filePath, final CSVTableModel model,
+	    final FileOperations.SaveProgressCallback callback) throws IOException {
+	final var rowCount = model.getRowCount();
+	final var columnCount = model.getColumnCount();
+	final var headers = model.getHeaders();
+	final var names = IntStream.range(0, columnCount)
+		.mapToObj(j -> j < headers.size() ? headers.get(j) : "Column " + (j + 1)).toList();
+	final var types = IntStream.range(0, columnCount).parallel().mapToObj(j -> ColumnType.infer(model, j))
+		.toList();
+	final var groupRows = UIConstants.PARQUET_ROW_GROUP_ROWS;
+	final var groupCount = (rowCount + groupRows - 1) / groupRows;
+	final var chunks = new ParquetPageEncoder.Chunk[groupCount][];
+
+	final var target = Paths.get(filePath).toAbsolutePath();
+	final var temp = FileOperations.createTempFile(target);
+	try {
+	    try (var channel = FileChannel.open(temp, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+		writeFully(channel, MAGIC);
+		ParallelBlockWriter.write(channel, groupCount, group -> {
+		    final var start = group * groupRows;
+		    final var end = Math.min(rowCount, start + groupRows);
+		    chunks[group] = IntStream.range(0, columnCount).parallel()
+			    .mapToObj(j -> ParquetPageEncoder.encode(model, j, types.get(j), start, end))
+			    .toArray(ParquetPageEncoder.Chunk[]::new);
+		    return concat(chunks[group]);
+		}, group -> callback.onProgress(Math.min(rowCount, (group + 1) * groupRows), rowCount));
+		final var metadata = encodeMetadata(names, types, chunks, rowCount);
+		writeFully(channel, metadata);
+		final var trailer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(metadata.length);
+		writeFully(channel, trailer.array());
+		writeFully(channel, MAGIC);
+	    }
+	    FileOperations.replaceAtomically(temp, target);
+	} catch (final IOException e) {
+	    Files.deleteIfExists(temp);
+	    throw new IOException("Failed to write Parquet file: " + e.getMessage(), e);
+	}
+    }
+
+    private static byte[] concat(final ParquetPageEncoder.Chunk[] chunks) {
+	final var length = Arrays.stream(chunks).mapToInt(chunk -> chunk.bytes.length).sum();
+	final var bytes = new byte[length];
+	var position = 0;
+	for (final var chunk : chunks) {
+	    System.arraycopy(chunk.bytes, 0, bytes, position, chunk.bytes.length);
+	    position += chunk.bytes.length;
+	}
+	return bytes;
+    }
+
+    /**
+     * Encodes the file metadata with the absolute offsets of all column chunks
+     */
+    private static byte[] encodeMetadata(final List<String> names, final List<ColumnType> types,
+	    final ParquetPageEncoder.Chunk[][] chunks, final int rowCount) {
+	final var writer = new ThriftCompactWriter();
+	writer.fieldI32(1, 1);
+	writer.beginList(2, ThriftStruct.TYPE_STRUCT, names.size() + 1);
+	writer.beginElement();
+	writer.fieldString(4, "schema");
+	writer.fieldI32(5, names.size());
+	writer.endStruct();
+	for (var j = 0; j < names.size(); j++) {
+	    writer.beginElement();
+	    writer.fieldI32(1, ParquetPageEncoder.physicalType(types.get(j)));
+	    writer.fieldI32(3, REPETITION_OPTIONAL);
+	    writer.fieldString(4, names.get(j));
+	    if (types.get(j) == ColumnType.TEXT) {
+		writer.fieldI32(6, CONVERTED_TYPE_UTF8);
+		writer.beginStruct(10);
+		writer.beginStruct(LOGICAL_TYPE_STRING);
+		writer.endStruct();
+		writer.endStruct();
+	    }
+	    writer.endStruct();
+	}
+	writer.fieldI64(3, rowCount);
+
+	writer.beginList(4, ThriftStruct.TYPE_STRUCT, chunks.length);
+	var offset = (long) MAGIC.length;
+	for (var group = 0; group < chunks.length; group++) {
+	    final var groupOffset = offset;
+	    final var groupRows = Math.min(UIConstants.PARQUET_ROW_GROUP_ROWS,
+		    rowCount - group * UIConstants.PARQUET_ROW_GROUP_ROWS);
+	    var uncompressedSize = 0L;
+	    writer.beginElement();
+	    writer.beginList(1, ThriftStruct.TYPE_STRUCT, chunks[group].length);
+	    for (var j = 0; j < chunks[group].length; j++) {
+		final var chunk = chunks[group][j];
+		writer.beginElement();
+		writer.fieldI64(2, offset);
+		writer.beginStruct(3);
+		writer.fieldI32(1, ParquetPageEncoder.physicalType(types.get(j)));
+		final var encodings = chunk.dictionary
+			? new int[] { ParquetPageDecoder.PLAIN_DICTIONARY, ParquetPageDecoder.RLE }
+			: new int[] { ParquetPageDecoder.PLAIN, ParquetPageDecoder.RLE };
+		writer.beginList(2, ThriftStruct.TYPE_I32, encodings.length);
+		Arrays.stream(encodings).forEach(writer::elementI32);
+		writer.beginList(3, ThriftStruct.TYPE_BINARY, 1);
+		writer.elementString(names.get(j));
+		writer.fieldI32(4, ParquetPageDecoder.SNAPPY);
+		writer.fieldI64(5, groupRows);
+		writer.fieldI64(6, chunk.uncompressedSize);
+		writer.fieldI64(7, chunk.bytes.length);
+		writer.fieldI64(9, offset + chunk.dataPageOffset);
+		if (chunk.dictionary) {
+		    writer.fieldI64(11, offset);
+		}
+		writer.endStruct();
+		writer.endStruct();
+		uncompressedSize += chunk.uncompressedSize;
+		offset += chunk.bytes.length;
+	    }
+	    writer.fieldI64(2, uncompressedSize);
+	    writer.fieldI64(3, groupRows);
+	    writer.fieldI64(5, groupOffset);
+	    writer.fieldI64(6, offset - groupOffset);
+	    writer.endStruct();
+	}
+	writer.fieldString(6, "CSVedit");
+	return writer.finish();
+    }
+
+    private static ThriftStruct readFooter(final FileChannel channel) throws IOException {
+	final var size = channel.size();
+	if (size < 3L * MAGIC.length || !Arrays.equals(readBytes(channel, 0, MAGIC.length), MAGIC)) {
+	    throw new IOException("Failed to read Parquet file: not a Parquet file");
+	}
+	final var trailer = readBytes(channel, size - 4 - MAGIC.length, 4 + MAGIC.length);
+	if (!Arrays.equals(trailer, 4, trailer.length, MAGIC, 0, MAGIC.length)) {
+	    throw new IOException("Failed to read Parquet file: missing footer");
+	}
+	final var footerLength = ByteBuffer.wrap(trailer).order(ByteOrder.LITTLE_ENDIAN).getInt(0);
+	if (footerLength <= 0 || footerLength > size - 3L * MAGIC.length) {
+	    throw new IOException("Failed to read Parquet file: invalid footer length");
+	}
+	final var footer = readBytes(channel, size - 4 - MAGIC.length - footerLength, footerLength);
+	try {
+	    return ThriftStruct.read(footer, 0);
+	} catch (final IOException e) {
+	    throw new IOException("Failed to read Parquet file: " + e.getMessage(), e);
+	}
+    }
+
+    /**
+     * Reads the flat columns of the schema. Leaves are numbered in schema order,
+     * which is the order of the column chunks in every row group, counting the
+     * skipped leaves of nested columns.
+     */
+    private static List<ParquetColumn> readSchema(final ThriftStruct metadata) throws IOException {
+	final var schema = metadata.getStructList(2);
+	if (schema.isEmpty()) {
+	    throw new IOException("Failed to read Parquet file: missing schema");
+	}
+	final List<ParquetColumn> columns = new ArrayList<>();
+	// Children left to visit in each group that encloses the current element
+	final var remaining = new int[schema.size() + 1];
+	remaining[0] = schema.getFirst().getInt(5, 0);
+	var depth = 0;
+	var chunkIndex = 0;
+	for (var i = 1; i < schema.size() && remaining[0] > 0; i++) {
+	    final var element = schema.get(i);
+	    final var topLevel = depth == 0;
+	    remaining[depth]--;
+	    if (element.has(5)) {
+		remaining[++depth] = element.getInt(5, 0);
+	    } else {
+		if (topLevel && element.getInt(3, 0) != REPETITION_REPEATED) {
+		    final var column = ParquetColumn.fromSchema(element, chunkIndex);
+		    if (column.name == null) {
+			throw new IOException("Failed to read Parquet file: column without name");
+		    }
+		    columns.add(column);
+		}
+		chunkIndex++;
+	    }
+	    while (depth > 0 && remaining[depth] <= 0) {
+		depth--;
+	    }
+	}
+	return columns;
+    }
+
+    private static List<String> columnNames(final List<ParquetColumn> columns) {
+	final List<String> names = new ArrayList<>(columns.size());
+	columns.forEach(column -> names.add(column.name));
+	return names;
+    }
+
+    /**
+     * Decodes the selected columns of a row group and appends its rows to the
+     * model
+     *
+     * @return the number of rows appended
+     */
+    private static int readRowGroup(final FileChannel channel, final ThriftStruct rowGroup,
+	    final List<ParquetColumn> columns, final CSVTableModel model) throws IOException {
+	final var numRows = rowGroup.getLong(3, 0);
+	if (numRows < 0 || numRows > Integer.MAX_VALUE) {
+	    throw new IOException("Failed to read Parquet file: invalid row group size");
+	}
+	final var length = (int) numRows;
+	final var chunks = rowGroup.getStructList(1);
+	final String[][] values;
+	try {
+	    values = columns.parallelStream().map(column -> {
+		try {
+		    return readColumnChunk(channel, chunks, column, length);
+		} catch (final IOException e) {
+		    throw new UncheckedIOException(e);
+		}
+	    }).toArray(String[][]::new);
+	} catch (final UncheckedIOException e) {
+	    throw e.getCause();
+	}
+
+	final List<List<String>> rows = new ArrayList<>(length);
+	for (var i = 0; i < length; i++) {
+	    final List<String> row = new ArrayList<>(values.length);
+	    for (final var column : values) {
+		row.add(column[i] != null ? column[i] : "");
+	    }
+	    rows.add(row);
+	}
+	model.appendRows(rows);
+	return length;
+    }
+
+    private static String[] readColumnChunk(final FileChannel channel, final List<ThriftStruct> chunks,
+	    final ParquetColumn column, final int length) throws IOException {
+	if (column.chunkIndex >= chunks.size()) {
+	    throw new IOException("Failed to read Parquet file: missing chunk for column '" + column.name + "'");
+	}
+	final var chunk = chunks.get(column.chunkIndex);
+	final var metadata = chunk.getStruct(3);
+	if (chunk.has(1) || metadata == null) {
+	    throw new IOException("Failed to read Parquet file: column '" + column.name + "' is stored externally");
+	}
+	final var dataPageOffset = metadata.getLong(9, 0);
+	final var dictionaryPageOffset = metadata.getLong(11, 0);
+	// Some writers set the dictionary offset to 0 when there is no dictionary
+	final var start = dictionaryPageOffset > 0 && dictionaryPageOffset < dataPageOffset ? dictionaryPageOffset
+		: dataPageOffset;
+	final var size = metadata.getLong(7, 0);
+	if (start < MAGIC.length || size < 0 || size > Integer.MAX_VALUE || start + size > channel.size()) {
+	    throw new IOException("Failed to read Parquet file: invalid chunk for column '" + column.name + "'");
+	}
+	try {
+	    return ParquetPageDecoder.decode(column, readBytes(channel, start, (int) size), metadata.getInt(4, 0),
+		    length);
+	} catch (final IOException e) {
+	    throw new IOException("Failed to read Parquet file: " + e.getMessage(), e);
+	}
+    }
+
+    private static byte[] readBytes(final FileChannel channel, final long position, final int length)
+	    throws IOException {
+	final var buffer = ByteBuffer.allocate(length);
+	while (buffer.hasRemaining()) {
+	    if (channel.read(buffer, position + buffer.position()) < 0) {
+		throw new IOException("Failed to read Parquet file: unexpected end of file");
+	    }
+	}
+	return buffer.array();
+    }
+
+    private static void writeFully(final FileChannel channel, final byte[] bytes) throws IOException {
+	final var buffer = ByteBuffer.wrap(bytes);
+	while (buffer.hasRemaining()) {
+	    channel.write(buffer);
+	}
+    }
+}
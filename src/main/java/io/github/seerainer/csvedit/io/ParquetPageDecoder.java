@@ -0,0 +1,542 @@
+package io.github.seerainer.csvedit.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+import io.airlift.compress.lz4.Lz4Decompressor;
+import io.airlift.compress.snappy.SnappyDecompressor;
+import io.airlift.compress.zstd.ZstdDecompressor;
+
+/**
+ * Decodes the pages of a Parquet column chunk to text values. Handles version 1
+ * and 2 data pages with plain, dictionary, RLE, delta and byte stream split
+ * encodings, compressed with Snappy, GZIP, LZ4 or Zstandard.
+ */
+final class ParquetPageDecoder {
+
+    // Page types
+    static final int DATA_PAGE = 0;
+    static final int DICTIONARY_PAGE = 2;
+    static final int DATA_PAGE_V2 = 3;
+
+    // Encodings
+    static final int PLAIN = 0;
+    static final int PLAIN_DICTIONARY = 2;
+    static final int RLE = 3;
+    static final int DELTA_BINARY_PACKED = 5;
+    static final int DELTA_LENGTH_BYTE_ARRAY = 6;
+    static final int DELTA_BYTE_ARRAY = 7;
+    static final int RLE_DICTIONARY = 8;
+    static final int BYTE_STREAM_SPLIT = 9;
+
+    // Compression codecs
+    static final int UNCOMPRESSED = 0;
+    static final int SNAPPY = 1;
+    static final int GZIP = 2;
+    static final int LZ4 = 5;
+    static final int ZSTD = 6;
+    static final int LZ4_RAW = 7;
+
+    private final ParquetColumn column;
+    private final int codec;
+    private final String[] values;
+    private String[] dictionary;
+    private int row;
+
+    private ParquetPageDecoder(final ParquetColumn column, final int codec, final int rowCount) {
+	this.column = column;
+	this.codec = codec;
+	this.values = new String[rowCount];
+    }
+
+    /**
+     * Decodes all pages of a column chunk
+     *
+     * @return the values of the row group, null for nulls
+     */
+    static String[] decode(final ParquetColumn column, final byte[] chunk, final int codec, final int rowCount)
+	    throws IOException {
+	final var decoder = new ParquetPageDecoder(column, codec, rowCount);
+	var position = 0;
+	while (position < chunk.length && decoder.row < rowCount) {
+	    final var reader = new ThriftStruct.Reader(chunk, position, chunk.length);
+	    final var header = reader.readStruct(0);
+	    final var pageStart = reader.position();
+	    final var compressedSize = header.getInt(3, 0);
+	    if (compressedSize < 0 || compressedSize > chunk.length - pageStart) {
+		throw new IOException("Invalid Parquet page size in column '" + column.name + "'");
+	    }
+	    decoder.decodePage(header, chunk, pageStart, compressedSize);
+	    position = pageStart + compressedSize;
+	}
+	return decoder.values;
+    }
+
+    private void decodePage(final ThriftStruct header, final byte[] chunk, final int start, final int size)
+	    throws IOException {
+	final var uncompressedSize = header.getInt(2, 0);
+	switch (header.getInt(1, -1)) {
+	case DICTIONARY_PAGE -> {
+	    final var dictionaryHeader = header.getStruct(7);
+	    final var count = dictionaryHeader != null ? dictionaryHeader.getInt(1, 0) : 0;
+	    dictionary = decodePlain(decompress(chunk, start, size, uncompressedSize), count);
+	}
+	case DATA_PAGE -> {
+	    final var dataHeader = header.getStruct(5);
+	    final var count = dataHeader.getInt(1, 0);
+	    final var page = decompress(chunk, start, size, uncompressedSize);
+	    int[] levels = null;
+	    if (column.optional) {
+		final var length = page.readInt();
+		levels = decodeLevels(page.slice(length), count);
+	    }
+	    decodeValues(page, dataHeader.getInt(2, PLAIN), count, levels);
+	}
+	case DATA_PAGE_V2 -> {
+	    final var dataHeader = header.getStruct(8);
+	    final var count = dataHeader.getInt(1, 0);
+	    final var repetitionLength = dataHeader.getInt(6, 0);
+	    final var definitionLength = dataHeader.getInt(5, 0);
+	    final var levelsLength = repetitionLength + definitionLength;
+	    if (repetitionLength < 0 || definitionLength < 0 || levelsLength > size) {
+		throw new IOException("Invalid Parquet page levels in column '" + column.name + "'");
+	    }
+	    // Levels are never compressed in version 2 pages
+	    final var levels = column.optional && definitionLength > 0
+		    ? decodeLevels(new Input(chunk, start + repetitionLength, start + levelsLength), count)
+		    : null;
+	    final var page = dataHeader.getBool(7, true)
+		    ? decompress(chunk, start + levelsLength, size - levelsLength, uncompressedSize - levelsLength)
+		    : new Input(chunk, start + levelsLength, start + size);
+	    decodeValues(page, dataHeader.getInt(4, PLAIN), count, levels);
+	}
+	default -> { /* Index pages hold no values */
+	}
+	}
+    }
+
+    private static int[] decodeLevels(final Input in, final int count) throws IOException {
+	final var levels = new int[count];
+	decodeHybrid(in, 1, levels, count);
+	return levels;
+    }
+
+    /**
+     * Decodes the values of a data page and stores them at their rows, leaving
+     * nulls where the definition level is 0
+     */
+    private void decodeValues(final Input in, final int encoding, final int count, final int[] levels)
+	    throws IOException {
+	if (count > values.length - row) {
+	    throw new IOException("Parquet column '" + column.name + "' has more values than rows");
+	}
+	var present = count;
+	if (levels != null) {
+	    present = 0;
+	    for (final var level : levels) {
+		present += level;
+	    }
+	}
+	final var decoded = switch (encoding) {
+	case PLAIN -> decodePlain(in, present);
+	case PLAIN_DICTIONARY, RLE_DICTIONARY -> decodeDictionary(in, present);
+	case RLE -> decodeBooleans(in, present);
+	case DELTA_BINARY_PACKED -> decodeDeltaNumbers(in, present);
+	case DELTA_LENGTH_BYTE_ARRAY -> decodeDeltaLengths(in, present);
+	case DELTA_BYTE_ARRAY -> decodeDeltaStrings(in, present);
+	case BYTE_STREAM_SPLIT -> decodeByteStreamSplit(in, present);
+	default -> throw new IOException("Unsupported Parquet encoding " + encoding + " in column '" + column.name + "'");
+	};
+	if (levels == null) {
+	    System.arraycopy(decoded, 0, values, row, count);
+	} else {
+	    var next = 0;
+	    for (var i = 0; i < count; i++) {
+		values[row + i] = levels[i] != 0 ? decoded[next++] : null;
+	    }
+	}
+	row += count;
+    }
+
+    private String[] decodePlain(final Input in, final int count) throws IOException {
+	final var decoded = new String[count];
+	switch (column.type) {
+	case ParquetColumn.BOOLEAN -> {
+	    in.require(count + 7 >> 3);
+	    for (var i = 0; i < count; i++) {
+		decoded[i] = Boolean.toString((in.bytes[in.position + (i >> 3)] >> (i & 7) & 1) != 0);
+	    }
+	    in.position += count + 7 >> 3;
+	}
+	case ParquetColumn.INT32 -> {
+	    for (var i = 0; i < count; i++) {
+		decoded[i] = column.formatInt(in.readInt());
+	    }
+	}
+	case ParquetColumn.INT64 -> {
+	    for (var i = 0; i < count; i++) {
+		decoded[i] = column.formatLong(in.readLong());
+	    }
+	}
+	case ParquetColumn.INT96 -> {
+	    for (var i = 0; i < count; i++) {
+		final var nanosOfDay = in.readLong();
+		decoded[i] = column.formatInt96(nanosOfDay, in.readInt());
+	    }
+	}
+	case ParquetColumn.FLOAT -> {
+	    for (var i = 0; i < count; i++) {
+		decoded[i] = Float.toString(Float.intBitsToFloat(in.readInt()));
+	    }
+	}
+	case ParquetColumn.DOUBLE -> {
+	    for (var i = 0; i < count; i++) {
+		decoded[i] = Double.toString(Double.longBitsToDouble(in.readLong()));
+	    }
+	}
+	case ParquetColumn.BYTE_ARRAY -> {
+	    for (var i = 0; i < count; i++) {
+		final var length = in.readInt();
+		in.require(length);
+		decoded[i] = column.formatBytes(in.bytes, in.position, length);
+		in.position += length;
+	    }
+	}
+	default -> {
+	    for (var i = 0; i < count; i++) {
+		in.require(column.typeLength);
+		decoded[i] = column.formatBytes(in.bytes, in.position, column.typeLength);
+		in.position += column.typeLength;
+	    }
+	}
+	}
+	return decoded;
+    }
+
+    private String[] decodeDictionary(final Input in, final int count) throws IOException {
+	if (dictionary == null) {
+	    throw new IOException("Parquet column '" + column.name + "' has no dictionary page");
+	}
+	in.require(1);
+	final var bitWidth = in.bytes[in.position++];
+	final var indices = new int[count];
+	decodeHybrid(in, bitWidth, indices, count);
+	final var decoded = new String[count];
+	for (var i = 0; i < count; i++) {
+	    if (indices[i] < 0 || indices[i] >= dictionary.length) {
+		throw new IOException("Invalid dictionary index in Parquet column '" + column.name + "'");
+	    }
+	    decoded[i] = dictionary[indices[i]];
+	}
+	return decoded;
+    }
+
+    private static String[] decodeBooleans(final Input in, final int count) throws IOException {
+	final var bits = new int[count];
+	decodeHybrid(in.slice(in.readInt()), 1, bits, count);
+	final var decoded = new String[count];
+	for (var i = 0; i < count; i++) {
+	    decoded[i] = Boolean.toString(bits[i] != 0);
+	}
+	return decoded;
+    }
+
+    private String[] decodeDeltaNumbers(final Input in, final int count) throws IOException {
+	final var numbers = decodeDeltaBinaryPacked(in, count);
+	final var decoded = new String[count];
+	for (var i = 0; i < count; i++) {
+	    decoded[i] = column.type == ParquetColumn.INT32 ? column.formatInt((int) numbers[i])
+		    : column.formatLong(numbers[i]);
+	}
+	return decoded;
+    }
+
+    private String[] decodeDeltaLengths(final Input in, final int count) throws IOException {
+	final var lengths = decodeDeltaBinaryPacked(in, count);
+	final var decoded = new String[count];
+	for (var i = 0; i < count; i++) {
+	    final var length = (int) lengths[i];
+	    in.require(length);
+	    decoded[i] = column.formatBytes(in.bytes, in.position, length);
+	    in.position += length;
+	}
+	return decoded;
+    }
+
+    /**
+     * Decodes values stored as the length of the prefix shared with the previous
+     * value followed by the remaining suffix
+     */
+    private String[] decodeDeltaStrings(final Input in, final int count) throws IOException {
+	final var prefixLengths = decodeDeltaBinaryPacked(in, count);
+	final var suffixLengths = decodeDeltaBinaryPacked(in, count);
+	final var decoded = new String[count];
+	var previous = new byte[0];
+	for (var i = 0; i < count; i++) {
+	    final var prefixLength = (int) prefixLengths[i];
+	    final var suffixLength = (int) suffixLengths[i];
+	    if (prefixLength < 0 || prefixLength > previous.length) {
+		throw new IOException("Invalid delta prefix in Parquet column '" + column.name + "'");
+	    }
+	    in.require(suffixLength);
+	    final var value = new byte[prefixLength + suffixLength];
+	    System.arraycopy(previous, 0, value, 0, prefixLength);
+	    System.arraycopy(in.bytes, in.position, value, prefixLength, suffixLength);
+	    in.position += suffixLength;
+	    decoded[i] = column.formatBytes(value, 0, value.length);
+	    previous = value;
+	}
+	return decoded;
+    }
+
+    /**
+     * Decodes fixed-width values whose bytes are stored in separate streams, the
+     * k-th byte of all values in the k-th stream
+     */
+    private String[] decodeByteStreamSplit(final Input in, final int count) throws IOException {
+	final var width = switch (column.type) {
+	case ParquetColumn.INT32, ParquetColumn.FLOAT -> 4;
+	case ParquetColumn.INT64, ParquetColumn.DOUBLE -> 8;
+	default -> column.typeLength;
+	};
+	in.require(width * count);
+	final var joined = new byte[width * count];
+	for (var i = 0; i < count; i++) {
+	    for (var k = 0; k < width; k++) {
+		joined[i * width + k] = in.bytes[in.position + k * count + i];
+	    }
+	}
+	in.position += width * count;
+	return decodePlain(new Input(joined, 0, joined.length), count);
+    }
+
+    /**
+     * Decodes the RLE/bit-packing hybrid encoding used for levels, dictionary
+     * indices and booleans
+     */
+    private static void decodeHybrid(final Input in, final int bitWidth, final int[] out, final int count)
+	    throws IOException {
+	if (bitWidth < 0 || bitWidth > 32) {
+	    throw new IOException("Invalid Parquet bit width: " + bitWidth);
+	}
+	final var mask = (1L << bitWidth) - 1;
+	var n = 0;
+	while (n < count) {
+	    final var header = in.readVarLong();
+	    if ((header & 1) == 0) {
+		final var runLength = (int) Math.min(header >>> 1, count - n);
+		final var valueBytes = bitWidth + 7 >> 3;
+		in.require(valueBytes);
+		var value = 0;
+		for (var i = 0; i < valueBytes; i++) {
+		    value |= (in.bytes[in.position++] & 0xFF) << 8 * i;
+		}
+		Arrays.fill(out, n, n + runLength, value);
+		n += runLength;
+	    } else {
+		final var groupValues = (int) Math.min(header >>> 1, Integer.MAX_VALUE / 8) * 8;
+		final var length = (int) ((long) groupValues * bitWidth >> 3);
+		// The last run may be cut short after the final value
+		final var available = Math.min(length, in.end - in.position);
+		for (var i = 0; i < groupValues && n < count; i++) {
+		    final var bit = (long) i * bitWidth;
+		    final var byteIndex = (int) (bit >>> 3);
+		    if (bitWidth > 0 && byteIndex >= available) {
+			throw new IOException("Unexpected end of Parquet page");
+		    }
+		    var word = 0L;
+		    for (var k = 0; k < 5 && byteIndex + k < available; k++) {
+			word |= (in.bytes[in.position + byteIndex + k] & 0xFFL) << 8 * k;
+		    }
+		    out[n++] = (int) (word >>> (bit & 7) & mask);
+		}
+		in.position += available;
+	    }
+	}
+    }
+
+    private static long[] decodeDeltaBinaryPacked(final Input in, final int maxCount) throws IOException {
+	final var blockSize = (int) in.readVarLong();
+	final var miniBlocks = (int) in.readVarLong();
+	final var total = (int) in.readVarLong();
+	final var first = in.readZigZag();
+	if (total < 0 || total > maxCount || miniBlocks <= 0 || blockSize <= 0 || blockSize % (miniBlocks * 8) != 0) {
+	    throw new IOException("Invalid delta encoding header in Parquet page");
+	}
+	final var numbers = new long[total];
+	if (total == 0) {
+	    return numbers;
+	}
+	numbers[0] = first;
+	final var perMiniBlock = blockSize / miniBlocks;
+	var n = 1;
+	while (n < total) {
+	    final var minDelta = in.readZigZag();
+	    in.require(miniBlocks);
+	    final var widthsStart = in.position;
+	    in.position += miniBlocks;
+	    for (var m = 0; m < miniBlocks && n < total; m++) {
+		final var width = in.bytes[widthsStart + m] & 0xFF;
+		if (width > 64) {
+		    throw new IOException("Invalid delta bit width in Parquet page");
+		}
+		final var length = perMiniBlock * width / 8;
+		in.require(length);
+		for (var k = 0; k < perMiniBlock && n < total; k++) {
+		    numbers[n] = numbers[n - 1] + minDelta + readBits(in.bytes, in.position, (long) k * width, width);
+		    n++;
+		}
+		in.position += length;
+	    }
+	}
+	return numbers;
+    }
+
+    private static long readBits(final byte[] bytes, final int base, final long bitOffset, final int width) {
+	var result = 0L;
+	var read = 0;
+	var bit = bitOffset;
+	while (read < width) {
+	    final var shift = (int) (bit & 7);
+	    final var take = Math.min(8 - shift, width - read);
+	    final var bits = (bytes[base + (int) (bit >>> 3)] & 0xFF) >>> shift & (1 << take) - 1;
+	    result |= (long) bits << read;
+	    read += take;
+	    bit += take;
+	}
+	return result;
+    }
+
+    private Input decompress(final byte[] chunk, final int offset, final int length, final int uncompressedSize)
+	    throws IOException {
+	if (codec == UNCOMPRESSED) {
+	    return new Input(chunk, offset, offset + length);
+	}
+	if (uncompressedSize < 0) {
+	    throw new IOException("Invalid Parquet page size in column '" + column.name + "'");
+	}
+	final var output = new byte[uncompressedSize];
+	final int written;
+	try {
+	    written = switch (codec) {
+	    case SNAPPY -> new SnappyDecompressor().decompress(chunk, offset, length, output, 0, output.length);
+	    case ZSTD -> new ZstdDecompressor().decompress(chunk, offset, length, output, 0, output.length);
+	    case LZ4_RAW -> new Lz4Decompressor().decompress(chunk, offset, length, output, 0, output.length);
+	    case LZ4 -> decompressHadoopLz4(chunk, offset, length, output);
+	    case GZIP -> {
+		try (var in = new GZIPInputStream(new ByteArrayInputStream(chunk, offset, length))) {
+		    yield in.readNBytes(output, 0, output.length);
+		}
+	    }
+	    default -> throw new IOException("Unsupported Parquet compression codec: " + codec);
+	    };
+	} catch (final RuntimeException e) {
+	    throw new IOException("Failed to decompress Parquet page: " + e.getMessage(), e);
+	}
+	if (written != uncompressedSize) {
+	    throw new IOException("Corrupt Parquet page in column '" + column.name + "'");
+	}
+	return new Input(output, 0, output.length);
+    }
+
+    /**
+     * Decompresses LZ4 in the framing of the Hadoop codec: blocks of big-endian
+     * uncompressed and compressed lengths followed by raw LZ4 data. Some writers
+     * used raw LZ4 instead, which is tried if the framing does not fit.
+     */
+    private static int decompressHadoopLz4(final byte[] input, final int offset, final int length,
+	    final byte[] output) {
+	final var decompressor = new Lz4Decompressor();
+	try {
+	    var position = offset;
+	    var written = 0;
+	    final var end = offset + length;
+	    while (position + 8 <= end) {
+		final var blockEnd = written + readIntBigEndian(input, position);
+		position += 4;
+		while (written < blockEnd) {
+		    final var compressed = readIntBigEndian(input, position);
+		    position += 4;
+		    written += decompressor.decompress(input, position, compressed, output, written,
+			    output.length - written);
+		    position += compressed;
+		}
+	    }
+	    if (position == end && written == output.length) {
+		return written;
+	    }
+	} catch (final RuntimeException e) {
+	    // Not framed, fall through to raw LZ4
+	}
+	return decompressor.decompress(input, offset, length, output, 0, output.length);
+    }
+
+    private static int readIntBigEndian(final byte[] bytes, final int position) {
+	return (bytes[position] & 0xFF) << 24 | (bytes[position + 1] & 0xFF) << 16 | (bytes[position + 2] & 0xFF) << 8
+		| bytes[position + 3] & 0xFF;
+    }
+
+    /**
+     * Bounds-checked little-endian reader over a range of bytes
+     */
+    private static final class Input {
+	private final byte[] bytes;
+	private final int end;
+	private int position;
+
+	private Input(final byte[] bytes, final int position, final int end) {
+	    this.bytes = bytes;
+	    this.position = position;
+	    this.end = end;
+	}
+
+	private void require(final int length) throws IOException {
+	    if (length < 0 || length > end - position) {
+		throw new IOException("Unexpected end of Parquet page");
+	    }
+	}
+
+	/**
+	 * Takes the next bytes as a separate input
+	 */
+	private Input slice(final int length) throws IOException {
+	    require(length);
+	    final var slice = new Input(bytes, position, position + length);
+	    position += length;
+	    return slice;
+	}
+
+	private int readInt() throws IOException {
+	    require(4);
+	    final var value = (bytes[position] & 0xFF) | (bytes[position + 1] & 0xFF) << 8
+		    | (bytes[position + 2] & 0xFF) << 16 | bytes[position + 3] << 24;
+	    position += 4;
+	    return value;
+	}
+
+	private long readLong() throws IOException {
+	    final var low = readInt() & 0xFFFFFFFFL;
+	    return low | (long) readInt() << 32;
+	}
+
+	private long readVarLong() throws IOException {
+	    var value = 0L;
+	    for (var shift = 0; shift < 64; shift += 7) {
+		require(1);
+		final var b = bytes[position++];
+		value |= (long) (b & 0x7F) << shift;
+		if ((b & 0x80) == 0) {
+		    return value;
+		}
+	    }
+	    throw new IOException("Invalid varint in Parquet page");
+	}
+
+	private long readZigZag() throws IOException {
+	    final var value = readVarLong();
+	    return value >>> 1 ^ -(value & 1);
+	}
+    }
+}
@@ -0,0 +1,268 @@
+package io.github.seerainer.csvedit.io;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.airlift.compress.snappy.SnappyCompressor;
+import io.github.seerainer.csvedit.model.CSVTableModel;
+import io.github.seerainer.csvedit.ui.UIConstants;
+
+/**
+ * Encodes the values of a column in a row group as a Snappy-compressed Parquet
+ * column chunk. Columns with repeated values get a dictionary page and data
+ * pages of RLE/bit-packed dictionary indices; all others are plain encoded.
+ */
+final class ParquetPageEncoder {
+
+    private static final int MAX_PACKED_VALUES = 504;
+
+    private ParquetPageEncoder() {
+	throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Gets the physical type a column type is written as
+     */
+    static int physicalType(final ColumnType type) {
+	return switch (type) {
+	case INTEGER -> ParquetColumn.INT64;
+	case DOUBLE -> ParquetColumn.DOUBLE;
+	case BOOLEAN -> ParquetColumn.BOOLEAN;
+	case TEXT -> ParquetColumn.BYTE_ARRAY;
+	};
+    }
+
+    /**
+     * Encodes a column in a range of rows; empty values of typed columns become
+     * nulls
+     */
+    static Chunk encode(final CSVTableModel model, final int col, final ColumnType type, final int start,
+	    final int end) {
+	final var rowCount = end - start;
+	final var levels = new int[rowCount];
+	final List<String> present = new ArrayList<>(rowCount);
+	for (var i = 0; i < rowCount; i++) {
+	    final var value = model.getValue(start + i, col);
+	    if (!type.isNull(value)) {
+		levels[i] = 1;
+		present.add(value);
+	    }
+	}
+
+	final List<String> dictionary = new ArrayList<>();
+	final var indices = type != ColumnType.BOOLEAN ? buildDictionary(present, type, dictionary) : null;
+	final var out = new ByteArrayOutputStream();
+	var uncompressedSize = 0L;
+	var dataPageOffset = 0;
+	var bitWidth = 0;
+	if (indices != null) {
+	    final var body = new ByteArrayOutputStream();
+	    encodePlain(body, dictionary, type);
+	    uncompressedSize += writePage(out, ParquetPageDecoder.DICTIONARY_PAGE, body.toByteArray(),
+		    dictionary.size(), ParquetPageDecoder.PLAIN_DICTIONARY);
+	    dataPageOffset = out.size();
+	    bitWidth = Math.max(1, 32 - Integer.numberOfLeadingZeros(dictionary.size() - 1));
+	}
+
+	var valueIndex = 0;
+	for (var pageStart = 0; pageStart < rowCount; pageStart += UIConstants.PARQUET_PAGE_ROWS) {
+	    final var pageEnd = Math.min(rowCount, pageStart + UIConstants.PARQUET_PAGE_ROWS);
+	    final var levelBytes = new ByteArrayOutputStream();
+	    encodeHybrid(levelBytes, levels, pageStart, pageEnd, 1);
+	    var pagePresent = 0;
+	    for (var i = pageStart; i < pageEnd; i++) {
+		pagePresent += levels[i];
+	    }
+	    final var body = new ByteArrayOutputStream();
+	    writeInt(body, levelBytes.size());
+	    body.writeBytes(levelBytes.toByteArray());
+	    if (indices != null) {
+		body.write(bitWidth);
+		encodeHybrid(body, indices, valueIndex, valueIndex + pagePresent, bitWidth);
+	    } else {
+		encodePlain(body, present.subList(valueIndex, valueIndex + pagePresent), type);
+	    }
+	    valueIndex += pagePresent;
+	    uncompressedSize += writePage(out, ParquetPageDecoder.DATA_PAGE, body.toByteArray(), pageEnd - pageStart,
+		    indices != null ? ParquetPageDecoder.PLAIN_DICTIONARY : ParquetPageDecoder.PLAIN);
+	}
+	return new Chunk(out.toByteArray(), indices != null, dataPageOffset, uncompressedSize);
+    }
+
+    /**
+     * Collects the distinct values of a column and maps each value to its index
+     *
+     * @return the indices, or null if the values are all different or the
+     *         dictionary would exceed its size limit
+     */
+    private static int[] buildDictionary(final List<String> values, final ColumnType type,
+	    final List<String> dictionary) {
+	final Map<String, Integer> positions = new HashMap<>();
+	final var indices = new int[values.size()];
+	var dictionaryBytes = 0L;
+	for (var i = 0; i < indices.length; i++) {
+	    final var value = values.get(i);
+	    final var position = positions.get(value);
+	    if (position != null) {
+		indices[i] = position.intValue();
+		continue;
+	    }
+	    dictionaryBytes += type == ColumnType.TEXT ? 4L + value.length() : 8L;
+	    if (dictionaryBytes > UIConstants.PARQUET_DICTIONARY_BYTES) {
+		return null;
+	    }
+	    indices[i] = dictionary.size();
+	    positions.put(value, Integer.valueOf(dictionary.size()));
+	    dictionary.add(value);
+	}
+	return dictionary.size() < values.size() ? indices : null;
+    }
+
+    private static void encodePlain(final ByteArrayOutputStream out, final List<String> values,
+	    final ColumnType type) {
+	switch (type) {
+	case INTEGER -> values.forEach(value -> writeLong(out, Long.parseLong(value)));
+	case DOUBLE -> values.forEach(value -> writeLong(out, Double.doubleToRawLongBits(Double.parseDouble(value))));
+	case BOOLEAN -> {
+	    final var bits = new byte[values.size() + 7 >> 3];
+	    for (var i = 0; i < values.size(); i++) {
+		if ("true".equals(values.get(i))) {
+		    bits[i >> 3] |= (byte) (1 << (i & 7));
+		}
+	    }
+	    out.writeBytes(bits);
+	}
+	case TEXT -> values.forEach(value -> {
+	    final var bytes = value.getBytes(StandardCharsets.UTF_8);
+	    writeInt(out, bytes.length);
+	    out.writeBytes(bytes);
+	});
+	}
+    }
+
+    /**
+     * Encodes values with the RLE/bit-packing hybrid: runs of at least 8 equal
+     * values as RLE runs, everything else bit-packed in groups of 8
+     */
+    static void encodeHybrid(final ByteArrayOutputStream out, final int[] values, final int start, final int end,
+	    final int bitWidth) {
+	var packedStart = start;
+	var i = start;
+	while (i < end) {
+	    var run = 1;
+	    while (i + run < end && values[i + run] == values[i]) {
+		run++;
+	    }
+	    // Bit-packed runs must hold whole groups, so an RLE run can only start
+	    // once the pending values fill them
+	    if (run >= 8 && (i - packedStart) % 8 == 0) {
+		writePacked(out, values, packedStart, i, bitWidth);
+		writeVarInt(out, run << 1);
+		for (var b = 0; b < bitWidth; b += 8) {
+		    out.write(values[i] >>> b);
+		}
+		i += run;
+		packedStart = i;
+	    } else {
+		i++;
+	    }
+	}
+	writePacked(out, values, packedStart, end, bitWidth);
+    }
+
+    private static void writePacked(final ByteArrayOutputStream out, final int[] values, final int start,
+	    final int end, final int bitWidth) {
+	for (var groupStart = start; groupStart < end; groupStart += MAX_PACKED_VALUES) {
+	    final var groupEnd = Math.min(end, groupStart + MAX_PACKED_VALUES);
+	    final var groups = (groupEnd - groupStart + 7) / 8;
+	    writeVarInt(out, groups << 1 | 1);
+	    var buffer = 0L;
+	    var bits = 0;
+	    for (var i = groupStart; i < groupStart + groups * 8; i++) {
+		buffer |= (i < groupEnd ? values[i] & 0xFFFFFFFFL : 0L) << bits;
+		bits += bitWidth;
+		while (bits >= 8) {
+		    out.write((int) buffer);
+		    buffer >>>= 8;
+		    bits -= 8;
+		}
+	    }
+	}
+    }
+
+    /**
+     * Writes a page header and the Snappy-compressed page
+     *
+     * @return the uncompressed size of the page including its header
+     */
+    private static long writePage(final ByteArrayOutputStream out, final int pageType, final byte[] body,
+	    final int valueCount, final int encoding) {
+	final var compressor = new SnappyCompressor();
+	final var compressed = new byte[compressor.maxCompressedLength(body.length)];
+	final var compressedLength = compressor.compress(body, 0, body.length, compressed, 0, compressed.length);
+
+	final var header = new ThriftCompactWriter();
+	header.fieldI32(1, pageType);
+	header.fieldI32(2, body.length);
+	header.fieldI32(3, compressedLength);
+	if (pageType == ParquetPageDecoder.DICTIONARY_PAGE) {
+	    header.beginStruct(7);
+	    header.fieldI32(1, valueCount);
+	    header.fieldI32(2, encoding);
+	} else {
+	    header.beginStruct(5);
+	    header.fieldI32(1, valueCount);
+	    header.fieldI32(2, encoding);
+	    header.fieldI32(3, ParquetPageDecoder.RLE);
+	    header.fieldI32(4, ParquetPageDecoder.RLE);
+	}
+	header.endStruct();
+	final var headerBytes = header.finish();
+	out.writeBytes(headerBytes);
+	out.write(compressed, 0, compressedLength);
+	return (long) headerBytes.length + body.length;
+    }
+
+    private static void writeVarInt(final ByteArrayOutputStream out, final int value) {
+	var remaining = value;
+	while ((remaining & ~0x7F) != 0) {
+	    out.write(remaining & 0x7F | 0x80);
+	    remaining >>>= 7;
+	}
+	out.write(remaining);
+    }
+
+    private static void writeInt(final ByteArrayOutputStream out, final int value) {
+	out.write(value);
+	out.write(value >>> 8);
+	out.write(value >>> 16);
+	out.write(value >>> 24);
+    }
+
+    private static void writeLong(final ByteArrayOutputStream out, final long value) {
+	writeInt(out, (int) value);
+	writeInt(out, (int) (value >>> 32));
+    }
+
+    /**
+     * An encoded column chunk; page offsets are relative to its start
+     */
+    static final class Chunk {
+	final byte[] bytes;
+	final boolean dictionary;
+	final int dataPageOffset;
+	final long uncompressedSize;
+
+	private Chunk(final byte[] bytes, final boolean dictionary, final int dataPageOffset,
+		final long uncompressedSize) {
+	    this.bytes = bytes;
+	    this.dictionary = dictionary;
+	    this.dataPageOffset = dataPageOffset;
+	    this.uncompressedSize = uncompressedSize;
+	}
+    }
+}
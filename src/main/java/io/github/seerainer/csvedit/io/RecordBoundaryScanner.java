@@ -0,0 +1,74 @@
+package io.github.seerainer.csvedit.io;
+
+/**
+ * Finds the field and record boundaries of CSV bytes without decoding them,
+ * one byte at a time, so a scan can continue from one buffer to the next. Every
+ * reader that splits a file into records before or instead of parsing it uses
+ * this scanner, so they all agree with the parser and
+ * {@link io.github.seerainer.csvedit.model.LazyRow.Source} on where a record
+ * ends: a quote only opens a quoted section at the start of a field and is
+ * kept as is anywhere else, and inside a quoted section a doubled quote or an
+ * escaped character does not close it. A scan must start at the beginning of a
+ * record.
+ */
+final class RecordBoundaryScanner {
+
+    private final byte delimiter;
+    private final byte quote;
+    private final byte escape;
+    private final boolean backslashEscape;
+    private boolean fieldStart = true;
+    private boolean inQuotes;
+    private boolean escaped;
+    private boolean closed;
+
+    RecordBoundaryScanner(final CSVDialect dialect) {
+	this.delimiter = (byte) dialect.getDelimiter();
+	this.quote = (byte) dialect.getQuote();
+	this.escape = (byte) dialect.getEscape();
+	this.backslashEscape = quote != escape;
+    }
+
+    /**
+     * Scans the next byte
+     *
+     * @return true if the byte is a delimiter or line break outside quotes, i.e.
+     *         ends a field
+     */
+    boolean isBoundary(final byte b) {
+	if (inQuotes) {
+	    if (escaped) {
+		escaped = false;
+	    } else if (backslashEscape && b == escape) {
+		escaped = true;
+	    } else if (b == quote) {
+		inQuotes = false;
+		closed = true;
+	    }
+	    return false;
+	}
+	if (closed && b == quote && !backslashEscape) {
+	    // A doubled quote inside a quoted field
+	    inQuotes = true;
+	    closed = false;
+	    return false;
+	}
+	closed = false;
+	if (b == delimiter || b == '\n' || b == '\r') {
+	    fieldStart = true;
+	    return true;
+	}
+	if (fieldStart && b == quote) {
+	    inQuotes = true;
+	}
+	fieldStart = false;
+	return false;
+    }
+
+    /**
+     * Checks if the bytes scanned so far end inside a quoted field
+     */
+    boolean isInQuotes() {
+	return inQuotes;
+    }
+}
@@ -0,0 +1,178 @@
+package io.github.seerainer.csvedit.io;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.regex.Pattern;
+
+/**
+ * A predicate over the fields of a record, applied while a file is read so
+ * that rows it rejects are never stored. It is written as conditions of the
+ * form {@code column operator value} joined by {@code and}, e.g.
+ * {@code region = EU and amount > 1000}. Values that are numbers on both sides
+ * are compared as numbers, others as text. Quotes around a column name or
+ * value allow spaces and force a value to be compared as text.
+ */
+public class RowFilter {
+
+    private static final Pattern AND = Pattern.compile("(?i)\\s+and\\s+(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)");
+    private static final Pattern CONDITION = Pattern
+	    .compile("(?i)^\\s*(\"[^\"]*\"|.+?)\\s*(>=|<=|!=|<>|==|=|>|<|\\s+contains\\s+)\\s*(.*?)\\s*$");
+
+    private final String expression;
+    private final List<Condition> conditions;
+
+    private RowFilter(final String expression, final List<Condition> conditions) {
+	this.expression = expression;
+	this.conditions = conditions;
+    }
+
+    /**
+     * Parses a filter, resolving its columns by name
+     *
+     * @param expression  the conditions, e.g. {@code region = EU and amount > 1000}
+     * @param columnNames the names of the file's columns, matched ignoring case
+     * @return the filter
+     * @throws IllegalArgumentException if a condition is malformed or names an
+     *                                  unknown column
+     */
+    public static RowFilter parse(final String expression, final List<String> columnNames) {
+	final var trimmed = expression.trim();
+	if (trimmed.isEmpty()) {
+	    throw new IllegalArgumentException("Enter a condition such as: column = value");
+	}
+	final List<Condition> conditions = new ArrayList<>();
+	for (final var part : AND.split(trimmed)) {
+	    final var matcher = CONDITION.matcher(part);
+	    if (!matcher.matches()) {
+		throw new IllegalArgumentException("Expected column, operator and value: " + part.trim());
+	    }
+	    final var name = unquote(matcher.group(1));
+	    final var column = indexOf(columnNames, name);
+	    if (column < 0) {
+		throw new IllegalArgumentException("Unknown column: " + name);
+	    }
+	    final var operator = Operator.of(matcher.group(2).trim());
+	    final var value = unquote(matcher.group(3));
+	    final var number = value.equals(matcher.group(3)) ? parseNumber(value) : Double.NaN;
+	    conditions.add(new Condition(column, operator, value, number));
+	}
+	return new RowFilter(trimmed, List.copyOf(conditions));
+    }
+
+    private static int indexOf(final List<String> columnNames, final String name) {
+	for (var i = 0; i < columnNames.size(); i++) {
+	    if (columnNames.get(i).trim().equalsIgnoreCase(name)) {
+		return i;
+	    }
+	}
+	return -1;
+    }
+
+    private static String unquote(final String value) {
+	return value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")
+		? value.substring(1, value.length() - 1)
+		: value;
+    }
+
+    /**
+     * Tests a record by its fields
+     *
+     * @param field the field of a column, empty if the record does not reach it
+     * @return true if all conditions hold
+     */
+    public boolean test(final IntFunction<String> field) {
+	for (final var condition : conditions) {
+	    if (!condition.test(field.apply(condition.column))) {
+		return false;
+	    }
+	}
+	return true;
+    }
+
+    /**
+     * Tests a row of fields
+     *
+     * @return true if all conditions hold
+     */
+    public boolean test(final List<String> row) {
+	return test(column -> column < row.size() ? row.get(column) : "");
+    }
+
+    @Override
+    public String toString() {
+	return expression;
+    }
+
+    /**
+     * Parses a number cheaply, without the cost of an exception for text that
+     * clearly is none
+     *
+     * @return the number, or NaN if the text is not one
+     */
+    private static double parseNumber(final String text) {
+	final var value = text.trim();
+	if (value.isEmpty()) {
+	    return Double.NaN;
+	}
+	final var first = value.charAt(0);
+	if (!Character.isDigit(first) && first != '-' && first != '+' && first != '.') {
+	    return Double.NaN;
+	}
+	try {
+	    return Double.parseDouble(value);
+	} catch (final NumberFormatException e) {
+	    return Double.NaN;
+	}
+    }
+
+    private enum Operator {
+	EQUALS, NOT_EQUALS, GREATER, GREATER_OR_EQUAL, LESS, LESS_OR_EQUAL, CONTAINS;
+
+	private static Operator of(final String symbol) {
+	    return switch (symbol.toLowerCase()) {
+	    case "=", "==" -> EQUALS;
+	    case "!=", "<>" -> NOT_EQUALS;
+	    case ">" -> GREATER;
+	    case ">=" -> GREATER_OR_EQUAL;
+	    case "<" -> LESS;
+	    case "<=" -> LESS_OR_EQUAL;
+	    default -> CONTAINS;
+	    };
+	}
+    }
+
+    /**
+     * A single comparison of a column with a constant
+     */
+    private static final class Condition {
+	private final int column;
+	private final Operator operator;
+	private final String value;
+	private final double number;
+
+	private Condition(final int column, final Operator operator, final String value, final double number) {
+	    this.column = column;
+	    this.operator = operator;
+	    this.value = value;
+	    this.number = number;
+	}
+
+	private boolean test(final String field) {
+	    return switch (operator) {
+	    case EQUALS -> compare(field) == 0;
+	    case NOT_EQUALS -> compare(field) != 0;
+	    case GREATER -> compare(field) > 0;
+	    case GREATER_OR_EQUAL -> compare(field) >= 0;
+	    case LESS -> compare(field) < 0;
+	    case LESS_OR_EQUAL -> compare(field) <= 0;
+	    case CONTAINS -> field.contains(value);
+	    };
+	}
+
+	private int compare(final String field) {
+	    final var fieldNumber = Double.isNaN(number) ? Double.NaN : parseNumber(field);
+	    return Double.isNaN(fieldNumber) ? field.trim().compareTo(value) : Double.compare(fieldNumber, number);
+	}
+    }
+}
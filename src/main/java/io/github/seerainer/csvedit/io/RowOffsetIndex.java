@@ -0,0 +1,128 @@
+package io.github.seerainer.csvedit.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import io.github.seerainer.csvedit.ui.UIConstants;
+
+/**
+ * Byte ranges of selected records in a CSV file, found with a single scan
+ * through a {@link RecordBoundaryScanner}. Record 0 is the first record of the file, i.e. the header
+ * row. Ranges exclude the line terminator.
+ */
+class RowOffsetIndex {
+
+    private static final int SCAN_BUFFER_BYTES = 1024 * 1024;
+
+    private final int[] records;
+    private final long[] starts;
+    private final long[] ends;
+    private int found;
+    private int recordCount;
+    private boolean complete;
+
+    private RowOffsetIndex(final int[] records) {
+	this.records = records;
+	this.starts = new long[records.length];
+	this.ends = new long[records.length];
+    }
+
+    /**
+     * Scans a file for the byte ranges of the given records, which must be sorted
+     * in ascending order. Empty and blank lines are skipped like the parser does
+     * with the same options.
+     */
+    static RowOffsetIndex scan(final FileChannel channel, final CSVDialect dialect, final int[] records,
+	    final boolean skipEmptyLines, final boolean skipBlankLines,
+	    final FileOperations.SaveProgressCallback callback, final int totalRecords) throws IOException {
+	final var index = new RowOffsetIndex(records);
+	final var boundaries = new RecordBoundaryScanner(dialect);
+	final var delimiter = (byte) dialect.getDelimiter();
+	final var buffer = ByteBuffer.allocate(SCAN_BUFFER_BYTES);
+	final var bytes = buffer.array();
+
+	var afterCR = false;
+	var blank = true;
+	var recordStart = 0L;
+	var position = 0L;
+	int read;
+	while ((read = channel.read(buffer.clear(), position)) > 0) {
+	    for (var i = 0; i < read; i++) {
+		final var b = bytes[i];
+		final var offset = position + i;
+		if (afterCR) {
+		    afterCR = false;
+		    if (b == '\n') {
+			recordStart = offset + 1;
+			continue;
+		    }
+		}
+		if (!boundaries.isBoundary(b)) {
+		    if (b != ' ' && b != '\t') {
+			blank = false;
+		    }
+		} else if (b == delimiter) {
+		    blank = false;
+		} else {
+		    index.endRecord(recordStart, offset, blank, skipEmptyLines, skipBlankLines);
+		    afterCR = b == '\r';
+		    recordStart = offset + 1;
+		    blank = true;
+		    if (index.recordCount % UIConstants.SAVE_BLOCK_ROWS == 0) {
+			callback.onProgress(Math.min(index.recordCount, totalRecords), totalRecords);
+		    }
+		}
+	    }
+	    position += read;
+	}
+	if (recordStart < position) {
+	    index.endRecord(recordStart, position, blank, skipEmptyLines, skipBlankLines);
+	}
+	index.complete = !boundaries.isInQuotes() && index.found == records.length;
+	return index;
+    }
+
+    private void endRecord(final long start, final long end, final boolean blank, final boolean skipEmptyLines,
+	    final boolean skipBlankLines) {
+	if ((skipEmptyLines && start == end) || (skipBlankLines && blank)) {
+	    return;
+	}
+	final var record = recordCount++;
+	if (found < records.length && records[found] == record) {
+	    starts[found] = start;
+	    ends[found] = end;
+	    found++;
+	}
+    }
+
+    /**
+     * Gets the number of records in the file
+     */
+    int getRecordCount() {
+	return recordCount;
+    }
+
+    /**
+     * Checks if all requested records were found and no quoted field was left
+     * open at the end of the file
+     */
+    boolean isComplete() {
+	return complete;
+    }
+
+    /**
+     * Gets the start offset of the i-th requested record
+     */
+    long getStart(final int i) {
+	return starts[i];
+    }
+
+    /**
+     * Gets the end offset of the i-th requested record, before its line
+     * terminator
+     */
+    long getEnd(final int i) {
+	return ends[i];
+    }
+}
@@ -0,0 +1,91 @@
+package io.github.seerainer.csvedit.io;
+
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import io.github.seerainer.csvedit.model.CSVTableModel;
+
+/**
+ * Loads a sample or a window of rows of a large CSV file in the background.
+ * The file is then indexed in the background, so later windows are found
+ * quickly. A gzip file only gets its {@link GzipIndex} after a read that seeks,
+ * i.e. the last rows or a window of rows.
+ */
+public class SampleLoader {
+
+    private final String filePath;
+    private final CSVTableModel model;
+    private final SampleOperations.Mode mode;
+    private final long firstRow;
+    private final int rowCount;
+    private final ExecutorService executor;
+    private volatile boolean cancelled = false;
+
+    public SampleLoader(final String filePath, final CSVTableModel model, final SampleOperations.Mode mode,
+	    final int rowCount) {
+	this(filePath, model, mode, 0, rowCount);
+    }
+
+    /**
+     * Creates a loader for the rows that start at a data row
+     */
+    public SampleLoader(final String filePath, final CSVTableModel model, final long firstRow, final int rowCount) {
+	this(filePath, model, null, firstRow, rowCount);
+    }
+
+    private SampleLoader(final String filePath, final CSVTableModel model, final SampleOperations.Mode mode,
+	    final long firstRow, final int rowCount) {
+	this.filePath = filePath;
+	this.model = model;
+	this.mode = mode;
+	this.firstRow = firstRow;
+	this.rowCount = rowCount;
+	this.executor = Executors.newSingleThreadExecutor(r -> {
+	    final var thread = new Thread(r, "Sample-Loader");
+	    thread.setDaemon(true);
+	    return thread;
+	});
+    }
+
+    /**
+     * Cancel the loading operation. The rows sampled so far are kept and reported
+     * as complete.
+     */
+    public void cancel() {
+	cancelled = true;
+    }
+
+    /**
+     * Load the sample asynchronously in the background
+     */
+    public CompletableFuture<Void> loadAsync(final LazyCSVLoader.ProgressCallback callback) {
+	return CompletableFuture.runAsync(() -> {
+	    try {
+		final var path = Paths.get(filePath);
+		final var dialect = CSVDialectSniffer.sniff(path);
+		final var rowsLoaded = mode != null
+			? SampleOperations.loadSample(path, dialect, model, mode, rowCount,
+				rowsRead -> callback.onProgress(rowsRead, -1, false), () -> cancelled)
+			: SampleOperations.loadWindow(path, dialect, model, firstRow, rowCount, () -> cancelled);
+		if (CheckpointIndex.isIndexable(path, dialect)) {
+		    CheckpointIndex.forFile(path, dialect).buildInBackground();
+		} else if ((mode == null || mode == SampleOperations.Mode.TAIL)
+			&& CompressionCodec.detect(path) == CompressionCodec.GZIP && !dialect.requiresTranscoding()) {
+		    GzipIndex.buildInBackground(path);
+		}
+		callback.onProgress(rowsLoaded, rowsLoaded, true);
+	    } catch (final Exception e) {
+		callback.onError(e);
+	    }
+	}, executor);
+    }
+
+    /**
+     * Shutdown the executor
+     */
+    public void shutdown() {
+	executor.shutdown();
+    }
+}
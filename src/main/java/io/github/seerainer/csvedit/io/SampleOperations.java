@@ -0,0 +1,372 @@
+package io.github.seerainer.csvedit.io;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import io.github.seerainer.csv.CSVRecord;
+import io.github.seerainer.csvedit.model.CSVTableModel;
+import io.github.seerainer.csvedit.ui.UIConstants;
+
+/**
+ * Samples of large CSV files: the first rows, the last rows or a uniform random
+ * selection. The head stops reading after the requested rows, the tail seeks
+ * from the end of the file, or of an indexed gzip file's content, and the
+ * random sample keeps only the chosen rows of a single sequential pass.
+ */
+public class SampleOperations {
+
+    private static final int BLOCK_BYTES = 64 * 1024;
+    private static final int SCAN_CHUNK_BYTES = 8 * 1024 * 1024;
+    private static final int MAX_BLOCK_BYTES = Integer.MAX_VALUE - 16;
+
+    /**
+     * The part of a file a sample is taken from
+     */
+    public enum Mode {
+	HEAD, TAIL, RANDOM
+    }
+
+    private SampleOperations() {
+	throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Loads a sample of a CSV file into the model, replacing its contents. Rows
+     * sampled before the load is cancelled are kept.
+     *
+     * @param filePath  the CSV file, optionally compressed
+     * @param dialect   the dialect to parse with
+     * @param model     the model to fill
+     * @param mode      the part of the file to sample
+     * @param rowCount  the number of rows to sample
+     * @param progress  receives the number of rows read so far
+     * @param cancelled checked while reading
+     * @return the number of rows loaded
+     */
+    public static int loadSample(final Path filePath, final CSVDialect dialect, final CSVTableModel model,
+	    final Mode mode, final int rowCount, final IntConsumer progress, final BooleanSupplier cancelled)
+	    throws IOException {
+	if (rowCount <= 0) {
+	    throw new IllegalArgumentException("Row count must be positive");
+	}
+	final var sample = switch (mode) {
+	case HEAD -> readHead(filePath, dialect, rowCount, progress, cancelled);
+	case TAIL -> CheckpointIndex.isIndexable(filePath, dialect) ? readTail(filePath, dialect, rowCount, cancelled)
+		: readTailSequential(filePath, dialect, rowCount, progress, cancelled);
+	case RANDOM -> readRandom(filePath, dialect, rowCount, progress, cancelled);
+	};
+
+	model.clear();
+	model.setHeaders(sample.headers);
+	model.setData(sample.rows);
+	model.normalize();
+	return sample.rows.size();
+    }
+
+    /**
+     * Loads the rows of a CSV file that start at a data row into the model,
+     * replacing its contents. Uncompressed files and indexed gzip files are read
+     * from the nearest checkpoint of their {@link CheckpointIndex}, others are
+     * parsed from the start.
+     *
+     * @param filePath  the CSV file, optionally compressed
+     * @param dialect   the dialect to parse with
+     * @param model     the model to fill
+     * @param firstRow  the first data row to load, 0 being the row after the
+     *                  header
+     * @param rowCount  the number of rows to load
+     * @param cancelled checked while reading
+     * @return the number of rows loaded, 0 if the file ends before the first row
+     */
+    public static int loadWindow(final Path filePath, final CSVDialect dialect, final CSVTableModel model,
+	    final long firstRow, final int rowCount, final BooleanSupplier cancelled) throws IOException {
+	if (firstRow < 0 || rowCount <= 0) {
+	    throw new IllegalArgumentException("Invalid row range");
+	}
+	final var sample = CheckpointIndex.isIndexable(filePath, dialect)
+		? readWindow(filePath, dialect, firstRow, rowCount, cancelled)
+		: readWindowSequential(filePath, dialect, firstRow, rowCount, cancelled);
+
+	model.clear();
+	model.setHeaders(sample.headers);
+	model.setData(sample.rows);
+	model.normalize();
+	return sample.rows.size();
+    }
+
+    /**
+     * Reads the bytes between the start of the first and after the last row of a
+     * window, both found through the checkpoint index
+     */
+    private static Sample readWindow(final Path filePath, final CSVDialect dialect, final long firstRow,
+	    final int rowCount, final BooleanSupplier cancelled) throws IOException {
+	final var sample = new Sample(false);
+	if (dialect.hasHeader()) {
+	    sample.headers.addAll(readHead(filePath, dialect, 0, _ -> {
+	    }, cancelled).headers);
+	}
+	final var index = CheckpointIndex.forFile(filePath, dialect);
+	final var firstRecord = dialect.hasHeader() ? firstRow + 1 : firstRow;
+	final var start = index.seek(firstRecord, cancelled);
+	if (start < 0) {
+	    return sample;
+	}
+	try (var content = SeekableContent.open(filePath)) {
+	    var end = index.seek(firstRecord + rowCount, cancelled);
+	    if (end < 0) {
+		end = content.size(); // The window reaches the end of the file
+	    }
+	    if (end - start > MAX_BLOCK_BYTES) {
+		throw new IOException("The rows are too large to load at once");
+	    }
+	    if (end > start) {
+		final var bytes = CSVParserUtil.readRange(content, start, (int) (end - start));
+		for (final var record : CSVParserUtil.parseCSV(bytes, dialect)) {
+		    if (!sample.takeHeader(record) && sample.rows.size() < rowCount) {
+			sample.rows.add(CSVParserUtil.extractRow(record));
+		    }
+		}
+	    }
+	}
+	return sample;
+    }
+
+    private static Sample readWindowSequential(final Path filePath, final CSVDialect dialect, final long firstRow,
+	    final int rowCount, final BooleanSupplier cancelled) throws IOException {
+	final var sample = new Sample(dialect.hasHeader());
+	final var seen = new long[] { 0 };
+	CSVParserUtil.parseFileWhile(filePath, SCAN_CHUNK_BYTES, dialect, record -> {
+	    if (!sample.takeHeader(record) && seen[0]++ >= firstRow) {
+		sample.rows.add(CSVParserUtil.extractRow(record));
+	    }
+	    return sample.rows.size() < rowCount && !cancelled.getAsBoolean();
+	});
+	return sample;
+    }
+
+    private static Sample readHead(final Path filePath, final CSVDialect dialect, final int rowCount,
+	    final IntConsumer progress, final BooleanSupplier cancelled) throws IOException {
+	final var sample = new Sample(dialect.hasHeader());
+	CSVParserUtil.parseFileWhile(filePath, BLOCK_BYTES, dialect, record -> {
+	    if (!sample.takeHeader(record)) {
+		sample.rows.add(CSVParserUtil.extractRow(record));
+		reportProgress(sample.rows.size(), progress);
+	    }
+	    return (sample.headerPending || sample.rows.size() < rowCount) && !cancelled.getAsBoolean();
+	});
+	return sample;
+    }
+
+    /**
+     * Reads the last rows by parsing growing blocks from the end of the content,
+     * starting each block at the first record boundary found in it
+     */
+    private static Sample readTail(final Path filePath, final CSVDialect dialect, final int rowCount,
+	    final BooleanSupplier cancelled) throws IOException {
+	final var first = readHead(filePath, dialect, 1, _ -> {
+	}, cancelled);
+	final var columns = !first.headers.isEmpty() ? first.headers.size()
+		: first.rows.isEmpty() ? 0 : first.rows.getFirst().size();
+	try (var content = SeekableContent.open(filePath)) {
+	    return readTail(content, dialect, rowCount, first.headers, columns, cancelled);
+	}
+    }
+
+    private static Sample readTail(final SeekableContent content, final CSVDialect dialect, final int rowCount,
+	    final List<String> headers, final int columns, final BooleanSupplier cancelled) throws IOException {
+	final var size = content.size();
+	var length = Math.min(size, BLOCK_BYTES);
+	while (true) {
+	    final var start = size - length;
+	    final var bytes = CSVParserUtil.readRange(content, start, (int) length);
+	    final var offset = start == 0 ? 0 : findRecordStart(bytes, dialect, columns);
+	    final var sample = new Sample(start == 0 && dialect.hasHeader());
+	    if (offset >= 0) {
+		final var block = offset == 0 ? bytes : Arrays.copyOfRange(bytes, offset, bytes.length);
+		for (final var record : CSVParserUtil.parseCSV(block, dialect)) {
+		    if (!sample.takeHeader(record)) {
+			sample.rows.add(CSVParserUtil.extractRow(record));
+		    }
+		}
+	    }
+
+	    final var found = sample.rows.size();
+	    if (found >= rowCount || start == 0 || length == MAX_BLOCK_BYTES || cancelled.getAsBoolean()) {
+		sample.headers.clear();
+		sample.headers.addAll(headers);
+		sample.rows.subList(0, Math.max(0, found - rowCount)).clear();
+		return sample;
+	    }
+	    // Grow by the average record size seen so far, at least doubling
+	    final var estimate = found == 0 ? length * 4 : (length - offset) / found * (rowCount + 1) * 5 / 4;
+	    length = Math.min(Math.min(size, MAX_BLOCK_BYTES), Math.max(length * 2, estimate));
+	}
+    }
+
+    /**
+     * Finds the first record boundary in a block read from the middle of a file:
+     * a line break followed by a record with the expected number of fields, after
+     * which the quotes up to the end of the file are balanced. Without a record of
+     * the expected width, the first balanced boundary is used.
+     *
+     * @return the offset of the first full record, or -1 if there is none
+     */
+    private static int findRecordStart(final byte[] bytes, final CSVDialect dialect, final int columns) {
+	final var quote = (byte) dialect.getQuote();
+	// Quote parity only tells quoted from unquoted text with doubled quotes
+	final var parity = dialect.getEscape() == dialect.getQuote();
+	var remaining = 0;
+	for (final var b : bytes) {
+	    if (b == quote) {
+		remaining++;
+	    }
+	}
+
+	var balanced = -1;
+	for (var i = 0; i < bytes.length - 1; i++) {
+	    final var b = bytes[i];
+	    if (b == quote) {
+		remaining--;
+	    }
+	    if ((b != '\n' && b != '\r') || (b == '\r' && bytes[i + 1] == '\n')) {
+		continue;
+	    }
+	    if (parity && remaining % 2 != 0) {
+		continue;
+	    }
+	    if (columns <= 0 || countFields(bytes, i + 1, dialect) == columns) {
+		return i + 1;
+	    }
+	    if (balanced < 0) {
+		balanced = i + 1;
+	    }
+	}
+	return balanced;
+    }
+
+    /**
+     * Counts the fields of the record starting at an offset, assuming it starts
+     * outside quotes
+     */
+    private static int countFields(final byte[] bytes, final int start, final CSVDialect dialect) {
+	final var boundaries = new RecordBoundaryScanner(dialect);
+	final var delimiter = (byte) dialect.getDelimiter();
+	var fields = 1;
+	for (var i = start; i < bytes.length; i++) {
+	    final var b = bytes[i];
+	    if (!boundaries.isBoundary(b)) {
+		continue;
+	    }
+	    if (b != delimiter) {
+		return fields;
+	    }
+	    fields++;
+	}
+	return fields;
+    }
+
+    /**
+     * Reads the last rows of a file that cannot be read backwards, keeping only
+     * the most recent rows of a sequential pass. Reading a gzip file to its end
+     * indexes it, so the next tail is read backwards.
+     */
+    private static Sample readTailSequential(final Path filePath, final CSVDialect dialect, final int rowCount,
+	    final IntConsumer progress, final BooleanSupplier cancelled) throws IOException {
+	final var sample = new Sample(dialect.hasHeader());
+	final var last = new ArrayDeque<List<String>>(Math.min(rowCount, UIConstants.IMPORT_BATCH_ROWS));
+	final var seen = new int[] { 0 };
+	CSVParserUtil.parseFileWhile(filePath, SCAN_CHUNK_BYTES, dialect, record -> {
+	    if (!sample.takeHeader(record)) {
+		if (last.size() == rowCount) {
+		    last.removeFirst();
+		}
+		last.addLast(CSVParserUtil.extractRow(record));
+		reportProgress(++seen[0], progress);
+	    }
+	    return !cancelled.getAsBoolean();
+	});
+	sample.rows.addAll(last);
+	return sample;
+    }
+
+    /**
+     * Reads a uniform random sample of the rows in a single pass (reservoir
+     * sampling). Only the rows that enter the reservoir are converted to strings,
+     * and the sample keeps the order of the file.
+     */
+    private static Sample readRandom(final Path filePath, final CSVDialect dialect, final int rowCount,
+	    final IntConsumer progress, final BooleanSupplier cancelled) throws IOException {
+	final var sample = new Sample(dialect.hasHeader());
+	final var random = ThreadLocalRandom.current();
+	final var positions = new long[rowCount];
+	final var seen = new long[] { 0 };
+	CSVParserUtil.parseFileWhile(filePath, SCAN_CHUNK_BYTES, dialect, record -> {
+	    if (!sample.takeHeader(record)) {
+		final var position = seen[0]++;
+		if (position < rowCount) {
+		    positions[(int) position] = position;
+		    sample.rows.add(CSVParserUtil.extractRow(record));
+		} else {
+		    final var slot = random.nextLong(position + 1);
+		    if (slot < rowCount) {
+			positions[(int) slot] = position;
+			sample.rows.set((int) slot, CSVParserUtil.extractRow(record));
+		    }
+		}
+		reportProgress((int) Math.min(seen[0], Integer.MAX_VALUE), progress);
+	    }
+	    return !cancelled.getAsBoolean();
+	});
+
+	final var rows = new ArrayList<>(sample.rows);
+	sample.rows.clear();
+	IntStream.range(0, rows.size()).boxed().sorted(Comparator.comparingLong(i -> positions[i.intValue()]))
+		.forEach(i -> sample.rows.add(rows.get(i.intValue())));
+	return sample;
+    }
+
+    private static void reportProgress(final int rowsRead, final IntConsumer progress) {
+	if (rowsRead % UIConstants.PROGRESS_UPDATE_INTERVAL == 0) {
+	    progress.accept(rowsRead);
+	}
+    }
+
+    /**
+     * Headers and rows of a sample
+     */
+    private static class Sample {
+	private final List<String> headers = new ArrayList<>();
+	private final List<List<String>> rows = new ArrayList<>();
+	private boolean headerPending;
+
+	private Sample(final boolean header) {
+	    this.headerPending = header;
+	}
+
+	/**
+	 * Takes the record as the header if one is still expected
+	 *
+	 * @return true if the record is the header or empty, false if it is a row
+	 */
+	private boolean takeHeader(final CSVRecord record) {
+	    if (record.getFieldCount() == 0) {
+		return true;
+	    }
+	    if (!headerPending) {
+		return false;
+	    }
+	    headers.addAll(CSVParserUtil.extractRow(record));
+	    headerPending = false;
+	    return true;
+	}
+    }
+}
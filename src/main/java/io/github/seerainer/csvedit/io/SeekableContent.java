@@ -0,0 +1,133 @@
+package io.github.seerainer.csvedit.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import io.github.seerainer.csvedit.ui.UIConstants;
+
+/**
+ * The content of a CSV file as the parser reads it, readable at any position:
+ * the bytes of an uncompressed file, or the decompressed bytes of a gzip file
+ * through its {@link GzipIndex}. Reads that continue where the last one ended
+ * keep decompressing, others restart at the nearest gzip checkpoint.
+ */
+class SeekableContent implements Closeable {
+
+    private final Path path;
+    private final FileChannel channel;
+    private final GzipIndex gzipIndex;
+    private InputStream stream;
+    private long streamPosition;
+
+    private SeekableContent(final Path path, final FileChannel channel, final GzipIndex gzipIndex) {
+	this.path = path;
+	this.channel = channel;
+	this.gzipIndex = gzipIndex;
+    }
+
+    /**
+     * Checks if the content of a file can be read at any position, i.e. it needs
+     * no transcoding and is uncompressed or a gzip file with a valid index
+     */
+    static boolean isSeekable(final Path filePath, final CSVDialect dialect) {
+	if (dialect.requiresTranscoding()) {
+	    return false;
+	}
+	return switch (CompressionCodec.detect(filePath)) {
+	case NONE -> true;
+	case GZIP -> GzipIndex.forFile(filePath) != null;
+	default -> false;
+	};
+    }
+
+    /**
+     * Opens the content of a file
+     *
+     * @throws IOException if the file cannot be read or is compressed without an
+     *                     index
+     */
+    static SeekableContent open(final Path filePath) throws IOException {
+	final var codec = CompressionCodec.detect(filePath);
+	if (codec == CompressionCodec.NONE) {
+	    return new SeekableContent(filePath, FileChannel.open(filePath, StandardOpenOption.READ), null);
+	}
+	final var index = codec == CompressionCodec.GZIP ? GzipIndex.forFile(filePath) : null;
+	if (index == null) {
+	    throw new IOException("The file cannot be read at random positions: " + filePath);
+	}
+	return new SeekableContent(filePath, null, index);
+    }
+
+    /**
+     * Gets the size of the content, i.e. the uncompressed size of a gzip file
+     */
+    long size() throws IOException {
+	return channel != null ? channel.size() : gzipIndex.getUncompressedSize();
+    }
+
+    /**
+     * Reads bytes starting at a position of the content
+     *
+     * @param buffer a heap buffer receiving the bytes
+     * @return the number of bytes read, or -1 at the end of the content
+     */
+    int read(final ByteBuffer buffer, final long position) throws IOException {
+	if (channel != null) {
+	    return channel.read(buffer, position);
+	}
+	if (!buffer.hasRemaining()) {
+	    return 0;
+	}
+	if (stream == null || position < streamPosition
+		|| position - streamPosition > UIConstants.GZIP_INDEX_SPAN_BYTES) {
+	    closeStream();
+	    stream = gzipIndex.openAt(path, position);
+	    streamPosition = position;
+	} else if (position > streamPosition) {
+	    stream.skipNBytes(position - streamPosition);
+	    streamPosition = position;
+	}
+	final var read = stream.read(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+	if (read > 0) {
+	    buffer.position(buffer.position() + read);
+	    streamPosition += read;
+	}
+	return read;
+    }
+
+    /**
+     * Reads a range of the content completely
+     *
+     * @throws IOException if the content ends before the range does
+     */
+    byte[] readFully(final long position, final int length) throws IOException {
+	final var bytes = new byte[length];
+	final var buffer = ByteBuffer.wrap(bytes);
+	while (buffer.hasRemaining()) {
+	    if (read(buffer, position + buffer.position()) < 0) {
+		throw new IOException("Unexpected end of file");
+	    }
+	}
+	return bytes;
+    }
+
+    private void closeStream() throws IOException {
+	if (stream != null) {
+	    stream.close();
+	    stream = null;
+	}
+    }
+
+    @Override
+    public void close() throws IOException {
+	closeStream();
+	if (channel != null) {
+	    channel.close();
+	}
+    }
+}
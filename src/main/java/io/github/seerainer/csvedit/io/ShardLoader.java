@@ -0,0 +1,62 @@
+package io.github.seerainer.csvedit.io;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import io.github.seerainer.csvedit.model.CSVTableModel;
+
+/**
+ * Loads a set of CSV shards in the background as one table.
+ */
+public class ShardLoader {
+
+    private final List<Path> shards;
+    private final CSVTableModel model;
+    private final boolean sourceColumn;
+    private final ExecutorService executor;
+    private volatile boolean cancelled = false;
+
+    public ShardLoader(final List<Path> shards, final CSVTableModel model, final boolean sourceColumn) {
+	this.shards = List.copyOf(shards);
+	this.model = model;
+	this.sourceColumn = sourceColumn;
+	this.executor = Executors.newSingleThreadExecutor(r -> {
+	    final var thread = new Thread(r, "Shard-Loader");
+	    thread.setDaemon(true);
+	    return thread;
+	});
+    }
+
+    /**
+     * Cancel the loading operation. The shards parsed so far stay in the model
+     * and are reported as complete.
+     */
+    public void cancel() {
+	cancelled = true;
+    }
+
+    /**
+     * Load the shards asynchronously in the background
+     */
+    public CompletableFuture<Void> loadAsync(final LazyCSVLoader.ProgressCallback callback) {
+	return CompletableFuture.runAsync(() -> {
+	    try {
+		final var rowCount = ShardOperations.loadShards(shards, model, sourceColumn,
+			rowsLoaded -> callback.onProgress(rowsLoaded, -1, false), () -> cancelled);
+		callback.onProgress(rowCount, rowCount, true);
+	    } catch (final Exception e) {
+		callback.onError(e);
+	    }
+	}, executor);
+    }
+
+    /**
+     * Shutdown the executor
+     */
+    public void shutdown() {
+	executor.shutdown();
+    }
+}
@@ -0,0 +1,494 @@
+package io.github.seerainer.csvedit.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import io.github.seerainer.csvedit.model.CSVTableModel;
+import io.github.seerainer.csvedit.util.Settings;
+
+/**
+ * Opens a set of CSV files that were split from one table, such as
+ * part-00000.csv to part-00255.csv, as a single table, and splits a table into
+ * such shards on export. Shards are parsed in parallel and written one at a
+ * time; on load they are concatenated in natural file name order.
+ */
+public class ShardOperations {
+
+    /**
+     * Header of the optional column holding each row's file name
+     */
+    public static final String SOURCE_COLUMN = "Source File";
+
+    private static final String[] SHARD_EXTENSIONS = { ".csv", ".tsv", ".txt" };
+
+    /**
+     * Orders file names like a person would, comparing runs of digits by value
+     */
+    public static final Comparator<Path> NATURAL_ORDER = (a, b) -> compareNatural(a.getFileName().toString(),
+	    b.getFileName().toString());
+
+    private ShardOperations() {
+	throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Resolves the shards of a directory, a glob pattern in the last path
+     * component (such as /data/part-*.csv) or a single file. A directory
+     * contributes its CSV, TSV and text files, compressed or not.
+     *
+     * @return the shards in natural file name order
+     */
+    public static List<Path> resolveShards(final String location) throws IOException {
+	// Glob characters are not valid in paths on every platform, so the pattern
+	// is split off before the rest becomes a path
+	final var separator = Math.max(location.lastIndexOf('/'), location.lastIndexOf(File.separatorChar));
+	final var pattern = location.substring(separator + 1);
+	final List<Path> shards = new ArrayList<>();
+	if (pattern.chars().anyMatch(c -> "*?[{".indexOf(c) >= 0)) {
+	    final var directory = Paths.get(separator >= 0 ? location.substring(0, separator + 1) : ".");
+	    final PathMatcher matcher;
+	    try {
+		matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+	    } catch (final IllegalArgumentException e) {
+		throw new IOException("Invalid file name pattern: " + pattern, e);
+	    }
+	    try (var files = Files.list(directory)) {
+		files.filter(file -> Files.isRegularFile(file) && matcher.matches(file.getFileName()))
+			.forEach(shards::add);
+	    }
+	    return sorted(shards, location);
+	}
+	final var path = Paths.get(location);
+	if (Files.isDirectory(path)) {
+	    try (var files = Files.list(path)) {
+		files.filter(file -> Files.isRegularFile(file) && isShardFile(file.getFileName().toString()))
+			.forEach(shards::add);
+	    }
+	} else if (Files.isRegularFile(path)) {
+	    shards.add(path);
+	}
+	return sorted(shards, location);
+    }
+
+    private static List<Path> sorted(final List<Path> shards, final String location) throws IOException {
+	if (shards.isEmpty()) {
+	    throw new IOException("No CSV files found at " + location);
+	}
+	shards.sort(NATURAL_ORDER);
+	return shards;
+    }
+
+    private static boolean isShardFile(final String fileName) {
+	var name = fileName.toLowerCase();
+	if (CompressionCodec.fromFileName(name) != CompressionCodec.NONE) {
+	    name = name.substring(0, name.lastIndexOf('.'));
+	}
+	for (final var extension : SHARD_EXTENSIONS) {
+	    if (name.endsWith(extension)) {
+		return true;
+	    }
+	}
+	return false;
+    }
+
+    /**
+     * Loads shards into the model as one table. The dialect is sniffed from the
+     * first shard and applies to all of them. With a header row every shard must
+     * have the same columns, possibly in a different order, which are then
+     * arranged like those of the first shard. Shards parsed before the load is
+     * cancelled are kept.
+     *
+     * @param sourceColumn whether to add a column with each row's file name
+     * @return the number of rows loaded
+     */
+    public static int loadShards(final List<Path> shards, final CSVTableModel model, final boolean sourceColumn,
+	    final IntConsumer progress, final BooleanSupplier cancelled) throws IOException {
+	final var dialect = CSVDialectSniffer.sniff(shards.getFirst());
+	final var loaded = new AtomicInteger();
+	final List<CSVParserUtil.ParsedCSV> parsed;
+	try {
+	    parsed = IntStream.range(0, shards.size()).parallel().mapToObj(i -> {
+		if (cancelled.getAsBoolean()) {
+		    return null;
+		}
+		try {
+		    final var shard = parseShard(shards.get(i), dialect);
+		    progress.accept(loaded.addAndGet(shard.getData().size()));
+		    return shard;
+		} catch (final IOException e) {
+		    throw new UncheckedIOException(
+			    new IOException("Failed to read " + shards.get(i).getFileName() + ": " + e.getMessage(), e));
+		}
+	    }).toList();
+	} catch (final UncheckedIOException e) {
+	    throw e.getCause();
+	}
+
+	final var headers = new ArrayList<>(parsed.getFirst() != null ? parsed.getFirst().getHeaders() : List.of());
+	final var mappings = new int[shards.size()][];
+	for (var i = 1; i < shards.size() && dialect.hasHeader(); i++) {
+	    if (parsed.get(i) != null) {
+		mappings[i] = mapColumns(headers, parsed.get(i).getHeaders(), shards.get(i));
+	    }
+	}
+	final var width = Math.max(headers.size(), parsed.stream().filter(shard -> shard != null)
+		.flatMapToInt(shard -> shard.getData().stream().mapToInt(List::size)).max().orElse(0));
+	IntStream.range(0, shards.size()).parallel().forEach(i -> {
+	    if (parsed.get(i) != null && (mappings[i] != null || sourceColumn)) {
+		arrangeRows(parsed.get(i).getData(), mappings[i], width,
+			sourceColumn ? shards.get(i).getFileName().toString() : null);
+	    }
+	});
+	if (sourceColumn) {
+	    while (headers.size() < width) {
+		headers.add("Column " + (headers.size() + 1));
+	    }
+	    var name = SOURCE_COLUMN;
+	    for (var n = 2; headers.contains(name); n++) {
+		name = SOURCE_COLUMN + " " + n;
+	    }
+	    headers.add(name);
+	}
+
+	model.clear();
+	var rowCount = 0;
+	for (final var shard : parsed) {
+	    if (shard == null) {
+		break;
+	    }
+	    model.appendRows(shard.getData());
+	    rowCount += shard.getData().size();
+	}
+	model.setHeaders(headers);
+	model.normalize();
+	return rowCount;
+    }
+
+    /**
+     * Saves the model to shards of at most the given number of rows, named like
+     * the target with a shard number before the extension (data-00000.csv). The
+     * format follows the target's extension: CSV, optionally compressed, JSON,
+     * JSON Lines or XML. Every shard repeats the header row.
+     *
+     * @return the shards written
+     */
+    public static List<Path> saveShardsByRows(final String filePath, final CSVTableModel model,
+	    final int rowsPerShard, final FileOperations.SaveProgressCallback callback) throws IOException {
+	if (rowsPerShard <= 0) {
+	    throw new IllegalArgumentException("Rows per shard must be positive: " + rowsPerShard);
+	}
+	final var rowCount = model.getRowCount();
+	final List<int[]> ranges = new ArrayList<>();
+	for (var start = 0; start < rowCount || ranges.isEmpty(); start += rowsPerShard) {
+	    ranges.add(new int[] { start, Math.min(rowCount, start + rowsPerShard) });
+	}
+	return saveRanges(filePath, model, ranges, callback);
+    }
+
+    /**
+     * Saves the model to shards whose uncompressed size stays within the given
+     * number of bytes, estimated from the encoded length of every row. A single
+     * row larger than the limit gets a shard of its own.
+     *
+     * @return the shards written
+     * @see #saveShardsByRows(String, CSVTableModel, int,
+     *      FileOperations.SaveProgressCallback)
+     */
+    public static List<Path> saveShardsBySize(final String filePath, final CSVTableModel model, final long maxBytes,
+	    final FileOperations.SaveProgressCallback callback) throws IOException {
+	if (maxBytes <= 0) {
+	    throw new IllegalArgumentException("Shard size must be positive: " + maxBytes);
+	}
+	final var format = ShardFormat.of(filePath);
+	final var rowCount = model.getRowCount();
+	final var sizes = IntStream.range(0, rowCount).parallel()
+		.mapToLong(i -> format.estimateRow(model.getRowView(i))).toArray();
+	final var headerSize = format.estimateHeader(model.getHeaders());
+	final List<int[]> ranges = new ArrayList<>();
+	var start = 0;
+	var size = headerSize;
+	for (var i = 0; i < rowCount; i++) {
+	    if (i > start && size + sizes[i] > maxBytes) {
+		ranges.add(new int[] { start, i });
+		start = i;
+		size = headerSize;
+	    }
+	    size += sizes[i];
+	}
+	ranges.add(new int[] { start, rowCount });
+	return saveRanges(filePath, model, ranges, callback);
+    }
+
+    /**
+     * Saves the rows of each value of a key column to a shard of their own, named
+     * like the target with the value before the extension (data-EU.csv). Shards
+     * are ordered by the first row of each value; characters that are not safe
+     * in file names are replaced.
+     *
+     * @return the shards written
+     * @see #saveShardsByRows(String, CSVTableModel, int,
+     *      FileOperations.SaveProgressCallback)
+     */
+    public static List<Path> saveShardsByKey(final String filePath, final CSVTableModel model, final int keyColumn,
+	    final FileOperations.SaveProgressCallback callback) throws IOException {
+	final Map<String, List<List<String>>> groups = new LinkedHashMap<>();
+	final var rowCount = model.getRowCount();
+	for (var i = 0; i < rowCount; i++) {
+	    final var key = model.getValue(i, keyColumn);
+	    groups.computeIfAbsent(key != null ? key : "", _ -> new ArrayList<>()).add(model.getRowView(i));
+	}
+	final var target = Paths.get(filePath).toAbsolutePath();
+	final Set<String> names = new HashSet<>();
+	final List<Path> paths = new ArrayList<>(groups.size());
+	for (final var key : groups.keySet()) {
+	    final var safe = key.isEmpty() ? "_empty" : key.replaceAll("[^\\w.-]", "_");
+	    final var base = safe.substring(0, Math.min(safe.length(), 100));
+	    var name = base;
+	    for (var n = 2; !names.add(name.toLowerCase()); n++) {
+		name = base + "_" + n;
+	    }
+	    paths.add(shardPath(target, name));
+	}
+	if (groups.isEmpty()) {
+	    groups.put("", List.of());
+	    paths.add(shardPath(target, "_empty"));
+	}
+	return saveShards(paths, model.getHeaders(), new ArrayList<>(groups.values()), rowCount, callback);
+    }
+
+    private static List<Path> saveRanges(final String filePath, final CSVTableModel model, final List<int[]> ranges,
+	    final FileOperations.SaveProgressCallback callback) throws IOException {
+	final var target = Paths.get(filePath).toAbsolutePath();
+	final var digits = Math.max(5, String.valueOf(ranges.size() - 1).length());
+	final List<Path> paths = new ArrayList<>(ranges.size());
+	final List<List<List<String>>> rows = new ArrayList<>(ranges.size());
+	for (var i = 0; i < ranges.size(); i++) {
+	    final var range = ranges.get(i);
+	    paths.add(shardPath(target, String.format("%0" + digits + "d", Integer.valueOf(i))));
+	    rows.add(IntStream.range(range[0], range[1]).mapToObj(model::getRowView).toList());
+	}
+	return saveShards(paths, model.getHeaders(), rows, model.getRowCount(), callback);
+    }
+
+    /**
+     * Writes the shards one after another, each through the saver of its format.
+     * The savers already encode their blocks on the shared encoder threads, so
+     * writing several shards at once would only contend for them.
+     */
+    private static List<Path> saveShards(final List<Path> paths, final List<String> headers,
+	    final List<List<List<String>>> rows, final int rowCount, final FileOperations.SaveProgressCallback callback)
+	    throws IOException {
+	final var format = ShardFormat.of(paths.getFirst().toString());
+	var written = 0;
+	for (var i = 0; i < paths.size(); i++) {
+	    final var shard = new CSVTableModel();
+	    shard.setHeaders(headers);
+	    shard.appendRows(rows.get(i));
+	    try {
+		format.save(paths.get(i).toString(), shard);
+	    } catch (final IOException e) {
+		throw new IOException("Failed to write " + paths.get(i).getFileName() + ": " + e.getMessage(), e);
+	    }
+	    written += rows.get(i).size();
+	    callback.onProgress(written, rowCount);
+	}
+	return paths;
+    }
+
+    /**
+     * Inserts a suffix into a file name before its extension, keeping a
+     * compression extension such as .csv.gz together
+     */
+    private static Path shardPath(final Path target, final String suffix) {
+	final var fileName = target.getFileName().toString();
+	var dot = fileName.lastIndexOf('.');
+	if (dot > 0 && CompressionCodec.fromFileName(fileName) != CompressionCodec.NONE) {
+	    final var inner = fileName.lastIndexOf('.', dot - 1);
+	    dot = inner > 0 ? inner : dot;
+	}
+	final var name = dot > 0 ? fileName.substring(0, dot) + "-" + suffix + fileName.substring(dot)
+		: fileName + "-" + suffix;
+	return target.resolveSibling(name);
+    }
+
+    private static CSVParserUtil.ParsedCSV parseShard(final Path shard, final CSVDialect dialect)
+	    throws IOException {
+	final var filePath = shard.toString();
+	final var codec = CompressionCodec.detect(shard);
+	final var bytes = codec == CompressionCodec.NONE ? CSVParserUtil.readFileBytes(filePath)
+		: CSVParserUtil.readCompressedFileBytes(filePath, codec);
+	return CSVParserUtil.parseCSVBytes(bytes, dialect);
+    }
+
+    /**
+     * Maps the columns of a shard to the expected headers
+     *
+     * @return the expected position of each of the shard's columns, or null if
+     *         they are already in order or the shard is empty
+     */
+    private static int[] mapColumns(final List<String> expected, final List<String> actual, final Path shard)
+	    throws IOException {
+	if (actual.equals(expected) || actual.isEmpty()) {
+	    return null;
+	}
+	final Map<String, Integer> positions = new HashMap<>();
+	for (var i = 0; i < expected.size(); i++) {
+	    positions.putIfAbsent(expected.get(i), Integer.valueOf(i));
+	}
+	final var mapping = new int[actual.size()];
+	final var taken = new boolean[expected.size()];
+	for (var i = 0; i < mapping.length; i++) {
+	    final var position = positions.get(actual.get(i));
+	    if (actual.size() != expected.size() || position == null || taken[position.intValue()]) {
+		throw new IOException("The columns of %s %s do not match %s".formatted(shard.getFileName(), actual,
+			expected));
+	    }
+	    mapping[i] = position.intValue();
+	    taken[mapping[i]] = true;
+	}
+	return mapping;
+    }
+
+    private static void arrangeRows(final List<List<String>> rows, final int[] mapping, final int width,
+	    final String source) {
+	for (var r = 0; r < rows.size(); r++) {
+	    var row = rows.get(r);
+	    if (mapping != null) {
+		final List<String> arranged = new ArrayList<>(width + 1);
+		for (var j = 0; j < width; j++) {
+		    arranged.add("");
+		}
+		for (var j = 0; j < row.size(); j++) {
+		    arranged.set(j < mapping.length ? mapping[j] : j, row.get(j));
+		}
+		row = arranged;
+		rows.set(r, row);
+	    }
+	    if (source != null) {
+		while (row.size() < width) {
+		    row.add("");
+		}
+		row.add(source);
+	    }
+	}
+    }
+
+    private static int compareNatural(final String a, final String b) {
+	var i = 0;
+	var j = 0;
+	while (i < a.length() && j < b.length()) {
+	    final var ca = a.charAt(i);
+	    final var cb = b.charAt(j);
+	    if (Character.isDigit(ca) && Character.isDigit(cb)) {
+		final var startA = i;
+		final var startB = j;
+		while (i < a.length() && Character.isDigit(a.charAt(i))) {
+		    i++;
+		}
+		while (j < b.length() && Character.isDigit(b.charAt(j))) {
+		    j++;
+		}
+		final var digitsA = a.substring(startA, i).replaceFirst("^0+(?=.)", "");
+		final var digitsB = b.substring(startB, j).replaceFirst("^0+(?=.)", "");
+		final var byValue = digitsA.length() != digitsB.length() ? digitsA.length() - digitsB.length()
+			: digitsA.compareTo(digitsB);
+		if (byValue != 0) {
+		    return byValue;
+		}
+	    } else {
+		if (ca != cb) {
+		    return Character.compare(ca, cb);
+		}
+		i++;
+		j++;
+	    }
+	}
+	return Integer.compare(a.length() - i, b.length() - j);
+    }
+
+    /**
+     * Output format of the shards, chosen by the target's extension, with an
+     * estimate of the bytes a row takes in it
+     */
+    private enum ShardFormat {
+	CSV, JSON, JSON_LINES, XML;
+
+	static ShardFormat of(final String filePath) {
+	    final var name = filePath.toLowerCase();
+	    if (JSONOperations.isJSONLinesFile(name)) {
+		return JSON_LINES;
+	    }
+	    if (name.endsWith(".json")) {
+		return JSON;
+	    }
+	    return name.endsWith(".xml") ? XML : CSV;
+	}
+
+	void save(final String filePath, final CSVTableModel shard) throws IOException {
+	    switch (this) {
+	    case CSV -> FileOperations.saveCSV(filePath, shard);
+	    case JSON -> JSONOperations.saveJSON(filePath, shard);
+	    case JSON_LINES -> JSONOperations.saveJSONLines(filePath, shard, (_, _) -> {
+	    });
+	    case XML -> XMLOperations.saveXML(filePath, shard);
+	    }
+	}
+
+	long estimateHeader(final List<String> headers) {
+	    // The XML and JSON documents wrap the header row in a few more elements
+	    return estimateRow(headers) + (this == CSV || this == JSON_LINES ? 0 : 64);
+	}
+
+	/**
+	 * Estimates the encoded size of a row in UTF-8, counting every value as
+	 * quoted and every character that may need escaping as escaped
+	 */
+	long estimateRow(final List<String> row) {
+	    var size = switch (this) {
+	    case CSV -> CSVStreamWriter.resolveLineEnding(Settings.getLineEnding()).length() - 1L;
+	    case JSON -> 8L;
+	    case JSON_LINES -> 2L;
+	    case XML -> 21L;
+	    };
+	    final var quote = Settings.getQuote();
+	    for (final var value : row) {
+		var length = 0L;
+		var special = 0L;
+		for (var i = 0; i < value.length(); i++) {
+		    final var c = value.charAt(i);
+		    length += c < 0x80 ? 1 : c < 0x800 || Character.isSurrogate(c) ? 2 : 3;
+		    special += switch (this) {
+		    case CSV -> c == quote ? 1 : 0;
+		    case JSON, JSON_LINES -> c == '"' || c == '\\' ? 1 : c < 0x20 ? 5 : 0;
+		    case XML -> c == '&' || c == '<' || c == '>' ? 4 : 0;
+		    };
+		}
+		size += length + special + switch (this) {
+		case CSV -> 3;
+		case JSON -> 4;
+		case JSON_LINES -> 3;
+		case XML -> 20;
+		};
+	    }
+	    return size;
+	}
+    }
+}
@@ -0,0 +1,471 @@
+package io.github.seerainer.csvedit.io;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import io.github.seerainer.csvedit.model.CSVTableModel;
+import io.github.seerainer.csvedit.ui.UIConstants;
+import io.github.seerainer.csvedit.util.Settings;
+
+/**
+ * Binary snapshots of loaded CSV files, so that reopening an unchanged file
+ * skips parsing. Data is stored column by column: each column holds a
+ * dictionary of its distinct values followed by one fixed-width code per row.
+ * A directory at the end of the snapshot gives the offset of every column,
+ * which is memory mapped when the snapshot is read.
+ * <p>
+ * Snapshots are kept in a cache directory in the user's home and are keyed by
+ * the real path, size and modification time of the source file, a hash of
+ * sampled content and the options it was parsed with.
+ */
+public class SnapshotCache {
+
+    private static final long MAGIC = 0x43535653_4E415031L; // "CSVSNAP1"
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+    private static final Path CACHE_DIR = Paths.get(System.getProperty("user.home"), ".csvedit", "snapshots");
+    private static final int COLUMN_HEADER_BYTES = 12;
+    private static final int DIRECTORY_ENTRY_BYTES = 16;
+
+    private static final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+	final var thread = new Thread(r, "Snapshot-Writer");
+	thread.setDaemon(true);
+	return thread;
+    });
+
+    private SnapshotCache() {
+	throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Checks if a file is large enough for a snapshot to pay off
+     */
+    public static boolean isWorthCaching(final Path file) {
+	try {
+	    return Files.size(file) >= UIConstants.SNAPSHOT_MIN_FILE_BYTES;
+	} catch (final IOException e) {
+	    return false;
+	}
+    }
+
+    /**
+     * Checks if a snapshot exists for a file, without validating it
+     */
+    public static boolean hasSnapshot(final Path file) {
+	try {
+	    return Files.isRegularFile(CACHE_DIR.resolve(getSnapshotName(file.toRealPath())));
+	} catch (final IOException e) {
+	    return false;
+	}
+    }
+
+    /**
+     * Loads a file from its snapshot if there is a valid one for the file as it
+     * is now and for the given dialect. The model is unchanged if the load is
+     * cancelled.
+     *
+     * @return true if the model was loaded from the snapshot
+     */
+    public static boolean load(final Path file, final CSVDialect dialect, final CSVTableModel model,
+	    final BooleanSupplier cancelled) {
+	try {
+	    return load(CACHE_DIR, file, dialect, model, cancelled);
+	} catch (final IOException e) {
+	    return false; // The file is parsed instead
+	}
+    }
+
+    /**
+     * Writes a snapshot of a loaded file in the background. The model must not
+     * change afterwards, so pass a copy of the model being edited.
+     */
+    public static CompletableFuture<Void> storeAsync(final CSVFileSource source, final CSVTableModel model) {
+	return CompletableFuture.runAsync(() -> {
+	    try {
+		store(CACHE_DIR, source, model);
+	    } catch (final IOException e) {
+		throw new UncheckedIOException(e);
+	    }
+	}, writer);
+    }
+
+    /**
+     * Loads a file from its snapshot in the given cache directory
+     *
+     * @return true if the model was loaded from the snapshot
+     */
+    public static boolean load(final Path cacheDir, final Path file, final CSVDialect dialect, final CSVTableModel model)
+	    throws IOException {
+	return load(cacheDir, file, dialect, model, () -> false);
+    }
+
+    /**
+     * Loads a file from its snapshot in the given cache directory unless the load
+     * is cancelled
+     *
+     * @return true if the model was loaded from the snapshot
+     */
+    public static boolean load(final Path cacheDir, final Path file, final CSVDialect dialect, final CSVTableModel model,
+	    final BooleanSupplier cancelled) throws IOException {
+	final var path = file.toRealPath();
+	final var snapshot = cacheDir.resolve(getSnapshotName(path));
+	if (!Files.isRegularFile(snapshot)) {
+	    return false;
+	}
+
+	try (var channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+	    final var in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+	    if (in.readLong() != MAGIC || in.readLong() != Files.size(path)
+		    || in.readLong() != Files.getLastModifiedTime(path).toMillis()) {
+		return false;
+	    }
+	    final var hash = in.readLong();
+	    if (!path.toString().equals(in.readUTF()) || !getParseKey(dialect).equals(in.readUTF())
+		    || hash != contentHash(path) || cancelled.getAsBoolean()) {
+		return false;
+	    }
+
+	    final var rowCount = in.readInt();
+	    final var columnCount = in.readInt();
+	    final List<String> headers = new ArrayList<>(columnCount);
+	    for (var i = 0; i < columnCount; i++) {
+		headers.add(in.readUTF());
+	    }
+	    final var columns = mapColumns(channel, columnCount);
+	    if (columns == null) {
+		return false;
+	    }
+
+	    final var rows = decodeRows(columns, rowCount, cancelled);
+	    if (cancelled.getAsBoolean()) {
+		return false;
+	    }
+	    model.clear();
+	    model.setHeaders(headers);
+	    model.setData(rows);
+	} catch (final BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+	    return false; // Truncated or corrupt snapshot
+	}
+
+	// Keep recently used snapshots from being evicted
+	Files.setLastModifiedTime(snapshot, FileTime.fromMillis(System.currentTimeMillis()));
+	return true;
+    }
+
+    /**
+     * Writes a snapshot of a loaded file to the given cache directory, unless the
+     * file changed since it was loaded
+     */
+    public static void store(final Path cacheDir, final CSVFileSource source, final CSVTableModel model)
+	    throws IOException {
+	final var path = source.getPath();
+	final var hash = contentHash(path);
+	if (!source.isUnchanged()) {
+	    return; // The model no longer matches the file
+	}
+
+	Files.createDirectories(cacheDir);
+	final var target = cacheDir.resolve(getSnapshotName(path));
+	final var temp = FileOperations.createTempFile(target);
+	try {
+	    writeSnapshot(temp, source, hash, model);
+	    FileOperations.replaceAtomically(temp, target);
+	} catch (final IOException e) {
+	    Files.deleteIfExists(temp);
+	    throw e;
+	}
+	evictOldSnapshots(cacheDir);
+    }
+
+    /**
+     * Hashes the whole file if it is small, otherwise evenly spaced regions of it
+     */
+    static long contentHash(final Path file) throws IOException {
+	final var crc = new CRC32C();
+	final var sampleBytes = UIConstants.SNAPSHOT_HASH_SAMPLE_BYTES;
+	final var samples = UIConstants.SNAPSHOT_HASH_SAMPLES;
+	final var buffer = ByteBuffer.allocate(sampleBytes);
+	try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+	    final var size = channel.size();
+	    if (size <= (long) sampleBytes * samples) {
+		for (var position = 0L; position < size; position += sampleBytes) {
+		    crc.update(readAt(channel, buffer, position));
+		}
+	    } else {
+		for (var i = 0; i < samples; i++) {
+		    crc.update(readAt(channel, buffer, (size - sampleBytes) * i / (samples - 1)));
+		}
+	    }
+	}
+	return crc.getValue();
+    }
+
+    private static ByteBuffer readAt(final FileChannel channel, final ByteBuffer buffer, final long position)
+	    throws IOException {
+	buffer.clear();
+	while (buffer.hasRemaining()) {
+	    if (channel.read(buffer, position + buffer.position()) < 0) {
+		break;
+	    }
+	}
+	return buffer.flip();
+    }
+
+    private static String getSnapshotName(final Path path) {
+	return UUID.nameUUIDFromBytes(path.toString().getBytes(StandardCharsets.UTF_8)) + SNAPSHOT_SUFFIX;
+    }
+
+    /**
+     * Describes everything that affects the parsed data besides the file itself
+     */
+    private static String getParseKey(final CSVDialect dialect) {
+	return Stream.of(Character.valueOf(dialect.getDelimiter()), Character.valueOf(dialect.getQuote()),
+		Character.valueOf(dialect.getEscape()), Boolean.valueOf(dialect.hasHeader()),
+		Boolean.valueOf(dialect.hasBOM()), dialect.getCharset().name(),
+		Boolean.valueOf(Settings.getTrimWhitespace()), Boolean.valueOf(Settings.getDetectBOM()),
+		Integer.valueOf(Settings.getMaxFieldSize()), Boolean.valueOf(Settings.getPreserveEmptyFields()),
+		Boolean.valueOf(Settings.getSkipEmptyLines()), Boolean.valueOf(Settings.getSkipBlankLines()),
+		Settings.getNullValueRepresentation(), Boolean.valueOf(Settings.getConvertEmptyToNull()),
+		Boolean.valueOf(Settings.getStrictQuoting()), Boolean.valueOf(Settings.getAllowUnescapedQuotes()),
+		Boolean.valueOf(Settings.getNormalizeLineEndings()), Integer.valueOf(Settings.getMaxRecordLength()),
+		Boolean.valueOf(Settings.getFailOnMalformedRecord())).map(String::valueOf)
+		.collect(Collectors.joining("|"));
+    }
+
+    private static void writeSnapshot(final Path temp, final CSVFileSource source, final long hash,
+	    final CSVTableModel model) throws IOException {
+	final var rowCount = model.getRowCount();
+	final var columnCount = model.getColumnCount();
+	final var header = new ByteArrayOutputStream();
+	try (var out = new DataOutputStream(header)) {
+	    out.writeLong(MAGIC);
+	    out.writeLong(source.getSize());
+	    out.writeLong(source.getLastModified());
+	    out.writeLong(hash);
+	    out.writeUTF(source.getPath().toString());
+	    out.writeUTF(getParseKey(source.getDialect()));
+	    out.writeInt(rowCount);
+	    out.writeInt(columnCount);
+	    for (var i = 0; i < columnCount; i++) {
+		out.writeUTF(model.getHeader(i));
+	    }
+	}
+
+	try (var channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+	    writeFully(channel, ByteBuffer.wrap(header.toByteArray()));
+	    final var lengths = new long[columnCount];
+	    ParallelBlockWriter.write(channel, columnCount, column -> {
+		final var bytes = encodeColumn(model, column, rowCount);
+		lengths[column] = bytes.length;
+		return bytes;
+	    });
+
+	    final var directory = ByteBuffer.allocate(columnCount * DIRECTORY_ENTRY_BYTES);
+	    var offset = (long) header.size();
+	    for (final var length : lengths) {
+		directory.putLong(offset).putLong(length);
+		offset += length;
+	    }
+	    writeFully(channel, directory.flip());
+	}
+    }
+
+    /**
+     * Encodes a column as dictionary of distinct values and per-row codes. The
+     * code width is the smallest of 1, 2 or 4 bytes that fits the dictionary.
+     */
+    private static byte[] encodeColumn(final CSVTableModel model, final int column, final int rowCount)
+	    throws IOException {
+	final Map<String, Integer> dictionary = new HashMap<>();
+	final List<String> values = new ArrayList<>();
+	final var codes = new int[rowCount];
+	for (var i = 0; i < rowCount; i++) {
+	    final var row = model.getRowView(i);
+	    final var value = column < row.size() ? row.get(column) : "";
+	    codes[i] = dictionary.computeIfAbsent(value, v -> {
+		values.add(v);
+		return Integer.valueOf(values.size() - 1);
+	    }).intValue();
+	}
+
+	final var encoded = new byte[values.size()][];
+	var nullCode = -1;
+	var dictionaryBytes = 0L;
+	for (var i = 0; i < encoded.length; i++) {
+	    final var value = values.get(i);
+	    if (value == null) {
+		nullCode = i;
+	    }
+	    encoded[i] = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+	    dictionaryBytes += encoded[i].length;
+	}
+	final var width = getCodeWidth(encoded.length);
+	final var size = COLUMN_HEADER_BYTES + 4L * (encoded.length + 1) + dictionaryBytes + (long) width * rowCount;
+	if (size > Integer.MAX_VALUE - 8) {
+	    throw new IOException("Column too large for a snapshot: " + model.getHeader(column));
+	}
+
+	final var buffer = ByteBuffer.allocate((int) size);
+	buffer.putInt(encoded.length).putInt(nullCode).putInt(width);
+	var offset = 0;
+	for (final var bytes : encoded) {
+	    buffer.putInt(offset);
+	    offset += bytes.length;
+	}
+	buffer.putInt(offset);
+	for (final var bytes : encoded) {
+	    buffer.put(bytes);
+	}
+	for (final var code : codes) {
+	    switch (width) {
+	    case 1 -> buffer.put((byte) code);
+	    case 2 -> buffer.putShort((short) code);
+	    default -> buffer.putInt(code);
+	    }
+	}
+	return buffer.array();
+    }
+
+    private static int getCodeWidth(final int dictionarySize) {
+	if (dictionarySize <= 1 << 8) {
+	    return 1;
+	}
+	return dictionarySize <= 1 << 16 ? 2 : 4;
+    }
+
+    /**
+     * Maps every column through the directory at the end of the snapshot
+     *
+     * @return the columns, or null if the directory does not fit the file
+     */
+    private static MappedByteBuffer[] mapColumns(final FileChannel channel, final int columnCount)
+	    throws IOException {
+	final var directorySize = (long) columnCount * DIRECTORY_ENTRY_BYTES;
+	final var size = channel.size();
+	if (directorySize > size) {
+	    return null;
+	}
+	final var directory = channel.map(FileChannel.MapMode.READ_ONLY, size - directorySize, directorySize);
+	final var columns = new MappedByteBuffer[columnCount];
+	for (var i = 0; i < columnCount; i++) {
+	    final var offset = directory.getLong();
+	    final var length = directory.getLong();
+	    if (offset < 0 || length > Integer.MAX_VALUE || offset + length > size - directorySize) {
+		return null;
+	    }
+	    columns[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+	}
+	return columns;
+    }
+
+    /**
+     * Decodes the dictionaries, then builds the rows in parallel blocks. Equal
+     * values in a column share one string. Blocks are skipped once the load is
+     * cancelled.
+     */
+    private static List<List<String>> decodeRows(final MappedByteBuffer[] columns, final int rowCount,
+	    final BooleanSupplier cancelled) {
+	final var columnCount = columns.length;
+	final var dictionaries = new String[columnCount][];
+	final var codeStarts = new int[columnCount];
+	final var widths = new int[columnCount];
+	IntStream.range(0, columnCount).parallel().forEach(column -> {
+	    final var buffer = columns[column];
+	    final var count = buffer.getInt(0);
+	    final var nullCode = buffer.getInt(4);
+	    widths[column] = buffer.getInt(8);
+	    final var dictionaryStart = COLUMN_HEADER_BYTES + 4 * (count + 1);
+	    final var dictionary = new String[count];
+	    final var bytes = new byte[buffer.getInt(COLUMN_HEADER_BYTES + 4 * count)];
+	    buffer.get(dictionaryStart, bytes);
+	    for (var i = 0; i < count; i++) {
+		final var start = buffer.getInt(COLUMN_HEADER_BYTES + 4 * i);
+		final var end = buffer.getInt(COLUMN_HEADER_BYTES + 4 * (i + 1));
+		dictionary[i] = i == nullCode ? null : new String(bytes, start, end - start, StandardCharsets.UTF_8);
+	    }
+	    dictionaries[column] = dictionary;
+	    codeStarts[column] = dictionaryStart + bytes.length;
+	});
+
+	final var rows = new String[rowCount][];
+	IntStream.range(0, ParallelBlockWriter.blockCount(rowCount)).parallel().forEach(block -> {
+	    if (cancelled.getAsBoolean()) {
+		return;
+	    }
+	    for (var i = ParallelBlockWriter.blockStart(block); i < ParallelBlockWriter.blockEnd(block,
+		    rowCount); i++) {
+		final var row = new String[columnCount];
+		for (var column = 0; column < columnCount; column++) {
+		    final var buffer = columns[column];
+		    final var position = codeStarts[column] + i * widths[column];
+		    final var code = switch (widths[column]) {
+		    case 1 -> buffer.get(position) & 0xFF;
+		    case 2 -> buffer.getShort(position) & 0xFFFF;
+		    default -> buffer.getInt(position);
+		    };
+		    row[column] = dictionaries[column][code];
+		}
+		rows[i] = row;
+	    }
+	});
+	if (cancelled.getAsBoolean()) {
+	    return List.of();
+	}
+	return Arrays.stream(rows).map(Arrays::asList).toList();
+    }
+
+    private static void evictOldSnapshots(final Path cacheDir) throws IOException {
+	final List<Path> snapshots;
+	try (var files = Files.list(cacheDir)) {
+	    snapshots = files.filter(file -> file.getFileName().toString().endsWith(SNAPSHOT_SUFFIX))
+		    .sorted(Comparator.comparingLong(SnapshotCache::getLastModified).reversed()).toList();
+	}
+	for (final var snapshot : snapshots.subList(Math.min(UIConstants.SNAPSHOT_CACHE_MAX_FILES, snapshots.size()),
+		snapshots.size())) {
+	    Files.deleteIfExists(snapshot);
+	}
+    }
+
+    private static long getLastModified(final Path file) {
+	try {
+	    return Files.getLastModifiedTime(file).toMillis();
+	} catch (final IOException e) {
+	    return 0;
+	}
+    }
+
+    private static void writeFully(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+	while (buffer.hasRemaining()) {
+	    channel.write(buffer);
+	}
+    }
+}
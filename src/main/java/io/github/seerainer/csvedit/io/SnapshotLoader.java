@@ -0,0 +1,72 @@
+package io.github.seerainer.csvedit.io;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import io.github.seerainer.csvedit.model.CSVTableModel;
+
+/**
+ * Opens a CSV file from its snapshot in the background: detects the dialect,
+ * validates the snapshot against the file and decodes its rows. The model only
+ * changes if the snapshot is valid and the load is not cancelled.
+ */
+public class SnapshotLoader {
+
+    private final String filePath;
+    private final CSVTableModel model;
+    private final ExecutorService executor;
+    private volatile boolean cancelled = false;
+    private volatile CSVDialect dialect;
+
+    public SnapshotLoader(final String filePath, final CSVTableModel model) {
+	this.filePath = filePath;
+	this.model = model;
+	this.executor = Executors.newSingleThreadExecutor(r -> {
+	    final var thread = new Thread(r, "Snapshot-Loader");
+	    thread.setDaemon(true);
+	    return thread;
+	});
+    }
+
+    /**
+     * Cancel the loading operation. The model is left unchanged.
+     */
+    public void cancel() {
+	cancelled = true;
+    }
+
+    /**
+     * Gets the dialect the file was detected with, or null before it is known
+     */
+    public CSVDialect getDialect() {
+	return dialect;
+    }
+
+    /**
+     * Load the snapshot asynchronously in the background
+     *
+     * @return a future that is true if the model was loaded from the snapshot,
+     *         or false if the file has to be parsed
+     */
+    public CompletableFuture<Boolean> loadAsync() {
+	return CompletableFuture.supplyAsync(() -> {
+	    try {
+		final var path = Paths.get(filePath);
+		dialect = CSVDialectSniffer.sniff(path);
+		return Boolean.valueOf(SnapshotCache.load(path, dialect, model, () -> cancelled));
+	    } catch (final IOException e) {
+		return Boolean.FALSE; // The file is parsed instead, reporting the error if it persists
+	    }
+	}, executor);
+    }
+
+    /**
+     * Shutdown the executor
+     */
+    public void shutdown() {
+	executor.shutdown();
+    }
+}
@@ -0,0 +1,115 @@
+package io.github.seerainer.csvedit.io;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Encodes a struct with the Thrift compact protocol, e.g. the metadata of
+ * Parquet files. Fields are written in the order they are added; nested
+ * structs, including list elements, are closed with {@link #endStruct()}.
+ */
+final class ThriftCompactWriter {
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final Deque<Integer> lastIds = new ArrayDeque<>();
+    private int lastId;
+
+    void fieldBool(final int id, final boolean value) {
+	fieldHeader(id, value ? ThriftStruct.TYPE_BOOLEAN_TRUE : ThriftStruct.TYPE_BOOLEAN_FALSE);
+    }
+
+    void fieldI32(final int id, final int value) {
+	fieldHeader(id, ThriftStruct.TYPE_I32);
+	writeVarLong(zigzag(value));
+    }
+
+    void fieldI64(final int id, final long value) {
+	fieldHeader(id, ThriftStruct.TYPE_I64);
+	writeVarLong(zigzag(value));
+    }
+
+    void fieldString(final int id, final String value) {
+	fieldHeader(id, ThriftStruct.TYPE_BINARY);
+	writeString(value);
+    }
+
+    void beginStruct(final int id) {
+	fieldHeader(id, ThriftStruct.TYPE_STRUCT);
+	beginElement();
+    }
+
+    /**
+     * Starts a struct that is an element of a list
+     */
+    void beginElement() {
+	lastIds.push(Integer.valueOf(lastId));
+	lastId = 0;
+    }
+
+    void endStruct() {
+	out.write(0);
+	lastId = lastIds.pop().intValue();
+    }
+
+    /**
+     * Starts a list field; its elements are then written with the element
+     * methods or as structs
+     */
+    void beginList(final int id, final int elementType, final int size) {
+	fieldHeader(id, ThriftStruct.TYPE_LIST);
+	if (size < 15) {
+	    out.write(size << 4 | elementType);
+	} else {
+	    out.write(0xF0 | elementType);
+	    writeVarLong(size);
+	}
+    }
+
+    void elementI32(final int value) {
+	writeVarLong(zigzag(value));
+    }
+
+    void elementString(final String value) {
+	writeString(value);
+    }
+
+    /**
+     * Ends the outermost struct and returns the encoded bytes
+     */
+    byte[] finish() {
+	out.write(0);
+	return out.toByteArray();
+    }
+
+    private void fieldHeader(final int id, final int type) {
+	final var delta = id - lastId;
+	if (delta > 0 && delta <= 15) {
+	    out.write(delta << 4 | type);
+	} else {
+	    out.write(type);
+	    writeVarLong(zigzag(id));
+	}
+	lastId = id;
+    }
+
+    private void writeString(final String value) {
+	final var bytes = value.getBytes(StandardCharsets.UTF_8);
+	writeVarLong(bytes.length);
+	out.writeBytes(bytes);
+    }
+
+    private void writeVarLong(final long value) {
+	var remaining = value;
+	while ((remaining & ~0x7FL) != 0) {
+	    out.write((int) (remaining & 0x7F | 0x80));
+	    remaining >>>= 7;
+	}
+	out.write((int) remaining);
+    }
+
+    private static long zigzag(final long value) {
+	return value << 1 ^ value >> 63;
+    }
+}
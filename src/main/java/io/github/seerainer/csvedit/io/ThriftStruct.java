@@ -0,0 +1,219 @@
+package io.github.seerainer.csvedit.io;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Struct decoded from the Thrift compact protocol, e.g. the metadata of
+ * Parquet files. Fields are addressed by their id; unknown fields are decoded
+ * generically and simply never asked for.
+ */
+final class ThriftStruct {
+
+    static final int TYPE_BOOLEAN_TRUE = 1;
+    static final int TYPE_BOOLEAN_FALSE = 2;
+    static final int TYPE_BYTE = 3;
+    static final int TYPE_I16 = 4;
+    static final int TYPE_I32 = 5;
+    static final int TYPE_I64 = 6;
+    static final int TYPE_DOUBLE = 7;
+    static final int TYPE_BINARY = 8;
+    static final int TYPE_LIST = 9;
+    static final int TYPE_SET = 10;
+    static final int TYPE_MAP = 11;
+    static final int TYPE_STRUCT = 12;
+
+    private static final int MAX_DEPTH = 64;
+
+    private final Map<Integer, Object> fields = new HashMap<>();
+
+    private ThriftStruct() {
+    }
+
+    /**
+     * Decodes a struct starting at an offset of the given bytes
+     */
+    static ThriftStruct read(final byte[] bytes, final int offset) throws IOException {
+	return new Reader(bytes, offset, bytes.length).readStruct(0);
+    }
+
+    boolean has(final int id) {
+	return fields.containsKey(Integer.valueOf(id));
+    }
+
+    int getInt(final int id, final int defaultValue) {
+	return fields.get(Integer.valueOf(id)) instanceof final Long value ? value.intValue() : defaultValue;
+    }
+
+    long getLong(final int id, final long defaultValue) {
+	return fields.get(Integer.valueOf(id)) instanceof final Long value ? value.longValue() : defaultValue;
+    }
+
+    boolean getBool(final int id, final boolean defaultValue) {
+	return fields.get(Integer.valueOf(id)) instanceof final Boolean value ? value.booleanValue() : defaultValue;
+    }
+
+    String getString(final int id) {
+	return fields.get(Integer.valueOf(id)) instanceof final byte[] value
+		? new String(value, StandardCharsets.UTF_8)
+		: null;
+    }
+
+    ThriftStruct getStruct(final int id) {
+	return fields.get(Integer.valueOf(id)) instanceof final ThriftStruct value ? value : null;
+    }
+
+    /**
+     * Gets a list of structs, empty if the field is absent
+     */
+    List<ThriftStruct> getStructList(final int id) {
+	final List<ThriftStruct> structs = new ArrayList<>();
+	if (fields.get(Integer.valueOf(id)) instanceof final List<?> list) {
+	    list.forEach(element -> {
+		if (element instanceof final ThriftStruct struct) {
+		    structs.add(struct);
+		}
+	    });
+	}
+	return structs;
+    }
+
+    /**
+     * Reads values of the compact protocol from a byte range
+     */
+    static final class Reader {
+	private final byte[] bytes;
+	private final int end;
+	private int position;
+
+	Reader(final byte[] bytes, final int offset, final int end) {
+	    this.bytes = bytes;
+	    this.position = offset;
+	    this.end = end;
+	}
+
+	/**
+	 * Gets the position after the last value read
+	 */
+	int position() {
+	    return position;
+	}
+
+	ThriftStruct readStruct(final int depth) throws IOException {
+	    if (depth > MAX_DEPTH) {
+		throw new IOException("Thrift structure nested too deeply");
+	    }
+	    final var struct = new ThriftStruct();
+	    var lastId = 0;
+	    while (true) {
+		final var header = readByte() & 0xFF;
+		if (header == 0) {
+		    return struct;
+		}
+		final var type = header & 0x0F;
+		final var delta = header >>> 4;
+		final var id = delta != 0 ? lastId + delta : (short) zigzag(readVarLong());
+		lastId = id;
+		final var value = switch (type) {
+		case TYPE_BOOLEAN_TRUE -> Boolean.TRUE;
+		case TYPE_BOOLEAN_FALSE -> Boolean.FALSE;
+		default -> readValue(type, depth);
+		};
+		struct.fields.put(Integer.valueOf(id), value);
+	    }
+	}
+
+	private Object readValue(final int type, final int depth) throws IOException {
+	    return switch (type) {
+	    // Booleans inside lists and maps take one byte
+	    case TYPE_BOOLEAN_TRUE, TYPE_BOOLEAN_FALSE -> Boolean.valueOf(readByte() == 1);
+	    case TYPE_BYTE -> Long.valueOf(readByte());
+	    case TYPE_I16, TYPE_I32, TYPE_I64 -> Long.valueOf(zigzag(readVarLong()));
+	    case TYPE_DOUBLE -> Double.valueOf(Double.longBitsToDouble(readFixedLong()));
+	    case TYPE_BINARY -> readBinary();
+	    case TYPE_LIST, TYPE_SET -> readList(depth);
+	    case TYPE_MAP -> readMap(depth);
+	    case TYPE_STRUCT -> readStruct(depth + 1);
+	    default -> throw new IOException("Invalid Thrift type: " + type);
+	    };
+	}
+
+	private List<Object> readList(final int depth) throws IOException {
+	    final var header = readByte() & 0xFF;
+	    var size = header >>> 4;
+	    if (size == 15) {
+		size = readLength();
+	    }
+	    final var elementType = header & 0x0F;
+	    final List<Object> list = new ArrayList<>(Math.min(size, end - position));
+	    for (var i = 0; i < size; i++) {
+		list.add(readValue(elementType, depth + 1));
+	    }
+	    return list;
+	}
+
+	private List<Object> readMap(final int depth) throws IOException {
+	    final var size = readLength();
+	    final List<Object> entries = new ArrayList<>();
+	    if (size > 0) {
+		final var types = readByte() & 0xFF;
+		for (var i = 0; i < size; i++) {
+		    entries.add(readValue(types >>> 4, depth + 1));
+		    entries.add(readValue(types & 0x0F, depth + 1));
+		}
+	    }
+	    return entries;
+	}
+
+	private byte[] readBinary() throws IOException {
+	    final var length = readLength();
+	    final var value = new byte[length];
+	    System.arraycopy(bytes, position, value, 0, length);
+	    position += length;
+	    return value;
+	}
+
+	private int readLength() throws IOException {
+	    final var length = readVarLong();
+	    if (length < 0 || length > end - position) {
+		throw new IOException("Invalid Thrift length: " + length);
+	    }
+	    return (int) length;
+	}
+
+	private long readFixedLong() throws IOException {
+	    var value = 0L;
+	    for (var i = 0; i < 8; i++) {
+		value |= (readByte() & 0xFFL) << 8 * i;
+	    }
+	    return value;
+	}
+
+	private long readVarLong() throws IOException {
+	    var value = 0L;
+	    for (var shift = 0; shift < 64; shift += 7) {
+		final var b = readByte();
+		value |= (long) (b & 0x7F) << shift;
+		if ((b & 0x80) == 0) {
+		    return value;
+		}
+	    }
+	    throw new IOException("Invalid Thrift varint");
+	}
+
+	private byte readByte() throws IOException {
+	    if (position >= end) {
+		throw new IOException("Unexpected end of Thrift data");
+	    }
+	    return bytes[position++];
+	}
+
+	private static long zigzag(final long value) {
+	    return value >>> 1 ^ -(value & 1);
+	}
+    }
+}
@@ -0,0 +1,98 @@
+package io.github.seerainer.csvedit.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Re-encodes a stream from a source charset to UTF-8 on the fly, so files in
+ * charsets that are not ASCII compatible (UTF-16) can be fed to the byte-level
+ * parser. A leading byte order mark is dropped.
+ */
+class TranscodingInputStream extends InputStream {
+
+    private static final char BOM = '\uFEFF';
+
+    private final Reader reader;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+	    .onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final CharBuffer chars = CharBuffer.allocate(16 * 1024);
+    private final ByteBuffer bytes = ByteBuffer.allocate(48 * 1024).flip();
+    private boolean first = true;
+    private boolean finished;
+
+    TranscodingInputStream(final InputStream in, final Charset charset) {
+	this.reader = new InputStreamReader(in, charset);
+    }
+
+    /**
+     * Transcodes a complete UTF-16 byte array to UTF-8. An odd trailing byte is
+     * not a complete code unit (e.g. a newline appended to the raw bytes or a cut
+     * off preview) and is dropped.
+     */
+    static byte[] transcode(final byte[] source, final Charset charset) {
+	var text = new String(source, 0, source.length & ~1, charset);
+	if (!text.isEmpty() && text.charAt(0) == BOM) {
+	    text = text.substring(1);
+	}
+	return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int read() throws IOException {
+	final var single = new byte[1];
+	return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+	if (len == 0) {
+	    return 0;
+	}
+	while (!bytes.hasRemaining()) {
+	    if (!fill()) {
+		return -1;
+	    }
+	}
+	final var n = Math.min(len, bytes.remaining());
+	bytes.get(b, off, n);
+	return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+	reader.close();
+    }
+
+    private boolean fill() throws IOException {
+	if (finished) {
+	    return false;
+	}
+	bytes.clear();
+	final var n = reader.read(chars);
+	chars.flip();
+	if (first && chars.hasRemaining()) {
+	    first = false;
+	    if (chars.get(chars.position()) == BOM) {
+		chars.get();
+	    }
+	}
+	if (n < 0) {
+	    encoder.encode(chars, bytes, true);
+	    encoder.flush(bytes);
+	    finished = true;
+	} else {
+	    encoder.encode(chars, bytes, false);
+	}
+	chars.compact();
+	bytes.flip();
+	return true;
+    }
+}
@@ -0,0 +1,790 @@
+package io.github.seerainer.csvedit.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+import io.github.seerainer.csvedit.model.CSVTableModel;
+import io.github.seerainer.csvedit.ui.UIConstants;
+
+/**
+ * Utility class for reading and writing Excel workbooks (.xlsx). The
+ * SpreadsheetML parts are streamed through java.util.zip and StAX, so no
+ * spreadsheet library is needed and memory is bounded by the shared strings
+ * rather than by the sheet. Only the first worksheet is imported.
+ */
+public class XLSXOperations {
+
+    private static final String NS_MAIN = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+    private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+    private static final String CONTENT_TYPES = XML_DECLARATION
+	    + "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+	    + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+	    + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+	    + "<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/"
+	    + "vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>"
+	    + "<Override PartName=\"/xl/worksheets/sheet1.xml\" ContentType=\"application/"
+	    + "vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>"
+	    + "<Override PartName=\"/xl/styles.xml\" ContentType=\"application/"
+	    + "vnd.openxmlformats-officedocument.spreadsheetml.styles+xml\"/>"
+	    + "<Override PartName=\"/xl/sharedStrings.xml\" ContentType=\"application/"
+	    + "vnd.openxmlformats-officedocument.spreadsheetml.sharedStrings+xml\"/></Types>";
+    private static final String ROOT_RELATIONSHIPS = XML_DECLARATION
+	    + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+	    + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/"
+	    + "relationships/officeDocument\" Target=\"xl/workbook.xml\"/></Relationships>";
+    private static final String WORKBOOK = XML_DECLARATION + "<workbook xmlns=\"" + NS_MAIN + "\" "
+	    + "xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\">"
+	    + "<sheets><sheet name=\"Sheet1\" sheetId=\"1\" r:id=\"rId1\"/></sheets></workbook>";
+    private static final String WORKBOOK_RELATIONSHIPS = XML_DECLARATION
+	    + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+	    + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/"
+	    + "relationships/worksheet\" Target=\"worksheets/sheet1.xml\"/>"
+	    + "<Relationship Id=\"rId2\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/"
+	    + "relationships/styles\" Target=\"styles.xml\"/>"
+	    + "<Relationship Id=\"rId3\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/"
+	    + "relationships/sharedStrings\" Target=\"sharedStrings.xml\"/></Relationships>";
+    private static final String STYLES = XML_DECLARATION + "<styleSheet xmlns=\"" + NS_MAIN + "\">"
+	    + "<fonts count=\"1\"><font><sz val=\"11\"/><name val=\"Calibri\"/></font></fonts>"
+	    + "<fills count=\"2\"><fill><patternFill patternType=\"none\"/></fill>"
+	    + "<fill><patternFill patternType=\"gray125\"/></fill></fills>"
+	    + "<borders count=\"1\"><border><left/><right/><top/><bottom/><diagonal/></border></borders>"
+	    + "<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\"/></cellStyleXfs>"
+	    + "<cellXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/></cellXfs>"
+	    + "<cellStyles count=\"1\"><cellStyle name=\"Normal\" xfId=\"0\" builtinId=\"0\"/></cellStyles>"
+	    + "</styleSheet>";
+    private static final String DEFAULT_SHEET_PATH = "xl/worksheets/sheet1.xml";
+    private static final int MAX_ROWS = 1_048_576;
+    private static final int MAX_COLUMNS = 16_384;
+    private static final int MAX_EXACT_DIGITS = 15;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final LocalDateTime EPOCH_1900 = LocalDateTime.of(1899, 12, 30, 0, 0);
+    private static final LocalDateTime EPOCH_1904 = LocalDateTime.of(1904, 1, 1, 0, 0);
+    // Quoted text, escaped characters and bracketed colors or conditions are
+    // not part of a number format's date tokens
+    private static final Pattern FORMAT_LITERALS = Pattern.compile("\"[^\"]*\"|\\\\.|\\[[^\\]]*\\]");
+    private static final Pattern DATE_TOKENS = Pattern.compile("[dmyhs]", Pattern.CASE_INSENSITIVE);
+
+    private XLSXOperations() {
+	throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Checks if a file name has the Excel workbook extension
+     */
+    public static boolean isXLSXFile(final String fileName) {
+	return fileName.toLowerCase().endsWith(".xlsx");
+    }
+
+    /**
+     * Loads the first worksheet of an Excel workbook into the model
+     */
+    public static void loadXLSX(final String filePath, final CSVTableModel model) throws IOException {
+	loadXLSX(filePath, model, (_, _, _) -> {
+	}, () -> false);
+    }
+
+    /**
+     * Streams the first worksheet of an Excel workbook into the model with StAX,
+     * appending rows in batches. The first row becomes the headers; numbers with
+     * a date format are converted to ISO dates and times. Stops early when
+     * cancelled, keeping the rows read so far.
+     *
+     * @param progress  notified with the rows loaded and the uncompressed bytes
+     *                  of the worksheet read after each batch
+     * @param cancelled checked before each event
+     * @return the number of rows loaded
+     */
+    public static int loadXLSX(final String filePath, final CSVTableModel model,
+	    final XMLOperations.ImportProgress progress, final BooleanSupplier cancelled) throws IOException {
+	model.clear();
+	final int rowCount;
+	try (var zip = new ZipFile(filePath)) {
+	    final var factory = createInputFactory();
+	    final var workbook = readWorkbook(zip, factory);
+	    final var sharedStrings = readSharedStrings(zip, factory);
+	    final var dateStyles = readDateStyles(zip, factory);
+	    final var sheet = zip.getEntry(workbook.sheetPath);
+	    if (sheet == null) {
+		throw new IOException("Failed to read Excel file: missing worksheet " + workbook.sheetPath);
+	    }
+	    final var totalBytes = sheet.getSize();
+	    try (var in = new CountingInputStream(new BufferedInputStream(zip.getInputStream(sheet)))) {
+		final var reader = factory.createXMLStreamReader(in);
+		try {
+		    final var sheetReader = new SheetReader(sharedStrings, dateStyles,
+			    workbook.date1904 ? EPOCH_1904 : EPOCH_1900);
+		    rowCount = sheetReader.read(reader, model,
+			    rowsLoaded -> progress.onProgress(rowsLoaded, in.count, totalBytes), cancelled);
+		} finally {
+		    reader.close();
+		}
+	    }
+	} catch (final XMLStreamException e) {
+	    throw new IOException("Failed to parse Excel file: " + e.getMessage(), e);
+	}
+	model.normalize();
+	return rowCount;
+    }
+
+    /**
+     * Saves the model as an Excel workbook with a single worksheet, reporting the
+     * rows written. Rows are streamed into the zip as they are encoded; strings
+     * go to a shared strings table built along the way, which is written after
+     * the sheet. Columns whose values are all numbers or booleans are written as
+     * typed cells.
+     */
+    public static void saveXLSX(final String filePath, final CSVTableModel model,
+	    final FileOperations.SaveProgressCallback callback) throws IOException {
+	final var rowCount = model.getRowCount();
+	final var columnCount = model.getColumnCount();
+	if (rowCount >= MAX_ROWS || columnCount > MAX_COLUMNS) {
+	    throw new IOException("Failed to write Excel file: a sheet holds at most " + (MAX_ROWS - 1)
+		    + " rows and " + MAX_COLUMNS + " columns");
+	}
+	final var types = IntStream.range(0, columnCount).parallel().mapToObj(j -> ColumnType.infer(model, j))
+		.toList();
+
+	final var target = Paths.get(filePath).toAbsolutePath();
+	final var temp = FileOperations.createTempFile(target);
+	try {
+	    try (var zip = new ZipOutputStream(
+		    new BufferedOutputStream(Files.newOutputStream(temp), UIConstants.CSV_WRITE_BUFFER_BYTES))) {
+		// Deflate dominates the export time, and the sheet XML compresses well anyway
+		zip.setLevel(Deflater.BEST_SPEED);
+		writeEntry(zip, "[Content_Types].xml", CONTENT_TYPES);
+		writeEntry(zip, "_rels/.rels", ROOT_RELATIONSHIPS);
+		writeEntry(zip, "xl/workbook.xml", WORKBOOK);
+		writeEntry(zip, "xl/_rels/workbook.xml.rels", WORKBOOK_RELATIONSHIPS);
+		writeEntry(zip, "xl/styles.xml", STYLES);
+		// StAX writes small pieces, each of which would otherwise go through the deflater
+		final var out = new BufferedOutputStream(zip, UIConstants.CSV_WRITE_BUFFER_BYTES);
+		final var sharedStrings = new SharedStrings();
+		zip.putNextEntry(new ZipEntry(DEFAULT_SHEET_PATH));
+		writeSheet(out, model, types, sharedStrings, callback);
+		out.flush();
+		zip.closeEntry();
+		zip.putNextEntry(new ZipEntry("xl/sharedStrings.xml"));
+		writeSharedStrings(out, sharedStrings);
+		out.flush();
+		zip.closeEntry();
+	    }
+	    FileOperations.replaceAtomically(temp, target);
+	} catch (final IOException | XMLStreamException e) {
+	    Files.deleteIfExists(temp);
+	    throw new IOException("Failed to write Excel file: " + e.getMessage(), e);
+	}
+    }
+
+    private static void writeEntry(final ZipOutputStream zip, final String name, final String content)
+	    throws IOException {
+	zip.putNextEntry(new ZipEntry(name));
+	zip.write(content.getBytes(StandardCharsets.UTF_8));
+	zip.closeEntry();
+    }
+
+    private static void writeSheet(final OutputStream out, final CSVTableModel model, final List<ColumnType> types,
+	    final SharedStrings sharedStrings, final FileOperations.SaveProgressCallback callback)
+	    throws XMLStreamException {
+	final var rowCount = model.getRowCount();
+	final var columnNames = IntStream.range(0, types.size()).mapToObj(XLSXOperations::columnName)
+		.toArray(String[]::new);
+	final var writer = XMLOutputFactory.newInstance().createXMLStreamWriter(out, "UTF-8");
+	writer.writeStartDocument("UTF-8", "1.0");
+	writer.writeStartElement("worksheet");
+	writer.writeDefaultNamespace(NS_MAIN);
+	writer.writeStartElement("sheetData");
+	writeRow(writer, 1, columnNames, model.getHeaders(), Collections.nCopies(types.size(), ColumnType.TEXT),
+		sharedStrings);
+	for (var i = 0; i < rowCount; i++) {
+	    writeRow(writer, i + 2, columnNames, model.getRowView(i), types, sharedStrings);
+	    if ((i + 1) % UIConstants.SAVE_BLOCK_ROWS == 0 || i + 1 == rowCount) {
+		callback.onProgress(i + 1, rowCount);
+	    }
+	}
+	writer.writeEndElement(); // </sheetData>
+	writer.writeEndElement(); // </worksheet>
+	writer.writeEndDocument();
+	writer.flush();
+	writer.close();
+    }
+
+    /**
+     * Writes the non-empty cells of a row; text goes to the shared strings, or
+     * inline once the table is full
+     */
+    private static void writeRow(final XMLStreamWriter writer, final int rowNumber, final String[] columnNames,
+	    final List<String> values, final List<ColumnType> types, final SharedStrings sharedStrings)
+	    throws XMLStreamException {
+	writer.writeStartElement("row");
+	writer.writeAttribute("r", Integer.toString(rowNumber));
+	final var count = Math.min(values.size(), columnNames.length);
+	for (var j = 0; j < count; j++) {
+	    final var value = values.get(j);
+	    if (value == null || value.isEmpty()) {
+		continue;
+	    }
+	    writer.writeStartElement("c");
+	    writer.writeAttribute("r", columnNames[j] + rowNumber);
+	    final var type = types.get(j);
+	    if (type == ColumnType.BOOLEAN) {
+		writer.writeAttribute("t", "b");
+		writeValue(writer, "true".equals(value) ? "1" : "0");
+	    } else if (isExactNumber(type, value)) {
+		writeValue(writer, value);
+	    } else {
+		final var index = sharedStrings.indexOf(value);
+		if (index >= 0) {
+		    writer.writeAttribute("t", "s");
+		    writeValue(writer, Integer.toString(index));
+		} else {
+		    writer.writeAttribute("t", "inlineStr");
+		    writer.writeStartElement("is");
+		    writeText(writer, value);
+		    writer.writeEndElement();
+		}
+	    }
+	    writer.writeEndElement();
+	}
+	writer.writeEndElement();
+    }
+
+    /**
+     * Checks if a value of a numeric column survives as an Excel number, which
+     * holds 15 significant digits and no infinities
+     */
+    private static boolean isExactNumber(final ColumnType type, final String value) {
+	return switch (type) {
+	case INTEGER -> value.length() <= MAX_EXACT_DIGITS;
+	case DOUBLE -> Double.isFinite(Double.parseDouble(value));
+	default -> false;
+	};
+    }
+
+    private static void writeValue(final XMLStreamWriter writer, final String value) throws XMLStreamException {
+	writer.writeStartElement("v");
+	writer.writeCharacters(value);
+	writer.writeEndElement();
+    }
+
+    private static void writeText(final XMLStreamWriter writer, final String value) throws XMLStreamException {
+	writer.writeStartElement("t");
+	if (Character.isWhitespace(value.charAt(0)) || Character.isWhitespace(value.charAt(value.length() - 1))) {
+	    writer.writeAttribute("xml", XMLConstants.XML_NS_URI, "space", "preserve");
+	}
+	writer.writeCharacters(stripInvalidCharacters(value));
+	writer.writeEndElement();
+    }
+
+    private static void writeSharedStrings(final OutputStream out, final SharedStrings sharedStrings)
+	    throws XMLStreamException {
+	final var writer = XMLOutputFactory.newInstance().createXMLStreamWriter(out, "UTF-8");
+	writer.writeStartDocument("UTF-8", "1.0");
+	writer.writeStartElement("sst");
+	writer.writeDefaultNamespace(NS_MAIN);
+	writer.writeAttribute("count", Integer.toString(sharedStrings.references));
+	writer.writeAttribute("uniqueCount", Integer.toString(sharedStrings.values.size()));
+	for (final var value : sharedStrings.values) {
+	    writer.writeStartElement("si");
+	    writeText(writer, value);
+	    writer.writeEndElement();
+	}
+	writer.writeEndElement();
+	writer.writeEndDocument();
+	writer.flush();
+	writer.close();
+    }
+
+    /**
+     * Removes characters that XML 1.0 does not allow, e.g. control characters
+     */
+    private static String stripInvalidCharacters(final String value) {
+	for (var i = 0; i < value.length(); i++) {
+	    if (!isValidXmlCharacter(value.charAt(i))) {
+		final var text = new StringBuilder(value.length());
+		value.chars().filter(c -> isValidXmlCharacter((char) c)).forEach(c -> text.append((char) c));
+		return text.toString();
+	    }
+	}
+	return value;
+    }
+
+    private static boolean isValidXmlCharacter(final char c) {
+	return c >= 0x20 ? c < 0xFFFE : c == '\t' || c == '\n' || c == '\r';
+    }
+
+    /**
+     * Gets the letters of a column, e.g. A for 0 and AA for 26
+     */
+    static String columnName(final int col) {
+	final var name = new StringBuilder();
+	for (var n = col + 1; n > 0; n = (n - 1) / 26) {
+	    name.insert(0, (char) ('A' + (n - 1) % 26));
+	}
+	return name.toString();
+    }
+
+    private static XMLInputFactory createInputFactory() {
+	final var factory = XMLInputFactory.newInstance();
+	// Security: disable external entities to prevent XXE attacks
+	factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+	factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+	return factory;
+    }
+
+    /**
+     * Opens a part of the workbook, or returns null if it does not exist
+     */
+    private static XMLStreamReader openPart(final ZipFile zip, final XMLInputFactory factory, final String name)
+	    throws IOException, XMLStreamException {
+	final var entry = zip.getEntry(name);
+	return entry != null ? factory.createXMLStreamReader(new BufferedInputStream(zip.getInputStream(entry)))
+		: null;
+    }
+
+    /**
+     * Finds the first worksheet through the workbook relationships and the date
+     * system of the workbook
+     */
+    private static Workbook readWorkbook(final ZipFile zip, final XMLInputFactory factory)
+	    throws IOException, XMLStreamException {
+	final var workbook = new Workbook();
+	String relationshipId = null;
+	final var reader = openPart(zip, factory, "xl/workbook.xml");
+	if (reader == null) {
+	    return workbook;
+	}
+	try {
+	    while (reader.hasNext() && relationshipId == null) {
+		if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+		    continue;
+		}
+		if ("workbookPr".equals(reader.getLocalName())) {
+		    final var date1904 = reader.getAttributeValue(null, "date1904");
+		    workbook.date1904 = "1".equals(date1904) || "true".equals(date1904);
+		} else if ("sheet".equals(reader.getLocalName())) {
+		    relationshipId = getAttribute(reader, "id");
+		}
+	    }
+	} finally {
+	    reader.close();
+	}
+
+	final var relationships = relationshipId != null ? openPart(zip, factory, "xl/_rels/workbook.xml.rels") : null;
+	if (relationships == null) {
+	    return workbook;
+	}
+	try {
+	    while (relationships.hasNext()) {
+		if (relationships.next() == XMLStreamConstants.START_ELEMENT
+			&& relationshipId.equals(relationships.getAttributeValue(null, "Id"))) {
+		    final var target = relationships.getAttributeValue(null, "Target");
+		    if (target != null) {
+			workbook.sheetPath = target.startsWith("/") ? target.substring(1) : "xl/" + target;
+		    }
+		    break;
+		}
+	    }
+	} finally {
+	    relationships.close();
+	}
+	return workbook;
+    }
+
+    /**
+     * Gets an attribute by its local name in any namespace
+     */
+    private static String getAttribute(final XMLStreamReader reader, final String localName) {
+	for (var i = 0; i < reader.getAttributeCount(); i++) {
+	    if (localName.equals(reader.getAttributeLocalName(i))) {
+		return reader.getAttributeValue(i);
+	    }
+	}
+	return null;
+    }
+
+    /**
+     * Reads the shared strings table; rich text runs are joined and phonetic
+     * hints skipped
+     */
+    private static List<String> readSharedStrings(final ZipFile zip, final XMLInputFactory factory)
+	    throws IOException, XMLStreamException {
+	final List<String> strings = new ArrayList<>();
+	final var reader = openPart(zip, factory, "xl/sharedStrings.xml");
+	if (reader == null) {
+	    return strings;
+	}
+	try {
+	    final var text = new StringBuilder();
+	    var inText = false;
+	    var inPhonetic = false;
+	    while (reader.hasNext()) {
+		switch (reader.next()) {
+		case XMLStreamConstants.START_ELEMENT -> {
+		    switch (reader.getLocalName()) {
+		    case "si" -> text.setLength(0);
+		    case "t" -> inText = !inPhonetic;
+		    case "rPh" -> inPhonetic = true;
+		    default -> { /* Formatting of rich text runs */
+		    }
+		    }
+		}
+		case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE -> {
+		    if (inText) {
+			text.append(reader.getText());
+		    }
+		}
+		case XMLStreamConstants.END_ELEMENT -> {
+		    switch (reader.getLocalName()) {
+		    case "si" -> strings.add(text.toString());
+		    case "t" -> inText = false;
+		    case "rPh" -> inPhonetic = false;
+		    default -> { /* Formatting of rich text runs */
+		    }
+		    }
+		}
+		default -> { /* Ignore other events */
+		}
+		}
+	    }
+	} finally {
+	    reader.close();
+	}
+	return strings;
+    }
+
+    /**
+     * Finds the cell styles that format numbers as dates or times
+     */
+    private static boolean[] readDateStyles(final ZipFile zip, final XMLInputFactory factory)
+	    throws IOException, XMLStreamException {
+	final Map<String, String> formats = new HashMap<>();
+	final List<String> styleFormats = new ArrayList<>();
+	final var reader = openPart(zip, factory, "xl/styles.xml");
+	if (reader == null) {
+	    return new boolean[0];
+	}
+	try {
+	    var inCellFormats = false;
+	    while (reader.hasNext()) {
+		final var event = reader.next();
+		if (event == XMLStreamConstants.START_ELEMENT) {
+		    switch (reader.getLocalName()) {
+		    case "numFmt" -> formats.put(reader.getAttributeValue(null, "numFmtId"),
+			    reader.getAttributeValue(null, "formatCode"));
+		    case "cellXfs" -> inCellFormats = true;
+		    case "xf" -> {
+			if (inCellFormats) {
+			    styleFormats.add(reader.getAttributeValue(null, "numFmtId"));
+			}
+		    }
+		    default -> { /* Fonts, fills and borders */
+		    }
+		    }
+		} else if (event == XMLStreamConstants.END_ELEMENT && "cellXfs".equals(reader.getLocalName())) {
+		    inCellFormats = false;
+		}
+	    }
+	} finally {
+	    reader.close();
+	}
+	final var dateStyles = new boolean[styleFormats.size()];
+	for (var i = 0; i < dateStyles.length; i++) {
+	    dateStyles[i] = isDateFormat(styleFormats.get(i), formats);
+	}
+	return dateStyles;
+    }
+
+    private static boolean isDateFormat(final String formatId, final Map<String, String> formats) {
+	if (formatId == null) {
+	    return false;
+	}
+	final var code = formats.get(formatId);
+	if (code != null) {
+	    return DATE_TOKENS.matcher(FORMAT_LITERALS.matcher(code).replaceAll("")).find();
+	}
+	try {
+	    // Built-in date and time formats
+	    final var id = Integer.parseInt(formatId);
+	    return id >= 14 && id <= 22 || id >= 45 && id <= 47;
+	} catch (final NumberFormatException e) {
+	    return false;
+	}
+    }
+
+    /**
+     * Reads the rows of a worksheet into the model
+     */
+    private static final class SheetReader {
+	private final List<String> sharedStrings;
+	private final boolean[] dateStyles;
+	private final LocalDateTime epoch;
+	private final StringBuilder text = new StringBuilder();
+	private List<String> row;
+	private int column;
+	private String cellType;
+	private int cellStyle;
+	private boolean inValue;
+	private boolean inPhonetic;
+
+	private SheetReader(final List<String> sharedStrings, final boolean[] dateStyles, final LocalDateTime epoch) {
+	    this.sharedStrings = sharedStrings;
+	    this.dateStyles = dateStyles;
+	    this.epoch = epoch;
+	}
+
+	private int read(final XMLStreamReader reader, final CSVTableModel model, final BatchListener listener,
+		final BooleanSupplier cancelled) throws XMLStreamException, IOException {
+	    List<List<String>> batch = new ArrayList<>(UIConstants.IMPORT_BATCH_ROWS);
+	    var headersRead = false;
+	    var rowNumber = 0;
+	    var lastRowNumber = 0;
+	    var rowCount = 0;
+	    while (!cancelled.getAsBoolean() && reader.hasNext()) {
+		switch (reader.next()) {
+		case XMLStreamConstants.START_ELEMENT -> {
+		    switch (reader.getLocalName()) {
+		    case "row" -> {
+			row = new ArrayList<>();
+			final var reference = reader.getAttributeValue(null, "r");
+			rowNumber = reference != null ? parseInt(reference) : lastRowNumber + 1;
+		    }
+		    case "c" -> startCell(reader);
+		    case "v", "t" -> inValue = !inPhonetic;
+		    case "rPh" -> inPhonetic = true;
+		    default -> { /* Formulas and formatting */
+		    }
+		    }
+		}
+		case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE -> {
+		    if (inValue) {
+			text.append(reader.getText());
+		    }
+		}
+		case XMLStreamConstants.END_ELEMENT -> {
+		    switch (reader.getLocalName()) {
+		    case "v", "t" -> inValue = false;
+		    case "rPh" -> inPhonetic = false;
+		    case "c" -> endCell();
+		    case "row" -> {
+			if (!headersRead) {
+			    model.setHeaders(row);
+			    headersRead = true;
+			} else {
+			    // Rows without cells are left out of the sheet
+			    for (var gap = lastRowNumber + 1; gap < rowNumber && gap < MAX_ROWS; gap++) {
+				batch.add(new ArrayList<>());
+			    }
+			    batch.add(row);
+			}
+			lastRowNumber = rowNumber;
+			if (batch.size() >= UIConstants.IMPORT_BATCH_ROWS) {
+			    model.appendRows(batch);
+			    rowCount += batch.size();
+			    listener.onBatch(rowCount);
+			    batch = new ArrayList<>(UIConstants.IMPORT_BATCH_ROWS);
+			}
+		    }
+		    default -> { /* Formulas and formatting */
+		    }
+		    }
+		}
+		default -> { /* Ignore other events */
+		}
+		}
+	    }
+	    model.appendRows(batch);
+	    rowCount += batch.size();
+	    listener.onBatch(rowCount);
+	    return rowCount;
+	}
+
+	private void startCell(final XMLStreamReader reader) throws IOException {
+	    text.setLength(0);
+	    final var reference = reader.getAttributeValue(null, "r");
+	    column = reference != null ? columnIndex(reference) : row.size();
+	    cellType = reader.getAttributeValue(null, "t");
+	    final var style = reader.getAttributeValue(null, "s");
+	    cellStyle = style != null ? parseInt(style) : 0;
+	}
+
+	private void endCell() throws IOException {
+	    if (column >= MAX_COLUMNS) {
+		throw new IOException("Failed to read Excel file: cell beyond column " + MAX_COLUMNS);
+	    }
+	    while (row.size() < column) {
+		row.add("");
+	    }
+	    final var value = cellValue();
+	    if (column < row.size()) {
+		row.set(column, value);
+	    } else {
+		row.add(value);
+	    }
+	}
+
+	private String cellValue() throws IOException {
+	    final var value = text.toString();
+	    if (cellType == null || "n".equals(cellType)) {
+		return cellStyle < dateStyles.length && dateStyles[cellStyle] && !value.isEmpty() ? formatDate(value)
+			: value;
+	    }
+	    return switch (cellType) {
+	    case "s" -> {
+		final var index = parseInt(value);
+		if (index < 0 || index >= sharedStrings.size()) {
+		    throw new IOException("Failed to read Excel file: invalid shared string " + value);
+		}
+		yield sharedStrings.get(index);
+	    }
+	    case "b" -> Boolean.toString("1".equals(value));
+	    default -> value;
+	    };
+	}
+
+	/**
+	 * Converts a date serial number, the days since the epoch of the workbook, to
+	 * an ISO date, time or date-time
+	 */
+	private String formatDate(final String value) throws IOException {
+	    final double serial;
+	    try {
+		serial = Double.parseDouble(value);
+	    } catch (final NumberFormatException e) {
+		throw new IOException("Failed to read Excel file: invalid number " + value, e);
+	    }
+	    var days = (long) Math.floor(serial);
+	    final var millis = Math.round((serial - days) * MILLIS_PER_DAY);
+	    if (days == 0) {
+		return epoch.plusNanos(millis * 1_000_000L).toLocalTime().toString();
+	    }
+	    // Excel counts the non-existent 29 February 1900
+	    if (epoch == EPOCH_1900 && days < 61) {
+		days++;
+	    }
+	    final var dateTime = epoch.plusDays(days).plusNanos(millis * 1_000_000L);
+	    return millis == 0 ? dateTime.toLocalDate().toString() : dateTime.toString();
+	}
+
+	private static int parseInt(final String value) throws IOException {
+	    try {
+		return Integer.parseInt(value.trim());
+	    } catch (final NumberFormatException e) {
+		throw new IOException("Failed to read Excel file: invalid number " + value, e);
+	    }
+	}
+
+	/**
+	 * Gets the column of a cell reference, e.g. 1 for B7
+	 */
+	private static int columnIndex(final String reference) {
+	    var index = 0;
+	    for (var i = 0; i < reference.length() && index <= MAX_COLUMNS; i++) {
+		final var c = Character.toUpperCase(reference.charAt(i));
+		if (c < 'A' || c > 'Z') {
+		    break;
+		}
+		index = index * 26 + c - 'A' + 1;
+	    }
+	    return index - 1;
+	}
+    }
+
+    /**
+     * The worksheet to import and the date system of a workbook
+     */
+    private static class Workbook {
+	private String sheetPath = DEFAULT_SHEET_PATH;
+	private boolean date1904;
+    }
+
+    /**
+     * Strings written to the shared strings table in the order of their first use
+     */
+    private static class SharedStrings {
+	private final Map<String, Integer> indices = new HashMap<>();
+	private final List<String> values = new ArrayList<>();
+	private int references;
+
+	/**
+	 * Gets the index of a string, adding it if the table is not full
+	 *
+	 * @return the index, or -1 if the string has to be written inline
+	 */
+	private int indexOf(final String value) {
+	    final var index = indices.get(value);
+	    if (index != null) {
+		references++;
+		return index.intValue();
+	    }
+	    if (values.size() >= UIConstants.XLSX_SHARED_STRINGS_MAX) {
+		return -1;
+	    }
+	    indices.put(value, Integer.valueOf(values.size()));
+	    values.add(value);
+	    references++;
+	    return values.size() - 1;
+	}
+    }
+
+    /**
+     * Counts the bytes read from a stream
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+	private long count;
+
+	private CountingInputStream(final InputStream in) {
+	    super(in);
+	}
+
+	@Override
+	public int read() throws IOException {
+	    final var b = super.read();
+	    if (b >= 0) {
+		count++;
+	    }
+	    return b;
+	}
+
+	@Override
+	public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+	    final var read = super.read(buffer, offset, length);
+	    if (read > 0) {
+		count += read;
+	    }
+	    return read;
+	}
+    }
+
+    @FunctionalInterface
+    private interface BatchListener {
+	void onBatch(int rowCount) throws IOException;
+    }
+}
@@ -0,0 +1,71 @@
+package io.github.seerainer.csvedit.io;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import io.github.seerainer.csvedit.model.CSVTableModel;
+
+/**
+ * Loads an XML file or Excel workbook in the background, streaming its rows
+ * into the model in batches and reporting progress by the bytes read
+ */
+public class XMLLoader {
+
+    private final String filePath;
+    private final CSVTableModel model;
+    private final ExecutorService executor;
+    private volatile boolean cancelled = false;
+
+    public XMLLoader(final String filePath, final CSVTableModel model) {
+	this.filePath = filePath;
+	this.model = model;
+	this.executor = Executors.newSingleThreadExecutor(r -> {
+	    final var thread = new Thread(r, "XML-Loader");
+	    thread.setDaemon(true);
+	    return thread;
+	});
+    }
+
+    /**
+     * Cancel the loading operation. The rows read so far stay in the model and
+     * are reported as complete.
+     */
+    public void cancel() {
+	cancelled = true;
+    }
+
+    /**
+     * Load the file asynchronously in the background
+     */
+    public CompletableFuture<Void> loadAsync(final ProgressCallback callback) {
+	return CompletableFuture.runAsync(() -> {
+	    try {
+		final XMLOperations.ImportProgress progress = (rowsLoaded, bytesRead, totalBytes) -> callback
+			.onProgress(rowsLoaded, bytesRead, totalBytes, false);
+		final var rowCount = XLSXOperations.isXLSXFile(filePath)
+			? XLSXOperations.loadXLSX(filePath, model, progress, () -> cancelled)
+			: XMLOperations.loadXML(filePath, model, progress, () -> cancelled);
+		callback.onProgress(rowCount, -1, -1, true);
+	    } catch (final Exception e) {
+		callback.onError(e);
+	    }
+	}, executor);
+    }
+
+    /**
+     * Shutdown the executor
+     */
+    public void shutdown() {
+	executor.shutdown();
+    }
+
+    /**
+     * Callback for the progress of an XML or Excel import
+     */
+    public interface ProgressCallback {
+	void onError(Exception e);
+
+	void onProgress(int rowsLoaded, long bytesRead, long totalBytes, boolean isComplete);
+    }
+}
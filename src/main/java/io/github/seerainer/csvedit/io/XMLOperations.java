@@ -1,10 +1,16 @@
 package io.github.seerainer.csvedit.io;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.BooleanSupplier;
 
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLOutputFactory;
@@ -14,12 +20,15 @@ import javax.xml.stream.XMLStreamReader;
 import javax.xml.stream.XMLStreamWriter;
 
 import io.github.seerainer.csvedit.model.CSVTableModel;
+import io.github.seerainer.csvedit.ui.UIConstants;
 
 /**
  * Utility class for loading and saving XML files using standard Java StAX API.
  */
 public class XMLOperations {
 
+    private static final byte[] XML_FOOTER = "  </rows>\n</csv>\n".getBytes(StandardCharsets.UTF_8);
+
     private XMLOperations() {
 	throw new IllegalStateException("Utility class");
     }
@@ -30,42 +39,63 @@ public class XMLOperations {
      * <cell>val1</cell> <cell>val2</cell> </row> </rows> </csv>
      */
     public static void loadXML(final String filePath, final CSVTableModel model) throws IOException {
-	final List<List<String>> data = new ArrayList<>();
-	final List<String> headers = new ArrayList<>();
+	loadXML(filePath, model, (_, _, _) -> {
+	}, () -> false);
+    }
 
-	try (var inputStream = Files.newInputStream(Paths.get(filePath))) {
+    /**
+     * Streams an XML file into the model with StAX, appending rows in batches as
+     * they are read instead of collecting the whole document first. Stops early
+     * when cancelled, keeping the rows read so far.
+     *
+     * @param progress  notified with the rows loaded and the bytes read after
+     *                  each batch
+     * @param cancelled checked before each event
+     * @return the number of rows loaded
+     */
+    public static int loadXML(final String filePath, final CSVTableModel model, final ImportProgress progress,
+	    final BooleanSupplier cancelled) throws IOException {
+	model.clear();
+	final int rowCount;
+	try (var channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
 	    final var factory = XMLInputFactory.newInstance();
 
 	    // Security: disable external entities to prevent XXE attacks
 	    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
 	    factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
 
-	    final var reader = factory.createXMLStreamReader(inputStream);
+	    final var reader = factory
+		    .createXMLStreamReader(new BufferedInputStream(Channels.newInputStream(channel)));
 
+	    final var totalBytes = channel.size();
 	    try {
-		parseXMLStream(reader, headers, data);
+		// The channel position runs ahead of the parser by at most one buffer; the
+		// parser closes the stream once it reaches the end of the document
+		rowCount = parseXMLStream(reader, model, rowsLoaded -> progress.onProgress(rowsLoaded,
+			channel.isOpen() ? channel.position() : totalBytes, totalBytes), cancelled);
 	    } finally {
 		reader.close();
 	    }
 	} catch (final XMLStreamException e) {
 	    throw new IOException("Failed to parse XML file: " + e.getMessage(), e);
 	}
-
-	model.clear();
-	model.setHeaders(headers);
-	model.setData(data);
 	model.normalize();
+	return rowCount;
     }
 
     /**
-     * Parse XML stream using StAX event-based parsing
+     * Parse XML stream using StAX event-based parsing, appending each batch of
+     * rows to the model
      */
-    private static void parseXMLStream(final XMLStreamReader reader, final List<String> headers,
-	    final List<List<String>> data) throws XMLStreamException {
+    private static int parseXMLStream(final XMLStreamReader reader, final CSVTableModel model,
+	    final BatchListener listener, final BooleanSupplier cancelled) throws XMLStreamException, IOException {
+	final List<String> headers = new ArrayList<>();
+	List<List<String>> batch = new ArrayList<>(UIConstants.IMPORT_BATCH_ROWS);
 	List<String> currentRow = null;
 	final var textBuilder = new StringBuilder();
+	var rowCount = 0;
 
-	while (reader.hasNext()) {
+	while (!cancelled.getAsBoolean() && reader.hasNext()) {
 	    final var event = reader.next();
 
 	    switch (event) {
@@ -76,20 +106,26 @@ public class XMLOperations {
 		    currentRow = new ArrayList<>();
 		}
 	    }
-	    case XMLStreamConstants.CHARACTERS -> {
-		if (!reader.isWhiteSpace()) {
-		    textBuilder.append(reader.getText());
-		}
-	    }
+	    // Whitespace between elements is cleared with the buffer; inside a cell it
+	    // may be all that is left between two escaped characters
+	    case XMLStreamConstants.CHARACTERS -> textBuilder.append(reader.getText());
 	    case XMLStreamConstants.END_ELEMENT -> {
 		final var endElementName = reader.getLocalName();
 		if ("header".equals(endElementName)) {
 		    headers.add(textBuilder.toString());
+		} else if ("headers".equals(endElementName)) {
+		    model.setHeaders(headers);
 		} else if ("cell".equals(endElementName) && currentRow != null) {
 		    currentRow.add(textBuilder.toString());
 		} else if ("row".equals(endElementName) && currentRow != null) {
-		    data.add(currentRow);
+		    batch.add(currentRow);
 		    currentRow = null;
+		    if (batch.size() == UIConstants.IMPORT_BATCH_ROWS) {
+			model.appendRows(batch);
+			rowCount += batch.size();
+			listener.onBatch(rowCount);
+			batch = new ArrayList<>(UIConstants.IMPORT_BATCH_ROWS);
+		    }
 		}
 		textBuilder.setLength(0); // Clear text buffer
 	    }
@@ -97,32 +133,51 @@ public class XMLOperations {
 	    }
 	    }
 	}
+	model.appendRows(batch);
+	rowCount += batch.size();
+	listener.onBatch(rowCount);
+	return rowCount;
     }
 
     /**
      * Saves the model data to an XML file using StAX writer. Format: <csv>
      * <headers> <header>Col1</header> <header>Col2</header> </headers> <rows> <row>
-     * <cell>val1</cell> <cell>val2</cell> </row> </rows> </csv>
+     * <cell>val1</cell> <cell>val2</cell> </row> </rows> </csv>. Blocks of rows are
+     * encoded in parallel as XML fragments.
      */
     public static void saveXML(final String filePath, final CSVTableModel model) throws IOException {
-	try (var outputStream = Files.newOutputStream(Paths.get(filePath))) {
-	    final var factory = XMLOutputFactory.newInstance();
-	    final var writer = factory.createXMLStreamWriter(outputStream, "UTF-8");
-
-	    try {
-		writeXMLStream(writer, model);
-	    } finally {
-		writer.close();
-	    }
-	} catch (final XMLStreamException e) {
-	    throw new IOException("Failed to write XML file: " + e.getMessage(), e);
+	final var rowCount = model.getRowCount();
+	final var blockCount = ParallelBlockWriter.blockCount(rowCount);
+	try (var channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.CREATE,
+		StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+	    ParallelBlockWriter.write(channel, blockCount, block -> {
+		final var out = new ByteArrayOutputStream();
+		try {
+		    final var writer = XMLOutputFactory.newInstance().createXMLStreamWriter(out, "UTF-8");
+		    if (block == 0) {
+			writeXMLHeader(writer, model);
+		    }
+		    writeXMLRows(writer, model, ParallelBlockWriter.blockStart(block),
+			    ParallelBlockWriter.blockEnd(block, rowCount));
+		    // Elements opened in the first block are closed by the footer below
+		    writer.flush();
+		    writer.close();
+		} catch (final XMLStreamException e) {
+		    throw new IOException("Failed to write XML file: " + e.getMessage(), e);
+		}
+		if (block == blockCount - 1) {
+		    out.write(XML_FOOTER);
+		}
+		return out.toByteArray();
+	    });
 	}
     }
 
     /**
-     * Write XML stream using StAX writer
+     * Write the XML declaration, the headers section and the opening of the rows
+     * section
      */
-    private static void writeXMLStream(final XMLStreamWriter writer, final CSVTableModel model)
+    private static void writeXMLHeader(final XMLStreamWriter writer, final CSVTableModel model)
 	    throws XMLStreamException {
 	// Write XML declaration
 	writer.writeStartDocument("UTF-8", "1.0");
@@ -150,19 +205,23 @@ public class XMLOperations {
 	writer.writeEndElement(); // </headers>
 	writer.writeCharacters("\n");
 
-	// Write rows section
+	// Open rows section
 	writer.writeCharacters("  ");
 	writer.writeStartElement("rows");
 	writer.writeCharacters("\n");
+    }
 
-	final var rowCount = model.getRowCount();
-	for (var i = 0; i < rowCount; i++) {
+    /**
+     * Write a range of rows as row elements
+     */
+    private static void writeXMLRows(final XMLStreamWriter writer, final CSVTableModel model, final int from,
+	    final int to) throws XMLStreamException {
+	for (var i = from; i < to; i++) {
 	    writer.writeCharacters("    ");
 	    writer.writeStartElement("row");
 	    writer.writeCharacters("\n");
 
-	    final var row = model.getRow(i);
-	    for (final var cell : row) {
+	    for (final var cell : model.getRowView(i)) {
 		writer.writeCharacters("      ");
 		writer.writeStartElement("cell");
 		writer.writeCharacters(cell != null ? cell : "");
@@ -174,13 +233,18 @@ public class XMLOperations {
 	    writer.writeEndElement(); // </row>
 	    writer.writeCharacters("\n");
 	}
+    }
 
-	writer.writeCharacters("  ");
-	writer.writeEndElement(); // </rows>
-	writer.writeCharacters("\n");
+    /**
+     * Notified while an XML file is imported
+     */
+    @FunctionalInterface
+    public interface ImportProgress {
+	void onProgress(int rowsLoaded, long bytesRead, long totalBytes);
+    }
 
-	writer.writeEndElement(); // </csv>
-	writer.writeCharacters("\n");
-	writer.writeEndDocument();
+    @FunctionalInterface
+    private interface BatchListener {
+	void onBatch(int rowCount) throws IOException;
     }
-}
\ No newline at end of file
+}
@@ -1,16 +1,23 @@
 package io.github.seerainer.csvedit.model;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * Model class for managing CSV table data. Stores data in a 2D list structure
- * and provides methods for manipulation.
+ * and provides methods for manipulation. Edited rows and structural changes
+ * are tracked so that a save can rewrite only what changed, and every change
+ * can be observed as an edit action, e.g. to journal it.
  */
 public class CSVTableModel {
 
     private List<List<String>> data;
     private List<String> headers;
+    private BitSet modifiedRows = new BitSet();
+    private boolean structureModified = false;
+    private ChangeListener changeListener;
 
     public CSVTableModel() {
 	this.data = new ArrayList<>();
@@ -23,6 +30,12 @@ public class CSVTableModel {
     public void addColumn(final String defaultValue) {
 	headers.add("Column " + (headers.size() + 1));
 	data.forEach((final List<String> row) -> row.add(defaultValue));
+	structureModified = true;
+	if (changeListener != null) {
+	    changeListener.onEdit(new UndoRedoManager.EditAction(UndoRedoManager.ActionType.COLUMN_ADD,
+		    headers.size() - 1, headers.getLast(),
+		    defaultValue.isEmpty() ? null : Collections.nCopies(data.size(), defaultValue)));
+	}
     }
 
     /**
@@ -30,6 +43,22 @@ public class CSVTableModel {
      */
     public void addRow(final List<String> row) {
 	data.add(new ArrayList<>(row));
+	structureModified = true;
+	if (changeListener != null) {
+	    changeListener.onEdit(
+		    new UndoRedoManager.EditAction(UndoRedoManager.ActionType.ROW_ADD, data.size() - 1, row));
+	}
+    }
+
+    /**
+     * Appends rows without copying them, e.g. batches of a streaming import or
+     * {@link LazyRow}s that must stay lazy. The model takes ownership of the row
+     * lists.
+     */
+    public void appendRows(final List<List<String>> rows) {
+	data.addAll(rows);
+	structureModified = true;
+	fireReset();
     }
 
     /**
@@ -38,6 +67,23 @@ public class CSVTableModel {
     public void clear() {
 	data.clear();
 	headers.clear();
+	structureModified = true;
+	fireReset();
+    }
+
+    /**
+     * Creates an independent copy of the headers and data, e.g. as a consistent
+     * snapshot to save in the background while editing continues
+     */
+    public CSVTableModel copy() {
+	final var copy = new CSVTableModel();
+	copy.headers = new ArrayList<>(headers);
+	copy.data = new ArrayList<>(data.size());
+	data.forEach((final List<String> row) -> copy.data
+		.add(row instanceof final LazyRow lazyRow ? lazyRow.copy() : new ArrayList<>(row)));
+	copy.modifiedRows = (BitSet) modifiedRows.clone();
+	copy.structureModified = structureModified;
+	return copy;
     }
 
     /**
@@ -60,6 +106,13 @@ public class CSVTableModel {
 	return copy;
     }
 
+    /**
+     * Gets the rows whose values changed since the last reset
+     */
+    public BitSet getModifiedRows() {
+	return (BitSet) modifiedRows.clone();
+    }
+
     /**
      * Gets a header at the specified index
      */
@@ -94,6 +147,16 @@ public class CSVTableModel {
 	return data.size();
     }
 
+    /**
+     * Gets a read-only view of a row at the specified index without copying it
+     */
+    public List<String> getRowView(final int index) {
+	if (index >= 0 && index < data.size()) {
+	    return Collections.unmodifiableList(data.get(index));
+	}
+	return List.of();
+    }
+
     /**
      * Gets a value at the specified row and column
      */
@@ -112,15 +175,60 @@ public class CSVTableModel {
      */
     public void normalize() {
 	final var maxCols = getColumnCount();
+	var changed = false;
 	// Ensure headers match column count
 	while (headers.size() < maxCols) {
 	    headers.add("Column " + (headers.size() + 1));
+	    changed = true;
 	}
-	data.forEach((final List<String> row) -> {
+	for (final var row : data) {
 	    while (row.size() < maxCols) {
 		row.add("");
+		changed = true;
 	    }
-	});
+	}
+	if (changed) {
+	    fireReset();
+	}
+    }
+
+    /**
+     * Checks if rows or columns were added, removed or reordered, or headers
+     * changed, since the last reset. Row indices in {@link #getModifiedRows()}
+     * only refer to the saved file while this is false.
+     */
+    public boolean isStructureModified() {
+	return structureModified;
+    }
+
+    /**
+     * Forgets all tracked modifications, e.g. after the model was loaded from or
+     * saved to a file
+     */
+    public void resetModifications() {
+	modifiedRows.clear();
+	structureModified = false;
+    }
+
+    /**
+     * Sets the listener notified of every change, or null to remove it. Copies
+     * made with {@link #copy()} have no listener.
+     */
+    public void setChangeListener(final ChangeListener listener) {
+	this.changeListener = listener;
+    }
+
+    private void fireRowMove(final int fromIndex, final int toIndex) {
+	if (changeListener != null) {
+	    changeListener.onEdit(
+		    new UndoRedoManager.EditAction(UndoRedoManager.ActionType.ROW_MOVE, fromIndex, toIndex));
+	}
+    }
+
+    private void fireReset() {
+	if (changeListener != null) {
+	    changeListener.onReset();
+	}
     }
 
     /**
@@ -132,6 +240,11 @@ public class CSVTableModel {
 	}
 	data.stream().filter((final List<String> row) -> index >= 0 && index < row.size())
 		.forEach((final List<String> row) -> row.remove(index));
+	structureModified = true;
+	if (changeListener != null) {
+	    changeListener.onEdit(
+		    new UndoRedoManager.EditAction(UndoRedoManager.ActionType.COLUMN_DELETE, index, null, null));
+	}
     }
 
     /**
@@ -139,7 +252,11 @@ public class CSVTableModel {
      */
     public void removeRow(final int index) {
 	if (index >= 0 && index < data.size()) {
-	    data.remove(index);
+	    final var row = data.remove(index);
+	    structureModified = true;
+	    if (changeListener != null) {
+		changeListener.onEdit(new UndoRedoManager.EditAction(UndoRedoManager.ActionType.ROW_DELETE, index, row));
+	    }
 	}
     }
 
@@ -157,6 +274,8 @@ public class CSVTableModel {
 	}
 	final var row = data.remove(fromIndex);
 	data.add(toIndex, row);
+	structureModified = true;
+	fireRowMove(fromIndex, toIndex);
 	return true;
     }
 
@@ -172,6 +291,8 @@ public class CSVTableModel {
 	}
 	final var row = data.remove(fromIndex);
 	data.add(0, row);
+	structureModified = true;
+	fireRowMove(fromIndex, 0);
 	return true;
     }
 
@@ -187,26 +308,82 @@ public class CSVTableModel {
 	}
 	final var row = data.remove(fromIndex);
 	data.add(row);
+	structureModified = true;
+	fireRowMove(fromIndex, data.size() - 1);
 	return true;
     }
 
+    /**
+     * Reorders the rows, e.g. after sorting
+     *
+     * @param order the current index of each row, in the new order
+     */
+    public void reorderRows(final int[] order) {
+	if (order.length != data.size()) {
+	    throw new IllegalArgumentException("Expected " + data.size() + " rows, got " + order.length);
+	}
+	final List<List<String>> reordered = new ArrayList<>(order.length);
+	for (final var index : order) {
+	    reordered.add(data.get(index));
+	}
+	data = reordered;
+	structureModified = true;
+	if (changeListener != null) {
+	    changeListener.onRowsReordered(order);
+	}
+    }
+
+    /**
+     * Reorders the columns of the headers and all rows. Rows without a value in
+     * a column get an empty value.
+     *
+     * @param order the current index of each column, in the new order
+     */
+    public void reorderColumns(final int[] order) {
+	final List<String> reorderedHeaders = new ArrayList<>(order.length);
+	for (final var index : order) {
+	    if (index < headers.size()) {
+		reorderedHeaders.add(headers.get(index));
+	    }
+	}
+	headers = reorderedHeaders;
+	data.replaceAll((final List<String> row) -> {
+	    final List<String> reordered = new ArrayList<>(order.length);
+	    for (final var index : order) {
+		reordered.add(index < row.size() ? row.get(index) : "");
+	    }
+	    return reordered;
+	});
+	structureModified = true;
+	if (changeListener != null) {
+	    changeListener.onColumnsReordered(order);
+	}
+    }
+
     /**
      * Sets all data at once
      */
     public void setData(final List<List<String>> newData) {
 	this.data = new ArrayList<>();
 	newData.forEach((final List<String> row) -> this.data.add(new ArrayList<>(row)));
+	structureModified = true;
+	fireReset();
     }
 
     /**
      * Sets a header at the specified index
      */
     public void setHeader(final int index, final String header) {
+	final var oldHeader = index < headers.size() ? headers.get(index) : null;
 	// Expand headers list if necessary
 	while (headers.size() <= index) {
 	    headers.add("Column " + (headers.size() + 1));
 	}
 	headers.set(index, header);
+	structureModified = true;
+	if (changeListener != null) {
+	    changeListener.onEdit(new UndoRedoManager.EditAction(index, oldHeader, header));
+	}
     }
 
     /**
@@ -214,6 +391,8 @@ public class CSVTableModel {
      */
     public void setHeaders(final List<String> headers) {
 	this.headers = new ArrayList<>(headers);
+	structureModified = true;
+	fireReset();
     }
 
     /**
@@ -224,10 +403,48 @@ public class CSVTableModel {
 	    return;
 	}
 	final var rowData = data.get(row);
+	final var oldValue = col < rowData.size() ? rowData.get(col) : "";
+	if (col >= rowData.size() && col >= headers.size()) {
+	    structureModified = true; // Adds a column
+	}
 	// Expand row if necessary
 	while (rowData.size() <= col) {
 	    rowData.add("");
 	}
 	rowData.set(col, value);
+	modifiedRows.set(row);
+	if (changeListener != null) {
+	    changeListener.onEdit(
+		    new UndoRedoManager.EditAction(UndoRedoManager.ActionType.CELL_EDIT, row, col, oldValue, value));
+	}
+    }
+
+    /**
+     * Receives the changes made to a model
+     */
+    public interface ChangeListener {
+	/**
+	 * Called after a change that is described by a single edit action
+	 */
+	void onEdit(UndoRedoManager.EditAction action);
+
+	/**
+	 * Called after the rows were reordered
+	 *
+	 * @param order the previous index of each row, in the new order
+	 */
+	void onRowsReordered(int[] order);
+
+	/**
+	 * Called after the columns were reordered
+	 *
+	 * @param order the previous index of each column, in the new order
+	 */
+	void onColumnsReordered(int[] order);
+
+	/**
+	 * Called after the headers or data were replaced as a whole
+	 */
+	void onReset();
     }
 }
\ No newline at end of file
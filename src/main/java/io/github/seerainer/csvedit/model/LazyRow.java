@@ -0,0 +1,149 @@
+package io.github.seerainer.csvedit.model;
+
+import java.nio.charset.Charset;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * A row that keeps only the field offsets of its record in the raw file bytes
+ * and creates a field's string each time it is read. Reading a cell, e.g. to
+ * render, search or save it, therefore costs no memory beyond the bytes. The
+ * first change to the row turns it into a plain list of strings.
+ */
+public class LazyRow extends AbstractList<String> implements RandomAccess {
+
+    private final Source source;
+    private int[] bounds;
+    private List<String> values;
+
+    /**
+     * Creates a row of the fields between the given offsets
+     *
+     * @param source the bytes of the record and how to decode them
+     * @param bounds the offset of each field followed by the offset one past the
+     *               end of the record, i.e. field i ends one byte, its delimiter,
+     *               before field i + 1 starts
+     */
+    public LazyRow(final Source source, final int[] bounds) {
+	this.source = source;
+	this.bounds = bounds;
+    }
+
+    @Override
+    public String get(final int index) {
+	if (values != null) {
+	    return values.get(index);
+	}
+	Objects.checkIndex(index, bounds.length - 1);
+	return source.decode(bounds[index], bounds[index + 1] - 1);
+    }
+
+    @Override
+    public int size() {
+	return values != null ? values.size() : bounds.length - 1;
+    }
+
+    @Override
+    public String set(final int index, final String value) {
+	return materialize().set(index, value);
+    }
+
+    @Override
+    public void add(final int index, final String value) {
+	materialize().add(index, value);
+	modCount++;
+    }
+
+    @Override
+    public String remove(final int index) {
+	final var removed = materialize().remove(index);
+	modCount++;
+	return removed;
+    }
+
+    /**
+     * Checks if the row still reads its fields from the bytes
+     */
+    public boolean isLazy() {
+	return values == null;
+    }
+
+    /**
+     * Creates an independent copy that shares the bytes as long as the row is
+     * unchanged
+     */
+    public List<String> copy() {
+	return values != null ? new ArrayList<>(values) : new LazyRow(source, bounds);
+    }
+
+    private List<String> materialize() {
+	if (values == null) {
+	    final var row = new ArrayList<String>(bounds.length - 1);
+	    for (var i = 0; i < bounds.length - 1; i++) {
+		row.add(source.decode(bounds[i], bounds[i + 1] - 1));
+	    }
+	    values = row;
+	    bounds = null;
+	}
+	return values;
+    }
+
+    /**
+     * A block of raw file bytes shared by the rows read from it, with the quoting
+     * needed to decode their fields. The bytes must not change once rows refer to
+     * them.
+     */
+    public static class Source {
+	private final byte[] bytes;
+	private final Charset charset;
+	private final byte quote;
+	private final byte escape;
+	private final boolean normalizeLineEndings;
+
+	public Source(final byte[] bytes, final Charset charset, final char quote, final char escape,
+		final boolean normalizeLineEndings) {
+	    this.bytes = bytes;
+	    this.charset = charset;
+	    this.quote = (byte) quote;
+	    this.escape = (byte) escape;
+	    this.normalizeLineEndings = normalizeLineEndings;
+	}
+
+	/**
+	 * Decodes the field between two offsets, removing the quotes around it and
+	 * unescaping quotes inside them. A quote only opens a quoted section at the
+	 * start of a field, elsewhere it is kept as is.
+	 */
+	public String decode(final int start, final int end) {
+	    if (start >= end || bytes[start] != quote) {
+		return new String(bytes, start, end - start, charset);
+	    }
+	    final var buffer = Arrays.copyOfRange(bytes, start, end);
+	    var length = 0;
+	    var inQuotes = true;
+	    for (var i = 1; i < buffer.length; i++) {
+		final var b = buffer[i];
+		if (!inQuotes) {
+		    buffer[length++] = b;
+		} else if (b == escape && i + 1 < buffer.length
+			&& (buffer[i + 1] == quote || (escape != quote && buffer[i + 1] == escape))) {
+		    buffer[length++] = buffer[++i];
+		} else if (b == quote) {
+		    inQuotes = false;
+		} else if (b == '\r' && normalizeLineEndings) {
+		    buffer[length++] = '\n';
+		    if (i + 1 < buffer.length && buffer[i + 1] == '\n') {
+			i++;
+		    }
+		} else {
+		    buffer[length++] = b;
+		}
+	    }
+	    return new String(buffer, 0, length, charset);
+	}
+    }
+}
@@ -321,31 +321,7 @@ public class TableManager {
 	if (columnOrder == null || columnOrder.length == 0) {
 	    return;
 	}
-
-	final var oldHeaders = model.getHeaders();
-	final List<String> newHeaders = new ArrayList<>();
-	for (final var index : columnOrder) {
-	    if (index < oldHeaders.size()) {
-		newHeaders.add(oldHeaders.get(index));
-	    }
-	}
-
-	final List<List<String>> newData = new ArrayList<>();
-	for (var i = 0; i < model.getRowCount(); i++) {
-	    final var oldRow = model.getRow(i);
-	    final List<String> newRow = new ArrayList<>();
-	    for (final var index : columnOrder) {
-		if (index < oldRow.size()) {
-		    newRow.add(oldRow.get(index));
-		} else {
-		    newRow.add("");
-		}
-	    }
-	    newData.add(newRow);
-	}
-
-	model.setHeaders(newHeaders);
-	model.setData(newData);
+	model.reorderColumns(columnOrder);
     }
 
     public void resizeAllColumns() {
@@ -1,6 +1,11 @@
 package io.github.seerainer.csvedit.ui;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 import org.eclipse.swt.SWT;
@@ -14,12 +19,30 @@ import org.eclipse.swt.widgets.Shell;
 import org.eclipse.swt.widgets.Table;
 import org.eclipse.swt.widgets.TableColumn;
 
+import io.github.seerainer.csvedit.io.CSVDialect;
+import io.github.seerainer.csvedit.io.CSVDialectSniffer;
+import io.github.seerainer.csvedit.io.CSVFileSource;
+import io.github.seerainer.csvedit.io.ColumnarLoader;
 import io.github.seerainer.csvedit.io.FileOperations;
+import io.github.seerainer.csvedit.io.FixedWidthLoader;
+import io.github.seerainer.csvedit.io.FixedWidthOperations;
+import io.github.seerainer.csvedit.io.FixedWidthSpec;
+import io.github.seerainer.csvedit.io.JSONLoader;
 import io.github.seerainer.csvedit.io.JSONOperations;
 import io.github.seerainer.csvedit.io.LazyCSVLoader;
-import io.github.seerainer.csvedit.io.XMLOperations;
+import io.github.seerainer.csvedit.io.ParquetOperations;
+import io.github.seerainer.csvedit.io.RowFilter;
+import io.github.seerainer.csvedit.io.SampleLoader;
+import io.github.seerainer.csvedit.io.SampleOperations;
+import io.github.seerainer.csvedit.io.ShardLoader;
+import io.github.seerainer.csvedit.io.ShardOperations;
+import io.github.seerainer.csvedit.io.SnapshotCache;
+import io.github.seerainer.csvedit.io.SnapshotLoader;
+import io.github.seerainer.csvedit.io.XLSXOperations;
+import io.github.seerainer.csvedit.io.XMLLoader;
 import io.github.seerainer.csvedit.model.CSVTableModel;
 import io.github.seerainer.csvedit.ui.dialog.DialogHelper;
+import io.github.seerainer.csvedit.ui.dialog.FixedWidthDialog;
 import io.github.seerainer.csvedit.ui.dialog.ProgressDialog;
 import io.github.seerainer.csvedit.util.Settings;
 
@@ -36,6 +59,7 @@ public class FileOperationsHandler {
     private final DialogHelper dialogHelper;
 
     private long lastLoadTimeMs = 0;
+    private CSVFileSource loadedSource;
 
     public FileOperationsHandler(final Shell shell, final Display display, final Table table, final CSVTableModel model,
 	    final DialogHelper dialogHelper) {
@@ -56,12 +80,22 @@ public class FileOperationsHandler {
     }
 
     /**
-     * Opens a file, automatically choosing lazy or regular loading based on file
+     * Opens a file from its snapshot in the background if it has one, otherwise
+     * parses it, automatically choosing lazy or regular loading based on file
      * size.
      */
     public void openFile(final File file, final FileLoadedCallback callback) {
 	final var filePath = file.getAbsolutePath();
+	final var path = Paths.get(filePath);
 
+	if (SnapshotCache.isWorthCaching(path) && SnapshotCache.hasSnapshot(path)) {
+	    openFromSnapshot(filePath, callback);
+	} else {
+	    parseFile(filePath, callback);
+	}
+    }
+
+    private void parseFile(final String filePath, final FileLoadedCallback callback) {
 	if (shouldUseLazyLoading(filePath)) {
 	    openLargeFile(filePath, callback);
 	} else {
@@ -70,29 +104,260 @@ public class FileOperationsHandler {
     }
 
     /**
-     * Imports data from a JSON file.
+     * Imports data from a JSON file in the background. Rows read before the import
+     * is cancelled or fails are kept.
      */
     public void importJSONFile(final String path, final FileLoadedCallback callback) {
+	final var loader = new JSONLoader(path, model);
+	final var progressDialog = createProgressDialog("Importing JSON");
+
+	progressDialog.setCancelCallback(loader::cancel);
+	progressDialog.open();
+	progressDialog.updateStatus("Reading JSON...");
+	loader.loadAsync(createImportCallback(progressDialog, loader::shutdown, "Error importing from JSON", callback));
+    }
+
+    /**
+     * Creates the callback of a background import that shows the rows read so
+     * far and finishes the import when it completes or fails
+     */
+    private LazyCSVLoader.ProgressCallback createImportCallback(final ProgressDialog progressDialog,
+	    final Runnable shutdown, final String errorTitle, final FileLoadedCallback callback) {
+	return new LazyCSVLoader.ProgressCallback() {
+	    @Override
+	    public void onError(final Exception e) {
+		display.asyncExec(() -> {
+		    finishImport(progressDialog, shutdown, callback);
+		    dialogHelper.showError(errorTitle, e.getMessage());
+		});
+	    }
+
+	    @Override
+	    public void onProgress(final int rowsLoaded, final long totalRows, final boolean isComplete) {
+		display.asyncExec(() -> {
+		    if (isComplete) {
+			finishImport(progressDialog, shutdown, callback);
+		    } else {
+			progressDialog.updateProgress(rowsLoaded, totalRows, false);
+		    }
+		});
+	    }
+	};
+    }
+
+    private void finishImport(final ProgressDialog progressDialog, final Runnable shutdown,
+	    final FileLoadedCallback callback) {
+	lastLoadTimeMs = 0;
+	loadedSource = null;
+	progressDialog.close();
+	shutdown.run();
+	notifyFileLoaded(callback, null, true);
+    }
+
+    /**
+     * Imports data from an Arrow IPC (Feather) or Parquet file in the
+     * background. Record batches or row groups read before the import is
+     * cancelled or fails are kept.
+     */
+    public void importColumnarFile(final String path, final FileLoadedCallback callback) {
+	importColumnarFile(path, null, callback);
+    }
+
+    /**
+     * Imports the given columns of a Parquet file in the background, reading
+     * only their chunks of every row group.
+     *
+     * @param columns the names of the columns to load, or null to load all
+     */
+    public void importColumnarFile(final String path, final List<String> columns, final FileLoadedCallback callback) {
+	final var loader = new ColumnarLoader(path, model);
+	loader.setColumns(columns);
+	final var format = ParquetOperations.isParquetFile(path) ? "Parquet" : "Arrow";
+	final var progressDialog = createProgressDialog("Importing " + format);
+
+	progressDialog.setCancelCallback(loader::cancel);
+	progressDialog.open();
+	progressDialog.updateStatus("Reading " + format + "...");
+	loader.loadAsync(
+		createImportCallback(progressDialog, loader::shutdown, "Error importing from " + format, callback));
+    }
+
+    /**
+     * Imports data from a fixed-width file in the background after the user has
+     * reviewed the column layout detected from a sample of the file. Ranges
+     * parsed before the import is cancelled are kept.
+     */
+    public void importFixedWidthFile(final String path, final FileLoadedCallback callback) {
+	final FixedWidthSpec detectedSpec;
 	try {
-	    JSONOperations.loadJSON(path, model);
-	    lastLoadTimeMs = 0;
-	    notifyFileLoaded(callback, null, true);
-	} catch (final Exception e) {
-	    dialogHelper.showError("Error importing from JSON", e.getMessage());
+	    detectedSpec = FixedWidthOperations.detectSpec(path);
+	} catch (final IOException e) {
+	    dialogHelper.showError("Error importing from fixed-width file", e.getMessage());
+	    return;
 	}
+	final var spec = new FixedWidthDialog(shell, detectedSpec).open();
+	if (spec == null) {
+	    return;
+	}
+
+	final var loader = new FixedWidthLoader(path, model, spec);
+	final var progressDialog = createProgressDialog("Importing Fixed-Width File");
+
+	progressDialog.setCancelCallback(loader::cancel);
+	progressDialog.open();
+	progressDialog.updateStatus("Reading fixed-width file...");
+	loader.loadAsync(
+		createImportCallback(progressDialog, loader::shutdown, "Error importing from fixed-width file", callback));
     }
 
     /**
-     * Imports data from an XML file.
+     * Opens a sample of a large CSV file in the background as a new, untitled
+     * table, so saving it cannot overwrite the complete file. Rows sampled before
+     * the load is cancelled are kept.
      */
-    public void importXMLFile(final String path, final FileLoadedCallback callback) {
+    public void openSample(final String path, final SampleOperations.Mode mode, final int rowCount,
+	    final FileLoadedCallback callback) {
+	final var loader = new SampleLoader(path, model, mode, rowCount);
+	final var progressDialog = createProgressDialog("Opening Sample");
+
+	progressDialog.setCancelCallback(loader::cancel);
+	progressDialog.open();
+	progressDialog.updateStatus(mode == SampleOperations.Mode.RANDOM ? "Sampling rows..." : "Reading rows...");
+	loader.loadAsync(createImportCallback(progressDialog, loader::shutdown, "Failed to open sample", callback));
+    }
+
+    /**
+     * Opens the rows of a large CSV file that start at a data row in the
+     * background, seeking from the nearest checkpoint of the file's index. The
+     * table is left unchanged if the file ends before that row.
+     */
+    public void openWindow(final String path, final long firstRow, final int rowCount,
+	    final FileLoadedCallback callback) {
+	final var window = new CSVTableModel();
+	final var loader = new SampleLoader(path, window, firstRow, rowCount);
+	final var progressDialog = createProgressDialog("Go to Row");
+
+	progressDialog.setCancelCallback(loader::cancel);
+	progressDialog.open();
+	progressDialog.updateStatus("Seeking to row %,d...".formatted(Long.valueOf(firstRow + 1)));
+	loader.loadAsync(new LazyCSVLoader.ProgressCallback() {
+	    @Override
+	    public void onError(final Exception e) {
+		display.asyncExec(() -> {
+		    progressDialog.close();
+		    loader.shutdown();
+		    dialogHelper.showError("Failed to read rows", e.getMessage());
+		});
+	    }
+
+	    @Override
+	    public void onProgress(final int rowsLoaded, final long totalRows, final boolean isComplete) {
+		display.asyncExec(() -> {
+		    if (!isComplete) {
+			return;
+		    }
+		    if (window.getRowCount() == 0) {
+			progressDialog.close();
+			loader.shutdown();
+			if (!progressDialog.isCancelled()) {
+			    dialogHelper.showInfo("Go to Row", "The file ends before row %,d."
+				    .formatted(Long.valueOf(firstRow + 1)));
+			}
+			return;
+		    }
+		    model.clear();
+		    model.setHeaders(window.getHeaders());
+		    model.setData(window.getData());
+		    finishImport(progressDialog, loader::shutdown, callback);
+		});
+	    }
+	});
+    }
+
+    /**
+     * Opens the given columns of a CSV file as a new, untitled table, so saving
+     * it cannot overwrite the complete file. Rows the filter rejects are skipped
+     * while reading and never stored. Large files are loaded in the background;
+     * nothing changes if that is cancelled.
+     */
+    public void openWithColumns(final String path, final int[] columns, final RowFilter filter,
+	    final FileLoadedCallback callback) {
+	if (!shouldUseLazyLoading(path)) {
+	    try {
+		FileOperations.loadCSV(path, model, CSVDialectSniffer.sniff(Paths.get(path)), columns, filter);
+		lastLoadTimeMs = 0;
+		loadedSource = null;
+		notifyFileLoaded(callback, null, true);
+	    } catch (final IOException e) {
+		dialogHelper.showError("Failed to open file", e.getMessage());
+	    }
+	    return;
+	}
+
+	final var loader = new LazyCSVLoader(path, model);
+	loader.setColumns(columns);
+	loader.setFilter(filter);
 	try {
-	    XMLOperations.loadXML(path, model);
-	    lastLoadTimeMs = 0;
-	    notifyFileLoaded(callback, null, true);
-	} catch (final Exception e) {
-	    dialogHelper.showError("Error importing from XML", e.getMessage());
+	    loader.sniffDialect();
+	} catch (final IOException e) {
+	    dialogHelper.showError("Failed to open file", e.getMessage());
+	    return;
 	}
+	final var progressDialog = createProgressDialog("Opening Columns");
+
+	progressDialog.setCancelCallback(loader::cancel);
+	progressDialog.open();
+	progressDialog.updateStatus("Reading %d of the columns...".formatted(Integer.valueOf(columns.length)));
+	loader.loadAsync(createImportCallback(progressDialog, loader::shutdown, "Failed to open file", callback));
+    }
+
+    /**
+     * Opens CSV shards as one table in the background, parsing them in parallel.
+     * Shards parsed before the load is cancelled are kept.
+     */
+    public void openShards(final List<Path> shards, final boolean sourceColumn, final FileLoadedCallback callback) {
+	final var loader = new ShardLoader(shards, model, sourceColumn);
+	final var progressDialog = createProgressDialog("Opening Shards");
+
+	progressDialog.setCancelCallback(loader::cancel);
+	progressDialog.open();
+	progressDialog.updateStatus("Reading %d files...".formatted(Integer.valueOf(shards.size())));
+	loader.loadAsync(createImportCallback(progressDialog, loader::shutdown, "Failed to open shards", callback));
+    }
+
+    /**
+     * Imports data from an XML file or Excel workbook in the background. Rows read
+     * before the import is cancelled or fails are kept.
+     */
+    public void importXMLFile(final String path, final FileLoadedCallback callback) {
+	final var loader = new XMLLoader(path, model);
+	final var format = XLSXOperations.isXLSXFile(path) ? "Excel" : "XML";
+	final var progressDialog = createProgressDialog("Importing " + format);
+
+	progressDialog.setCancelCallback(loader::cancel);
+	progressDialog.open();
+	progressDialog.updateStatus("Reading " + format + "...");
+	loader.loadAsync(new XMLLoader.ProgressCallback() {
+	    @Override
+	    public void onError(final Exception e) {
+		display.asyncExec(() -> {
+		    finishImport(progressDialog, loader::shutdown, callback);
+		    dialogHelper.showError("Error importing from " + format, e.getMessage());
+		});
+	    }
+
+	    @Override
+	    public void onProgress(final int rowsLoaded, final long bytesRead, final long totalBytes,
+		    final boolean isComplete) {
+		display.asyncExec(() -> {
+		    if (isComplete) {
+			finishImport(progressDialog, loader::shutdown, callback);
+		    } else {
+			progressDialog.updateByteProgress(rowsLoaded, bytesRead, totalBytes);
+		    }
+		});
+	    }
+	});
     }
 
     /**
@@ -102,6 +367,14 @@ public class FileOperationsHandler {
 	return lastLoadTimeMs;
     }
 
+    /**
+     * Returns the last opened CSV file with the dialect it was read with, or null
+     * if the last file was imported from another format.
+     */
+    public CSVFileSource getLoadedSource() {
+	return loadedSource;
+    }
+
     private DropTarget createDropTarget() {
 	return new DropTarget(table, DND.DROP_COPY | DND.DROP_DEFAULT);
     }
@@ -152,7 +425,26 @@ public class FileOperationsHandler {
 	    return;
 	}
 
-	processDroppedFile(files[0], fileLoadedCallback);
+	if (files.length > 1 || new File(files[0]).isDirectory()) {
+	    processDroppedShards(files, fileLoadedCallback);
+	} else {
+	    processDroppedFile(files[0], fileLoadedCallback);
+	}
+    }
+
+    /**
+     * Opens several dropped files, or the CSV files of a dropped directory, as
+     * one table
+     */
+    private void processDroppedShards(final String[] files, final FileLoadedCallback callback) {
+	try {
+	    final List<Path> shards = files.length > 1
+		    ? Arrays.stream(files).map(Paths::get).sorted(ShardOperations.NATURAL_ORDER).toList()
+		    : ShardOperations.resolveShards(files[0]);
+	    openShards(shards, false, callback);
+	} catch (final IOException e) {
+	    dialogHelper.showError("Failed to open shards", e.getMessage());
+	}
     }
 
     private static boolean isValidDropEvent(final DropTargetEvent event) {
@@ -167,15 +459,55 @@ public class FileOperationsHandler {
 	final var file = new File(filePath);
 	final var fileName = file.getName().toLowerCase();
 
-	if (fileName.endsWith(".json")) {
+	if (fileName.endsWith(".json") || JSONOperations.isJSONLinesFile(fileName)) {
 	    importJSONFile(filePath, callback);
-	} else if (fileName.endsWith(".xml")) {
+	} else if (fileName.endsWith(".xml") || XLSXOperations.isXLSXFile(fileName)) {
 	    importXMLFile(filePath, callback);
+	} else if (ColumnarLoader.isColumnarFile(fileName)) {
+	    importColumnarFile(filePath, callback);
+	} else if (FixedWidthOperations.isFixedWidthFile(fileName)) {
+	    importFixedWidthFile(filePath, callback);
 	} else {
 	    openFile(file, callback);
 	}
     }
 
+    /**
+     * Loads a file from its snapshot in the background, or parses it if the
+     * snapshot turns out to be invalid. Nothing changes if that is cancelled.
+     */
+    private void openFromSnapshot(final String filePath, final FileLoadedCallback callback) {
+	final var loader = new SnapshotLoader(filePath, model);
+	final var progressDialog = createProgressDialog("Opening File");
+
+	progressDialog.setCancelCallback(loader::cancel);
+	progressDialog.open();
+	progressDialog.updateStatus("Reading snapshot...");
+	final var startTime = System.currentTimeMillis();
+	loader.loadAsync().whenComplete((loaded, _) -> display.asyncExec(() -> {
+	    progressDialog.close();
+	    loader.shutdown();
+	    if (Boolean.TRUE.equals(loaded)) {
+		loadedSource = captureSource(filePath, loader.getDialect());
+		calculateLoadTime(startTime);
+		notifyFileLoaded(callback, filePath, false);
+	    } else if (!progressDialog.isCancelled()) {
+		parseFile(filePath, callback);
+	    }
+	}));
+    }
+
+    /**
+     * Writes a snapshot of a freshly parsed file in the background, so that it
+     * opens without parsing next time. Must be called on the thread that loaded
+     * the model, before it is edited.
+     */
+    private void storeSnapshot(final CSVFileSource source) {
+	if (source != null && SnapshotCache.isWorthCaching(source.getPath())) {
+	    SnapshotCache.storeAsync(source, model.copy());
+	}
+    }
+
     private static boolean shouldUseLazyLoading(final String filePath) {
 	return LazyCSVLoader.shouldUseLazyLoading(filePath);
     }
@@ -205,6 +537,7 @@ public class FileOperationsHandler {
 	    final long startTime, final String filePath, final FileLoadedCallback callback) {
 	CompletableFuture.runAsync(() -> {
 	    try {
+		sniffDialectPhase(loader, progressDialog);
 		loadPreviewPhase(loader, progressDialog);
 		loadFullFilePhase(loader, progressDialog, startTime, filePath, callback);
 	    } catch (final Exception e) {
@@ -213,6 +546,13 @@ public class FileOperationsHandler {
 	});
     }
 
+    private void sniffDialectPhase(final LazyCSVLoader loader, final ProgressDialog progressDialog)
+	    throws IOException {
+	display.asyncExec(() -> progressDialog.updateStatus("Detecting file format..."));
+	final var dialect = loader.sniffDialect();
+	display.asyncExec(() -> progressDialog.updateStatus(dialect.getDescription()));
+    }
+
     private void loadPreviewPhase(final LazyCSVLoader loader, final ProgressDialog progressDialog) {
 	display.asyncExec(() -> progressDialog.updateStatus("Loading preview..."));
 	try {
@@ -301,10 +641,13 @@ public class FileOperationsHandler {
 		if (progressDialog.isCancelled()) {
 		    return;
 		}
+		// Still on the loader thread, so the snapshot copy does not block the UI
+		final var source = isComplete ? captureSource(filePath, loader.getDialect()) : null;
+		storeSnapshot(source);
 		display.asyncExec(() -> {
 		    progressDialog.updateProgress(rowsLoaded, totalRows, isComplete);
 		    if (isComplete) {
-			finalizeFileLoad(progressDialog, loader, startTime, filePath, callback);
+			finalizeFileLoad(progressDialog, loader, startTime, filePath, source, callback);
 		    }
 		});
 	    }
@@ -312,8 +655,9 @@ public class FileOperationsHandler {
     }
 
     private void finalizeFileLoad(final ProgressDialog progressDialog, final LazyCSVLoader loader, final long startTime,
-	    final String filePath, final FileLoadedCallback callback) {
+	    final String filePath, final CSVFileSource source, final FileLoadedCallback callback) {
 	lastLoadTimeMs = System.currentTimeMillis() - startTime;
+	loadedSource = source;
 	progressDialog.close();
 	loader.shutdown();
 	notifyFileLoaded(callback, filePath, false);
@@ -339,7 +683,18 @@ public class FileOperationsHandler {
     }
 
     private void loadSmallFileData(final String filePath) throws Exception {
-	FileOperations.loadCSV(filePath, model);
+	final var dialect = CSVDialectSniffer.sniff(Paths.get(filePath));
+	FileOperations.loadCSV(filePath, model, dialect);
+	loadedSource = captureSource(filePath, dialect);
+	storeSnapshot(loadedSource);
+    }
+
+    private static CSVFileSource captureSource(final String filePath, final CSVDialect dialect) {
+	try {
+	    return CSVFileSource.capture(Paths.get(filePath), dialect);
+	} catch (final IOException e) {
+	    return null; // Saves then rewrite the whole file
+	}
     }
 
     private void calculateLoadTime(final long startTime) {
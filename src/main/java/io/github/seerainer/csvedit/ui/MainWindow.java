@@ -3,10 +3,14 @@ package io.github.seerainer.csvedit.ui;
 import static org.eclipse.swt.events.SelectionListener.widgetSelectedAdapter;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CompletionException;
 
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.Font;
@@ -23,8 +27,19 @@ import org.eclipse.swt.widgets.Shell;
 import org.eclipse.swt.widgets.Table;
 import org.eclipse.swt.widgets.TableColumn;
 
+import io.github.seerainer.csvedit.io.ArrowOperations;
+import io.github.seerainer.csvedit.io.AsyncSaveService;
+import io.github.seerainer.csvedit.io.CSVDialectSniffer;
+import io.github.seerainer.csvedit.io.CSVFileSource;
+import io.github.seerainer.csvedit.io.CompressionCodec;
+import io.github.seerainer.csvedit.io.EditJournal;
 import io.github.seerainer.csvedit.io.FileOperations;
+import io.github.seerainer.csvedit.io.FixedWidthOperations;
 import io.github.seerainer.csvedit.io.JSONOperations;
+import io.github.seerainer.csvedit.io.ParquetOperations;
+import io.github.seerainer.csvedit.io.SampleOperations;
+import io.github.seerainer.csvedit.io.ShardOperations;
+import io.github.seerainer.csvedit.io.XLSXOperations;
 import io.github.seerainer.csvedit.io.XMLOperations;
 import io.github.seerainer.csvedit.model.CSVTableModel;
 import io.github.seerainer.csvedit.model.UndoRedoManager;
@@ -32,11 +47,16 @@ import io.github.seerainer.csvedit.table.CellEditor;
 import io.github.seerainer.csvedit.table.TableManager;
 import io.github.seerainer.csvedit.theme.ThemeManager;
 import io.github.seerainer.csvedit.ui.dialog.AboutDialog;
+import io.github.seerainer.csvedit.ui.dialog.ColumnSelectionDialog;
 import io.github.seerainer.csvedit.ui.dialog.DialogHelper;
 import io.github.seerainer.csvedit.ui.dialog.DuplicateRowsDialog;
 import io.github.seerainer.csvedit.ui.dialog.EditHeaderDialog;
 import io.github.seerainer.csvedit.ui.dialog.FindReplaceDialog;
+import io.github.seerainer.csvedit.ui.dialog.GoToRowDialog;
+import io.github.seerainer.csvedit.ui.dialog.SampleDialog;
 import io.github.seerainer.csvedit.ui.dialog.SettingsDialog;
+import io.github.seerainer.csvedit.ui.dialog.ShardDialog;
+import io.github.seerainer.csvedit.ui.dialog.ShardExportDialog;
 import io.github.seerainer.csvedit.ui.dialog.TextEditorDialog;
 import io.github.seerainer.csvedit.util.PrintHandler;
 import io.github.seerainer.csvedit.util.Settings;
@@ -52,7 +72,14 @@ public class MainWindow {
     private TableManager tableManager;
     private CellEditor cellEditor;
     private String currentFilePath;
+    private String sampleFilePath;
+    private long sampleFirstRow = -1;
+    private CSVFileSource fileSource;
+    private EditJournal journal;
+    private boolean autoSaveFailed = false;
     private boolean isDirty = false;
+    private int modificationCount = 0;
+    private int pendingSaves = 0;
     private final UndoRedoManager undoRedoManager;
     private FindReplaceDialog findReplaceDialog;
     private MenuItem undoMenuItem;
@@ -66,12 +93,14 @@ public class MainWindow {
     private final TableSortHandler sortHandler;
     private final StatusBarManager statusBarManager;
     private final FileOperationsHandler fileOperationsHandler;
+    private final AsyncSaveService saveService;
 
     public MainWindow(final Display display, final String arg) {
 	this.display = display;
 	this.model = new CSVTableModel();
 	this.undoRedoManager = new UndoRedoManager();
 	this.themeManager = new ThemeManager();
+	this.saveService = new AsyncSaveService();
 
 	themeManager.applyToDisplay(display);
 	Icons.initialize(display);
@@ -88,7 +117,7 @@ public class MainWindow {
 	this.statusBarManager = new StatusBarManager(statusLabel, table, model);
 	this.fileOperationsHandler = new FileOperationsHandler(shell, display, table, model, dialogHelper);
 
-	fileOperationsHandler.enableFileDrop(this::confirmDiscardChanges, this::handleFileLoaded);
+	fileOperationsHandler.enableFileDrop(this::confirmReplaceDocument, this::handleFileLoaded);
 	themeManager.applyToControl(shell);
 	themeManager.applyToControl(table);
 
@@ -102,9 +131,11 @@ public class MainWindow {
 	    if (tableFont != null) {
 		tableFont.dispose();
 	    }
+	    saveService.shutdown();
 	});
 	shell.addListener(SWT.Close, event -> {
-	    if (confirmDiscardChanges()) {
+	    if (confirmReplaceDocument()) {
+		waitForPendingSaves();
 		Icons.dispose();
 	    } else {
 		event.doit = false;
@@ -124,16 +155,13 @@ public class MainWindow {
 	updateStatusBar();
     }
 
-    private static String getJsonFileName(final String csvPath) {
-	final var baseName = new File(csvPath).getName();
+    /**
+     * Replaces the extension of a file name, or appends one if it has none
+     */
+    private static String replaceExtension(final String path, final String extension) {
+	final var baseName = new File(path).getName();
 	final var dotIndex = baseName.lastIndexOf('.');
-	return dotIndex > 0 ? baseName.substring(0, dotIndex) + ".json" : baseName + ".json";
-    }
-
-    private static String getXmlFileName(final String csvPath) {
-	final var baseName = new File(csvPath).getName();
-	final var dotIndex = baseName.lastIndexOf('.');
-	return dotIndex > 0 ? baseName.substring(0, dotIndex) + ".xml" : baseName + ".xml";
+	return (dotIndex > 0 ? baseName.substring(0, dotIndex) : baseName) + extension;
     }
 
     private static MenuItem separator(final Menu menu) {
@@ -165,6 +193,7 @@ public class MainWindow {
 		    "You have unsaved changes. Do you want to save them?");
 	    if (result == SWT.YES) {
 		handleSave();
+		waitForPendingSaves();
 		return !isDirty;
 	    }
 	    if (result == SWT.CANCEL) {
@@ -174,6 +203,56 @@ public class MainWindow {
 	return true;
     }
 
+    /**
+     * Confirms that the current document may be replaced, then stops journaling
+     * it: its edits were either saved or discarded
+     */
+    private boolean confirmReplaceDocument() {
+	if (!confirmDiscardChanges()) {
+	    return false;
+	}
+	closeJournal();
+	return true;
+    }
+
+    private void closeJournal() {
+	if (journal == null) {
+	    return;
+	}
+	model.setChangeListener(null);
+	saveService.deleteJournal(journal);
+	journal = null;
+    }
+
+    /**
+     * Starts journaling edits to the opened file, after offering to recover the
+     * edits of a previous session that did not end with a save
+     */
+    private void openJournal() {
+	if (fileSource == null) {
+	    return;
+	}
+	if (EditJournal.hasRecoverableEdits(fileSource)
+		&& dialogHelper.showConfirmation("Recover Unsaved Changes",
+			"This file has unsaved changes from a previous session. Do you want to recover them?") == SWT.YES) {
+	    try {
+		EditJournal.replay(fileSource, model);
+		isDirty = true;
+		modificationCount++;
+	    } catch (final Exception e) {
+		dialogHelper.showError("Error recovering changes", e.getMessage());
+	    }
+	} else {
+	    try {
+		EditJournal.delete(fileSource.getPath());
+	    } catch (final IOException e) {
+		// A stale journal is replaced by the first write
+	    }
+	}
+	journal = new EditJournal(fileSource, model);
+	model.setChangeListener(journal);
+    }
+
     private void createEditMenu(final Menu menuBar) {
 	final var editMenuItem = new MenuItem(menuBar, SWT.CASCADE);
 	editMenuItem.setText("&Edit");
@@ -253,6 +332,11 @@ public class MainWindow {
 	findItem.setAccelerator(SWT.MOD1 + 'F');
 	findItem.addSelectionListener(widgetSelectedAdapter(_ -> handleFindReplace()));
 
+	final var goToRowItem = new MenuItem(editMenu, SWT.PUSH);
+	goToRowItem.setText("&Go to Row...\tCtrl+G");
+	goToRowItem.setAccelerator(SWT.MOD1 + 'G');
+	goToRowItem.addSelectionListener(widgetSelectedAdapter(_ -> handleGoToRow()));
+
 	separator(editMenu);
 
 	final var removeDuplicatesItem = new MenuItem(editMenu, SWT.PUSH);
@@ -277,6 +361,18 @@ public class MainWindow {
 	openItem.setAccelerator(SWT.MOD1 + 'O');
 	openItem.addSelectionListener(widgetSelectedAdapter(_ -> handleOpen()));
 
+	final var openShardsItem = new MenuItem(fileMenu, SWT.PUSH);
+	openShardsItem.setText("Open S&hards...");
+	openShardsItem.addSelectionListener(widgetSelectedAdapter(_ -> handleOpenShards()));
+
+	final var openSampleItem = new MenuItem(fileMenu, SWT.PUSH);
+	openSampleItem.setText("Open Sa&mple...");
+	openSampleItem.addSelectionListener(widgetSelectedAdapter(_ -> handleOpenSample()));
+
+	final var openColumnsItem = new MenuItem(fileMenu, SWT.PUSH);
+	openColumnsItem.setText("Open with Co&lumns...");
+	openColumnsItem.addSelectionListener(widgetSelectedAdapter(_ -> handleOpenWithColumns()));
+
 	separator(fileMenu);
 
 	final var saveItem = new MenuItem(fileMenu, SWT.PUSH);
@@ -312,6 +408,22 @@ public class MainWindow {
 	importXmlItem.setText("From &XML...");
 	importXmlItem.addSelectionListener(widgetSelectedAdapter(_ -> handleImportXML()));
 
+	final var importArrowItem = new MenuItem(importMenu, SWT.PUSH);
+	importArrowItem.setText("From &Arrow/Feather...");
+	importArrowItem.addSelectionListener(widgetSelectedAdapter(_ -> handleImportArrow()));
+
+	final var importParquetItem = new MenuItem(importMenu, SWT.PUSH);
+	importParquetItem.setText("From &Parquet...");
+	importParquetItem.addSelectionListener(widgetSelectedAdapter(_ -> handleImportParquet()));
+
+	final var importExcelItem = new MenuItem(importMenu, SWT.PUSH);
+	importExcelItem.setText("From &Excel (XLSX)...");
+	importExcelItem.addSelectionListener(widgetSelectedAdapter(_ -> handleImportExcel()));
+
+	final var importFixedWidthItem = new MenuItem(importMenu, SWT.PUSH);
+	importFixedWidthItem.setText("From &Fixed-Width...");
+	importFixedWidthItem.addSelectionListener(widgetSelectedAdapter(_ -> handleImportFixedWidth()));
+
 	final var exportMenuItem = new MenuItem(fileMenu, SWT.CASCADE);
 	exportMenuItem.setText("&Export");
 
@@ -322,10 +434,34 @@ public class MainWindow {
 	exportJsonItem.setText("To &JSON...");
 	exportJsonItem.addSelectionListener(widgetSelectedAdapter(_ -> handleExportJSON()));
 
+	final var exportJsonLinesItem = new MenuItem(exportMenu, SWT.PUSH);
+	exportJsonLinesItem.setText("To JSON &Lines...");
+	exportJsonLinesItem.addSelectionListener(widgetSelectedAdapter(_ -> handleExportJSONLines()));
+
 	final var exportXmlItem = new MenuItem(exportMenu, SWT.PUSH);
 	exportXmlItem.setText("To &XML...");
 	exportXmlItem.addSelectionListener(widgetSelectedAdapter(_ -> handleExportXML()));
 
+	final var exportArrowItem = new MenuItem(exportMenu, SWT.PUSH);
+	exportArrowItem.setText("To &Arrow/Feather...");
+	exportArrowItem.addSelectionListener(widgetSelectedAdapter(_ -> handleExportArrow()));
+
+	final var exportParquetItem = new MenuItem(exportMenu, SWT.PUSH);
+	exportParquetItem.setText("To &Parquet...");
+	exportParquetItem.addSelectionListener(widgetSelectedAdapter(_ -> handleExportParquet()));
+
+	final var exportExcelItem = new MenuItem(exportMenu, SWT.PUSH);
+	exportExcelItem.setText("To &Excel (XLSX)...");
+	exportExcelItem.addSelectionListener(widgetSelectedAdapter(_ -> handleExportExcel()));
+
+	final var exportFixedWidthItem = new MenuItem(exportMenu, SWT.PUSH);
+	exportFixedWidthItem.setText("To &Fixed-Width...");
+	exportFixedWidthItem.addSelectionListener(widgetSelectedAdapter(_ -> handleExportFixedWidth()));
+
+	final var exportShardsItem = new MenuItem(exportMenu, SWT.PUSH);
+	exportShardsItem.setText("To &Shards...");
+	exportShardsItem.addSelectionListener(widgetSelectedAdapter(_ -> handleExportShards()));
+
 	separator(fileMenu);
 
 	final var exitItem = new MenuItem(fileMenu, SWT.PUSH);
@@ -512,12 +648,18 @@ public class MainWindow {
     }
 
     private void handleFileLoaded(final String filePath, final boolean imported) {
+	sampleFilePath = null;
+	sampleFirstRow = -1;
+	modificationCount++;
+	model.resetModifications();
+	fileSource = imported ? null : fileOperationsHandler.getLoadedSource();
 	if (imported) {
 	    currentFilePath = null;
 	    isDirty = true;
 	} else {
 	    currentFilePath = filePath;
 	    isDirty = false;
+	    openJournal();
 	}
 	undoRedoManager.clear();
 	updateUndoRedoMenuItems();
@@ -526,6 +668,18 @@ public class MainWindow {
 	updateStatusBar();
     }
 
+    /**
+     * Shows a sample or a window of rows of a file as an unmodified, untitled
+     * table that remembers where it came from, so Go to Row can read other rows
+     */
+    private void handleSampleLoaded(final String filePath, final long firstRow) {
+	handleFileLoaded(null, true);
+	sampleFilePath = filePath;
+	sampleFirstRow = firstRow;
+	isDirty = false;
+	updateTitle();
+    }
+
     private int getColumnIndex(final Event event) {
 	return sortHandler.getColumnIndex(event);
     }
@@ -731,8 +885,55 @@ public class MainWindow {
 	cellEditor.editCell(item, selectedIndex, 0, this::recordCellEdit);
     }
 
+    private void handleExportArrow() {
+	final var fileName = getExportFileName(".arrow");
+	var path = dialogHelper.showSaveFileDialog(new String[] { "*.arrow;*.feather", "*.*" },
+		new String[] { "Arrow Files (*.arrow, *.feather)", "All Files (*.*)" }, fileName);
+
+	if (path == null) {
+	    return;
+	}
+	if (!ArrowOperations.isArrowFile(path)) {
+	    path += ".arrow";
+	}
+
+	final var arrowPath = path;
+	exportInBackground("Error exporting to Arrow", snapshot -> ArrowOperations.saveArrow(arrowPath, snapshot,
+		this::showExportProgress));
+    }
+
+    private void handleExportExcel() {
+	final var fileName = getExportFileName(".xlsx");
+	var path = dialogHelper.showSaveFileDialog(new String[] { "*.xlsx", "*.*" },
+		new String[] { "Excel Workbooks (*.xlsx)", "All Files (*.*)" }, fileName);
+
+	if (path == null) {
+	    return;
+	}
+	if (!XLSXOperations.isXLSXFile(path)) {
+	    path += ".xlsx";
+	}
+
+	final var xlsxPath = path;
+	exportInBackground("Error exporting to Excel", snapshot -> XLSXOperations.saveXLSX(xlsxPath, snapshot,
+		this::showExportProgress));
+    }
+
+    private void handleExportFixedWidth() {
+	final var fileName = getExportFileName(".fwf");
+	final var path = dialogHelper.showSaveFileDialog(new String[] { "*.fwf;*.txt;*.dat", "*.*" },
+		new String[] { "Fixed-Width Files (*.fwf, *.txt, *.dat)", "All Files (*.*)" }, fileName);
+
+	if (path == null) {
+	    return;
+	}
+
+	exportInBackground("Error exporting to fixed-width file", snapshot -> FixedWidthOperations.saveFixedWidth(path,
+		snapshot, this::showExportProgress));
+    }
+
     private void handleExportJSON() {
-	final var fileName = currentFilePath != null ? getJsonFileName(currentFilePath) : null;
+	final var fileName = getExportFileName(".json");
 	var path = dialogHelper.showSaveFileDialog(new String[] { "*.json", "*.*" },
 		new String[] { "JSON Files (*.json)", "All Files (*.*)" }, fileName);
 
@@ -743,15 +944,105 @@ public class MainWindow {
 	    path += ".json";
 	}
 
-	try {
-	    JSONOperations.saveJSON(path, model);
-	} catch (final Exception e) {
-	    dialogHelper.showError("Error exporting to JSON", e.getMessage());
+	final var jsonPath = path;
+	final var compact = Settings.getJsonCompact();
+	exportInBackground("Error exporting to JSON", snapshot -> JSONOperations.saveJSON(jsonPath, snapshot, compact,
+		this::showExportProgress));
+    }
+
+    private void handleExportJSONLines() {
+	final var fileName = getExportFileName(".jsonl");
+	var path = dialogHelper.showSaveFileDialog(new String[] { "*.jsonl", "*.*" },
+		new String[] { "JSON Lines Files (*.jsonl)", "All Files (*.*)" }, fileName);
+
+	if (path == null) {
+	    return;
+	}
+	if (!JSONOperations.isJSONLinesFile(path)) {
+	    path += ".jsonl";
+	}
+
+	final var jsonPath = path;
+	exportInBackground("Error exporting to JSON Lines", snapshot -> JSONOperations.saveJSONLines(jsonPath, snapshot,
+		this::showExportProgress));
+    }
+
+    /**
+     * Suggests a file name for an export of the current file
+     */
+    private String getExportFileName(final String extension) {
+	return currentFilePath != null ? replaceExtension(currentFilePath, extension) : null;
+    }
+
+    /**
+     * Shows the progress of a background export; called on the saving thread
+     */
+    private void showExportProgress(final int rowsWritten, final int totalRows) {
+	runOnUIThread(() -> statusBarManager.showProgress("Exporting", rowsWritten, totalRows));
+    }
+
+    /**
+     * Exports a snapshot of the model in the background, after any pending saves
+     */
+    private void exportInBackground(final String errorTitle, final AsyncSaveService.Exporter exporter) {
+	pendingSaves++;
+	saveService.export(model, exporter).whenComplete((_, error) -> runOnUIThread(() -> {
+	    pendingSaves--;
+	    if (error != null) {
+		dialogHelper.showError(errorTitle, getRootCause(error).getMessage());
+	    }
+	    updateStatusBar();
+	}));
+    }
+
+    private void handleExportParquet() {
+	final var fileName = getExportFileName(".parquet");
+	var path = dialogHelper.showSaveFileDialog(new String[] { "*.parquet", "*.*" },
+		new String[] { "Parquet Files (*.parquet)", "All Files (*.*)" }, fileName);
+
+	if (path == null) {
+	    return;
+	}
+	if (!ParquetOperations.isParquetFile(path)) {
+	    path += ".parquet";
+	}
+
+	final var parquetPath = path;
+	exportInBackground("Error exporting to Parquet", snapshot -> ParquetOperations.saveParquet(parquetPath,
+		snapshot, this::showExportProgress));
+    }
+
+    private void handleExportShards() {
+	final var fileName = currentFilePath != null ? new File(currentFilePath).getName() : null;
+	final var path = dialogHelper.showSaveFileDialog(
+		new String[] { "*.csv;*.tsv;*.csv.gz", "*.json", "*.jsonl", "*.xml", "*.*" },
+		new String[] { "CSV Files (*.csv, *.tsv, *.csv.gz)", "JSON Files (*.json)", "JSON Lines Files (*.jsonl)",
+			"XML Files (*.xml)", "All Files (*.*)" },
+		fileName);
+
+	if (path == null) {
+	    return;
+	}
+
+	final var shardDialog = new ShardExportDialog(shell, model.getHeaders());
+	if (!shardDialog.open()) {
+	    return;
 	}
+
+	final var mode = shardDialog.getMode();
+	final var limit = shardDialog.getLimit();
+	final var keyColumn = shardDialog.getKeyColumn();
+	exportInBackground("Error exporting shards", snapshot -> {
+	    switch (mode) {
+	    case ROWS -> ShardOperations.saveShardsByRows(path, snapshot, (int) limit, this::showExportProgress);
+	    case SIZE -> ShardOperations.saveShardsBySize(path, snapshot, limit, this::showExportProgress);
+	    case KEY -> ShardOperations.saveShardsByKey(path, snapshot, keyColumn, this::showExportProgress);
+	    }
+	});
     }
 
     private void handleExportXML() {
-	final var fileName = currentFilePath != null ? getXmlFileName(currentFilePath) : null;
+	final var fileName = getExportFileName(".xml");
 	var path = dialogHelper.showSaveFileDialog(new String[] { "*.xml", "*.*" },
 		new String[] { "XML Files (*.xml)", "All Files (*.*)" }, fileName);
 
@@ -790,19 +1081,113 @@ public class MainWindow {
 	findReplaceDialog.show();
     }
 
+    private void handleGoToRow() {
+	final var rowCount = model.getRowCount();
+	final var hint = sampleFilePath != null
+		? "Rows outside this sample are read from " + new File(sampleFilePath).getName() + "."
+		: "The table has %,d rows.".formatted(Integer.valueOf(rowCount));
+	final var row = new GoToRowDialog(shell, hint).open();
+	if (row <= 0) {
+	    return;
+	}
+
+	final var index = row - 1;
+	if (sampleFilePath == null) {
+	    if (index >= rowCount) {
+		dialogHelper.showInfo("Go to Row", "The table ends at row %,d.".formatted(Integer.valueOf(rowCount)));
+	    } else {
+		selectRow((int) index);
+	    }
+	    return;
+	}
+	if (sampleFirstRow >= 0 && index >= sampleFirstRow && index < sampleFirstRow + rowCount) {
+	    selectRow((int) (index - sampleFirstRow));
+	    return;
+	}
+	if (!confirmDiscardChanges()) {
+	    return;
+	}
+
+	// Read the rows around the target from the file, seeking from a checkpoint
+	final var path = sampleFilePath;
+	final var firstRow = Math.max(0, index - UIConstants.GO_TO_ROW_WINDOW_ROWS / 2);
+	closeJournal();
+	fileOperationsHandler.openWindow(path, firstRow, UIConstants.GO_TO_ROW_WINDOW_ROWS, (_, _) -> {
+	    handleSampleLoaded(path, firstRow);
+	    if (index - firstRow < model.getRowCount()) {
+		selectRow((int) (index - firstRow));
+	    } else {
+		dialogHelper.showInfo("Go to Row", "The file ends at row %,d."
+			.formatted(Long.valueOf(firstRow + model.getRowCount())));
+	    }
+	});
+    }
+
+    private void handleImportArrow() {
+	if (!confirmDiscardChanges()) {
+	    return;
+	}
+
+	final var path = dialogHelper.showOpenFileDialog(new String[] { "*.arrow;*.feather;*.arrows", "*.*" },
+		new String[] { "Arrow Files (*.arrow, *.feather, *.arrows)", "All Files (*.*)" });
+
+	if (path != null) {
+	    importColumnarFile(path);
+	}
+    }
+
+    private void handleImportExcel() {
+	if (!confirmDiscardChanges()) {
+	    return;
+	}
+
+	final var path = dialogHelper.showOpenFileDialog(new String[] { "*.xlsx", "*.*" },
+		new String[] { "Excel Workbooks (*.xlsx)", "All Files (*.*)" });
+
+	if (path != null) {
+	    importXMLFile(path);
+	}
+    }
+
+    private void handleImportFixedWidth() {
+	if (!confirmDiscardChanges()) {
+	    return;
+	}
+
+	final var path = dialogHelper.showOpenFileDialog(new String[] { "*.fwf;*.txt;*.dat", "*.*" },
+		new String[] { "Fixed-Width Files (*.fwf, *.txt, *.dat)", "All Files (*.*)" });
+
+	if (path != null) {
+	    importFixedWidthFile(path);
+	}
+    }
+
     private void handleImportJSON() {
 	if (!confirmDiscardChanges()) {
 	    return;
 	}
 
-	final var path = dialogHelper.showOpenFileDialog(new String[] { "*.json", "*.*" },
-		new String[] { "JSON Files (*.json)", "All Files (*.*)" });
+	final var path = dialogHelper.showOpenFileDialog(new String[] { "*.json;*.jsonl;*.ndjson", "*.*" },
+		new String[] { "JSON Files (*.json, *.jsonl, *.ndjson)", "All Files (*.*)" });
 
 	if (path != null) {
 	    importJSONFile(path);
 	}
     }
 
+    private void handleImportParquet() {
+	if (!confirmDiscardChanges()) {
+	    return;
+	}
+
+	final var path = dialogHelper.showOpenFileDialog(new String[] { "*.parquet", "*.*" },
+		new String[] { "Parquet Files (*.parquet)", "All Files (*.*)" });
+
+	if (path != null) {
+	    importColumnarFile(path);
+	}
+    }
+
     private void handleImportXML() {
 	if (!confirmDiscardChanges()) {
 	    return;
@@ -817,7 +1202,7 @@ public class MainWindow {
     }
 
     private void handleNew() {
-	if (!confirmDiscardChanges()) {
+	if (!confirmReplaceDocument()) {
 	    return;
 	}
 
@@ -830,7 +1215,11 @@ public class MainWindow {
 	    }
 
 	    currentFilePath = null;
+	    sampleFilePath = null;
+	    sampleFirstRow = -1;
+	    fileSource = null;
 	    isDirty = false;
+	    modificationCount++;
 	    undoRedoManager.clear();
 	    updateUndoRedoMenuItems();
 	    updateTitle();
@@ -845,9 +1234,10 @@ public class MainWindow {
 	    return;
 	}
 
-	final var path = dialogHelper.showOpenFileDialog(new String[] { "*.csv;*.csv.gz", "*.csv", "*.csv.gz", "*.*" },
-		new String[] { "CSV Files (*.csv, *.csv.gz)", "CSV Files (*.csv)", "Gzipped CSV Files (*.csv.gz)",
-			"All Files (*.*)" });
+	final var path = dialogHelper.showOpenFileDialog(
+		new String[] { "*.csv;*.csv.gz;*.csv.zst;*.csv.lz4", "*.csv", "*.csv.gz;*.csv.zst;*.csv.lz4", "*.*" },
+		new String[] { "CSV Files (*.csv, *.csv.gz, *.csv.zst, *.csv.lz4)", "CSV Files (*.csv)",
+			"Compressed CSV Files (*.csv.gz, *.csv.zst, *.csv.lz4)", "All Files (*.*)" });
 
 	if (path == null) {
 	    return;
@@ -856,6 +1246,80 @@ public class MainWindow {
 	openFile(new File(path));
     }
 
+    private void handleOpenSample() {
+	if (!confirmDiscardChanges()) {
+	    return;
+	}
+
+	final var path = dialogHelper.showOpenFileDialog(
+		new String[] { "*.csv;*.tsv;*.txt;*.csv.gz;*.csv.zst;*.csv.lz4", "*.*" },
+		new String[] { "CSV Files (*.csv, *.tsv, *.txt, *.csv.gz, *.csv.zst, *.csv.lz4)", "All Files (*.*)" });
+
+	if (path == null) {
+	    return;
+	}
+
+	final var sampleDialog = new SampleDialog(shell);
+	if (sampleDialog.open()) {
+	    closeJournal();
+	    final var firstRow = sampleDialog.getMode() == SampleOperations.Mode.HEAD ? 0 : -1;
+	    fileOperationsHandler.openSample(path, sampleDialog.getMode(), sampleDialog.getRowCount(),
+		    (_, _) -> handleSampleLoaded(path, firstRow));
+	}
+    }
+
+    private void handleOpenShards() {
+	if (!confirmDiscardChanges()) {
+	    return;
+	}
+
+	final var shardDialog = new ShardDialog(shell);
+	if (shardDialog.open()) {
+	    closeJournal();
+	    fileOperationsHandler.openShards(shardDialog.getShards(), shardDialog.isSourceColumn(),
+		    this::handleFileLoaded);
+	}
+    }
+
+    private void handleOpenWithColumns() {
+	if (!confirmDiscardChanges()) {
+	    return;
+	}
+
+	final var path = dialogHelper.showOpenFileDialog(
+		new String[] { "*.csv;*.tsv;*.txt;*.csv.gz;*.csv.zst;*.csv.lz4", "*.parquet", "*.*" },
+		new String[] { "CSV Files (*.csv, *.tsv, *.txt, *.csv.gz, *.csv.zst, *.csv.lz4)",
+			"Parquet Files (*.parquet)", "All Files (*.*)" });
+
+	if (path == null) {
+	    return;
+	}
+
+	final var parquet = ParquetOperations.isParquetFile(path);
+	final List<String> columnNames;
+	try {
+	    columnNames = parquet ? ParquetOperations.getColumnNames(path)
+		    : FileOperations.readColumnNames(path, CSVDialectSniffer.sniff(Paths.get(path)));
+	} catch (final IOException e) {
+	    dialogHelper.showError("Failed to read columns", e.getMessage());
+	    return;
+	}
+
+	// Parquet files are read by column chunk, so rows cannot be filtered there
+	final var columnDialog = new ColumnSelectionDialog(shell, columnNames, !parquet);
+	final var columns = columnDialog.open();
+	if (columns == null) {
+	    return;
+	}
+	closeJournal();
+	if (parquet) {
+	    fileOperationsHandler.importColumnarFile(path,
+		    Arrays.stream(columns).mapToObj(columnNames::get).toList(), this::handleFileLoaded);
+	} else {
+	    fileOperationsHandler.openWithColumns(path, columns, columnDialog.getFilter(), this::handleFileLoaded);
+	}
+    }
+
     private void handlePrint() {
 	if (printHandler == null) {
 	    printHandler = new PrintHandler(shell, model);
@@ -919,18 +1383,22 @@ public class MainWindow {
 
     private void handleSaveAs() {
 	final var fileName = currentFilePath != null ? new File(currentFilePath).getName() : null;
-	var path = dialogHelper.showSaveFileDialog(new String[] { "*.csv;*.csv.gz", "*.csv", "*.csv.gz", "*.*" },
-		new String[] { "CSV Files (*.csv, *.csv.gz)", "CSV Files (*.csv)", "Gzipped CSV Files (*.csv.gz)",
-			"All Files (*.*)" },
+	var path = dialogHelper.showSaveFileDialog(
+		new String[] { "*.csv;*.csv.gz;*.csv.zst;*.csv.lz4", "*.csv", "*.csv.gz;*.csv.zst;*.csv.lz4", "*.*" },
+		new String[] { "CSV Files (*.csv, *.csv.gz, *.csv.zst, *.csv.lz4)", "CSV Files (*.csv)",
+			"Compressed CSV Files (*.csv.gz, *.csv.zst, *.csv.lz4)", "All Files (*.*)" },
 		fileName);
 
 	if (path == null) {
 	    return;
 	}
-	if (!path.toLowerCase().endsWith(".csv") && !path.toLowerCase().endsWith(".csv.gz")) {
+	final var codec = CompressionCodec.fromFileName(path);
+	if (!path.toLowerCase().endsWith(".csv" + codec.getExtension())) {
 	    path += ".csv";
 	}
 	currentFilePath = path;
+	sampleFilePath = null;
+	sampleFirstRow = -1;
 	saveToFile(path);
     }
 
@@ -970,20 +1438,40 @@ public class MainWindow {
 	markDirty();
     }
 
+    private void importColumnarFile(final String path) {
+	closeJournal();
+	fileOperationsHandler.importColumnarFile(path, this::handleFileLoaded);
+    }
+
+    private void importFixedWidthFile(final String path) {
+	closeJournal();
+	fileOperationsHandler.importFixedWidthFile(path, this::handleFileLoaded);
+    }
+
     private void importJSONFile(final String path) {
+	closeJournal();
 	fileOperationsHandler.importJSONFile(path, this::handleFileLoaded);
     }
 
     private void importXMLFile(final String path) {
+	closeJournal();
 	fileOperationsHandler.importXMLFile(path, this::handleFileLoaded);
     }
 
+    private void selectRow(final int row) {
+	table.setSelection(row);
+	table.showSelection();
+	updateStatusBar();
+    }
+
     private void markDirty() {
 	isDirty = true;
+	modificationCount++;
 	updateTitle();
     }
 
     private void openFile(final File file) {
+	closeJournal();
 	fileOperationsHandler.openFile(file, this::handleFileLoaded);
     }
 
@@ -1004,33 +1492,122 @@ public class MainWindow {
     }
 
     private void saveToFile(final String path) {
-	try {
-	    FileOperations.saveCSV(path, model);
-	    isDirty = false;
-	    updateTitle();
-	    updateStatusBar();
-	} catch (final Exception e) {
-	    dialogHelper.showError("Error saving file", e.getMessage());
+	saveToFile(path, false);
+    }
+
+    /**
+     * Saves a snapshot of the model in the background, rewriting only the edited
+     * rows where possible, and folds the edit journal into the saved file. The
+     * file is only marked clean if it was not edited while the save was running.
+     */
+    private void saveToFile(final String path, final boolean autoSave) {
+	if (journal == null) {
+	    // Journal the edits made from now on to the file being saved
+	    journal = new EditJournal(null, model);
+	    model.setChangeListener(journal);
+	}
+	final var savedModification = modificationCount;
+	pendingSaves++;
+	saveService.save(path, model, fileSource, journal, (rowsWritten, totalRows) -> runOnUIThread(
+		() -> statusBarManager.showProgress("Saving", rowsWritten, totalRows)))
+		.whenComplete((savedSource, error) -> runOnUIThread(() -> {
+		    pendingSaves--;
+		    if (error != null) {
+			if (autoSave) {
+			    reportAutoSaveError(error);
+			} else {
+			    dialogHelper.showError("Error saving file", getRootCause(error).getMessage());
+			}
+		    } else if (path.equals(currentFilePath)) {
+			autoSaveFailed = false;
+			fileSource = savedSource;
+			// Edits made during the save stay tracked for the next one
+			if (modificationCount == savedModification) {
+			    model.resetModifications();
+			    isDirty = false;
+			    updateTitle();
+			}
+		    }
+		    updateStatusBar();
+		}));
+    }
+
+    /**
+     * Reports a failed auto-save once, until an auto-save succeeds again
+     */
+    private void reportAutoSaveError(final Throwable error) {
+	if (autoSaveFailed) {
+	    return;
 	}
+	autoSaveFailed = true;
+	dialogHelper.showError("Auto-save failed", getRootCause(error).getMessage());
+    }
+
+    private static Throwable getRootCause(final Throwable error) {
+	var cause = error;
+	while ((cause instanceof CompletionException || cause instanceof UncheckedIOException)
+		&& cause.getCause() != null) {
+	    cause = cause.getCause();
+	}
+	return cause;
+    }
+
+    private void runOnUIThread(final Runnable runnable) {
+	if (display.isDisposed()) {
+	    return;
+	}
+	display.asyncExec(() -> {
+	    if (!shell.isDisposed()) {
+		runnable.run();
+	    }
+	});
+    }
+
+    /**
+     * Keeps the UI responsive until all queued saves have finished
+     */
+    private void waitForPendingSaves() {
+	while (pendingSaves > 0 && !shell.isDisposed()) {
+	    if (!display.readAndDispatch()) {
+		display.sleep();
+	    }
+	}
+    }
+
+    /**
+     * Writes the edits since the last auto-save to the journal, or saves the
+     * whole file if it has no journal yet
+     */
+    private void autoSave() {
+	if (journal == null) {
+	    saveToFile(currentFilePath, true);
+	    return;
+	}
+	if (!journal.hasPendingEdits()) {
+	    return;
+	}
+	saveService.flushJournal(journal).whenComplete((_, error) -> runOnUIThread(() -> {
+	    if (error != null) {
+		reportAutoSaveError(error);
+	    } else {
+		autoSaveFailed = false;
+	    }
+	}));
     }
 
     private void setupAutoSave() {
 	final Runnable autoSaveTask = new Runnable() {
 	    @Override
 	    public void run() {
-		if (!shell.isDisposed() && isDirty && currentFilePath != null) {
-		    try {
-			FileOperations.saveCSV(currentFilePath, model);
-		    } catch (final Exception e) {
-			// Silent failure
-		    }
+		if (!shell.isDisposed() && isDirty && currentFilePath != null && pendingSaves == 0) {
+		    autoSave();
 		}
 		if (!shell.isDisposed() && Settings.getAutoSave()) {
-		    display.timerExec(30000, this);
+		    display.timerExec(UIConstants.AUTO_SAVE_INTERVAL_MS, this);
 		}
 	    }
 	};
-	display.timerExec(30000, autoSaveTask);
+	display.timerExec(UIConstants.AUTO_SAVE_INTERVAL_MS, autoSaveTask);
     }
 
     private void setupTableListeners() {
@@ -1077,6 +1654,9 @@ public class MainWindow {
 	final var title = new StringBuilder("CSV Editor");
 	if (currentFilePath != null) {
 	    title.append(" - ").append(new File(currentFilePath).getName());
+	} else if (sampleFilePath != null) {
+	    title.append(" - ").append(new File(sampleFilePath).getName());
+	    title.append(sampleFirstRow >= 0 ? " [from row %,d]".formatted(Long.valueOf(sampleFirstRow + 1)) : " [sample]");
 	}
 	if (isDirty) {
 	    title.append(" *");
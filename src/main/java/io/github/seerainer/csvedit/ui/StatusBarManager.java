@@ -41,4 +41,15 @@ public class StatusBarManager {
 
 	statusLabel.setText(statusText.toString());
     }
+
+    /**
+     * Show the progress of a background operation, e.g. "Saving... 40%"
+     */
+    public void showProgress(final String activity, final int done, final int total) {
+	if (statusLabel.isDisposed()) {
+	    return;
+	}
+	final var percentage = total > 0 ? (int) ((done * 100.0) / total) : 0;
+	statusLabel.setText("%s... %d%%".formatted(activity, Integer.valueOf(percentage)));
+    }
 }
@@ -1,7 +1,7 @@
 package io.github.seerainer.csvedit.ui;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.widgets.Event;
@@ -38,14 +38,12 @@ public class TableSortHandler {
 	}
 
 	final var sortDirection = determineSortDirection(columnIndex);
-	final var rows = collectRows();
+	final var order = IntStream.range(0, model.getRowCount()).boxed()
+		.sorted((r1, r2) -> compareRows(model.getRowView(r1.intValue()), model.getRowView(r2.intValue()),
+			columnIndex, sortDirection))
+		.mapToInt(Integer::intValue).toArray();
 
-	// rows.sort(
-	// Comparator.comparing(row -> row, (row1, row2) -> compareRows(row1, row2,
-	// columnIndex, sortDirection)));
-	rows.sort((r1, r2) -> compareRows(r1, r2, columnIndex, sortDirection));
-
-	model.setData(rows);
+	model.reorderRows(order);
 	refreshCallback.run();
 
 	updateSortIndicator(columnIndex, sortDirection);
@@ -69,14 +67,6 @@ public class TableSortHandler {
 	return -1;
     }
 
-    private List<List<String>> collectRows() {
-	final var rows = new ArrayList<List<String>>();
-	for (var i = 0; i < model.getRowCount(); i++) {
-	    rows.add(model.getRow(i));
-	}
-	return rows;
-    }
-
     private static int compareRows(final List<String> row1, final List<String> row2, final int columnIndex,
 	    final int sortDirection) {
 	final var val1 = columnIndex < row1.size() ? row1.get(columnIndex) : "";
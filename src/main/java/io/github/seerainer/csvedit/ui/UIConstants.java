@@ -21,6 +21,26 @@ public final class UIConstants {
     public static final int CSV_PREVIEW_ROWS = 100;
     public static final long PROGRESS_UPDATE_INTERVAL = 1000;
     public static final long LARGE_FILE_THRESHOLD_BYTES = 10 * 1024 * 1024; // 10MB
+    public static final long GZIP_INDEX_SPAN_BYTES = 4 * 1024 * 1024; // 4MB between gzip checkpoints
+    public static final int DIALECT_SNIFF_BYTES = 64 * 1024; // 64KB sample for dialect detection
+    public static final int CSV_WRITE_BUFFER_BYTES = 1024 * 1024; // 1MB output buffer for saving
+    public static final int SAVE_BLOCK_ROWS = 10000; // Rows encoded per parallel save block
+    public static final int CSV_BLOCK_BUFFER_BYTES = 64 * 1024; // Encoder buffer per save block
+    public static final int IMPORT_BATCH_ROWS = 10000; // Rows appended to the model per streamed import batch
+    public static final long JSON_LINES_MIN_CHUNK_BYTES = 1024 * 1024; // Smallest range parsed by one thread
+    public static final long JSON_LINES_MAX_CHUNK_BYTES = 256 * 1024 * 1024; // Largest range read into memory at once
+    public static final int PARQUET_ROW_GROUP_ROWS = 100000; // Rows per row group written to Parquet files
+    public static final int PARQUET_PAGE_ROWS = 20000; // Rows per data page written to Parquet files
+    public static final int PARQUET_DICTIONARY_BYTES = 1024 * 1024; // Largest dictionary page before plain encoding
+    public static final int XLSX_SHARED_STRINGS_MAX = 1000000; // Distinct strings shared before cells go inline
+    public static final int FIXED_WIDTH_SAMPLE_BYTES = 64 * 1024; // Bytes read to detect fixed-width columns
+    public static final int FIXED_WIDTH_SAMPLE_BLOCKS = 8; // Evenly spaced blocks the detection sample is split into
+    public static final int CHECKPOINT_INTERVAL_ROWS = 1000; // Records between two checkpoints of a file's index
+    public static final int GO_TO_ROW_WINDOW_ROWS = 1000; // Rows read around a target row that is not loaded
+    public static final long SNAPSHOT_MIN_FILE_BYTES = 10 * 1024 * 1024; // Smallest file cached as a snapshot
+    public static final int SNAPSHOT_CACHE_MAX_FILES = 8; // Snapshots kept before the oldest is evicted
+    public static final int SNAPSHOT_HASH_SAMPLES = 16; // File regions hashed to identify a snapshot's source
+    public static final int SNAPSHOT_HASH_SAMPLE_BYTES = 64 * 1024; // Size of each hashed region
 
     // Undo/Redo management
     public static final int MAX_UNDO_STACK_SIZE = 100;
@@ -68,6 +88,7 @@ public final class UIConstants {
     public static final int ANIMATION_FADE_DURATION_MS = 1000;
     public static final float ANIMATION_Y_OFFSET = 50f;
     public static final int PROGRESS_AUTO_CLOSE_DELAY_MS = 500;
+    public static final int AUTO_SAVE_INTERVAL_MS = 30000;
 
     private UIConstants() {
 	throw new IllegalStateException("Utility class - do not instantiate");
@@ -0,0 +1,193 @@
+package io.github.seerainer.csvedit.ui.dialog;
+
+import static org.eclipse.swt.events.SelectionListener.widgetSelectedAdapter;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.layout.GridData;
+import org.eclipse.swt.layout.GridLayout;
+import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.Label;
+import org.eclipse.swt.widgets.Listener;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Table;
+import org.eclipse.swt.widgets.TableItem;
+import org.eclipse.swt.widgets.Text;
+
+import io.github.seerainer.csvedit.io.RowFilter;
+
+/**
+ * Dialog for choosing the columns of a file to open, listed by their header
+ * names, and optionally a filter for the rows to load.
+ */
+public class ColumnSelectionDialog extends ThemedDialog {
+
+    private final List<String> columnNames;
+    private final boolean filterable;
+    private int[] columns;
+    private RowFilter filter;
+
+    /**
+     * Creates a column selection dialog.
+     *
+     * @param parent      the parent shell
+     * @param columnNames the names of the file's columns
+     */
+    public ColumnSelectionDialog(final Shell parent, final List<String> columnNames) {
+	this(parent, columnNames, true);
+    }
+
+    /**
+     * Creates a column selection dialog.
+     *
+     * @param parent      the parent shell
+     * @param columnNames the names of the file's columns
+     * @param filterable  whether to offer a filter for the rows to load
+     */
+    public ColumnSelectionDialog(final Shell parent, final List<String> columnNames, final boolean filterable) {
+	super(parent, SWT.DIALOG_TRIM | SWT.APPLICATION_MODAL | SWT.RESIZE);
+	this.columnNames = List.copyOf(columnNames);
+	this.filterable = filterable;
+	createContents();
+	centerOnParent();
+    }
+
+    /**
+     * Opens the dialog and returns the selected columns.
+     *
+     * @return the indices of the selected columns in file order, or null if the
+     *         user cancelled
+     */
+    public int[] open() {
+	shell.open();
+	final var display = shell.getDisplay();
+	while (!shell.isDisposed()) {
+	    if (!display.readAndDispatch()) {
+		display.sleep();
+	    }
+	}
+	return columns;
+    }
+
+    /**
+     * Gets the filter for the rows to load.
+     *
+     * @return the filter, or null to load all rows
+     */
+    public RowFilter getFilter() {
+	return filter;
+    }
+
+    /**
+     * Creates the dialog contents.
+     */
+    private void createContents() {
+	shell.setText("Open with Columns");
+	shell.setLayout(new GridLayout(2, false));
+
+	final var label = new Label(shell, SWT.NONE);
+	label.setText("Columns to load:");
+	label.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false, 2, 1));
+	applyTheme(label);
+
+	final var columnTable = new Table(shell, SWT.CHECK | SWT.BORDER | SWT.V_SCROLL);
+	final var tableData = new GridData(SWT.FILL, SWT.FILL, true, true, 2, 1);
+	tableData.widthHint = 280;
+	tableData.heightHint = 300;
+	columnTable.setLayoutData(tableData);
+	applyTheme(columnTable);
+	columnNames.forEach((final String name) -> new TableItem(columnTable, SWT.NONE).setText(name));
+
+	final var selectAllButton = new Button(shell, SWT.PUSH);
+	selectAllButton.setText("Select All");
+	selectAllButton.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+	applyTheme(selectAllButton);
+	selectAllButton.addSelectionListener(widgetSelectedAdapter(_ -> setAllChecked(columnTable, true)));
+
+	final var selectNoneButton = new Button(shell, SWT.PUSH);
+	selectNoneButton.setText("Select None");
+	selectNoneButton.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+	applyTheme(selectNoneButton);
+	selectNoneButton.addSelectionListener(widgetSelectedAdapter(_ -> setAllChecked(columnTable, false)));
+
+	final var filterField = filterable ? createFilterField() : null;
+
+	final var errorLabel = new Label(shell, SWT.NONE);
+	errorLabel.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false, 2, 1));
+	applyTheme(errorLabel);
+
+	final var okButton = new Button(shell, SWT.PUSH);
+	okButton.setText("OK");
+	okButton.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+	applyTheme(okButton);
+	okButton.addSelectionListener(widgetSelectedAdapter(_ -> handleOk(columnTable, filterField, errorLabel)));
+
+	final var cancelButton = new Button(shell, SWT.PUSH);
+	cancelButton.setText("Cancel");
+	cancelButton.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+	applyTheme(cancelButton);
+	cancelButton.addSelectionListener(widgetSelectedAdapter(_ -> shell.close()));
+
+	final Listener traverseListener = e -> {
+	    if (e.detail == SWT.TRAVERSE_RETURN) {
+		handleOk(columnTable, filterField, errorLabel);
+		e.doit = false;
+	    } else if (e.detail == SWT.TRAVERSE_ESCAPE) {
+		shell.close();
+		e.doit = false;
+	    }
+	};
+	columnTable.addListener(SWT.Traverse, traverseListener);
+	if (filterField != null) {
+	    filterField.addListener(SWT.Traverse, traverseListener);
+	}
+
+	shell.pack();
+	shell.getDisplay().asyncExec(columnTable::setFocus);
+    }
+
+    private Text createFilterField() {
+	final var filterLabel = new Label(shell, SWT.NONE);
+	filterLabel.setText("Only rows where (optional):");
+	filterLabel.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false, 2, 1));
+	applyTheme(filterLabel);
+
+	final var filterField = new Text(shell, SWT.BORDER);
+	filterField.setMessage("region = EU and amount > 1000");
+	filterField.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false, 2, 1));
+	applyTheme(filterField);
+	return filterField;
+    }
+
+    private static void setAllChecked(final Table columnTable, final boolean checked) {
+	for (final var item : columnTable.getItems()) {
+	    item.setChecked(checked);
+	}
+    }
+
+    /**
+     * Handles the OK button action, keeping the dialog open if no column is
+     * selected or the filter is invalid.
+     */
+    private void handleOk(final Table columnTable, final Text filterField, final Label errorLabel) {
+	final var items = columnTable.getItems();
+	final var selected = IntStream.range(0, items.length).filter(i -> items[i].getChecked()).toArray();
+	if (selected.length == 0) {
+	    errorLabel.setText("Select at least one column.");
+	    shell.layout();
+	    return;
+	}
+	final var expression = filterField != null ? filterField.getText().trim() : "";
+	try {
+	    filter = expression.isEmpty() ? null : RowFilter.parse(expression, columnNames);
+	} catch (final IllegalArgumentException e) {
+	    errorLabel.setText(e.getMessage());
+	    shell.layout();
+	    return;
+	}
+	columns = selected;
+	shell.close();
+    }
+}
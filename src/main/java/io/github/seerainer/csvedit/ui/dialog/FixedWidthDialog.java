@@ -0,0 +1,120 @@
+package io.github.seerainer.csvedit.ui.dialog;
+
+import static org.eclipse.swt.events.SelectionListener.widgetSelectedAdapter;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.layout.GridData;
+import org.eclipse.swt.layout.GridLayout;
+import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.Label;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Text;
+
+import io.github.seerainer.csvedit.io.FixedWidthSpec;
+
+/**
+ * Dialog for reviewing the column layout detected for a fixed-width file.
+ */
+public class FixedWidthDialog extends ThemedDialog {
+
+    private final FixedWidthSpec detectedSpec;
+    private FixedWidthSpec spec;
+
+    /**
+     * Creates a fixed-width dialog.
+     *
+     * @param parent       the parent shell
+     * @param detectedSpec the column layout detected from the file
+     */
+    public FixedWidthDialog(final Shell parent, final FixedWidthSpec detectedSpec) {
+	super(parent, SWT.DIALOG_TRIM | SWT.APPLICATION_MODAL);
+	this.detectedSpec = detectedSpec;
+	createContents();
+	centerOnParent();
+    }
+
+    /**
+     * Opens the dialog and returns the confirmed column layout.
+     *
+     * @return the column layout, or null if the user cancelled
+     */
+    public FixedWidthSpec open() {
+	shell.open();
+	final var display = shell.getDisplay();
+	while (!shell.isDisposed()) {
+	    if (!display.readAndDispatch()) {
+		display.sleep();
+	    }
+	}
+	return spec;
+    }
+
+    /**
+     * Creates the dialog contents.
+     */
+    private void createContents() {
+	shell.setText("Import Fixed-Width File");
+	shell.setLayout(new GridLayout(2, false));
+
+	final var label = new Label(shell, SWT.NONE);
+	label.setText("Column widths (comma-separated):");
+	label.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, false, false, 2, 1));
+	applyTheme(label);
+
+	final var widthsField = new Text(shell, SWT.BORDER);
+	widthsField.setText(detectedSpec.toString());
+	widthsField.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false, 2, 1));
+	widthsField.selectAll();
+	applyTheme(widthsField);
+
+	final var headerCheck = new Button(shell, SWT.CHECK);
+	headerCheck.setText("First line contains headers");
+	headerCheck.setSelection(detectedSpec.hasHeader());
+	headerCheck.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false, 2, 1));
+	applyTheme(headerCheck);
+
+	final var errorLabel = new Label(shell, SWT.NONE);
+	errorLabel.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false, 2, 1));
+	applyTheme(errorLabel);
+
+	final var okButton = new Button(shell, SWT.PUSH);
+	okButton.setText("OK");
+	okButton.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+	applyTheme(okButton);
+	okButton.addSelectionListener(widgetSelectedAdapter(_ -> handleOk(widthsField, headerCheck, errorLabel)));
+
+	final var cancelButton = new Button(shell, SWT.PUSH);
+	cancelButton.setText("Cancel");
+	cancelButton.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+	applyTheme(cancelButton);
+	cancelButton.addSelectionListener(widgetSelectedAdapter(_ -> shell.close()));
+
+	widthsField.addListener(SWT.Traverse, e -> {
+	    if (e.detail == SWT.TRAVERSE_RETURN) {
+		handleOk(widthsField, headerCheck, errorLabel);
+		e.doit = false;
+	    } else if (e.detail == SWT.TRAVERSE_ESCAPE) {
+		shell.close();
+		e.doit = false;
+	    }
+	});
+
+	shell.pack();
+	shell.setMinimumSize(360, shell.getSize().y);
+	shell.getDisplay().asyncExec(widthsField::setFocus);
+    }
+
+    /**
+     * Handles the OK button action, keeping the dialog open if the widths are
+     * invalid.
+     */
+    private void handleOk(final Text widthsField, final Button headerCheck, final Label errorLabel) {
+	try {
+	    spec = FixedWidthSpec.parse(widthsField.getText(), headerCheck.getSelection());
+	    shell.close();
+	} catch (final IllegalArgumentException e) {
+	    errorLabel.setText(e.getMessage());
+	    shell.layout();
+	}
+    }
+}
@@ -0,0 +1,120 @@
+package io.github.seerainer.csvedit.ui.dialog;
+
+import static org.eclipse.swt.events.SelectionListener.widgetSelectedAdapter;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.layout.GridData;
+import org.eclipse.swt.layout.GridLayout;
+import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.Label;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Text;
+
+/**
+ * Dialog for entering the number of the row to jump to.
+ */
+public class GoToRowDialog extends ThemedDialog {
+
+    private final String hint;
+    private long row;
+
+    /**
+     * Creates a go to row dialog.
+     *
+     * @param parent the parent shell
+     * @param hint   a line describing the rows that can be reached
+     */
+    public GoToRowDialog(final Shell parent, final String hint) {
+	super(parent, SWT.DIALOG_TRIM | SWT.APPLICATION_MODAL);
+	this.hint = hint;
+	createContents();
+	centerOnParent();
+    }
+
+    /**
+     * Opens the dialog and returns the row number entered.
+     *
+     * @return the row number starting at 1, or 0 if the user cancelled
+     */
+    public long open() {
+	shell.open();
+	final var display = shell.getDisplay();
+	while (!shell.isDisposed()) {
+	    if (!display.readAndDispatch()) {
+		display.sleep();
+	    }
+	}
+	return row;
+    }
+
+    /**
+     * Creates the dialog contents.
+     */
+    private void createContents() {
+	shell.setText("Go to Row");
+	shell.setLayout(new GridLayout(2, false));
+
+	final var label = new Label(shell, SWT.NONE);
+	label.setText("Row number:");
+	applyTheme(label);
+
+	final var rowField = new Text(shell, SWT.BORDER);
+	final var rowData = new GridData(SWT.FILL, SWT.CENTER, true, false);
+	rowData.widthHint = 160;
+	rowField.setLayoutData(rowData);
+	applyTheme(rowField);
+
+	final var hintLabel = new Label(shell, SWT.NONE);
+	hintLabel.setText(hint);
+	hintLabel.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false, 2, 1));
+	applyTheme(hintLabel);
+
+	final var errorLabel = new Label(shell, SWT.NONE);
+	errorLabel.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false, 2, 1));
+	applyTheme(errorLabel);
+
+	final var okButton = new Button(shell, SWT.PUSH);
+	okButton.setText("OK");
+	okButton.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+	applyTheme(okButton);
+	okButton.addSelectionListener(widgetSelectedAdapter(_ -> handleOk(rowField, errorLabel)));
+
+	final var cancelButton = new Button(shell, SWT.PUSH);
+	cancelButton.setText("Cancel");
+	cancelButton.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+	applyTheme(cancelButton);
+	cancelButton.addSelectionListener(widgetSelectedAdapter(_ -> shell.close()));
+
+	rowField.addListener(SWT.Traverse, e -> {
+	    if (e.detail == SWT.TRAVERSE_RETURN) {
+		handleOk(rowField, errorLabel);
+		e.doit = false;
+	    } else if (e.detail == SWT.TRAVERSE_ESCAPE) {
+		shell.close();
+		e.doit = false;
+	    }
+	});
+
+	shell.pack();
+	shell.getDisplay().asyncExec(rowField::setFocus);
+    }
+
+    /**
+     * Handles the OK button action, keeping the dialog open if the row number is
+     * not a positive number.
+     */
+    private void handleOk(final Text rowField, final Label errorLabel) {
+	try {
+	    // Allow digit grouping such as 40,000,000
+	    final var value = Long.parseLong(rowField.getText().trim().replaceAll("[,._'\\s]", ""));
+	    if (value <= 0) {
+		throw new NumberFormatException();
+	    }
+	    row = value;
+	    shell.close();
+	} catch (final NumberFormatException e) {
+	    errorLabel.setText("Enter a row number of 1 or more.");
+	    shell.layout();
+	}
+    }
+}
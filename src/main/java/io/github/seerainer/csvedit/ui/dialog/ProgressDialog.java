@@ -139,6 +139,30 @@ public class ProgressDialog extends ThemedDialog {
 	});
     }
 
+    /**
+     * Update progress by the bytes read, e.g. for formats whose row count is not
+     * known in advance - must be called from UI thread
+     */
+    public void updateByteProgress(final int rowsLoaded, final long bytesRead, final long totalBytes) {
+	if (shell.isDisposed()) {
+	    return;
+	}
+
+	shell.getDisplay().asyncExec(() -> {
+	    if (shell.isDisposed()) {
+		return;
+	    }
+
+	    statusLabel.setText("Loading data...");
+	    if (totalBytes > 0) {
+		progressBar.setSelection((int) Math.min(100, bytesRead * 100 / totalBytes));
+	    }
+	    detailsLabel.setText("%d rows loaded (%d / %d MB)".formatted(Integer.valueOf(rowsLoaded),
+		    Long.valueOf(bytesRead >> 20), Long.valueOf(totalBytes >> 20)));
+	    shell.layout(true, true);
+	});
+    }
+
     /**
      * Update status message - can be called from any thread
      */
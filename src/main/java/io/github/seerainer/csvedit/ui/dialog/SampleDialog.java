@@ -0,0 +1,154 @@
+package io.github.seerainer.csvedit.ui.dialog;
+
+import static org.eclipse.swt.events.SelectionListener.widgetSelectedAdapter;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.layout.GridData;
+import org.eclipse.swt.layout.GridLayout;
+import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.Label;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Text;
+
+import io.github.seerainer.csvedit.io.SampleOperations;
+
+/**
+ * Dialog for choosing which rows of a large file to open as a sample.
+ */
+public class SampleDialog extends ThemedDialog {
+
+    private static final String DEFAULT_ROW_COUNT = "1000";
+
+    private SampleOperations.Mode mode;
+    private int rowCount;
+
+    /**
+     * Creates a sample dialog.
+     *
+     * @param parent the parent shell
+     */
+    public SampleDialog(final Shell parent) {
+	super(parent, SWT.DIALOG_TRIM | SWT.APPLICATION_MODAL);
+	createContents();
+	centerOnParent();
+    }
+
+    /**
+     * Opens the dialog and returns true if the user confirmed a valid sample.
+     *
+     * @return true if the user clicked OK, false otherwise
+     */
+    public boolean open() {
+	shell.open();
+	final var display = shell.getDisplay();
+	while (!shell.isDisposed()) {
+	    if (!display.readAndDispatch()) {
+		display.sleep();
+	    }
+	}
+	return mode != null;
+    }
+
+    /**
+     * Gets the part of the file to sample.
+     *
+     * @return the sample mode, or null if cancelled
+     */
+    public SampleOperations.Mode getMode() {
+	return mode;
+    }
+
+    /**
+     * Gets the number of rows to sample.
+     *
+     * @return the row count
+     */
+    public int getRowCount() {
+	return rowCount;
+    }
+
+    /**
+     * Creates the dialog contents.
+     */
+    private void createContents() {
+	shell.setText("Open Sample");
+	shell.setLayout(new GridLayout(2, false));
+
+	final var label = new Label(shell, SWT.NONE);
+	label.setText("Number of rows:");
+	applyTheme(label);
+
+	final var rowsField = new Text(shell, SWT.BORDER);
+	rowsField.setText(DEFAULT_ROW_COUNT);
+	rowsField.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+	rowsField.selectAll();
+	applyTheme(rowsField);
+
+	final var headRadio = createRadio("First rows of the file");
+	headRadio.setSelection(true);
+	final var tailRadio = createRadio("Last rows of the file");
+	final var randomRadio = createRadio("Random rows from the whole file (reads it once)");
+
+	final var errorLabel = new Label(shell, SWT.NONE);
+	errorLabel.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false, 2, 1));
+	applyTheme(errorLabel);
+
+	final Runnable ok = () -> {
+	    final var selected = tailRadio.getSelection() ? SampleOperations.Mode.TAIL
+		    : randomRadio.getSelection() ? SampleOperations.Mode.RANDOM : SampleOperations.Mode.HEAD;
+	    handleOk(selected, rowsField, errorLabel);
+	};
+
+	final var okButton = new Button(shell, SWT.PUSH);
+	okButton.setText("OK");
+	okButton.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+	applyTheme(okButton);
+	okButton.addSelectionListener(widgetSelectedAdapter(_ -> ok.run()));
+
+	final var cancelButton = new Button(shell, SWT.PUSH);
+	cancelButton.setText("Cancel");
+	cancelButton.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+	applyTheme(cancelButton);
+	cancelButton.addSelectionListener(widgetSelectedAdapter(_ -> shell.close()));
+
+	rowsField.addListener(SWT.Traverse, e -> {
+	    if (e.detail == SWT.TRAVERSE_RETURN) {
+		ok.run();
+		e.doit = false;
+	    } else if (e.detail == SWT.TRAVERSE_ESCAPE) {
+		shell.close();
+		e.doit = false;
+	    }
+	});
+
+	shell.pack();
+	shell.getDisplay().asyncExec(rowsField::setFocus);
+    }
+
+    private Button createRadio(final String text) {
+	final var radio = new Button(shell, SWT.RADIO);
+	radio.setText(text);
+	radio.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false, 2, 1));
+	applyTheme(radio);
+	return radio;
+    }
+
+    /**
+     * Handles the OK button action, keeping the dialog open if the row count is
+     * not a positive number.
+     */
+    private void handleOk(final SampleOperations.Mode selected, final Text rowsField, final Label errorLabel) {
+	try {
+	    final var value = Integer.parseInt(rowsField.getText().trim());
+	    if (value <= 0) {
+		throw new NumberFormatException();
+	    }
+	    rowCount = value;
+	    mode = selected;
+	    shell.close();
+	} catch (final NumberFormatException e) {
+	    errorLabel.setText("Enter a positive whole number.");
+	    shell.layout();
+	}
+    }
+}
@@ -39,6 +39,7 @@ public class SettingsDialog extends ThemedDialog {
     private Button detectBOMCheck;
     private Spinner initialBufferSizeSpinner;
     private Spinner maxFieldSizeSpinner;
+    private Button loadFieldsOnDemandCheck;
     // CSV Parsing Options controls
     private Button preserveEmptyFieldsCheck;
     private Button skipEmptyLinesCheck;
@@ -61,6 +62,7 @@ public class SettingsDialog extends ThemedDialog {
     // File Options controls
     private Combo encodingCombo;
     private Combo lineEndingCombo;
+    private Button jsonCompactCheck;
     // Font Options controls
     private Button selectFontButton;
     private Label fontSampleLabel;
@@ -324,6 +326,14 @@ public class SettingsDialog extends ThemedDialog {
 	maxFieldSizeSpinner.setToolTipText("Maximum allowed size for a single field (default: 1MB)");
 	applyTheme(maxFieldSizeSpinner);
 
+	// Load fields on demand
+	space(perfGroup); // Spacer
+	loadFieldsOnDemandCheck = new Button(perfGroup, SWT.CHECK);
+	loadFieldsOnDemandCheck.setText("Load fields of large files on demand");
+	loadFieldsOnDemandCheck.setToolTipText(
+		"Keep only field positions and read cell values when they are shown, searched or edited (wide files)");
+	applyTheme(loadFieldsOnDemandCheck);
+
 	// Info label
 	final var infoLabel = new Label(composite, SWT.WRAP);
 	infoLabel.setText("Note: These settings affect how CSV files are parsed and saved. "
@@ -367,6 +377,13 @@ public class SettingsDialog extends ThemedDialog {
 	lineEndingCombo.setToolTipText("Line ending style for saved files");
 	applyTheme(lineEndingCombo);
 
+	// JSON export
+	space(group); // Spacer
+	jsonCompactCheck = new Button(group, SWT.CHECK);
+	jsonCompactCheck.setText("Export compact JSON");
+	jsonCompactCheck.setToolTipText("Write JSON exports without indentation and line breaks (smaller files)");
+	applyTheme(jsonCompactCheck);
+
 	// Info label
 	final var infoLabel = new Label(composite, SWT.WRAP);
 	infoLabel.setText("UTF-8 is recommended for maximum compatibility. "
@@ -548,6 +565,7 @@ public class SettingsDialog extends ThemedDialog {
 	detectBOMCheck.setSelection(Settings.getDetectBOM());
 	initialBufferSizeSpinner.setSelection(Settings.getInitialBufferSize());
 	maxFieldSizeSpinner.setSelection(Settings.getMaxFieldSize());
+	loadFieldsOnDemandCheck.setSelection(Settings.getLoadFieldsOnDemand());
 
 	// Parsing Options
 	preserveEmptyFieldsCheck.setSelection(Settings.getPreserveEmptyFields());
@@ -575,6 +593,7 @@ public class SettingsDialog extends ThemedDialog {
 	// File Options
 	encodingCombo.setText(Settings.getEncoding());
 	lineEndingCombo.setText(Settings.getLineEnding());
+	jsonCompactCheck.setSelection(Settings.getJsonCompact());
 
 	// Font Options
 	selectedFontData = Settings.getFontData();
@@ -654,6 +673,7 @@ public class SettingsDialog extends ThemedDialog {
 	Settings.setDetectBOM(detectBOMCheck.getSelection());
 	Settings.setInitialBufferSize(initialBufferSizeSpinner.getSelection());
 	Settings.setMaxFieldSize(maxFieldSizeSpinner.getSelection());
+	Settings.setLoadFieldsOnDemand(loadFieldsOnDemandCheck.getSelection());
 
 	// Parsing Options
 	Settings.setPreserveEmptyFields(preserveEmptyFieldsCheck.getSelection());
@@ -681,6 +701,7 @@ public class SettingsDialog extends ThemedDialog {
 	// File Options
 	Settings.setEncoding(encodingCombo.getText());
 	Settings.setLineEnding(lineEndingCombo.getText());
+	Settings.setJsonCompact(jsonCompactCheck.getSelection());
 
 	// Font Options
 	Settings.setFontData(selectedFontData);
@@ -0,0 +1,157 @@
+package io.github.seerainer.csvedit.ui.dialog;
+
+import static org.eclipse.swt.events.SelectionListener.widgetSelectedAdapter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.layout.GridData;
+import org.eclipse.swt.layout.GridLayout;
+import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.DirectoryDialog;
+import org.eclipse.swt.widgets.Label;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Text;
+
+import io.github.seerainer.csvedit.io.ShardOperations;
+
+/**
+ * Dialog for choosing the CSV shards to open as one table, by directory or
+ * glob pattern.
+ */
+public class ShardDialog extends ThemedDialog {
+
+    private List<Path> shards;
+    private boolean sourceColumn;
+
+    /**
+     * Creates a shard dialog.
+     *
+     * @param parent the parent shell
+     */
+    public ShardDialog(final Shell parent) {
+	super(parent, SWT.DIALOG_TRIM | SWT.APPLICATION_MODAL);
+	createContents();
+	centerOnParent();
+    }
+
+    /**
+     * Opens the dialog and returns true if the user confirmed a location with at
+     * least one shard.
+     *
+     * @return true if the user clicked OK, false otherwise
+     */
+    public boolean open() {
+	shell.open();
+	final var display = shell.getDisplay();
+	while (!shell.isDisposed()) {
+	    if (!display.readAndDispatch()) {
+		display.sleep();
+	    }
+	}
+	return shards != null;
+    }
+
+    /**
+     * Gets the shards found at the chosen location.
+     *
+     * @return the shards in natural file name order, or null if cancelled
+     */
+    public List<Path> getShards() {
+	return shards;
+    }
+
+    /**
+     * Checks if a column with each row's file name should be added.
+     *
+     * @return true if the source file column was requested
+     */
+    public boolean isSourceColumn() {
+	return sourceColumn;
+    }
+
+    /**
+     * Creates the dialog contents.
+     */
+    private void createContents() {
+	shell.setText("Open Shards");
+	shell.setLayout(new GridLayout(3, false));
+
+	final var label = new Label(shell, SWT.NONE);
+	label.setText("Directory or pattern (e.g. /data/part-*.csv):");
+	label.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, false, false, 3, 1));
+	applyTheme(label);
+
+	final var locationField = new Text(shell, SWT.BORDER);
+	final var locationData = new GridData(SWT.FILL, SWT.CENTER, true, false, 2, 1);
+	locationData.widthHint = 320;
+	locationField.setLayoutData(locationData);
+	applyTheme(locationField);
+
+	final var browseButton = new Button(shell, SWT.PUSH);
+	browseButton.setText("Browse...");
+	applyTheme(browseButton);
+	browseButton.addSelectionListener(widgetSelectedAdapter(_ -> {
+	    final var directoryDialog = new DirectoryDialog(shell);
+	    final var directory = directoryDialog.open();
+	    if (directory != null) {
+		locationField.setText(directory);
+	    }
+	}));
+
+	final var sourceCheck = new Button(shell, SWT.CHECK);
+	sourceCheck.setText("Add a column with the source file name");
+	sourceCheck.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false, 3, 1));
+	applyTheme(sourceCheck);
+
+	final var errorLabel = new Label(shell, SWT.NONE);
+	errorLabel.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false, 3, 1));
+	applyTheme(errorLabel);
+
+	final var okButton = new Button(shell, SWT.PUSH);
+	okButton.setText("OK");
+	okButton.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false, 2, 1));
+	applyTheme(okButton);
+	okButton.addSelectionListener(widgetSelectedAdapter(_ -> handleOk(locationField, sourceCheck, errorLabel)));
+
+	final var cancelButton = new Button(shell, SWT.PUSH);
+	cancelButton.setText("Cancel");
+	cancelButton.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+	applyTheme(cancelButton);
+	cancelButton.addSelectionListener(widgetSelectedAdapter(_ -> shell.close()));
+
+	locationField.addListener(SWT.Traverse, e -> {
+	    if (e.detail == SWT.TRAVERSE_RETURN) {
+		handleOk(locationField, sourceCheck, errorLabel);
+		e.doit = false;
+	    } else if (e.detail == SWT.TRAVERSE_ESCAPE) {
+		shell.close();
+		e.doit = false;
+	    }
+	});
+
+	shell.pack();
+	shell.getDisplay().asyncExec(locationField::setFocus);
+    }
+
+    /**
+     * Handles the OK button action, keeping the dialog open if no shards are
+     * found.
+     */
+    private void handleOk(final Text locationField, final Button sourceCheck, final Label errorLabel) {
+	final var location = locationField.getText().trim();
+	if (location.isEmpty()) {
+	    return;
+	}
+	try {
+	    shards = ShardOperations.resolveShards(location);
+	    sourceColumn = sourceCheck.getSelection();
+	    shell.close();
+	} catch (final IOException e) {
+	    errorLabel.setText(e.getMessage());
+	    shell.layout();
+	}
+    }
+}
@@ -0,0 +1,202 @@
+package io.github.seerainer.csvedit.ui.dialog;
+
+import static org.eclipse.swt.events.SelectionListener.widgetSelectedAdapter;
+
+import java.util.List;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.layout.GridData;
+import org.eclipse.swt.layout.GridLayout;
+import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.Combo;
+import org.eclipse.swt.widgets.Label;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Text;
+
+/**
+ * Dialog for choosing how an export is split into shards: by row count, by
+ * approximate file size or by the value of a key column.
+ */
+public class ShardExportDialog extends ThemedDialog {
+
+    /**
+     * The ways an export can be split into shards.
+     */
+    public enum SplitMode {
+	ROWS, SIZE, KEY
+    }
+
+    private static final long BYTES_PER_MB = 1024L * 1024L;
+
+    private final List<String> headers;
+    private SplitMode mode;
+    private long limit;
+    private int keyColumn;
+
+    /**
+     * Creates a shard export dialog.
+     *
+     * @param parent  the parent shell
+     * @param headers the column headers offered as split keys
+     */
+    public ShardExportDialog(final Shell parent, final List<String> headers) {
+	super(parent, SWT.DIALOG_TRIM | SWT.APPLICATION_MODAL);
+	this.headers = headers;
+	createContents();
+	centerOnParent();
+    }
+
+    /**
+     * Opens the dialog and returns true if the user confirmed a valid split.
+     *
+     * @return true if the user clicked OK, false otherwise
+     */
+    public boolean open() {
+	shell.open();
+	final var display = shell.getDisplay();
+	while (!shell.isDisposed()) {
+	    if (!display.readAndDispatch()) {
+		display.sleep();
+	    }
+	}
+	return mode != null;
+    }
+
+    /**
+     * Gets the chosen split mode.
+     *
+     * @return the split mode, or null if cancelled
+     */
+    public SplitMode getMode() {
+	return mode;
+    }
+
+    /**
+     * Gets the rows per shard for {@link SplitMode#ROWS}, or the maximum shard
+     * size in bytes for {@link SplitMode#SIZE}.
+     *
+     * @return the shard limit
+     */
+    public long getLimit() {
+	return limit;
+    }
+
+    /**
+     * Gets the column whose values name the shards for {@link SplitMode#KEY}.
+     *
+     * @return the key column index
+     */
+    public int getKeyColumn() {
+	return keyColumn;
+    }
+
+    /**
+     * Creates the dialog contents.
+     */
+    private void createContents() {
+	shell.setText("Export Shards");
+	shell.setLayout(new GridLayout(2, false));
+
+	final var rowsRadio = new Button(shell, SWT.RADIO);
+	rowsRadio.setText("Rows per shard:");
+	rowsRadio.setSelection(true);
+	applyTheme(rowsRadio);
+
+	final var rowsField = new Text(shell, SWT.BORDER);
+	rowsField.setText("1000000");
+	rowsField.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+	applyTheme(rowsField);
+
+	final var sizeRadio = new Button(shell, SWT.RADIO);
+	sizeRadio.setText("Maximum size (MB):");
+	applyTheme(sizeRadio);
+
+	final var sizeField = new Text(shell, SWT.BORDER);
+	sizeField.setText("100");
+	sizeField.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+	applyTheme(sizeField);
+
+	final var keyRadio = new Button(shell, SWT.RADIO);
+	keyRadio.setText("One shard per value of:");
+	keyRadio.setEnabled(!headers.isEmpty());
+	applyTheme(keyRadio);
+
+	final var keyCombo = new Combo(shell, SWT.READ_ONLY);
+	keyCombo.setItems(headers.toArray(String[]::new));
+	if (!headers.isEmpty()) {
+	    keyCombo.select(0);
+	}
+	keyCombo.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+	applyTheme(keyCombo);
+
+	final var noteLabel = new Label(shell, SWT.NONE);
+	noteLabel.setText("Each shard repeats the header; sizes are measured before compression.");
+	noteLabel.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false, 2, 1));
+	applyTheme(noteLabel);
+
+	final var errorLabel = new Label(shell, SWT.NONE);
+	errorLabel.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false, 2, 1));
+	applyTheme(errorLabel);
+
+	final var okButton = new Button(shell, SWT.PUSH);
+	okButton.setText("OK");
+	okButton.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+	applyTheme(okButton);
+	okButton.addSelectionListener(widgetSelectedAdapter(_ -> {
+	    if (sizeRadio.getSelection()) {
+		handleOk(SplitMode.SIZE, sizeField, errorLabel);
+	    } else if (keyRadio.getSelection()) {
+		keyColumn = keyCombo.getSelectionIndex();
+		mode = SplitMode.KEY;
+		shell.close();
+	    } else {
+		handleOk(SplitMode.ROWS, rowsField, errorLabel);
+	    }
+	}));
+
+	final var cancelButton = new Button(shell, SWT.PUSH);
+	cancelButton.setText("Cancel");
+	cancelButton.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+	applyTheme(cancelButton);
+	cancelButton.addSelectionListener(widgetSelectedAdapter(_ -> shell.close()));
+
+	rowsField.addListener(SWT.FocusIn, _ -> selectRadio(rowsRadio, sizeRadio, keyRadio));
+	sizeField.addListener(SWT.FocusIn, _ -> selectRadio(sizeRadio, rowsRadio, keyRadio));
+	keyCombo.addListener(SWT.FocusIn, _ -> {
+	    if (keyRadio.isEnabled()) {
+		selectRadio(keyRadio, rowsRadio, sizeRadio);
+	    }
+	});
+
+	shell.pack();
+	shell.getDisplay().asyncExec(rowsField::setFocus);
+    }
+
+    /**
+     * Selects one radio button of the group and clears the others.
+     */
+    private static void selectRadio(final Button selected, final Button other1, final Button other2) {
+	selected.setSelection(true);
+	other1.setSelection(false);
+	other2.setSelection(false);
+    }
+
+    /**
+     * Handles the OK button action for a numeric limit, keeping the dialog open if
+     * the number is not positive.
+     */
+    private void handleOk(final SplitMode splitMode, final Text field, final Label errorLabel) {
+	try {
+	    final var value = Long.parseLong(field.getText().trim());
+	    if (value <= 0 || (splitMode == SplitMode.ROWS && value > Integer.MAX_VALUE)) {
+		throw new NumberFormatException();
+	    }
+	    limit = splitMode == SplitMode.SIZE ? value * BYTES_PER_MB : value;
+	    mode = splitMode;
+	    shell.close();
+	} catch (final NumberFormatException e) {
+	    errorLabel.setText("Enter a positive whole number.");
+	    shell.layout();
+	}
+    }
+}
@@ -32,6 +32,7 @@ public class Settings {
     private static final String KEY_MAX_RECORD_LENGTH = "csv.maxRecordLength";
     private static final String KEY_FAIL_ON_MALFORMED_RECORD = "csv.failOnMalformedRecord";
     private static final String KEY_TRACK_FIELD_POSITIONS = "csv.trackFieldPositions";
+    private static final String KEY_LOAD_FIELDS_ON_DEMAND = "csv.loadFieldsOnDemand";
 
     // UI Options
     private static final String KEY_DEFAULT_ROWS = "ui.defaultRows";
@@ -44,6 +45,7 @@ public class Settings {
     // File Options
     private static final String KEY_ENCODING = "file.encoding";
     private static final String KEY_LINE_ENDING = "file.lineEnding";
+    private static final String KEY_JSON_COMPACT = "file.jsonCompact";
 
     // Font Options
     private static final String KEY_FONT_NAME = "ui.fontName";
@@ -134,10 +136,18 @@ public class Settings {
 	return prefs.getInt(KEY_INITIAL_BUFFER_SIZE, 8192);
     }
 
+    public static boolean getJsonCompact() {
+	return prefs.getBoolean(KEY_JSON_COMPACT, false);
+    }
+
     public static String getLineEnding() {
 	return prefs.get(KEY_LINE_ENDING, "System");
     }
 
+    public static boolean getLoadFieldsOnDemand() {
+	return prefs.getBoolean(KEY_LOAD_FIELDS_ON_DEMAND, false);
+    }
+
     public static int getMaxFieldSize() {
 	return prefs.getInt(KEY_MAX_FIELD_SIZE, 1024 * 1024);
     }
@@ -273,10 +283,18 @@ public class Settings {
 	prefs.putInt(KEY_INITIAL_BUFFER_SIZE, size);
     }
 
+    public static void setJsonCompact(final boolean compact) {
+	prefs.putBoolean(KEY_JSON_COMPACT, compact);
+    }
+
     public static void setLineEnding(final String lineEnding) {
 	prefs.put(KEY_LINE_ENDING, lineEnding);
     }
 
+    public static void setLoadFieldsOnDemand(final boolean onDemand) {
+	prefs.putBoolean(KEY_LOAD_FIELDS_ON_DEMAND, onDemand);
+    }
+
     public static void setMaxFieldSize(final int size) {
 	prefs.putInt(KEY_MAX_FIELD_SIZE, size);
     }
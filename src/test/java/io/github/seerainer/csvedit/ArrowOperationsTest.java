@@ -0,0 +1,103 @@
+package io.github.seerainer.csvedit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.seerainer.csvedit.io.ArrowOperations;
+import io.github.seerainer.csvedit.model.CSVTableModel;
+
+@Tag("integration")
+class ArrowOperationsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRoundTripWritesOneRecordBatchPerBlock() throws IOException {
+	final var file = tempDir.resolve("data.arrow");
+	final var source = TestModels.createTyped(25000);
+	final List<Integer> progress = new ArrayList<>();
+
+	ArrowOperations.saveArrow(file.toString(), source, (rowsWritten, _) -> progress.add(rowsWritten));
+	final var model = new CSVTableModel();
+	final var loaded = ArrowOperations.loadArrow(file.toString(), model, _ -> {
+	}, () -> false);
+
+	assertThat(progress).containsExactly(10000, 20000, 25000);
+	assertThat(loaded).isEqualTo(25000);
+	assertThat(model.getHeaders()).isEqualTo(TestModels.TYPED_HEADERS);
+	assertThat(model.getData()).isEqualTo(source.getData());
+    }
+
+    @Test
+    void testNumbersThatWouldChangeStayText() throws IOException {
+	final var file = tempDir.resolve("codes.feather");
+	final var source = TestModels.create(List.of("code", "zip", "amount"), 100,
+		i -> List.of(i % 2 == 0 ? "1" : "1.50", "0" + i, i % 3 == 0 ? "" : String.valueOf(i)));
+
+	ArrowOperations.saveArrow(file.toString(), source, (_, _) -> {
+	});
+	final var model = new CSVTableModel();
+	ArrowOperations.loadArrow(file.toString(), model);
+
+	// "1.50" and "07" would come back as 1.5 and 7 from a numeric column
+	assertThat(model.getData()).isEqualTo(source.getData());
+	assertThat(model.getRowView(1)).containsExactly("1.50", "01", "1");
+	assertThat(model.getRowView(3)).containsExactly("1.50", "03", "");
+    }
+
+    @Test
+    void testLoadsStreamFormat() throws IOException {
+	final var file = tempDir.resolve("data.arrow");
+	final var source = TestModels.createTyped(100);
+	ArrowOperations.saveArrow(file.toString(), source, (_, _) -> {
+	});
+	// The stream format is the file format without magic and footer
+	final var bytes = Files.readAllBytes(file);
+	assertThat(new String(bytes, 0, 6, StandardCharsets.US_ASCII)).isEqualTo("ARROW1");
+	assertThat(new String(bytes, bytes.length - 6, 6, StandardCharsets.US_ASCII)).isEqualTo("ARROW1");
+	final var footerLength = ByteBuffer.wrap(bytes, bytes.length - 10, 4).order(ByteOrder.LITTLE_ENDIAN).getInt();
+	final var stream = tempDir.resolve("data.arrows");
+	Files.write(stream, Arrays.copyOfRange(bytes, 8, bytes.length - 10 - footerLength));
+	final var model = new CSVTableModel();
+
+	ArrowOperations.loadArrow(stream.toString(), model);
+
+	assertThat(model.getData()).isEqualTo(source.getData());
+    }
+
+    @Test
+    void testCancelledLoadKeepsWholeRecordBatches() throws IOException {
+	final var file = tempDir.resolve("data.arrow");
+	ArrowOperations.saveArrow(file.toString(), TestModels.createTyped(30000), (_, _) -> {
+	});
+	final var model = new CSVTableModel();
+	final var loaded = new int[1];
+
+	ArrowOperations.loadArrow(file.toString(), model, rows -> loaded[0] = rows, () -> loaded[0] >= 10000);
+
+	assertThat(model.getRowCount()).isEqualTo(10000);
+    }
+
+    @Test
+    void testRejectsFileWithoutFooter() throws IOException {
+	final var file = Files.write(tempDir.resolve("truncated.arrow"), "ARROW1\0\0".getBytes(StandardCharsets.US_ASCII));
+
+	assertThatThrownBy(() -> ArrowOperations.loadArrow(file.toString(), new CSVTableModel()))
+		.isInstanceOf(IOException.class);
+    }
+}
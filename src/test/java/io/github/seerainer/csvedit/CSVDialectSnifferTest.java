@@ -0,0 +1,100 @@
+package io.github.seerainer.csvedit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.seerainer.csvedit.io.CSVDialectSniffer;
+import io.github.seerainer.csvedit.io.FileOperations;
+import io.github.seerainer.csvedit.model.CSVTableModel;
+
+@Tag("unit")
+class CSVDialectSnifferTest {
+
+    @TempDir
+    Path tempDir;
+
+    @SuppressWarnings("static-method")
+    @Test
+    void testDetectsSemicolonDelimiter() {
+	final var sample = "Name;City;Amount\nAlice;Berlin;1,50\nBob;Paris;2,75\nCarol;Rome;3,00\n";
+
+	final var dialect = CSVDialectSniffer.sniff(sample.getBytes(StandardCharsets.UTF_8));
+
+	assertThat(dialect.getDelimiter()).isEqualTo(';');
+	assertThat(dialect.getDelimiterConfidence()).isGreaterThan(0.9);
+	assertThat(dialect.getLineEnding()).isEqualTo("Unix (LF)");
+    }
+
+    @SuppressWarnings("static-method")
+    @Test
+    void testDetectsTabDelimiterAndCrlf() {
+	final var sample = "a\tb\tc\r\n1\t2\t3\r\n4\t5\t6\r\n";
+
+	final var dialect = CSVDialectSniffer.sniff(sample.getBytes(StandardCharsets.UTF_8));
+
+	assertThat(dialect.getDelimiter()).isEqualTo('\t');
+	assertThat(dialect.getLineEnding()).isEqualTo("Windows (CRLF)");
+    }
+
+    @SuppressWarnings("static-method")
+    @Test
+    void testDetectsQuoteAndBackslashEscape() {
+	final var sample = "'id','text'\n'1','say \\'hi\\', ok'\n'2','plain'\n";
+
+	final var dialect = CSVDialectSniffer.sniff(sample.getBytes(StandardCharsets.UTF_8));
+
+	assertThat(dialect.getQuote()).isEqualTo('\'');
+	assertThat(dialect.getEscape()).isEqualTo('\\');
+	assertThat(dialect.getDelimiter()).isEqualTo(',');
+    }
+
+    @SuppressWarnings("static-method")
+    @Test
+    void testDetectsHeaderPresence() {
+	final var withHeader = "id,price\n1,9.99\n2,19.50\n3,4.25\n";
+	final var withoutHeader = "1,9.99\n2,19.50\n3,4.25\n";
+
+	assertThat(CSVDialectSniffer.sniff(withHeader.getBytes(StandardCharsets.UTF_8)).hasHeader()).isTrue();
+	assertThat(CSVDialectSniffer.sniff(withoutHeader.getBytes(StandardCharsets.UTF_8)).hasHeader()).isFalse();
+    }
+
+    @SuppressWarnings("static-method")
+    @Test
+    void testDetectsCharsetAndBom() {
+	final var text = "Name,City\nJosé,Zürich\n";
+	final var utf8Bom = ("\uFEFF" + text).getBytes(StandardCharsets.UTF_8);
+	final var utf16 = ("\uFEFF" + text).getBytes(StandardCharsets.UTF_16LE);
+	final var latin1 = text.getBytes(StandardCharsets.ISO_8859_1);
+
+	final var utf8Dialect = CSVDialectSniffer.sniff(utf8Bom);
+	assertThat(utf8Dialect.getCharset()).isEqualTo(StandardCharsets.UTF_8);
+	assertThat(utf8Dialect.hasBOM()).isTrue();
+
+	final var utf16Dialect = CSVDialectSniffer.sniff(utf16);
+	assertThat(utf16Dialect.getCharset()).isEqualTo(StandardCharsets.UTF_16LE);
+	assertThat(utf16Dialect.requiresTranscoding()).isTrue();
+
+	assertThat(CSVDialectSniffer.sniff(latin1).getCharset()).isEqualTo(StandardCharsets.ISO_8859_1);
+    }
+
+    @Test
+    void testLoadWithSniffedDialect() throws IOException {
+	final var file = tempDir.resolve("utf16.csv");
+	Files.write(file, "\uFEFFName;City\nJosé;Zürich\nAnna;Wien\n".getBytes(StandardCharsets.UTF_16LE));
+	final var model = new CSVTableModel();
+
+	FileOperations.loadCSV(file.toString(), model, CSVDialectSniffer.sniff(file));
+
+	assertThat(model.getHeaders()).containsExactly("Name", "City");
+	assertThat(model.getRowCount()).isEqualTo(2);
+	assertThat(model.getRow(0)).containsExactly("José", "Zürich");
+    }
+}
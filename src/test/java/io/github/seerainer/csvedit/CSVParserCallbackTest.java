@@ -195,4 +195,36 @@ class CSVParserCallbackTest {
 	assertThat(records.get(1).get(1)).isEqualTo("Line1\nLine2\nLine3");
 	assertThat(records.get(2)).containsExactly("Jane", "Simple");
     }
+
+    @Test
+    void testParseFileWithCallbackChunkedEmbeddedNewlinesSpanningChunks() throws IOException {
+	final var testFile = tempDir.resolve("embedded-newlines-chunked.csv");
+	Files.writeString(testFile, "Name,Note\nJohn,\"Line1\nLine2\nLine3\nLine4\"\nJane,Simple\n");
+
+	final List<List<String>> records = new ArrayList<>();
+	// The first chunk ends inside the quoted note, right after a line break
+	CSVParserUtil.parseFileWithCallbackChunked(testFile, 29,
+		record -> records.add(CSVParserUtil.extractRow(record)));
+
+	assertThat(records).hasSize(3);
+	assertThat(records.get(1)).containsExactly("John", "Line1\nLine2\nLine3\nLine4");
+	assertThat(records.get(2)).containsExactly("Jane", "Simple");
+    }
+
+    @Test
+    void testParseFileWithCallbackChunkedQuoteInsideUnquotedField() throws IOException {
+	final var testFile = tempDir.resolve("inches.csv");
+	Files.writeString(testFile, "Item,Size,Note\nTV,55\" screen,\"Line1\nLine2\"\nPipe,2\",Simple\n");
+
+	// Each chunk size ends the first chunk elsewhere, once right after Line1
+	for (var chunkSize = 1; chunkSize <= 64; chunkSize++) {
+	    final List<List<String>> records = new ArrayList<>();
+	    CSVParserUtil.parseFileWithCallbackChunked(testFile, chunkSize,
+		    record -> records.add(CSVParserUtil.extractRow(record)));
+
+	    assertThat(records).hasSize(3);
+	    assertThat(records.get(1)).containsExactly("TV", "55\" screen", "Line1\nLine2");
+	    assertThat(records.get(2)).containsExactly("Pipe", "2\"", "Simple");
+	}
+    }
 }
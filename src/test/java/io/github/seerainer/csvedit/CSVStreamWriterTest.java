@@ -0,0 +1,111 @@
+package io.github.seerainer.csvedit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.seerainer.csvedit.io.CSVDialectSniffer;
+import io.github.seerainer.csvedit.io.CSVStreamWriter;
+import io.github.seerainer.csvedit.io.LazyFieldReader;
+
+@Tag("unit")
+class CSVStreamWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static byte[] write(final char delimiter, final char quote, final char escape, final String lineEnding,
+	    final Charset charset, final List<List<String>> records) throws IOException {
+	final var out = new ByteArrayOutputStream();
+	try (var writer = new CSVStreamWriter(Channels.newChannel(out), delimiter, quote, escape, lineEnding,
+		charset)) {
+	    for (var i = 0; i < records.size(); i++) {
+		if (i > 0) {
+		    writer.writeLineEnding();
+		}
+		writer.writeRecord(records.get(i), 3);
+	    }
+	}
+	return out.toByteArray();
+    }
+
+    @SuppressWarnings("static-method")
+    @Test
+    void testQuotesOnlyWhenNeeded() throws IOException {
+	final var bytes = write(',', '"', '"', "\n", StandardCharsets.UTF_8,
+		List.of(List.of("plain", "a,b", "say \"hi\""), List.of("line\nbreak", "", "x")));
+
+	assertThat(new String(bytes, StandardCharsets.UTF_8))
+		.isEqualTo("plain,\"a,b\",\"say \"\"hi\"\"\"\n\"line\nbreak\",,x");
+    }
+
+    @SuppressWarnings("static-method")
+    @Test
+    void testHonoursDialect() throws IOException {
+	final var bytes = write(';', '\'', '\\', "\r\n", StandardCharsets.UTF_8,
+		List.of(List.of("a;b", "it's", "1,5"), List.of("x")));
+
+	assertThat(new String(bytes, StandardCharsets.UTF_8)).isEqualTo("'a;b';'it\\'s';1,5\r\nx;;");
+    }
+
+    @Test
+    void testBackslashEscapeRoundTrip() throws IOException {
+	final var records = List.of(List.of("id", "path", "note"), List.of("1", "C:\\", "say \"hi\""),
+		List.of("2", "a\\b,c", "\\\""));
+	final var bytes = write(',', '"', '\\', "\n", StandardCharsets.UTF_8, records);
+	final var file = tempDir.resolve("escaped.csv");
+	Files.write(file, bytes);
+
+	final var dialect = CSVDialectSniffer.sniff(file);
+	final List<String> headers = new ArrayList<>();
+	final var rows = LazyFieldReader.read(file, dialect, null, null, headers, _ -> {
+	}, () -> false);
+
+	assertThat(new String(bytes, StandardCharsets.UTF_8)).startsWith("id,path,note\n1,\"C:\\\\\",");
+	assertThat(dialect.getEscape()).isEqualTo('\\');
+	assertThat(headers).containsExactly("id", "path", "note");
+	assertThat(rows).containsExactly(records.get(1), records.get(2));
+    }
+
+    @SuppressWarnings("static-method")
+    @Test
+    void testEncodesNonAsciiText() throws IOException {
+	final var row = List.of("Zürich", "日本", "😀,x");
+
+	assertThat(new String(write(',', '"', '"', "\n", StandardCharsets.UTF_8, List.of(row)),
+		StandardCharsets.UTF_8)).isEqualTo("Zürich,日本,\"😀,x\"");
+	assertThat(new String(write(',', '"', '"', "\n", StandardCharsets.ISO_8859_1, List.of(List.of("Zürich"))),
+		StandardCharsets.ISO_8859_1)).isEqualTo("Zürich,,");
+	assertThat(new String(write(',', '"', '"', "\n", StandardCharsets.UTF_16, List.of(row)),
+		StandardCharsets.UTF_16)).isEqualTo("Zürich,日本,\"😀,x\"");
+    }
+
+    @SuppressWarnings("static-method")
+    @Test
+    void testWritesMoreThanBufferSize() throws IOException {
+	final var value = "ä".repeat(1000) + "b".repeat(1000);
+	final var out = new ByteArrayOutputStream();
+	try (var writer = new CSVStreamWriter(Channels.newChannel(out), ',', '"', '"', "\n",
+		StandardCharsets.UTF_8)) {
+	    for (var i = 0; i < 2000; i++) {
+		writer.writeField(value);
+		writer.writeLineEnding();
+	    }
+	}
+
+	final var expected = (value + "\n").repeat(2000);
+	assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8)).isEqualTo(expected);
+    }
+}
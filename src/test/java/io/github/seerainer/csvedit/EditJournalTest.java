@@ -0,0 +1,157 @@
+package io.github.seerainer.csvedit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.seerainer.csvedit.io.CSVDialect;
+import io.github.seerainer.csvedit.io.CSVFileSource;
+import io.github.seerainer.csvedit.io.EditJournal;
+import io.github.seerainer.csvedit.io.FileOperations;
+import io.github.seerainer.csvedit.model.CSVTableModel;
+
+@Tag("integration")
+class EditJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path createFile() throws IOException {
+	final var file = tempDir.resolve("data.csv");
+	Files.writeString(file, "Name,City\nAlice,Berlin\nBob,Paris\n");
+	return file;
+    }
+
+    private static CSVTableModel load(final Path file) throws IOException {
+	final var model = new CSVTableModel();
+	FileOperations.loadCSV(file.toString(), model);
+	return model;
+    }
+
+    @Test
+    void testReplayRestoresEdits() throws IOException {
+	final var file = createFile();
+	final var source = CSVFileSource.capture(file, CSVDialect.fromSettings());
+	final var model = load(file);
+	final var journal = new EditJournal(source, model);
+	model.setChangeListener(journal);
+
+	model.setValue(0, 1, "Rome, \"Italy\"");
+	model.addRow(List.of("Carol", "Vienna"));
+	model.moveRow(2, 0);
+	journal.write(journal.drain());
+	model.setHeader(0, "Person");
+	model.addColumn("x");
+	model.removeRow(1);
+	journal.write(journal.drain());
+
+	assertThat(EditJournal.hasRecoverableEdits(source)).isTrue();
+	final var recovered = load(file);
+	assertThat(EditJournal.replay(source, recovered)).isEqualTo(6);
+	assertThat(recovered.getHeaders()).isEqualTo(model.getHeaders());
+	assertThat(recovered.getData()).isEqualTo(model.getData());
+    }
+
+    @Test
+    void testReplayUsesSnapshotAndIgnoresTornEntry() throws IOException {
+	final var file = createFile();
+	final var source = CSVFileSource.capture(file, CSVDialect.fromSettings());
+	final var model = load(file);
+	final var journal = new EditJournal(source, model);
+	model.setChangeListener(journal);
+
+	model.setData(new ArrayList<>(List.of(new ArrayList<>(List.of("Zoe", "Oslo")))));
+	model.setValue(0, 0, "Zara");
+	journal.write(journal.drain());
+	Files.writeString(EditJournal.getJournalPath(file), "{\"type\":\"CELL", StandardOpenOption.APPEND);
+
+	final var recovered = load(file);
+	assertThat(EditJournal.replay(source, recovered)).isEqualTo(2);
+	assertThat(recovered.getData()).isEqualTo(model.getData());
+    }
+
+    @Test
+    void testSnapshotReplacesJournalAtomically() throws IOException {
+	final var file = createFile();
+	final var source = CSVFileSource.capture(file, CSVDialect.fromSettings());
+	final var model = load(file);
+	final var journal = new EditJournal(source, model);
+	model.setChangeListener(journal);
+	model.setValue(0, 0, "Alicia");
+	journal.write(journal.drain());
+
+	model.setData(new ArrayList<>(List.of(new ArrayList<>(List.of("Zoe", "Oslo")))));
+	journal.write(journal.drain());
+
+	try (var files = Files.list(tempDir)) {
+	    assertThat(files.map(path -> path.getFileName().toString()))
+		    .containsExactlyInAnyOrder("data.csv", EditJournal.getJournalPath(file).getFileName().toString());
+	}
+	final var recovered = load(file);
+	assertThat(EditJournal.replay(source, recovered)).isEqualTo(1);
+	assertThat(recovered.getData()).isEqualTo(model.getData());
+    }
+
+    @Test
+    void testReorderingIsJournaledWithoutSnapshot() throws IOException {
+	final var file = createFile();
+	final var source = CSVFileSource.capture(file, CSVDialect.fromSettings());
+	final var model = load(file);
+	final var journal = new EditJournal(source, model);
+	model.setChangeListener(journal);
+
+	model.reorderRows(new int[] { 1, 0 });
+	model.setValue(0, 1, "Lyon");
+	model.reorderColumns(new int[] { 1, 0 });
+	journal.write(journal.drain());
+
+	assertThat(Files.readString(EditJournal.getJournalPath(file))).doesNotContain("SNAPSHOT").contains("ROW_ORDER");
+	final var recovered = load(file);
+	assertThat(EditJournal.replay(source, recovered)).isEqualTo(3);
+	assertThat(recovered.getHeaders()).containsExactly("City", "Name");
+	assertThat(recovered.getData()).isEqualTo(model.getData());
+	assertThat(recovered.getRow(0)).containsExactly("Lyon", "Bob");
+    }
+
+    @Test
+    void testJournalIsNotRecoverableForChangedFile() throws IOException {
+	final var file = createFile();
+	final var source = CSVFileSource.capture(file, CSVDialect.fromSettings());
+	final var model = load(file);
+	final var journal = new EditJournal(source, model);
+	model.setChangeListener(journal);
+	model.setValue(0, 0, "Alicia");
+	journal.write(journal.drain());
+
+	Files.writeString(file, "Name,City\nAlice,Berlin\nBob,Paris\nCarol,Rome\n");
+
+	assertThat(EditJournal.hasRecoverableEdits(CSVFileSource.capture(file, CSVDialect.fromSettings()))).isFalse();
+    }
+
+    @Test
+    void testRestartRemovesJournal() throws IOException {
+	final var file = createFile();
+	final var source = CSVFileSource.capture(file, CSVDialect.fromSettings());
+	final var model = load(file);
+	final var journal = new EditJournal(source, model);
+	model.setChangeListener(journal);
+	model.setValue(1, 1, "Lyon");
+	journal.write(journal.drain());
+	assertThat(EditJournal.getJournalPath(file)).exists();
+
+	journal.restart(FileOperations.saveCSV(file.toString(), model, source, (_, _) -> {
+	}));
+
+	assertThat(EditJournal.getJournalPath(file)).doesNotExist();
+	assertThat(journal.hasPendingEdits()).isFalse();
+    }
+}
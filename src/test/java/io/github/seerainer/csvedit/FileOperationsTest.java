@@ -5,9 +5,12 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,8 +18,14 @@ import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import io.github.seerainer.csvedit.io.AsyncSaveService;
+import io.github.seerainer.csvedit.io.CSVDialectSniffer;
+import io.github.seerainer.csvedit.io.CSVFileSource;
+import io.github.seerainer.csvedit.io.CompressionCodec;
 import io.github.seerainer.csvedit.io.FileOperations;
+import io.github.seerainer.csvedit.io.RowFilter;
 import io.github.seerainer.csvedit.model.CSVTableModel;
+import io.github.seerainer.csvedit.ui.UIConstants;
 
 @Tag("integration")
 class FileOperationsTest {
@@ -146,6 +155,152 @@ class FileOperationsTest {
 	assertThat(loadedModel.getRow(1)).containsExactly("Bob", "25", "Los Angeles");
     }
 
+    @Test
+    void testSaveAndLoadRoundTripAcrossBlocks() throws IOException {
+	final var rowCount = UIConstants.SAVE_BLOCK_ROWS * 2 + 17;
+	model.setHeaders(List.of("Id", "Text"));
+	for (var i = 0; i < rowCount; i++) {
+	    model.addRow(List.of(String.valueOf(i), "value, \"" + i + "\""));
+	}
+
+	FileOperations.saveCSV(testFile.getAbsolutePath(), model);
+
+	final var loadedModel = new CSVTableModel();
+	FileOperations.loadCSV(testFile.getAbsolutePath(), loadedModel);
+
+	assertThat(loadedModel.getRowCount()).isEqualTo(rowCount);
+	assertThat(loadedModel.getRow(UIConstants.SAVE_BLOCK_ROWS)).containsExactly(
+		String.valueOf(UIConstants.SAVE_BLOCK_ROWS), "value, \"" + UIConstants.SAVE_BLOCK_ROWS + "\"");
+	assertThat(loadedModel.getRow(rowCount - 1)).containsExactly(String.valueOf(rowCount - 1),
+		"value, \"" + (rowCount - 1) + "\"");
+    }
+
+    @Test
+    void testSaveCSVReplacesFileAtomically() throws IOException {
+	Files.writeString(testFile.toPath(), "old,content\n1,2\n");
+	model.setHeaders(List.of("A", "B"));
+	model.addRow(List.of("1", "2"));
+	model.addRow(List.of("3", "4"));
+	final var progress = new ArrayList<Integer>();
+
+	FileOperations.saveCSV(testFile.getAbsolutePath(), model,
+		(rowsWritten, _) -> progress.add(Integer.valueOf(rowsWritten)));
+
+	assertThat(Files.readAllLines(testFile.toPath())).containsExactly("A,B", "1,2", "3,4");
+	assertThat(progress).containsExactly(Integer.valueOf(2));
+	try (var files = Files.list(tempDir)) {
+	    assertThat(files).containsExactly(testFile.toPath());
+	}
+    }
+
+    @Test
+    void testAsyncSaveWritesSnapshot() throws Exception {
+	model.setHeaders(List.of("A", "B"));
+	model.addRow(List.of("1", "2"));
+	final var service = new AsyncSaveService();
+
+	final var future = service.save(testFile.getAbsolutePath(), model, (_, _) -> {
+	});
+	model.setValue(0, 0, "changed");
+	future.get();
+	service.shutdown();
+
+	assertThat(Files.readAllLines(testFile.toPath())).containsExactly("A,B", "1,2");
+    }
+
+    @Test
+    void testIncrementalSaveKeepsUnchangedBytes() throws IOException {
+	final var original = "id,text\r\n1,\"multi\r\nline\"\r\n2,plain\r\n3,\"x\"\r\n";
+	Files.writeString(testFile.toPath(), original);
+	final var dialect = CSVDialectSniffer.sniff(testFile.toPath());
+	FileOperations.loadCSV(testFile.getAbsolutePath(), model, dialect);
+	model.resetModifications();
+	var source = CSVFileSource.capture(testFile.toPath(), dialect);
+
+	model.setValue(1, 1, "PLAIN");
+	source = FileOperations.saveCSV(testFile.getAbsolutePath(), model, source, (_, _) -> {
+	});
+	assertThat(Files.readString(testFile.toPath())).isEqualTo(original.replace("plain", "PLAIN"));
+
+	model.resetModifications();
+	model.setValue(0, 1, "a, b");
+	FileOperations.saveCSV(testFile.getAbsolutePath(), model, source, (_, _) -> {
+	});
+	assertThat(Files.readString(testFile.toPath()))
+		.isEqualTo("id,text\r\n1,\"a, b\"\r\n2,PLAIN\r\n3,\"x\"\r\n");
+    }
+
+    @Test
+    void testIncrementalSaveWithQuotesInsideFields() throws IOException {
+	final var original = "id,size,text\r\n1,5\" screen,a\r\n2,7\" screen,\"b\r\nc\"\r\n3,9\" screen,d\r\n";
+	Files.writeString(testFile.toPath(), original);
+	final var dialect = CSVDialectSniffer.sniff(testFile.toPath());
+	FileOperations.loadCSV(testFile.getAbsolutePath(), model, dialect);
+	model.resetModifications();
+	final var source = CSVFileSource.capture(testFile.toPath(), dialect);
+
+	model.setValue(2, 2, "D");
+	FileOperations.saveCSV(testFile.getAbsolutePath(), model, source, (_, _) -> {
+	});
+
+	// Only the modified record is re-encoded, the others keep their unquoted quotes
+	assertThat(Files.readString(testFile.toPath()))
+		.isEqualTo(original.replace("9\" screen,d", "\"9\"\" screen\",D"));
+    }
+
+    @Test
+    void testSaveOverSourceKeepsSniffedDialect() throws IOException {
+	final var original = "\uFEFFname;city\r\nZoë;Zürich\r\n\"a;b\";c,d";
+	Files.write(testFile.toPath(), original.getBytes(StandardCharsets.UTF_16LE));
+	final var dialect = CSVDialectSniffer.sniff(testFile.toPath());
+	FileOperations.loadCSV(testFile.getAbsolutePath(), model, dialect);
+	final var source = CSVFileSource.capture(testFile.toPath(), dialect);
+
+	model.setValue(0, 1, "Genève");
+	final var saved = FileOperations.saveCSV(testFile.getAbsolutePath(), model, source, (_, _) -> {
+	});
+
+	assertThat(new String(Files.readAllBytes(testFile.toPath()), StandardCharsets.UTF_16LE))
+		.isEqualTo(original.replace("Zürich", "Genève"));
+	assertThat(saved.getDialect().getDelimiter()).isEqualTo(';');
+	assertThat(saved.getDialect().getCharset()).isEqualTo(StandardCharsets.UTF_16LE);
+	assertThat(saved.getDialect().hasBOM()).isTrue();
+    }
+
+    @Test
+    void testIncrementalSaveOfSniffedDialect() throws IOException {
+	final var original = "id;text\n1;\"a\"\n2;b\n";
+	Files.writeString(testFile.toPath(), original);
+	final var dialect = CSVDialectSniffer.sniff(testFile.toPath());
+	FileOperations.loadCSV(testFile.getAbsolutePath(), model, dialect);
+	model.resetModifications();
+	final var source = CSVFileSource.capture(testFile.toPath(), dialect);
+
+	model.setValue(1, 1, "x;y");
+	FileOperations.saveCSV(testFile.getAbsolutePath(), model, source, (_, _) -> {
+	});
+
+	// The needless quotes of the unchanged row show that only the edited row was written
+	assertThat(Files.readString(testFile.toPath())).isEqualTo("id;text\n1;\"a\"\n2;\"x;y\"\n");
+    }
+
+    @Test
+    void testSaveHeaderlessFileKeepsBytes() throws IOException {
+	final var lineEnding = System.lineSeparator();
+	final var original = "1,2.5,alpha" + lineEnding + "2,3.75,\"b, c\"" + lineEnding + "3,4.125,gamma";
+	Files.writeString(testFile.toPath(), original);
+	final var dialect = CSVDialectSniffer.sniff(testFile.toPath());
+	FileOperations.loadCSV(testFile.getAbsolutePath(), model, dialect);
+	final var source = CSVFileSource.capture(testFile.toPath(), dialect);
+
+	final var saved = FileOperations.saveCSV(testFile.getAbsolutePath(), model, source, (_, _) -> {
+	});
+
+	assertThat(dialect.hasHeader()).isFalse();
+	assertThat(Files.readString(testFile.toPath())).isEqualTo(original);
+	assertThat(saved.getDialect().hasHeader()).isFalse();
+    }
+
     @Test
     void testSaveCSVNormalizesRows() throws IOException {
 	model.setHeaders(List.of("Column 1", "Column 2", "Column 3"));
@@ -327,4 +482,165 @@ class FileOperationsTest {
 
 	assertThat(loadedModel.getRowCount()).isZero();
     }
+
+    @Test
+    void testSaveAndLoadZstdCSV() throws IOException {
+	final var zstdFile = tempDir.resolve("test.csv.zst").toFile();
+
+	model.setHeaders(List.of("Name", "Age"));
+	model.addRow(List.of("Alice", "30"));
+	model.addRow(List.of("Bob", "25"));
+
+	FileOperations.saveCSV(zstdFile.getAbsolutePath(), model);
+
+	// Zstandard frames start with magic bytes 0x28 0xb5 0x2f 0xfd
+	final var bytes = Files.readAllBytes(zstdFile.toPath());
+	assertThat(CompressionCodec.fromMagic(bytes)).isEqualTo(CompressionCodec.ZSTD);
+
+	final var loadedModel = new CSVTableModel();
+	FileOperations.loadCSV(zstdFile.getAbsolutePath(), loadedModel);
+
+	assertThat(loadedModel.getHeaders()).containsExactly("Name", "Age");
+	assertThat(loadedModel.getRow(0)).containsExactly("Alice", "30");
+	assertThat(loadedModel.getRow(1)).containsExactly("Bob", "25");
+    }
+
+    @Test
+    void testSaveAndLoadLz4CSV() throws IOException {
+	final var lz4File = tempDir.resolve("test.csv.lz4").toFile();
+
+	model.setHeaders(List.of("Quote", "Comma"));
+	model.addRow(List.of("Say \"Hi\"", "A, B, C"));
+
+	FileOperations.saveCSV(lz4File.getAbsolutePath(), model);
+
+	// LZ4 frames start with magic bytes 0x04 0x22 0x4d 0x18
+	final var bytes = Files.readAllBytes(lz4File.toPath());
+	assertThat(CompressionCodec.fromMagic(bytes)).isEqualTo(CompressionCodec.LZ4);
+
+	final var loadedModel = new CSVTableModel();
+	FileOperations.loadCSV(lz4File.getAbsolutePath(), loadedModel);
+
+	assertThat(loadedModel.getRowCount()).isEqualTo(1);
+	assertThat(loadedModel.getValue(0, 0)).isEqualTo("Say \"Hi\"");
+	assertThat(loadedModel.getValue(0, 1)).isEqualTo("A, B, C");
+    }
+
+    @Test
+    void testLoadCompressedCSVDetectedByMagicBytes() throws IOException {
+	final var compressedFile = tempDir.resolve("compressed.csv.zst");
+	final var misnamedFile = tempDir.resolve("misnamed.csv");
+
+	model.setHeaders(List.of("Col1", "Col2"));
+	model.addRow(List.of("a", "b"));
+
+	FileOperations.saveCSV(compressedFile.toString(), model);
+	Files.copy(compressedFile, misnamedFile);
+
+	final var loadedModel = new CSVTableModel();
+	FileOperations.loadCSV(misnamedFile.toString(), loadedModel);
+
+	assertThat(CompressionCodec.detect(misnamedFile)).isEqualTo(CompressionCodec.ZSTD);
+	assertThat(loadedModel.getHeaders()).containsExactly("Col1", "Col2");
+	assertThat(loadedModel.getRow(0)).containsExactly("a", "b");
+    }
+
+    @Test
+    void testSaveOverMisnamedCompressedFileKeepsCodec() throws IOException {
+	final var misnamedFile = tempDir.resolve("misnamed.csv");
+	try (var out = new GZIPOutputStream(Files.newOutputStream(misnamedFile))) {
+	    out.write("Col1,Col2\na,b\n".getBytes());
+	}
+	final var dialect = CSVDialectSniffer.sniff(misnamedFile);
+	FileOperations.loadCSV(misnamedFile.toString(), model, dialect);
+	final var source = CSVFileSource.capture(misnamedFile, dialect);
+
+	model.setValue(0, 1, "edited");
+	FileOperations.saveCSV(misnamedFile.toString(), model, source, (_, _) -> {
+	});
+
+	final var loadedModel = new CSVTableModel();
+	FileOperations.loadCSV(misnamedFile.toString(), loadedModel);
+
+	assertThat(source.getCodec()).isEqualTo(CompressionCodec.GZIP);
+	assertThat(CompressionCodec.detect(misnamedFile)).isEqualTo(CompressionCodec.GZIP);
+	assertThat(loadedModel.getRow(0)).containsExactly("a", "edited");
+    }
+
+    @Test
+    void testLoadSelectedColumns() throws IOException {
+	final var content = "id,note,city\n1,\"a, \"\"quoted\"\" note\",Oslo\n2,short\n3,plain,Rome\n";
+	final var gzipFile = tempDir.resolve("columns.csv.gz");
+	Files.writeString(testFile.toPath(), content);
+	try (var out = new GZIPOutputStream(Files.newOutputStream(gzipFile))) {
+	    out.write(content.getBytes());
+	}
+
+	// Uncompressed files are split into fields, compressed ones are parsed
+	for (final var file : List.of(testFile.toPath(), gzipFile)) {
+	    final var dialect = CSVDialectSniffer.sniff(file);
+	    assertThat(FileOperations.readColumnNames(file.toString(), dialect)).containsExactly("id", "note", "city");
+
+	    final var loadedModel = new CSVTableModel();
+	    FileOperations.loadCSV(file.toString(), loadedModel, dialect, new int[] { 0, 2 }, null);
+
+	    assertThat(loadedModel.getHeaders()).containsExactly("id", "city");
+	    assertThat(loadedModel.getColumnCount()).isEqualTo(2);
+	    assertThat(loadedModel.getRow(0)).containsExactly("1", "Oslo");
+	    assertThat(loadedModel.getRow(1)).containsExactly("2", "");
+	    assertThat(loadedModel.getRow(2)).containsExactly("3", "Rome");
+	}
+    }
+
+    @Test
+    void testLoadSelectedColumnsWithoutHeader() throws IOException {
+	Files.writeString(testFile.toPath(), "1,2,3\n4,5,6\n7,8,9\n");
+	final var dialect = CSVDialectSniffer.sniff(testFile.toPath());
+
+	FileOperations.loadCSV(testFile.getAbsolutePath(), model, dialect, new int[] { 1, 2 }, null);
+
+	assertThat(dialect.hasHeader()).isFalse();
+	assertThat(model.getHeaders()).containsExactly("Column 2", "Column 3");
+	assertThat(model.getRowCount()).isEqualTo(3);
+	assertThat(model.getRow(2)).containsExactly("8", "9");
+    }
+
+    @Test
+    void testLoadFilteredRows() throws IOException {
+	final var content = new StringBuilder("id,region,amount\n");
+	for (var i = 0; i < 1000; i++) {
+	    content.append(i).append(',').append(i % 4 == 0 ? "EU" : "\"US, East\"").append(',').append(i * 10)
+		    .append('\n');
+	}
+	final var gzipFile = tempDir.resolve("filtered.csv.gz");
+	Files.writeString(testFile.toPath(), content);
+	try (var out = new GZIPOutputStream(Files.newOutputStream(gzipFile))) {
+	    out.write(content.toString().getBytes());
+	}
+
+	// Uncompressed files are split into fields, compressed ones are parsed
+	for (final var file : List.of(testFile.toPath(), gzipFile)) {
+	    final var dialect = CSVDialectSniffer.sniff(file);
+	    final var filter = RowFilter.parse("Region = EU and amount > 5000",
+		    FileOperations.readColumnNames(file.toString(), dialect));
+
+	    final var loadedModel = new CSVTableModel();
+	    FileOperations.loadCSV(file.toString(), loadedModel, dialect, new int[] { 0, 2 }, filter);
+
+	    assertThat(loadedModel.getHeaders()).containsExactly("id", "amount");
+	    assertThat(loadedModel.getRowCount()).isEqualTo(124);
+	    assertThat(loadedModel.getRow(0)).containsExactly("504", "5040");
+	    assertThat(loadedModel.getRow(123)).containsExactly("996", "9960");
+	}
+    }
+
+    @SuppressWarnings("static-method")
+    @Test
+    void testCompressionCodecFromFileName() {
+	assertThat(CompressionCodec.fromFileName("data.csv.gz")).isEqualTo(CompressionCodec.GZIP);
+	assertThat(CompressionCodec.fromFileName("DATA.CSV.ZST")).isEqualTo(CompressionCodec.ZSTD);
+	assertThat(CompressionCodec.fromFileName("data.csv.lz4")).isEqualTo(CompressionCodec.LZ4);
+	assertThat(CompressionCodec.fromFileName("data.csv")).isEqualTo(CompressionCodec.NONE);
+	assertThat(CompressionCodec.fromFileName(null)).isEqualTo(CompressionCodec.NONE);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,94 @@
+package io.github.seerainer.csvedit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.seerainer.csvedit.io.FixedWidthOperations;
+import io.github.seerainer.csvedit.io.FixedWidthSpec;
+import io.github.seerainer.csvedit.model.CSVTableModel;
+
+@Tag("integration")
+class FixedWidthOperationsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRoundTripWithDetectedColumns() throws IOException {
+	final var file = tempDir.resolve("data.fwf");
+	final var source = TestModels.create(List.of("id", "name", "price"), 120000,
+		i -> List.of(String.valueOf(i), i % 5 == 0 ? "" : "item_" + i % 97, String.valueOf(i * 0.5)));
+	final List<Integer> progress = new ArrayList<>();
+
+	FixedWidthOperations.saveFixedWidth(file.toString(), source, (rowsWritten, _) -> progress.add(rowsWritten));
+	final var spec = FixedWidthOperations.detectSpec(file.toString());
+	final var model = new CSVTableModel();
+	final var loaded = FixedWidthOperations.loadFixedWidth(file.toString(), model, spec, _ -> {
+	}, () -> false);
+
+	assertThat(progress).hasSize(12).endsWith(120000);
+	assertThat(spec.getColumnCount()).isEqualTo(3);
+	assertThat(spec.hasHeader()).isTrue();
+	assertThat(loaded).isEqualTo(120000);
+	assertThat(model.getHeaders()).containsExactly("id", "name", "price");
+	for (var i = 0; i < loaded; i++) {
+	    assertThat(model.getRow(i)).isEqualTo(source.getRow(i));
+	}
+    }
+
+    @Test
+    void testLoadSplitsLinesOfDifferentLengths() throws IOException {
+	final var file = tempDir.resolve("feed.txt");
+	Files.writeString(file, "AB12  x\r\nCD345 yy\r\n\r\nEF6   zzzz\r\nGH7");
+	final var model = new CSVTableModel();
+
+	final var loaded = FixedWidthOperations.loadFixedWidth(file.toString(), model,
+		FixedWidthSpec.parse("2, 4, 2", false), _ -> {
+		}, () -> false);
+
+	assertThat(loaded).isEqualTo(4);
+	assertThat(model.getHeaders()).containsExactly("Column 1", "Column 2", "Column 3");
+	assertThat(model.getRow(0)).containsExactly("AB", "12", "x");
+	assertThat(model.getRow(2)).containsExactly("EF", "6", "zzzz");
+	assertThat(model.getRow(3)).containsExactly("GH", "7", "");
+    }
+
+    @Test
+    void testLoadFallsBackWhenRecordsAreMisaligned() throws IOException {
+	final var file = tempDir.resolve("feed.txt");
+	// Nine bytes are three records of the first line's length, but the lines differ
+	Files.writeString(file, "AB\nC\nDEF\n");
+	final var model = new CSVTableModel();
+
+	final var loaded = FixedWidthOperations.loadFixedWidth(file.toString(), model,
+		FixedWidthSpec.parse("1,3", false), _ -> {
+		}, () -> false);
+
+	assertThat(loaded).isEqualTo(3);
+	assertThat(model.getRow(0)).containsExactly("A", "B");
+	assertThat(model.getRow(1)).containsExactly("C", "");
+	assertThat(model.getRow(2)).containsExactly("D", "EF");
+    }
+
+    @Test
+    void testDetectSpecWithoutHeader() throws IOException {
+	final var file = tempDir.resolve("feed.fwf");
+	Files.writeString(file, "0001 SMITH     NY 120.50\n0002 JONES     CA   7.00\n0003 O'NEIL    TX  42.10\n");
+
+	final var spec = FixedWidthOperations.detectSpec(file.toString());
+
+	assertThat(spec.toString()).isEqualTo("5,10,3,6");
+	assertThat(spec.hasHeader()).isFalse();
+	assertThatThrownBy(() -> FixedWidthSpec.parse("5,0", false)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
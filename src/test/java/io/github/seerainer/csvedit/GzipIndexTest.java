@@ -0,0 +1,123 @@
+package io.github.seerainer.csvedit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.seerainer.csvedit.io.CSVParserUtil;
+import io.github.seerainer.csvedit.io.GzipIndex;
+
+@Tag("unit")
+class GzipIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    private byte[] content;
+    private Path gzipFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+	final var random = new Random(42);
+	final var sb = new StringBuilder("ID,Name,Value\n");
+	for (var i = 0; i < 50000; i++) {
+	    sb.append(i).append(",Name").append(random.nextInt(1000)).append(',').append(random.nextLong())
+		    .append('\n');
+	}
+	content = sb.toString().getBytes(StandardCharsets.UTF_8);
+	gzipFile = tempDir.resolve("data.csv.gz");
+	try (var out = new GZIPOutputStream(Files.newOutputStream(gzipFile))) {
+	    out.write(content);
+	}
+    }
+
+    @Test
+    void testBuildRecordsCheckpoints() throws IOException {
+	final var index = GzipIndex.build(gzipFile, 64 * 1024);
+
+	assertThat(index.getUncompressedSize()).isEqualTo(content.length);
+	assertThat(index.getCheckpoints()).hasSizeGreaterThan(5);
+	assertThat(index.getCheckpoints().get(0).getUncompressedOffset()).isGreaterThanOrEqualTo(64 * 1024);
+    }
+
+    @Test
+    void testOpenAtMatchesOriginalContent() throws IOException {
+	final var index = GzipIndex.build(gzipFile, 64 * 1024);
+	final var random = new Random(7);
+
+	for (var i = 0; i < 20; i++) {
+	    final var offset = random.nextInt(content.length);
+	    try (var in = index.openAt(gzipFile, offset)) {
+		final var actual = in.readNBytes(1000);
+		final var expected = Arrays.copyOfRange(content, offset, Math.min(content.length, offset + 1000));
+		assertThat(actual).isEqualTo(expected);
+	    }
+	}
+    }
+
+    @Test
+    void testSaveAndLoadRoundTrip() throws IOException {
+	final var index = GzipIndex.build(gzipFile, 64 * 1024);
+	index.save(gzipFile);
+
+	final var loaded = GzipIndex.load(gzipFile);
+
+	assertThat(GzipIndex.indexPath(gzipFile)).exists();
+	assertThat(loaded).isNotNull();
+	assertThat(loaded.getCheckpoints()).hasSameSizeAs(index.getCheckpoints());
+	try (var in = loaded.openAt(gzipFile, content.length - 10)) {
+	    assertThat(in.readAllBytes()).isEqualTo(Arrays.copyOfRange(content, content.length - 10, content.length));
+	}
+    }
+
+    @Test
+    void testStaleIndexIsIgnored() throws IOException {
+	GzipIndex.build(gzipFile, 64 * 1024).save(gzipFile);
+	try (var out = new GZIPOutputStream(Files.newOutputStream(gzipFile, StandardOpenOption.APPEND))) {
+	    out.write("more,data,here\n".getBytes(StandardCharsets.UTF_8));
+	}
+
+	assertThat(GzipIndex.load(gzipFile)).isNull();
+    }
+
+    @Test
+    void testFullParseDoesNotWriteIndex() throws IOException {
+	final var records = new int[1];
+
+	CSVParserUtil.parseFileWithCallback(gzipFile, _ -> records[0]++);
+
+	assertThat(records[0]).isEqualTo(50001);
+	assertThat(GzipIndex.indexPath(gzipFile)).doesNotExist();
+    }
+
+    @Test
+    void testLoadDefersWindowsUntilRead() throws IOException {
+	GzipIndex.build(gzipFile, 64 * 1024).save(gzipFile);
+	final var indexFile = GzipIndex.indexPath(gzipFile);
+	final var bytes = Files.readAllBytes(indexFile);
+	bytes[60] = (byte) 0xFF; // First byte of the first packed window: an invalid deflate block type
+	Files.write(indexFile, bytes);
+
+	final var loaded = GzipIndex.load(gzipFile);
+
+	assertThat(loaded).isNotNull();
+	try (var in = loaded.openAt(gzipFile, 10)) {
+	    assertThat(in.readNBytes(10)).isEqualTo(Arrays.copyOfRange(content, 10, 20));
+	}
+	final var corrupt = loaded.getCheckpoints().getFirst().getUncompressedOffset();
+	assertThatThrownBy(() -> loaded.openAt(gzipFile, corrupt)).isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,179 @@
+package io.github.seerainer.csvedit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.seerainer.csvedit.io.JSONOperations;
+import io.github.seerainer.csvedit.model.CSVTableModel;
+
+@Tag("integration")
+class JSONOperationsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testLoadConvertsScalarValues() throws IOException {
+	final var file = tempDir.resolve("data.json");
+	Files.writeString(file, """
+		{"meta": {"version": 1}, "headers": ["Name", "Age", "Active", "Note"],
+		 "rows": [["Alice", 30, true, null], ["Bob", 2.5, false, {"k": "v"}]]}
+		""");
+	final var model = new CSVTableModel();
+
+	JSONOperations.loadJSON(file.toString(), model);
+
+	assertThat(model.getHeaders()).containsExactly("Name", "Age", "Active", "Note");
+	assertThat(model.getRow(0)).containsExactly("Alice", "30", "true", "");
+	assertThat(model.getRow(1)).containsExactly("Bob", "2.5", "false", "{\"k\":\"v\"}");
+    }
+
+    @Test
+    void testLoadArrayOfObjectsFlattensNestedKeys() throws IOException {
+	final var file = tempDir.resolve("records.json");
+	Files.writeString(file, """
+		[{"id": 1, "name": "Alice", "address": {"city": "Rome", "geo": {"lat": 41.9}}},
+		 {"id": 2, "address": {"zip": "10115"}, "tags": ["a"]}]
+		""");
+	final var model = new CSVTableModel();
+
+	JSONOperations.loadJSON(file.toString(), model);
+
+	assertThat(model.getHeaders()).containsExactly("id", "name", "address.city", "address.geo.lat", "address.zip",
+		"tags");
+	assertThat(model.getRow(0)).containsExactly("1", "Alice", "Rome", "41.9", "", "");
+	assertThat(model.getRow(1)).containsExactly("2", "", "", "", "10115", "[\"a\"]");
+    }
+
+    @Test
+    void testLoadStreamsRowsInBatches() throws IOException {
+	final var file = tempDir.resolve("large.json");
+	final var source = new CSVTableModel();
+	source.setHeaders(List.of("id", "text"));
+	final List<List<String>> rows = new ArrayList<>();
+	for (var i = 0; i < 25000; i++) {
+	    rows.add(List.of(String.valueOf(i), "line \"" + i + "\"\nnext"));
+	}
+	source.setData(rows);
+	JSONOperations.saveJSON(file.toString(), source);
+	final List<Integer> progress = new ArrayList<>();
+	final var model = new CSVTableModel();
+
+	final var loaded = JSONOperations.loadJSON(file.toString(), model, progress::add, () -> false);
+
+	assertThat(loaded).isEqualTo(25000);
+	assertThat(progress).containsExactly(10000, 20000, 25000);
+	assertThat(model.getData()).isEqualTo(source.getData());
+    }
+
+    @Test
+    void testSaveCompactJSON() throws IOException {
+	final var file = tempDir.resolve("compact.json");
+	final var model = new CSVTableModel();
+	model.setHeaders(List.of("Name", "Quote"));
+	model.setData(List.of(List.of("Alice", "say \"hi\""), List.of("Bob", "a\nb")));
+	final List<Integer> progress = new ArrayList<>();
+
+	JSONOperations.saveJSON(file.toString(), model, true, (rowsWritten, _) -> progress.add(rowsWritten));
+
+	assertThat(Files.readString(file))
+		.isEqualTo("{\"headers\":[\"Name\",\"Quote\"],\"rows\":[[\"Alice\",\"say \\\"hi\\\"\"],[\"Bob\",\"a\\nb\"]]}");
+	assertThat(progress).containsExactly(2);
+	final var loaded = new CSVTableModel();
+	JSONOperations.loadJSON(file.toString(), loaded);
+	assertThat(loaded.getData()).isEqualTo(model.getData());
+    }
+
+    @Test
+    void testJSONLinesRoundTrip() throws IOException {
+	final var file = tempDir.resolve("data.jsonl");
+	final var model = new CSVTableModel();
+	model.setHeaders(List.of("id", "text"));
+	final List<List<String>> rows = new ArrayList<>();
+	for (var i = 0; i < 50000; i++) {
+	    rows.add(List.of(String.valueOf(i), "Zürich \"" + i + "\"\nnext"));
+	}
+	model.setData(rows);
+
+	JSONOperations.saveJSONLines(file.toString(), model, (_, _) -> {
+	});
+	final var loaded = new CSVTableModel();
+	final var rowCount = JSONOperations.loadJSONLines(file.toString(), loaded);
+
+	assertThat(Files.readAllLines(file).getFirst()).isEqualTo("[\"id\",\"text\"]");
+	assertThat(rowCount).isEqualTo(50000);
+	assertThat(loaded.getHeaders()).isEqualTo(model.getHeaders());
+	assertThat(loaded.getData()).isEqualTo(model.getData());
+    }
+
+    @Test
+    void testJSONLinesObjectsUseUnionOfKeys() throws IOException {
+	final var file = tempDir.resolve("objects.ndjson");
+	Files.writeString(file, """
+		{"id": 1, "name": "Alice"}
+		{"name": "Bob", "id": 2, "active": true}
+
+		{"id": 3, "tags": ["a", "b"]}
+		""");
+	final var model = new CSVTableModel();
+
+	JSONOperations.loadJSONLines(file.toString(), model);
+
+	assertThat(model.getHeaders()).containsExactly("id", "name", "active", "tags");
+	assertThat(model.getRow(0)).containsExactly("1", "Alice", "", "");
+	assertThat(model.getRow(1)).containsExactly("2", "Bob", "true", "");
+	assertThat(model.getRow(2)).containsExactly("3", "", "", "[\"a\",\"b\"]");
+    }
+
+    @Test
+    void testJSONLinesReportsProgressAndStopsWhenCancelled() throws IOException {
+	final var file = tempDir.resolve("cancel.jsonl");
+	final var content = new StringBuilder();
+	for (var i = 0; i < 300000; i++) {
+	    content.append("{\"n\": \"").append(i).append("\"}\n");
+	}
+	Files.writeString(file, content);
+	final List<Integer> progress = new ArrayList<>();
+	final var checks = new AtomicInteger();
+
+	final var complete = JSONOperations.loadJSONLines(file.toString(), new CSVTableModel(), progress::add,
+		() -> false);
+	final var model = new CSVTableModel();
+	final var rowCount = JSONOperations.loadJSONLines(file.toString(), model, _ -> {
+	}, () -> checks.incrementAndGet() > 1);
+
+	assertThat(complete).isEqualTo(300000);
+	assertThat(progress).hasSizeGreaterThan(1).endsWith(300000);
+	assertThat(rowCount).isLessThan(300000).isEqualTo(model.getRowCount());
+	for (var i = 0; i < rowCount; i++) {
+	    assertThat(model.getRow(i)).containsExactly(String.valueOf(i));
+	}
+    }
+
+    @Test
+    void testLoadStopsWhenCancelled() throws IOException {
+	final var file = tempDir.resolve("cancel.json");
+	final var content = new StringBuilder("{\"headers\": [\"n\"], \"rows\": [");
+	for (var i = 0; i < 30000; i++) {
+	    content.append(i == 0 ? "" : ",").append("[\"").append(i).append("\"]");
+	}
+	Files.writeString(file, content.append("]}"));
+	final var model = new CSVTableModel();
+	final var loaded = new int[1];
+
+	JSONOperations.loadJSON(file.toString(), model, rows -> loaded[0] = rows, () -> loaded[0] >= 10000);
+
+	assertThat(model.getRowCount()).isEqualTo(10000);
+	assertThat(model.getHeaders()).containsExactly("n");
+    }
+}
@@ -0,0 +1,129 @@
+package io.github.seerainer.csvedit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.seerainer.csvedit.io.CSVDialectSniffer;
+import io.github.seerainer.csvedit.io.CSVParserUtil;
+import io.github.seerainer.csvedit.io.LazyFieldReader;
+import io.github.seerainer.csvedit.model.CSVTableModel;
+import io.github.seerainer.csvedit.model.LazyRow;
+
+@Tag("integration")
+class LazyFieldReaderTest {
+
+    private static final int ROWS = 5_000;
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Every third row has a quoted note with delimiters, quotes and a line break
+     */
+    private static String createCsv() {
+	final var csv = new StringBuilder("\uFEFFid,note,city\r\n");
+	for (var i = 0; i < ROWS; i++) {
+	    final var note = i % 3 == 0 ? "\"first line\r\n" + i + ",x,\"\"y\"\"\"" : "note " + i;
+	    csv.append(i).append(',').append(note).append(",Zürich\r\n");
+	}
+	return csv.toString();
+    }
+
+    private static List<List<String>> read(final Path file, final List<String> headers) throws IOException {
+	// Small blocks make many records span two of them
+	return LazyFieldReader.read(file, 1024, CSVDialectSniffer.sniff(file), null, null, headers, _ -> {
+	}, () -> false);
+    }
+
+    /**
+     * Reads a file on demand and with the parser, which must split it into the
+     * same records and fields
+     */
+    private static void assertSameAsParser(final Path file) throws IOException {
+	final var dialect = CSVDialectSniffer.sniff(file);
+	final List<String> headers = new ArrayList<>();
+	final var rows = LazyFieldReader.read(file, 64, dialect, null, null, headers, _ -> {
+	}, () -> false);
+	final var parsed = CSVParserUtil.parseCSVBytes(Files.readAllBytes(file), dialect);
+
+	assertThat(headers).isEqualTo(parsed.getHeaders());
+	assertThat(rows).hasSize(parsed.getData().size());
+	for (var i = 0; i < rows.size(); i++) {
+	    assertThat(rows.get(i)).containsExactlyElementsOf(parsed.getData().get(i));
+	}
+    }
+
+    @Test
+    void testFieldsDecodedOnDemand() throws IOException {
+	final var file = tempDir.resolve("data.csv");
+	Files.writeString(file, createCsv(), StandardCharsets.UTF_8);
+
+	final List<String> headers = new ArrayList<>();
+	final var rows = read(file, headers);
+
+	assertThat(headers).containsExactly("id", "note", "city");
+	assertThat(rows).hasSize(ROWS);
+	for (var i = 0; i < ROWS; i++) {
+	    final var row = rows.get(i);
+	    assertThat(row).isInstanceOf(LazyRow.class);
+	    assertThat(row).containsExactly(String.valueOf(i), i % 3 == 0 ? "first line\n" + i + ",x,\"y\"" : "note " + i,
+		    "Zürich");
+	}
+    }
+
+    @Test
+    void testEditedRowsLeaveCopiesUnchanged() throws IOException {
+	final var file = tempDir.resolve("data.csv");
+	Files.writeString(file, "a,b\n1,\"x,y\"\n2,z");
+
+	final List<String> headers = new ArrayList<>();
+	final var rows = read(file, headers);
+	final var model = new CSVTableModel();
+	model.setHeaders(headers);
+	model.appendRows(rows);
+	final var snapshot = model.copy();
+
+	model.setValue(0, 1, "edited");
+	model.addColumn("new");
+	model.removeColumn(0);
+
+	assertThat(model.getRowView(0)).containsExactly("edited", "new");
+	assertThat(model.getRowView(1)).containsExactly("z", "new");
+	assertThat(snapshot.getRowView(0)).containsExactly("1", "x,y");
+	assertThat(snapshot.getRowView(1)).containsExactly("2", "z");
+    }
+
+    @Test
+    void testRecordsMatchParserWithQuotesInsideFields() throws IOException {
+	final var csv = new StringBuilder("id,size,note,code\r\n");
+	for (var i = 0; i < 200; i++) {
+	    csv.append(i).append(",5\" screen,\"said \"\"hi\"\",\r\nthen left\",a\"b\"c\r\n");
+	}
+	final var file = tempDir.resolve("quotes.csv");
+	Files.writeString(file, csv);
+
+	assertSameAsParser(file);
+    }
+
+    @Test
+    void testRecordsMatchParserWithEscapeCharacter() throws IOException {
+	final var csv = new StringBuilder("id,size,note,path\n");
+	for (var i = 0; i < 200; i++) {
+	    csv.append(i).append(",12\" pipe,\"said \\\"hi\\\",\r\nthen left\",\"C:\\\\tmp\"\n");
+	}
+	final var file = tempDir.resolve("escaped.csv");
+	Files.writeString(file, csv);
+
+	assertSameAsParser(file);
+    }
+}
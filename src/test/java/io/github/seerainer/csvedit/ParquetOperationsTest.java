@@ -0,0 +1,114 @@
+package io.github.seerainer.csvedit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.seerainer.csvedit.io.ParquetOperations;
+import io.github.seerainer.csvedit.model.CSVTableModel;
+
+@Tag("integration")
+class ParquetOperationsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRoundTripWritesRowGroupsOfFixedSize() throws IOException {
+	final var file = tempDir.resolve("data.parquet");
+	final var source = TestModels.createTyped(120000);
+	final List<Integer> progress = new ArrayList<>();
+
+	ParquetOperations.saveParquet(file.toString(), source, (rowsWritten, _) -> progress.add(rowsWritten));
+	final var model = new CSVTableModel();
+	final var loaded = ParquetOperations.loadParquet(file.toString(), model, null, _ -> {
+	}, () -> false);
+
+	assertThat(progress).containsExactly(100000, 120000);
+	assertThat(loaded).isEqualTo(120000);
+	assertThat(model.getHeaders()).isEqualTo(TestModels.TYPED_HEADERS);
+	assertThat(model.getData()).isEqualTo(source.getData());
+    }
+
+    @Test
+    void testFooterLengthPrecedesTrailingMagic() throws IOException {
+	final var file = tempDir.resolve("data.parquet");
+
+	ParquetOperations.saveParquet(file.toString(), TestModels.createTyped(10), (_, _) -> {
+	});
+
+	final var bytes = Files.readAllBytes(file);
+	final var footerLength = ByteBuffer.wrap(bytes, bytes.length - 8, 4).order(ByteOrder.LITTLE_ENDIAN).getInt();
+	assertThat(new String(bytes, 0, 4, StandardCharsets.US_ASCII)).isEqualTo("PAR1");
+	assertThat(new String(bytes, bytes.length - 4, 4, StandardCharsets.US_ASCII)).isEqualTo("PAR1");
+	assertThat(footerLength).isPositive().isLessThan(bytes.length - 12);
+    }
+
+    @Test
+    void testRepeatedValuesAreDictionaryEncoded() throws IOException {
+	final var model = TestModels.create(List.of("status"), 50000,
+		i -> List.of(i % 3 == 0 ? "pending approval" : "shipped to customer"));
+	final var file = tempDir.resolve("status.parquet");
+
+	ParquetOperations.saveParquet(file.toString(), model, (_, _) -> {
+	});
+	final var loaded = new CSVTableModel();
+	ParquetOperations.loadParquet(file.toString(), loaded);
+
+	// One bit per value instead of the text
+	assertThat(Files.size(file)).isLessThan(50000L);
+	assertThat(loaded.getData()).isEqualTo(model.getData());
+    }
+
+    @Test
+    void testLoadsSelectedColumnsOnly() throws IOException {
+	final var file = tempDir.resolve("data.parquet");
+	final var source = TestModels.createTyped(100);
+	ParquetOperations.saveParquet(file.toString(), source, (_, _) -> {
+	});
+	final var model = new CSVTableModel();
+
+	ParquetOperations.loadParquet(file.toString(), model, List.of("note", "id"), _ -> {
+	}, () -> false);
+
+	assertThat(ParquetOperations.getColumnNames(file.toString())).isEqualTo(TestModels.TYPED_HEADERS);
+	assertThat(model.getHeaders()).containsExactly("id", "note");
+	assertThat(model.getRowCount()).isEqualTo(100);
+	assertThat(model.getRowView(3)).containsExactly(source.getValue(3, 0), source.getValue(3, 4));
+    }
+
+    @Test
+    void testCancelledLoadKeepsWholeRowGroups() throws IOException {
+	final var file = tempDir.resolve("data.parquet");
+	ParquetOperations.saveParquet(file.toString(), TestModels.createTyped(150000), (_, _) -> {
+	});
+	final var model = new CSVTableModel();
+	final var loaded = new int[1];
+
+	ParquetOperations.loadParquet(file.toString(), model, null, rows -> loaded[0] = rows,
+		() -> loaded[0] >= 100000);
+
+	assertThat(model.getRowCount()).isEqualTo(100000);
+    }
+
+    @Test
+    void testRejectsEmptyFooter() throws IOException {
+	final var file = Files.write(tempDir.resolve("truncated.parquet"),
+		"PAR1\0\0\0\0PAR1".getBytes(StandardCharsets.US_ASCII));
+
+	assertThatThrownBy(() -> ParquetOperations.loadParquet(file.toString(), new CSVTableModel()))
+		.isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,44 @@
+package io.github.seerainer.csvedit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import io.github.seerainer.csvedit.io.RowFilter;
+
+@Tag("unit")
+class RowFilterTest {
+
+    private static final List<String> COLUMNS = List.of("id", "region", "amount", "Customer Name");
+
+    @SuppressWarnings("static-method")
+    @Test
+    void testConditionsCompareNumbersAndText() {
+	final var filter = RowFilter.parse("region = EU and amount >= 1e3", COLUMNS);
+
+	assertThat(filter.test(List.of("1", "EU", "1000.0", "A"))).isTrue();
+	assertThat(filter.test(List.of("2", "EU", "999", "B"))).isFalse();
+	assertThat(filter.test(List.of("3", "US", "5000", "C"))).isFalse();
+	// Text is compared as text, so 900 sorts after 1000
+	assertThat(RowFilter.parse("amount > \"1000\" and amount < x", COLUMNS).test(List.of("4", "EU", "900")))
+		.isTrue();
+	assertThat(RowFilter.parse("\"customer name\" contains \"and Sons\"", COLUMNS)
+		.test(List.of("5", "EU", "1", "Smith and Sons"))).isTrue();
+	// Missing fields are empty
+	assertThat(RowFilter.parse("Customer Name != Smith", COLUMNS).test(List.of("6"))).isTrue();
+    }
+
+    @SuppressWarnings("static-method")
+    @Test
+    void testInvalidConditionsAreRejected() {
+	assertThatThrownBy(() -> RowFilter.parse("  ", COLUMNS)).isInstanceOf(IllegalArgumentException.class);
+	assertThatThrownBy(() -> RowFilter.parse("region EU", COLUMNS)).isInstanceOf(IllegalArgumentException.class)
+		.hasMessageContaining("region EU");
+	assertThatThrownBy(() -> RowFilter.parse("country = EU", COLUMNS)).isInstanceOf(IllegalArgumentException.class)
+		.hasMessageContaining("country");
+    }
+}
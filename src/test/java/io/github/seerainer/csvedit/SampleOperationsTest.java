@@ -0,0 +1,184 @@
+package io.github.seerainer.csvedit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.seerainer.csvedit.io.CSVDialectSniffer;
+import io.github.seerainer.csvedit.io.CheckpointIndex;
+import io.github.seerainer.csvedit.io.GzipIndex;
+import io.github.seerainer.csvedit.io.SampleOperations;
+import io.github.seerainer.csvedit.model.CSVTableModel;
+
+@Tag("integration")
+class SampleOperationsTest {
+
+    private static final int ROWS = 50_000;
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Every third row has a quoted note spanning lines that look like records
+     */
+    private static String createCsv() {
+	final var csv = new StringBuilder("id,note,value\n");
+	for (var i = 0; i < ROWS; i++) {
+	    final var note = i % 3 == 0 ? "\"first line\n" + i + ",x,\"\"y\"\"\"" : "note " + i;
+	    csv.append(i).append(',').append(note).append(',').append(i * 2).append('\n');
+	}
+	return csv.toString();
+    }
+
+    private static int load(final Path file, final SampleOperations.Mode mode, final CSVTableModel model)
+	    throws IOException {
+	return SampleOperations.loadSample(file, CSVDialectSniffer.sniff(file), model, mode, 500, _ -> {
+	}, () -> false);
+    }
+
+    private static void assertRowsIntact(final CSVTableModel model) {
+	assertThat(model.getHeaders()).containsExactly("id", "note", "value");
+	var previous = -1;
+	for (var i = 0; i < model.getRowCount(); i++) {
+	    final var id = Integer.parseInt(model.getValue(i, 0));
+	    assertThat(id).isGreaterThan(previous);
+	    assertThat(model.getValue(i, 1)).isEqualTo(id % 3 == 0 ? "first line\n" + id + ",x,\"y\"" : "note " + id);
+	    assertThat(model.getValue(i, 2)).isEqualTo(String.valueOf(id * 2));
+	    previous = id;
+	}
+    }
+
+    @Test
+    void testHeadAndTailSample() throws IOException {
+	final var file = tempDir.resolve("data.csv");
+	Files.writeString(file, createCsv());
+
+	final var head = new CSVTableModel();
+	final var tail = new CSVTableModel();
+
+	assertThat(load(file, SampleOperations.Mode.HEAD, head)).isEqualTo(500);
+	assertThat(load(file, SampleOperations.Mode.TAIL, tail)).isEqualTo(500);
+	assertRowsIntact(head);
+	assertRowsIntact(tail);
+	assertThat(head.getValue(0, 0)).isEqualTo("0");
+	assertThat(head.getValue(499, 0)).isEqualTo("499");
+	assertThat(tail.getValue(0, 0)).isEqualTo(String.valueOf(ROWS - 500));
+	assertThat(tail.getValue(499, 0)).isEqualTo(String.valueOf(ROWS - 1));
+    }
+
+    @Test
+    void testTailOfCompressedFile() throws IOException {
+	final var file = tempDir.resolve("data.csv.gz");
+	try (var out = new GZIPOutputStream(Files.newOutputStream(file))) {
+	    out.write(createCsv().getBytes());
+	}
+
+	final var model = new CSVTableModel();
+
+	assertThat(load(file, SampleOperations.Mode.TAIL, model)).isEqualTo(500);
+	assertRowsIntact(model);
+	assertThat(model.getValue(0, 0)).isEqualTo(String.valueOf(ROWS - 500));
+	// Without an index the tail is read from the start, which leaves no .gzi file
+	assertThat(GzipIndex.indexPath(file)).doesNotExist();
+    }
+
+    @Test
+    void testIndexedCompressedFileIsReadFromCheckpoints() throws IOException {
+	final var file = tempDir.resolve("indexed.csv.gz");
+	try (var out = new GZIPOutputStream(Files.newOutputStream(file))) {
+	    out.write(createCsv().getBytes());
+	}
+	GzipIndex.build(file, 64 * 1024).save(file);
+	final var dialect = CSVDialectSniffer.sniff(file);
+
+	final var tail = new CSVTableModel();
+	final var window = new CSVTableModel();
+
+	assertThat(CheckpointIndex.isIndexable(file, dialect)).isTrue();
+	assertThat(load(file, SampleOperations.Mode.TAIL, tail)).isEqualTo(500);
+	assertThat(SampleOperations.loadWindow(file, dialect, window, 43_210, 100, () -> false)).isEqualTo(100);
+	assertRowsIntact(tail);
+	assertRowsIntact(window);
+	assertThat(tail.getValue(0, 0)).isEqualTo(String.valueOf(ROWS - 500));
+	assertThat(window.getValue(0, 0)).isEqualTo("43210");
+	assertThat(window.getValue(99, 0)).isEqualTo("43309");
+    }
+
+    @Test
+    void testRandomSampleKeepsFileOrder() throws IOException {
+	final var file = tempDir.resolve("data.csv");
+	Files.writeString(file, createCsv());
+
+	final var model = new CSVTableModel();
+
+	assertThat(load(file, SampleOperations.Mode.RANDOM, model)).isEqualTo(500);
+	assertRowsIntact(model);
+	// A uniform sample of 500 out of 50,000 rows almost surely reaches both halves
+	assertThat(Integer.parseInt(model.getValue(0, 0))).isLessThan(ROWS / 2);
+	assertThat(Integer.parseInt(model.getValue(499, 0))).isGreaterThanOrEqualTo(ROWS / 2);
+    }
+
+    @Test
+    void testWindowSeeksFromCheckpoint() throws IOException {
+	final var file = tempDir.resolve("data.csv");
+	Files.writeString(file, createCsv());
+	final var dialect = CSVDialectSniffer.sniff(file);
+
+	final var model = new CSVTableModel();
+	final var beyond = new CSVTableModel();
+
+	assertThat(SampleOperations.loadWindow(file, dialect, model, 43_210, 100, () -> false)).isEqualTo(100);
+	assertThat(SampleOperations.loadWindow(file, dialect, beyond, ROWS, 100, () -> false)).isZero();
+	assertRowsIntact(model);
+	assertThat(model.getValue(0, 0)).isEqualTo("43210");
+	assertThat(model.getValue(99, 0)).isEqualTo("43309");
+	assertThat(CheckpointIndex.forFile(file, dialect).getRecordCount()).isGreaterThan(43_210);
+    }
+
+    @Test
+    void testTailWithQuotesInsideFields() throws IOException {
+	final var csv = new StringBuilder("id,size,note\n");
+	for (var i = 0; i < ROWS; i++) {
+	    csv.append(i).append(",20\" screen,").append(i % 3 == 0 ? "\"x\ny,z\"" : "c").append('\n');
+	}
+	final var file = tempDir.resolve("screens.csv");
+	Files.writeString(file, csv);
+
+	final var model = new CSVTableModel();
+
+	assertThat(load(file, SampleOperations.Mode.TAIL, model)).isEqualTo(500);
+	for (var i = 0; i < 500; i++) {
+	    final var id = ROWS - 500 + i;
+	    assertThat(model.getRowView(i)).containsExactly(String.valueOf(id), "20\" screen",
+		    id % 3 == 0 ? "x\ny,z" : "c");
+	}
+    }
+
+    @Test
+    void testWindowWithQuotesInsideFields() throws IOException {
+	final var csv = new StringBuilder("id,size,value\n");
+	for (var i = 0; i < ROWS; i++) {
+	    csv.append(i).append(',').append(i % 7 + 20).append("\" screen,").append(i * 2).append('\n');
+	}
+	final var file = tempDir.resolve("screens.csv");
+	Files.writeString(file, csv);
+	final var dialect = CSVDialectSniffer.sniff(file);
+
+	final var model = new CSVTableModel();
+	final var index = CheckpointIndex.forFile(file, dialect);
+
+	assertThat(SampleOperations.loadWindow(file, dialect, model, 43_210, 100, () -> false)).isEqualTo(100);
+	assertThat(model.getRowView(0)).containsExactly("43210", 43_210 % 7 + 20 + "\" screen", "86420");
+	assertThat(model.getValue(99, 0)).isEqualTo("43309");
+	// The quotes do not hide any line break, so every record is counted
+	assertThat(index.seek(ROWS + 1, () -> false)).isEqualTo(Files.size(file));
+	assertThat(index.getRecordCount()).isEqualTo(ROWS + 1);
+    }
+}
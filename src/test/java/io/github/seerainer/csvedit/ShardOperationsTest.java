@@ -0,0 +1,130 @@
+package io.github.seerainer.csvedit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.seerainer.csvedit.io.JSONOperations;
+import io.github.seerainer.csvedit.io.ShardOperations;
+import io.github.seerainer.csvedit.model.CSVTableModel;
+
+@Tag("integration")
+class ShardOperationsTest {
+
+    @TempDir
+    Path tempDir;
+
+    private void writeShards(final int count, final int rowsPerShard) throws IOException {
+	for (var shard = 0; shard < count; shard++) {
+	    // One shard lists its columns in a different order
+	    final var reordered = shard == 2;
+	    final var csv = new StringBuilder(reordered ? "name,id\n" : "id,name\n");
+	    for (var row = 0; row < rowsPerShard; row++) {
+		final var id = shard * rowsPerShard + row;
+		csv.append(reordered ? "n" + id + "," + id : id + ",n" + id).append('\n');
+	    }
+	    Files.writeString(tempDir.resolve("part-%d.csv".formatted(Integer.valueOf(shard))), csv);
+	}
+    }
+
+    @Test
+    void testLoadConcatenatesShardsInNaturalOrder() throws IOException {
+	writeShards(12, 500);
+	Files.writeString(tempDir.resolve("README.md"), "not a shard");
+
+	final var shards = ShardOperations.resolveShards(tempDir.toString());
+	final var model = new CSVTableModel();
+	final var loaded = ShardOperations.loadShards(shards, model, true, _ -> {
+	}, () -> false);
+
+	assertThat(shards).hasSize(12);
+	assertThat(shards.get(10).getFileName()).hasToString("part-10.csv");
+	assertThat(loaded).isEqualTo(6000);
+	assertThat(model.getHeaders()).containsExactly("id", "name", ShardOperations.SOURCE_COLUMN);
+	for (var i = 0; i < loaded; i++) {
+	    assertThat(model.getValue(i, 0)).isEqualTo(String.valueOf(i));
+	    assertThat(model.getValue(i, 1)).isEqualTo("n" + i);
+	}
+	assertThat(model.getRow(1000)).containsExactly("1000", "n1000", "part-2.csv");
+    }
+
+    @Test
+    void testResolveShardsByGlobPattern() throws IOException {
+	writeShards(12, 1);
+
+	final var shards = ShardOperations.resolveShards(tempDir.resolve("part-1?.csv").toString());
+
+	assertThat(shards).extracting(path -> path.getFileName().toString()).containsExactly("part-10.csv",
+		"part-11.csv");
+	assertThatThrownBy(() -> ShardOperations.resolveShards(tempDir.resolve("none-*.csv").toString()))
+		.isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void testLoadRejectsShardsWithOtherColumns() throws IOException {
+	writeShards(3, 10);
+	Files.writeString(tempDir.resolve("part-3.csv"), "id,other\n1,2\n");
+
+	final var shards = ShardOperations.resolveShards(tempDir.toString());
+
+	assertThatThrownBy(() -> ShardOperations.loadShards(shards, new CSVTableModel(), false, _ -> {
+	}, () -> false)).isInstanceOf(IOException.class).hasMessageContaining("part-3.csv");
+    }
+
+    private static CSVTableModel createRegions(final int rowCount) {
+	return TestModels.create(List.of("id", "region"), rowCount,
+		i -> List.of(String.valueOf(i), i % 3 == 0 ? "EU" : "US/CA"));
+    }
+
+    @Test
+    void testSaveShardsByRowsAndSizeRoundTrip() throws IOException {
+	final var model = createRegions(10_000);
+
+	final var byRows = ShardOperations.saveShardsByRows(tempDir.resolve("rows.csv.gz").toString(), model, 3000,
+		(_, _) -> {
+		});
+	final var bySize = ShardOperations.saveShardsBySize(tempDir.resolve("size.csv").toString(), model, 20_000,
+		(_, _) -> {
+		});
+
+	assertThat(byRows).extracting(path -> path.getFileName().toString()).containsExactly("rows-00000.csv.gz",
+		"rows-00001.csv.gz", "rows-00002.csv.gz", "rows-00003.csv.gz");
+	assertThat(bySize).hasSizeGreaterThan(1);
+	for (final var shard : bySize) {
+	    assertThat(Files.size(shard)).isLessThanOrEqualTo(20_000);
+	    assertThat(Files.readAllLines(shard).getFirst()).isEqualTo("id,region");
+	}
+	for (final var shards : List.of(byRows, bySize)) {
+	    final var reloaded = new CSVTableModel();
+	    ShardOperations.loadShards(shards, reloaded, false, _ -> {
+	    }, () -> false);
+	    assertThat(reloaded.getRowCount()).isEqualTo(10_000);
+	    assertThat(reloaded.getRow(9999)).containsExactly("9999", "EU");
+	}
+    }
+
+    @Test
+    void testSaveShardsByKeyColumn() throws IOException {
+	final var model = createRegions(100);
+
+	final var shards = ShardOperations.saveShardsByKey(tempDir.resolve("regions.json").toString(), model, 1,
+		(_, _) -> {
+		});
+
+	assertThat(shards).extracting(path -> path.getFileName().toString()).containsExactly("regions-EU.json",
+		"regions-US_CA.json");
+	final var europe = new CSVTableModel();
+	JSONOperations.loadJSON(shards.getFirst().toString(), europe);
+	assertThat(europe.getRowCount()).isEqualTo(34);
+	assertThat(europe.getHeaders()).containsExactly("id", "region");
+	assertThat(europe.getRow(1)).containsExactly("3", "EU");
+    }
+}
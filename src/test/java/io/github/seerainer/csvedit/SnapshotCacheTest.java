@@ -0,0 +1,82 @@
+package io.github.seerainer.csvedit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.seerainer.csvedit.io.CSVDialectSniffer;
+import io.github.seerainer.csvedit.io.CSVFileSource;
+import io.github.seerainer.csvedit.io.FileOperations;
+import io.github.seerainer.csvedit.io.SnapshotCache;
+import io.github.seerainer.csvedit.model.CSVTableModel;
+
+@Tag("integration")
+class SnapshotCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path createFile(final int rows) throws IOException {
+	final var file = tempDir.resolve("data.csv");
+	final var content = new StringBuilder("id,city,note\n");
+	for (var i = 0; i < rows; i++) {
+	    content.append(i).append(",City").append(i % 300).append(",\"a, \"\"b\"\" Zürich\"\n");
+	}
+	Files.writeString(file, content);
+	return file;
+    }
+
+    @Test
+    void testSnapshotRoundTrip() throws IOException {
+	final var file = createFile(1000);
+	final var cacheDir = tempDir.resolve("cache");
+	final var dialect = CSVDialectSniffer.sniff(file);
+	final var parsed = new CSVTableModel();
+	FileOperations.loadCSV(file.toString(), parsed, dialect);
+
+	SnapshotCache.store(cacheDir, CSVFileSource.capture(file, dialect), parsed.copy());
+	final var restored = new CSVTableModel();
+
+	assertThat(SnapshotCache.load(cacheDir, file, dialect, restored)).isTrue();
+	assertThat(restored.getHeaders()).isEqualTo(parsed.getHeaders());
+	assertThat(restored.getData()).isEqualTo(parsed.getData());
+    }
+
+    @Test
+    void testCancelledLoadLeavesModelUnchanged() throws IOException {
+	final var file = createFile(1000);
+	final var cacheDir = tempDir.resolve("cache");
+	final var dialect = CSVDialectSniffer.sniff(file);
+	final var parsed = new CSVTableModel();
+	FileOperations.loadCSV(file.toString(), parsed, dialect);
+	SnapshotCache.store(cacheDir, CSVFileSource.capture(file, dialect), parsed.copy());
+	final var model = new CSVTableModel();
+	model.addColumn("");
+	model.addRow(List.of("kept"));
+
+	assertThat(SnapshotCache.load(cacheDir, file, dialect, model, () -> true)).isFalse();
+	assertThat(model.getData()).containsExactly(List.of("kept"));
+    }
+
+    @Test
+    void testSnapshotIsIgnoredForChangedFile() throws IOException {
+	final var file = createFile(10);
+	final var cacheDir = tempDir.resolve("cache");
+	final var dialect = CSVDialectSniffer.sniff(file);
+	final var parsed = new CSVTableModel();
+	FileOperations.loadCSV(file.toString(), parsed, dialect);
+	SnapshotCache.store(cacheDir, CSVFileSource.capture(file, dialect), parsed.copy());
+
+	Files.writeString(file, "10,City10,x\n", StandardOpenOption.APPEND);
+
+	assertThat(SnapshotCache.load(cacheDir, file, dialect, new CSVTableModel())).isFalse();
+    }
+}
@@ -0,0 +1,46 @@
+package io.github.seerainer.csvedit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import io.github.seerainer.csvedit.model.CSVTableModel;
+
+/**
+ * Builds the tables written and read by the file format tests
+ */
+final class TestModels {
+
+    static final List<String> TYPED_HEADERS = List.of("id", "price", "active", "name", "note");
+
+    private TestModels() {
+	throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Creates a table with integer, decimal and boolean columns that have empty
+     * values, a text column with characters that need escaping and a sparse
+     * text column with surrounding spaces
+     */
+    static CSVTableModel createTyped(final int rowCount) {
+	return create(TYPED_HEADERS, rowCount,
+		i -> List.of(String.valueOf(i - 5), i % 7 == 0 ? "" : String.valueOf(i * 0.5),
+			i % 5 == 4 ? "" : String.valueOf(i % 3 == 0), "Zürich <" + i % 4 + "> & \"co\"",
+			i % 2 == 0 ? "" : " padded "));
+    }
+
+    /**
+     * Creates a table from the values of each row
+     */
+    static CSVTableModel create(final List<String> headers, final int rowCount,
+	    final IntFunction<List<String>> row) {
+	final var model = new CSVTableModel();
+	model.setHeaders(headers);
+	final List<List<String>> rows = new ArrayList<>(rowCount);
+	for (var i = 0; i < rowCount; i++) {
+	    rows.add(new ArrayList<>(row.apply(i)));
+	}
+	model.setData(rows);
+	return model;
+    }
+}
@@ -0,0 +1,114 @@
+package io.github.seerainer.csvedit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.seerainer.csvedit.io.XLSXOperations;
+import io.github.seerainer.csvedit.model.CSVTableModel;
+
+@Tag("integration")
+class XLSXOperationsTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static void putEntry(final ZipOutputStream zip, final String name, final String content)
+	    throws IOException {
+	zip.putNextEntry(new ZipEntry(name));
+	zip.write(content.getBytes(StandardCharsets.UTF_8));
+	zip.closeEntry();
+    }
+
+    @Test
+    void testRoundTripKeepsMarkupAndSpaces() throws IOException {
+	final var file = tempDir.resolve("data.xlsx");
+	final var source = TestModels.createTyped(25000);
+	final List<Integer> progress = new ArrayList<>();
+
+	XLSXOperations.saveXLSX(file.toString(), source, (rowsWritten, _) -> progress.add(rowsWritten));
+	final var model = new CSVTableModel();
+	final var loaded = XLSXOperations.loadXLSX(file.toString(), model, (_, _, _) -> {
+	}, () -> false);
+
+	assertThat(progress).containsExactly(10000, 20000, 25000);
+	assertThat(loaded).isEqualTo(25000);
+	assertThat(model.getHeaders()).isEqualTo(TestModels.TYPED_HEADERS);
+	assertThat(model.getData()).isEqualTo(source.getData());
+	assertThat(model.getRowView(1)).contains("Zürich <1> & \"co\"", " padded ");
+    }
+
+    @Test
+    void testWritesTypedCellsAndSharedStrings() throws IOException {
+	final var file = tempDir.resolve("data.xlsx");
+
+	XLSXOperations.saveXLSX(file.toString(), TestModels.createTyped(10), (_, _) -> {
+	});
+
+	try (var zip = new ZipFile(file.toFile())) {
+	    assertThat(zip.getEntry("[Content_Types].xml")).isNotNull();
+	    assertThat(zip.getEntry("xl/workbook.xml")).isNotNull();
+	    final var sheet = new String(zip.getInputStream(zip.getEntry("xl/worksheets/sheet1.xml")).readAllBytes(),
+		    StandardCharsets.UTF_8);
+	    final var sharedStrings = new String(
+		    zip.getInputStream(zip.getEntry("xl/sharedStrings.xml")).readAllBytes(), StandardCharsets.UTF_8);
+	    assertThat(sheet).contains("<c r=\"A2\"><v>-5</v></c>").contains("<c r=\"C2\" t=\"b\"><v>1</v></c>");
+	    // Four distinct names, each stored once
+	    assertThat(sharedStrings).containsOnlyOnce("Zürich &lt;1&gt; &amp; \"co\"");
+	}
+    }
+
+    @Test
+    void testReadsSheetWrittenByExcel() throws IOException {
+	final var file = tempDir.resolve("excel.xlsx");
+	try (OutputStream out = Files.newOutputStream(file); var zip = new ZipOutputStream(out)) {
+	    putEntry(zip, "xl/workbook.xml", "<workbook xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\""
+		    + " xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\">"
+		    + "<sheets><sheet name=\"Data\" sheetId=\"1\" r:id=\"rId4\"/></sheets></workbook>");
+	    putEntry(zip, "xl/_rels/workbook.xml.rels",
+		    "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+			    + "<Relationship Id=\"rId4\" Type=\"worksheet\" Target=\"worksheets/data.xml\"/>"
+			    + "</Relationships>");
+	    putEntry(zip, "xl/sharedStrings.xml", "<sst><si><t>Name</t></si><si><t>Date</t></si>"
+		    + "<si><r><t>Bo</t></r><r><t>ld</t></r><rPh><t>x</t></rPh></si></sst>");
+	    putEntry(zip, "xl/styles.xml", "<styleSheet><cellXfs><xf numFmtId=\"0\"/><xf numFmtId=\"14\"/>"
+		    + "</cellXfs></styleSheet>");
+	    putEntry(zip, "xl/worksheets/data.xml", "<worksheet><sheetData>"
+		    + "<row r=\"1\"><c r=\"A1\" t=\"s\"><v>0</v></c><c r=\"C1\" t=\"s\"><v>1</v></c></row>"
+		    + "<row r=\"2\"><c r=\"A2\" t=\"s\"><v>2</v></c><c r=\"B2\"><f>1+1</f><v>2</v></c>"
+		    + "<c r=\"C2\" s=\"1\"><v>45292</v></c></row>"
+		    + "<row r=\"4\"><c r=\"A4\" t=\"inlineStr\"><is><t>inline</t></is></c>"
+		    + "<c r=\"B4\" t=\"b\"><v>1</v></c></row></sheetData></worksheet>");
+	}
+	final var model = new CSVTableModel();
+
+	XLSXOperations.loadXLSX(file.toString(), model);
+
+	assertThat(model.getHeaders()).containsExactly("Name", "", "Date");
+	assertThat(model.getRowView(0)).containsExactly("Bold", "2", "2024-01-01");
+	assertThat(model.getRowView(1)).containsExactly("", "", "");
+	assertThat(model.getRowView(2)).containsExactly("inline", "true", "");
+    }
+
+    @Test
+    void testRejectsFileThatIsNotAWorkbook() throws IOException {
+	final var file = Files.writeString(tempDir.resolve("broken.xlsx"), "not a zip file");
+
+	assertThatThrownBy(() -> XLSXOperations.loadXLSX(file.toString(), new CSVTableModel()))
+		.isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,94 @@
+package io.github.seerainer.csvedit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.seerainer.csvedit.io.XMLOperations;
+import io.github.seerainer.csvedit.model.CSVTableModel;
+
+@Tag("integration")
+class XMLOperationsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testLoadStreamsRowsInBatches() throws IOException {
+	final var file = tempDir.resolve("large.xml");
+	final var source = TestModels.createTyped(25000);
+	XMLOperations.saveXML(file.toString(), source);
+	final List<Integer> rowProgress = new ArrayList<>();
+	final List<Long> byteProgress = new ArrayList<>();
+	final var model = new CSVTableModel();
+
+	final var loaded = XMLOperations.loadXML(file.toString(), model, (rows, bytesRead, totalBytes) -> {
+	    rowProgress.add(Integer.valueOf(rows));
+	    byteProgress.add(Long.valueOf(bytesRead));
+	    assertThat(totalBytes).isEqualTo(file.toFile().length());
+	}, () -> false);
+
+	assertThat(loaded).isEqualTo(25000);
+	assertThat(rowProgress).containsExactly(10000, 20000, 25000);
+	assertThat(byteProgress).isSorted().last().isEqualTo(file.toFile().length());
+	assertThat(model.getHeaders()).isEqualTo(TestModels.TYPED_HEADERS);
+	assertThat(model.getData()).isEqualTo(source.getData());
+    }
+
+    @Test
+    void testLoadStopsWhenCancelled() throws IOException {
+	final var file = tempDir.resolve("cancel.xml");
+	XMLOperations.saveXML(file.toString(), TestModels.createTyped(30000));
+	final var model = new CSVTableModel();
+	final var loaded = new int[1];
+
+	XMLOperations.loadXML(file.toString(), model, (rows, _, _) -> loaded[0] = rows, () -> loaded[0] >= 10000);
+
+	assertThat(model.getRowCount()).isEqualTo(10000);
+	assertThat(model.getHeaders()).isEqualTo(TestModels.TYPED_HEADERS);
+    }
+
+    @Test
+    void testRoundTripKeepsWhitespaceInCells() throws IOException {
+	final var file = tempDir.resolve("spaces.xml");
+	final var source = new CSVTableModel();
+	source.setHeaders(List.of("a", "b", "c"));
+	source.setData(List.of(List.of("<1> & <2>", "  ", " x ")));
+
+	XMLOperations.saveXML(file.toString(), source);
+	final var model = new CSVTableModel();
+	XMLOperations.loadXML(file.toString(), model);
+
+	assertThat(model.getData()).isEqualTo(source.getData());
+    }
+
+    @Test
+    void testLoadReplacesExistingData() throws IOException {
+	final var file = tempDir.resolve("small.xml");
+	Files.writeString(file, """
+		<?xml version="1.0" encoding="UTF-8"?>
+		<csv>
+		  <headers><header>Name</header><header>City</header></headers>
+		  <rows>
+		    <row><cell>Alice</cell><cell>Rome</cell></row>
+		    <row><cell>Bob</cell></row>
+		  </rows>
+		</csv>
+		""");
+	final var model = TestModels.createTyped(3);
+
+	XMLOperations.loadXML(file.toString(), model);
+
+	assertThat(model.getHeaders()).containsExactly("Name", "City");
+	assertThat(model.getRowCount()).isEqualTo(2);
+	assertThat(model.getRow(1)).containsExactly("Bob", "");
+    }
+}